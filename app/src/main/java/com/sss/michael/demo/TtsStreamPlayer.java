@@ -17,6 +17,7 @@ import com.sss.michael.exo.callback.ExoControllerWrapper;
 import com.sss.michael.exo.callback.IExoControlComponent;
 import com.sss.michael.exo.callback.SimpleExoNotifyCallBack;
 import com.sss.michael.exo.component.ExoShortVideoSimpleControlBarView;
+import com.sss.michael.exo.constant.ExoPcmBackpressureMode;
 import com.sss.michael.exo.constant.ExoPlaybackState;
 import com.sss.michael.exo.core.ExoPlayerInfo;
 import com.sss.michael.exo.util.ExoLog;
@@ -107,41 +108,21 @@ public class TtsStreamPlayer {
      */
     private static final int FORCED_TTS_CHUNK_CHAR_COUNT = 80;
 
-    /**
-     * 本地 PCM 排队达到该时长后，暂缓继续向腾讯云提交后续文本。
-     *
-     * <p>该阈值只用于音频回调侧的高低水位控制，不再参与文本提交流程。
-     * 文本提交流程会严格对齐官方 demo：只做 {@code start -> process* -> stop}。
-     */
-    private static final long PCM_QUEUE_HIGH_WATER_MARK_MS = 12_000L;
-
     /**
      * demo 允许播放器缓存的最大 PCM 时长。
      *
-     * <p>长文本朗读场景下，腾讯云在单个分段内仍可能连续回出较长音频，因此 demo 需要比默认值更宽的缓冲窗口，
-     * 否则很容易在后半段进入“连续拒绝追加”的状态。
-     */
-    private static final long DEMO_MAX_QUEUED_DURATION_MS = 120_000L;
-
-    /**
-     * 背压等待轮询间隔。
-     */
-    private static final long PCM_QUEUE_WAIT_INTERVAL_MS = 40L;
-
-    /**
-     * 音频回调侧的阻塞阈值。
-     *
-     * <p>一旦播放器内部待播时长达到该阈值，就在腾讯云的音频回调侧短暂等待，
+     * <p>长文本朗读场景下，腾讯云在单个分段内仍可能连续回出较长音频，因此 demo 需要比默认值更宽的缓冲窗口。
+     * 达到该时长后，播放器按 {@link ExoPcmBackpressureMode#BLOCK} 策略阻塞腾讯云的音频回调线程，
      * 用接近官方 demo 直接 {@code AudioTrack.write(...)} 的方式把“播放速度”反向传导给云端回包。
      */
-    private static final long PCM_APPEND_BLOCK_HIGH_WATER_MARK_MS = 18_000L;
+    private static final long DEMO_MAX_QUEUED_DURATION_MS = 120_000L;
 
     /**
-     * 音频回调侧解除阻塞的目标阈值。
+     * 单次追加的背压最长等待时间。
      *
-     * <p>使用高低水位而不是单点阈值，可以避免队列时长贴着单一边界来回抖动。
+     * <p>等待超时后回到回调循环检查是否已停止，再继续追加剩余数据；暂停播放时不会因此丢音频。
      */
-    private static final long PCM_APPEND_BLOCK_LOW_WATER_MARK_MS = 12_000L;
+    private static final long PCM_APPEND_BLOCK_TIMEOUT_MS = 500L;
 
     private static final long PCM_STREAM_COMPLETE_GRACE_MS = 300L;
 
@@ -392,7 +373,9 @@ public class TtsStreamPlayer {
                 .setSampleRateHz(SAMPLE_RATE_HZ)
                 .setChannelCount(CHANNEL_COUNT)
                 .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
-                .setMaxQueuedDurationMs(DEMO_MAX_QUEUED_DURATION_MS));
+                .setMaxQueuedDurationMs(DEMO_MAX_QUEUED_DURATION_MS)
+                .setBackpressureMode(ExoPcmBackpressureMode.BLOCK)
+                .setBackpressureTimeoutMs(PCM_APPEND_BLOCK_TIMEOUT_MS));
         // startPcmStream 会重建底层 AudioTrack，因此每次新会话开始后都要重新应用当前倍速。
         applyPlaybackSpeed();
 
@@ -598,21 +581,21 @@ public class TtsStreamPlayer {
                     return;
                 }
                 try {
-                    byte[] audioData = new byte[buffer.remaining()];
-                    buffer.get(audioData);
-                    try {
-                        waitForAppendCapacity();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        if (!stopRequested) {
-                            handleFailure("音频回调线程等待播放器队列回落时被中断");
+                    // 播放器在队列满时阻塞当前回调线程，把本地播放速度反向传导给云端回包；
+                    // 每次等待超时后回到这里检查停止状态，再继续追加剩余部分。
+                    while (buffer.hasRemaining()) {
+                        if (stopRequested || !isActiveSession(sessionId) || !playerView.isPcmStreaming()) {
+                            return;
                         }
-                        return;
-                    }
-                    if (stopRequested || !isActiveSession(sessionId)) {
-                        return;
+                        if (Thread.currentThread().isInterrupted()) {
+                            if (!stopRequested) {
+                                handleFailure("音频回调线程等待播放器队列回落时被中断");
+                            }
+                            return;
+                        }
+                        int accepted = playerView.appendPcmData(buffer);
+                        buffer.position(buffer.position() + accepted);
                     }
-                    playerView.appendPcmData(audioData, 0, audioData.length);
                 } finally {
                     markAudioCallbackFinished(sessionId);
                 }
@@ -807,36 +790,6 @@ public class TtsStreamPlayer {
         }
     }
 
-    /**
-     * 在腾讯云音频回调侧等待本地播放器队列回落。
-     *
-     * <p>官方 demo 直接在 {@code onAudioResult(...)} 中调用 {@code AudioTrack.write(...)}，
-     * 底层天然会因为设备播放速度而形成阻塞式背压。当前工程改为“腾讯云回调 -> 播放器内部队列”，
-     * 因此需要在这里显式补回这层背压，否则云端回包可能长期快于本地播速，最终把 PCM 队列堆满。
-     *
-     * <p>这里使用高低水位控制：
-     * 当待播时长达到高水位后开始等待，直到回落到低水位再继续追加，
-     * 从而避免队列长度在单一阈值附近频繁抖动。
-     *
-     * @throws InterruptedException 当前回调线程在等待过程中被中断时抛出
-     */
-    private void waitForAppendCapacity() throws InterruptedException {
-        while (!stopRequested && playerView.isPcmStreaming()) {
-            long queuedDurationMs = playerView.getQueuedPcmDurationMs();
-            if (queuedDurationMs < PCM_APPEND_BLOCK_HIGH_WATER_MARK_MS) {
-                return;
-            }
-            do {
-                Thread.sleep(PCM_QUEUE_WAIT_INTERVAL_MS);
-                if (stopRequested || !playerView.isPcmStreaming()) {
-                    return;
-                }
-                queuedDurationMs = playerView.getQueuedPcmDurationMs();
-            } while (queuedDurationMs > PCM_APPEND_BLOCK_LOW_WATER_MARK_MS);
-            return;
-        }
-    }
-
     /**
      * 判断是否存在空串或仅包含空白的片段。
      */
@@ -5,6 +5,7 @@ import android.content.Context;
 import android.text.TextUtils;
 
 import com.sss.michael.exo.constant.ExoEqualizerPreset;
+import com.sss.michael.exo.constant.ExoFftWindow;
 import com.sss.michael.exo.util.ExoSPUtils;
 
 /**
@@ -28,8 +29,18 @@ public class ExoConfig {
     public static boolean COMPONENT_SPECTRUM_ENABLE = true;
     // 启用EQ组件
     public static boolean COMPONENT_EQ_ENABLE = true;
+    // 启用响度计量（峰值 / RMS / LUFS，无 FFT，开销远低于频谱组件）
+    public static boolean COMPONENT_LOUDNESS_METER_ENABLE = true;
+    // 启用响度归一化 / 真峰值限幅处理器（接在EQ之后，取代EQ削波；归一化默认关闭，限幅始终生效）
+    public static boolean COMPONENT_LOUDNESS_NORMALIZER_ENABLE = true;
+    // 频谱分析按需运行：仅在频谱组件可见或设置了外部 FFT 监听时启用频谱处理阶段，其余时间旁路、不产生 FFT 开销
+    public static boolean SPECTRUM_ANALYSIS_ON_DEMAND = true;
+    // 动态处理链中阶段启用 / 旁路 / 插入 / 移除时的交叉淡化时长（毫秒）
+    public static float AUDIO_STAGE_CROSSFADE_MS = 20f;
 
     /********************************************* 监控配置 *********************************************/
+    // 统计每个音频处理器 queueInput 的耗时（直方图，无分配，调试组件展示）
+    public static boolean AUDIO_PROCESSOR_TIMING_ENABLE = true;
     // 监控执行间隔
     public static final long MONITOR_INTERVAL_MS = 1000;
     // 任务超时保护（避免阻塞）
@@ -79,12 +90,22 @@ public class ExoConfig {
     public static final float EQ_MAX_DB = 15f;
     // 全局增益平滑系数：控制全局增益过渡速度，值越小过渡越平滑
     public static final float EQ_GLOBAL_GAIN_SMOOTH = 0.1f;
-    // 削波阈值（线性范围）：默认1.0f，范围(0,1.0]，超出该值的样本会被削波处理
+    // 削波阈值（线性范围）：仅在均衡器之后没有生效的真峰值限幅（响度归一化处理器）时使用，见 LOUDNESS_TRUE_PEAK_CEILING_DB
     public static float EQ_CLIPPING_THRESHOLD = 0.85f;
-    // 是否启用软削波：false=硬削波（直接截断，效率高）；true=软削波（S型曲线，失真小）
+    // 是否启用软削波：同上，false 为硬削波
     public static boolean EQ_USE_SOFT_CLIPPING = false;
     // 增益跳过阈值（dB）：增益绝对值小于该值时，判定为无效增益，EQ标记为未激活
     public static float EQ_GAIN_SKIP_THRESHOLD = 0.1f;
+    // 参数均衡器允许的最大频段数，超出的频段配置被忽略
+    public static final int EQ_MAX_BAND_COUNT = 64;
+    // 31 段图示均衡器（ISO 266 三分之一倍频程）中心频率，可配合 ExoEqBand.graphic 生成频段
+    public static final float[] EQ_THIRD_OCTAVE_FREQUENCIES = {
+            20f, 25f, 31.5f, 40f, 50f, 63f, 80f, 100f, 125f, 160f,
+            200f, 250f, 315f, 400f, 500f, 630f, 800f, 1000f, 1250f, 1600f,
+            2000f, 2500f, 3150f, 4000f, 5000f, 6300f, 8000f, 10000f, 12500f, 16000f, 20000f
+    };
+    // 三分之一倍频程带宽对应的品质因数
+    public static final float EQ_THIRD_OCTAVE_QUALITY_FACTOR = 4.318f;
 
     /********************************************* 频谱配置 *********************************************/
     // 默认FFT样本大小（2的幂）
@@ -145,6 +166,41 @@ public class ExoConfig {
     // 用于平滑频谱，减少跳动
     // 值越大，频谱曲线越平滑，但分辨率略下降
     public static float SPECTRUM_SMOOTH_SIDE = 0.75f;
+    // 幅度输出的对数频带数
+    // 0 → 输出全部线性 bin（FFT 样本大小的一半）
+    // 大于 0 → 按对数频率聚合为该数量的显示频带，视图按下标直接绘制即可
+    public static int SPECTRUM_BAND_COUNT = 0;
+    // 对数频带的最低频率（Hz），最高频率为奈奎斯特频率
+    public static float SPECTRUM_BAND_MIN_HZ = 40f;
+    // 默认窗函数
+    public static ExoFftWindow FFT_WINDOW = ExoFftWindow.HANN;
+    // 相邻分析窗口的间隔帧数（跳步）
+    // 0 → 每个分析周期只取最新一个窗口（与帧率绑定）
+    // 大于 0 → 按该跳步连续取重叠窗口并做功率平均，小于 FFT 样本大小即为重叠分析，频率分辨率与刷新帧率可分别调整
+    public static int FFT_HOP_SIZE = 0;
+
+    /********************************************* 响度计量配置 *********************************************/
+    // 响度计量回调间隔（毫秒），峰值与 RMS 按该周期统计
+    public static long LOUDNESS_METER_INTERVAL_MS = 100;
+
+    /********************************************* 响度归一化配置 *********************************************/
+    // 默认是否开启响度归一化（运行时可通过 setLoudnessNormalization 切换）
+    public static boolean LOUDNESS_NORMALIZE_ENABLE = false;
+    // 归一化目标响度（LUFS），流媒体平台常用 -14 / -16
+    public static float LOUDNESS_TARGET_LUFS = -16f;
+    // 最大提升 / 最大衰减（dB），避免把底噪或过响内容拉得过多
+    public static float LOUDNESS_MAX_BOOST_DB = 12f;
+    public static float LOUDNESS_MAX_CUT_DB = 24f;
+    // 响度估计的平均窗口（毫秒），越大越接近综合响度，越小跟随越快
+    public static float LOUDNESS_NORMALIZE_WINDOW_MS = 3000f;
+    // 归一化增益平滑时间常数（毫秒），避免增益跳变产生“泵浦”感
+    public static float LOUDNESS_GAIN_SMOOTH_MS = 1000f;
+    // 真峰值上限（dBTP），限幅器保证 4 倍过采样后的峰值不超过该值
+    public static float LOUDNESS_TRUE_PEAK_CEILING_DB = -1f;
+    // 限幅器前瞻时间（毫秒），即额外引入的音频延迟
+    public static float LOUDNESS_LIMITER_LOOKAHEAD_MS = 5f;
+    // 限幅器释放时间常数（毫秒）
+    public static float LOUDNESS_LIMITER_RELEASE_MS = 80f;
 
     /********************************************* 缓存配置 *********************************************/
     // 默认缓存大小：500MB
@@ -163,6 +219,10 @@ public class ExoConfig {
     public static final long CACHE_DEFAULT_TASK_TIMEOUT = 30 * 1000;
     // 磁盘缓存淘汰策略管理器(ExpirableLruCacheEvictor)最大条目数
     public static final int CACHE_DEFAULT_MAX_METADATA_ENTRY_COUNT = 1000;
+    // 默认后台缓存清扫间隔：60秒（单位：毫秒），清扫过期与超限的缓存片段
+    public static final long CACHE_DEFAULT_SWEEP_INTERVAL = 60 * 1000;
+    // 默认单批清扫最多淘汰的缓存片段数，限制单批持有缓存锁的时间
+    public static final int CACHE_DEFAULT_SWEEP_BATCH_SIZE = 64;
 
 
     /********************************************* 手势置 *********************************************/
@@ -200,6 +260,8 @@ public class ExoConfig {
         COMPONENT_DEBUG_ENABLE = debug;
         COMPONENT_SPECTRUM_ENABLE = debug;
         COMPONENT_EQ_ENABLE = debug;
+        COMPONENT_LOUDNESS_METER_ENABLE = debug;
+        COMPONENT_LOUDNESS_NORMALIZER_ENABLE = debug;
         SP_UTILS.init(application, spName, Context.MODE_APPEND);
         String savedGains = ExoConfig.SP_UTILS.getString(ExoConfig.SP_EQ_GAINS, "");
         if (!TextUtils.isEmpty(savedGains)) {
@@ -13,12 +13,15 @@ import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.sss.michael.exo.bean.ExoEqBand;
 import com.sss.michael.exo.bean.ExoPcmStreamConfig;
 import com.sss.michael.exo.callback.ExoControllerWrapper;
 import com.sss.michael.exo.callback.ExoGestureEnable;
 import com.sss.michael.exo.callback.IExoControlComponent;
 import com.sss.michael.exo.callback.IExoController;
 import com.sss.michael.exo.callback.IExoFFTCallBack;
+import com.sss.michael.exo.callback.IExoLoudnessCallBack;
+import com.sss.michael.exo.callback.IExoFFTFrameCallBack;
 import com.sss.michael.exo.callback.IExoGestureCallBack;
 import com.sss.michael.exo.callback.IExoLifecycle;
 import com.sss.michael.exo.callback.IExoNotifyCallBack;
@@ -46,6 +49,7 @@ import com.sss.michael.exo.core.ExoPcmStreamCore;
 import com.sss.michael.exo.core.ExoVideoView;
 import com.sss.michael.exo.helper.ExoGestureHelper;
 import com.sss.michael.exo.helper.ExoScaleHelper;
+import com.sss.michael.exo.processor.ExoSpectrumFrame;
 import com.sss.michael.exo.util.ExoDensityUtil;
 import com.sss.michael.exo.util.ExoLog;
 
@@ -64,7 +68,7 @@ public class SimpleExoPlayerView extends FrameLayout
         IExoPcmStreamController,
         IExoGestureCallBack,
         IExoLifecycle,
-        IExoFFTCallBack,
+        IExoFFTFrameCallBack,
         IExoNotifyCallBack,
         IExoScaleCallBack {
 
@@ -86,6 +90,10 @@ public class SimpleExoPlayerView extends FrameLayout
     private IExoFFTCallBack iExoFFTCallBack;
     private boolean pcmStreamMode;
     private ExoEqualizerPreset currentEqualizerPreset = ExoEqualizerPreset.CUSTOM;
+    // 自定义参数均衡频段，非空时覆盖预设的 10 段布局
+    private List<ExoEqBand> currentEqualizerBands;
+    // 频谱组件是否可见，与外部 FFT 监听共同决定频谱分析是否运行
+    private boolean spectrumComponentActive;
 
     public SimpleExoPlayerView(@NonNull Context context) {
         this(context, null);
@@ -159,6 +167,26 @@ public class SimpleExoPlayerView extends FrameLayout
 
     public void setExoFFTCallBack(IExoFFTCallBack iExoFFTCallBack) {
         this.iExoFFTCallBack = iExoFFTCallBack;
+        updateSpectrumActive();
+    }
+
+    /**
+     * 设置响度计量回调（URL 与 PCM 两条链路共用），在音频分析线程回调
+     */
+    public void setExoLoudnessCallBack(IExoLoudnessCallBack iExoLoudnessCallBack) {
+        exoCore.setExoLoudnessCallBack(iExoLoudnessCallBack);
+        exoPcmStreamCore.setExoLoudnessCallBack(iExoLoudnessCallBack);
+    }
+
+    /**
+     * 设置响度归一化（URL 与 PCM 两条链路共用），关闭时真峰值限幅仍然生效
+     *
+     * @param enabled    是否开启
+     * @param targetLufs 目标响度（LUFS），例如 -14 / -16
+     */
+    public void setLoudnessNormalization(boolean enabled, float targetLufs) {
+        exoCore.setLoudnessNormalization(enabled, targetLufs);
+        exoPcmStreamCore.setLoudnessNormalization(enabled, targetLufs);
     }
 
     public ExoControllerWrapper getExoControllerWrapper() {
@@ -323,6 +351,7 @@ public class SimpleExoPlayerView extends FrameLayout
     @Override
     public void setEqualizer(@NonNull ExoEqualizerPreset exoEqualizerPreset) {
         currentEqualizerPreset = exoEqualizerPreset;
+        currentEqualizerBands = null;
         if (exoCore != null) {
             exoCore.setEqualizer(exoEqualizerPreset);
         }
@@ -331,6 +360,39 @@ public class SimpleExoPlayerView extends FrameLayout
         }
     }
 
+    /**
+     * 设置参数均衡频段（类型、频率、Q、增益），URL 与 PCM 流式链路同时生效
+     * 之后调用 {@link #setEqualizer(ExoEqualizerPreset)} 会恢复预设的 10 段布局
+     *
+     * @param bands 频段描述，为 null 或空时均衡不生效
+     */
+    public void setEqualizerBands(List<ExoEqBand> bands) {
+        currentEqualizerBands = bands == null ? null : new ArrayList<>(bands);
+        if (exoCore != null) {
+            exoCore.setEqualizerBands(currentEqualizerBands);
+        }
+        if (exoPcmStreamCore != null) {
+            exoPcmStreamCore.setEqualizerBands(currentEqualizerBands);
+        }
+    }
+
+    /**
+     * 频谱组件按可见性通知，外部设置了 FFT 监听时频谱分析始终运行
+     *
+     * @param active 频谱组件是否可见
+     */
+    @Override
+    public void setSpectrumActive(boolean active) {
+        spectrumComponentActive = active;
+        updateSpectrumActive();
+    }
+
+    private void updateSpectrumActive() {
+        if (exoCore != null) {
+            exoCore.setSpectrumActive(spectrumComponentActive || iExoFFTCallBack != null);
+        }
+    }
+
     /**
      * 重新播放
      */
@@ -664,26 +726,28 @@ public class SimpleExoPlayerView extends FrameLayout
         pcmStreamMode = true;
         exoPcmStreamCore.startPcmStream(config);
         exoPcmStreamCore.setEqualizer(currentEqualizerPreset);
+        if (currentEqualizerBands != null) {
+            exoPcmStreamCore.setEqualizerBands(currentEqualizerBands);
+        }
     }
 
     /**
      * 以 {@link java.nio.ByteBuffer} 形式向当前 PCM 会话追加数据。
      *
      * @param buffer 存放 PCM 16-bit 音频数据的缓冲区
+     * @return 实际被接受的字节数
      */
     @Override
-    public void appendPcmData(ByteBuffer buffer) {
+    public int appendPcmData(ByteBuffer buffer) {
         if (!isPcmStreamMode()) {
             ExoLog.log("当前并未处于 PCM 流模式，appendPcmData(ByteBuffer) 调用已忽略");
-            return;
+            return 0;
         }
         if (buffer == null || !buffer.hasRemaining()) {
-            return;
+            return 0;
         }
-        ByteBuffer bufferCopy = buffer.slice();
-        byte[] pcmBytes = new byte[bufferCopy.remaining()];
-        bufferCopy.get(pcmBytes);
-        exoPcmStreamCore.appendPcmData(pcmBytes, 0, pcmBytes.length);
+        // 直接写入内核环形缓冲区，不再中转为临时 byte[]；调用方缓冲区的 position 保持不变
+        return exoPcmStreamCore.appendPcmData(buffer);
     }
 
     /**
@@ -692,14 +756,15 @@ public class SimpleExoPlayerView extends FrameLayout
      * @param data PCM 16-bit 音频数据
      * @param offset 源数据偏移
      * @param length 需要追加的 PCM 字节数
+     * @return 实际被接受的字节数
      */
     @Override
-    public void appendPcmData(byte[] data, int offset, int length) {
+    public int appendPcmData(byte[] data, int offset, int length) {
         if (!isPcmStreamMode()) {
             ExoLog.log("当前并未处于 PCM 流模式，appendPcmData(byte[]) 调用已忽略");
-            return;
+            return 0;
         }
-        exoPcmStreamCore.appendPcmData(data, offset, length);
+        return exoPcmStreamCore.appendPcmData(data, offset, length);
     }
 
     /**
@@ -1349,6 +1414,47 @@ public class SimpleExoPlayerView extends FrameLayout
             iExoFFTCallBack.onMagnitudeReady(sampleRateHz, magnitude);
         }
     }
+
+    /**
+     * 频谱帧回调（主线程 vsync 时分发，帧对象会被复用）
+     * 实现了 {@link IExoFFTFrameCallBack} 的组件与监听器直接收到该帧；其余仍按旧接口收到数组，
+     * 数组副本只在存在旧接口监听器时创建一次并共享
+     *
+     * @param frame 最新频谱帧
+     */
+    @Override
+    public void onSpectrumFrame(ExoSpectrumFrame frame) {
+        float[] fftCopy = null;
+        float[] magnitudeCopy = null;
+        for (IExoControlComponent component : mControlComponents) {
+            if (component instanceof IExoFFTFrameCallBack) {
+                ((IExoFFTFrameCallBack) component).onSpectrumFrame(frame);
+                continue;
+            }
+            if (fftCopy == null) {
+                fftCopy = frame.getFft().clone();
+                magnitudeCopy = frame.getMagnitude().clone();
+            }
+            dispatchLegacySpectrum(component, frame, fftCopy, magnitudeCopy);
+        }
+        if (iExoFFTCallBack instanceof IExoFFTFrameCallBack) {
+            ((IExoFFTFrameCallBack) iExoFFTCallBack).onSpectrumFrame(frame);
+        } else if (iExoFFTCallBack != null) {
+            if (fftCopy == null) {
+                fftCopy = frame.getFft().clone();
+                magnitudeCopy = frame.getMagnitude().clone();
+            }
+            dispatchLegacySpectrum(iExoFFTCallBack, frame, fftCopy, magnitudeCopy);
+        }
+    }
+
+    private static void dispatchLegacySpectrum(IExoFFTCallBack callBack, ExoSpectrumFrame frame,
+                                               float[] fft, float[] magnitude) {
+        callBack.onFFTReady(frame.getSampleRateHz(), frame.getChannelCount(), fft);
+        if (frame.hasMagnitude()) {
+            callBack.onMagnitudeReady(frame.getSampleRateHz(), magnitude);
+        }
+    }
     // </editor-fold>
 
     // <editor-fold defaultstate="collapsed" desc="缩放控制">
@@ -0,0 +1,72 @@
+package com.sss.michael.exo.bean;
+
+/**
+ * 单个缓存 Key 的缓存统计快照。
+ *
+ * <p>由缓存淘汰器在片段添加 / 访问 / 移除回调中增量维护，查询时复制为不可变快照，
+ * 无需遍历该 Key 的缓存片段。快照只反映查询时刻的状态，后续写入或淘汰不会更新已取得的实例。
+ *
+ * <p>{@link #getContiguousBytes()} 为从位置 0 起连续缓存的字节数，起播所需的头部数据是否就绪以它为准；
+ * {@link #getTotalBytes()} 为所有片段长度之和，拖动播放后可能包含不连续的区间；
+ * {@link #getContentLength()} 为缓存记录的文件总长度，长度在写入结束后才得知时可能暂为未知。
+ */
+public final class ExoCacheKeyStats {
+
+    private final String key;
+    private final long contiguousBytes;
+    private final long totalBytes;
+    private final long contentLength;
+    private final long lastAccessTimeMs;
+
+    public ExoCacheKeyStats(String key, long contiguousBytes, long totalBytes, long contentLength, long lastAccessTimeMs) {
+        this.key = key;
+        this.contiguousBytes = contiguousBytes;
+        this.totalBytes = totalBytes;
+        this.contentLength = contentLength;
+        this.lastAccessTimeMs = lastAccessTimeMs;
+    }
+
+    /**
+     * 缓存 Key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 从位置 0 起连续缓存的字节数
+     */
+    public long getContiguousBytes() {
+        return contiguousBytes;
+    }
+
+    /**
+     * 已缓存的总字节数
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 文件总长度（字节），未知时为 -1
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * 该 Key 下任一片段最近一次写入或读取的时间（毫秒）
+     */
+    public long getLastAccessTimeMs() {
+        return lastAccessTimeMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ExoCacheKeyStats{key=" + key
+                + ", contiguousBytes=" + contiguousBytes
+                + ", totalBytes=" + totalBytes
+                + ", contentLength=" + contentLength
+                + ", lastAccessTimeMs=" + lastAccessTimeMs + '}';
+    }
+}
@@ -0,0 +1,161 @@
+package com.sss.michael.exo.bean;
+
+import androidx.annotation.NonNull;
+
+import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.constant.ExoEqFilterType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 参数均衡器的频段描述。
+ *
+ * <p>描述对象不可变，调整增益请通过 {@link #withGain(float)} 得到新实例后重新设置到处理器。
+ * 处理器在下一次处理音频时按描述重新计算滤波器目标系数，工作系数平滑过渡到新目标，不会产生爆音。
+ *
+ * <p>增益会被钳位到 [{@link ExoConfig#EQ_MIN_DB}, {@link ExoConfig#EQ_MAX_DB}]；
+ * 频率高于当前采样率奈奎斯特频率的频段无法实现，处理器按直通处理。
+ */
+public final class ExoEqBand {
+
+    /**
+     * 搁架与通带滤波器的默认 Q 值（1/√2），转折处无过冲。
+     */
+    public static final float DEFAULT_SHELF_Q = 0.7071f;
+
+    /**
+     * 陷波滤波器的默认 Q 值，约 0.1 倍频程的窄陷波。
+     */
+    public static final float DEFAULT_NOTCH_Q = 10f;
+
+    private final ExoEqFilterType type;
+    private final float frequencyHz;
+    private final float q;
+    private final float gainDb;
+
+    /**
+     * @param type        滤波器类型
+     * @param frequencyHz 中心 / 转折频率（Hz），必须大于 0
+     * @param q           品质因子，必须大于 0
+     * @param gainDb      增益（dB），仅对 {@link ExoEqFilterType#isGainBased()} 为 true 的类型生效；
+     *                    峰值类型沿用历史增益标度（与内置预设一致），中心处实际增益为 2 倍标称值
+     */
+    public ExoEqBand(@NonNull ExoEqFilterType type, float frequencyHz, float q, float gainDb) {
+        if (frequencyHz <= 0 || q <= 0) {
+            throw new IllegalArgumentException("ExoEqBand 频率与 Q 值必须大于 0：frequencyHz=" + frequencyHz + "，q=" + q);
+        }
+        this.type = type;
+        this.frequencyHz = frequencyHz;
+        this.q = q;
+        this.gainDb = type.isGainBased() ? Math.max(ExoConfig.EQ_MIN_DB, Math.min(ExoConfig.EQ_MAX_DB, gainDb)) : 0f;
+    }
+
+    public static ExoEqBand peaking(float frequencyHz, float q, float gainDb) {
+        return new ExoEqBand(ExoEqFilterType.PEAKING, frequencyHz, q, gainDb);
+    }
+
+    public static ExoEqBand lowShelf(float frequencyHz, float gainDb) {
+        return new ExoEqBand(ExoEqFilterType.LOW_SHELF, frequencyHz, DEFAULT_SHELF_Q, gainDb);
+    }
+
+    public static ExoEqBand highShelf(float frequencyHz, float gainDb) {
+        return new ExoEqBand(ExoEqFilterType.HIGH_SHELF, frequencyHz, DEFAULT_SHELF_Q, gainDb);
+    }
+
+    public static ExoEqBand lowPass(float frequencyHz) {
+        return new ExoEqBand(ExoEqFilterType.LOW_PASS, frequencyHz, DEFAULT_SHELF_Q, 0f);
+    }
+
+    public static ExoEqBand highPass(float frequencyHz) {
+        return new ExoEqBand(ExoEqFilterType.HIGH_PASS, frequencyHz, DEFAULT_SHELF_Q, 0f);
+    }
+
+    public static ExoEqBand notch(float frequencyHz) {
+        return new ExoEqBand(ExoEqFilterType.NOTCH, frequencyHz, DEFAULT_NOTCH_Q, 0f);
+    }
+
+    /**
+     * 生成图示均衡器布局：每个频率一个峰值频段，增益全部为 0dB
+     *
+     * @param frequencies 中心频率，例如 {@link ExoConfig#EQ_CENTER_FREQUENCIES} 或 {@link ExoConfig#EQ_THIRD_OCTAVE_FREQUENCIES}
+     * @param q           各频段共用的品质因子
+     */
+    @NonNull
+    public static List<ExoEqBand> graphic(@NonNull float[] frequencies, float q) {
+        List<ExoEqBand> bands = new ArrayList<>(frequencies.length);
+        for (float frequency : frequencies) {
+            bands.add(peaking(frequency, q, 0f));
+        }
+        return bands;
+    }
+
+    /**
+     * 复制当前频段并替换增益
+     */
+    public ExoEqBand withGain(float gainDb) {
+        return new ExoEqBand(type, frequencyHz, q, gainDb);
+    }
+
+    /**
+     * 复制当前频段并替换 Q 值
+     */
+    public ExoEqBand withQ(float q) {
+        return new ExoEqBand(type, frequencyHz, q, gainDb);
+    }
+
+    @NonNull
+    public ExoEqFilterType getType() {
+        return type;
+    }
+
+    public float getFrequencyHz() {
+        return frequencyHz;
+    }
+
+    public float getQ() {
+        return q;
+    }
+
+    public float getGainDb() {
+        return gainDb;
+    }
+
+    /**
+     * 该频段是否会改变音频：带增益的类型需增益绝对值超过 {@link ExoConfig#EQ_GAIN_SKIP_THRESHOLD}，
+     * 通带 / 陷波类型始终生效。返回 false 的频段由处理器按直通跳过，不参与逐样本滤波
+     */
+    public boolean isEffective() {
+        return !type.isGainBased() || Math.abs(gainDb) > ExoConfig.EQ_GAIN_SKIP_THRESHOLD;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ExoEqBand)) {
+            return false;
+        }
+        ExoEqBand other = (ExoEqBand) o;
+        return type == other.type
+                && Float.compare(frequencyHz, other.frequencyHz) == 0
+                && Float.compare(q, other.q) == 0
+                && Float.compare(gainDb, other.gainDb) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type.hashCode();
+        result = 31 * result + Float.floatToIntBits(frequencyHz);
+        result = 31 * result + Float.floatToIntBits(q);
+        result = 31 * result + Float.floatToIntBits(gainDb);
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ExoEqBand{" + type + ", " + frequencyHz + "Hz, Q=" + q + ", " + gainDb + "dB}";
+    }
+}
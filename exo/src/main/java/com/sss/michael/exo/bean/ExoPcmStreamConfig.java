@@ -4,6 +4,9 @@ import android.media.AudioAttributes;
 import android.media.AudioFormat;
 import android.media.AudioTrack;
 
+import com.sss.michael.exo.constant.ExoPcmBackpressureMode;
+import com.sss.michael.exo.constant.ExoResamplerQuality;
+
 /**
  * PCM 流式播放会话配置。
  *
@@ -51,6 +54,36 @@ public class ExoPcmStreamConfig {
      */
     public static final long DEFAULT_MAX_QUEUED_DURATION_MS = 5000L;
 
+    /**
+     * 默认背压策略，与旧版本“整块拒绝并回调错误”的行为保持一致。
+     */
+    public static final ExoPcmBackpressureMode DEFAULT_BACKPRESSURE_MODE = ExoPcmBackpressureMode.REJECT;
+
+    /**
+     * {@link ExoPcmBackpressureMode#BLOCK} 模式下单次追加的默认最长等待时间。
+     */
+    public static final long DEFAULT_BACKPRESSURE_TIMEOUT_MS = 1000L;
+
+    /**
+     * 工作线程单次排空允许连续写出的默认 PCM 时长。
+     */
+    public static final long DEFAULT_DRAIN_BATCH_DURATION_MS = 200L;
+
+    /**
+     * 默认在 API 23+ 上使用非阻塞方式写入 AudioTrack。
+     */
+    public static final boolean DEFAULT_NON_BLOCKING_WRITE_ENABLED = true;
+
+    /**
+     * 哨兵值，表示输出采样率与输入一致，不做采样率转换。
+     */
+    public static final int DEFAULT_OUTPUT_SAMPLE_RATE_HZ = 0;
+
+    /**
+     * 默认采样率转换档位。
+     */
+    public static final ExoResamplerQuality DEFAULT_RESAMPLER_QUALITY = ExoResamplerQuality.MEDIUM;
+
     private int sampleRateHz = DEFAULT_SAMPLE_RATE_HZ;
     private int channelCount = DEFAULT_CHANNEL_COUNT;
     private int encoding = DEFAULT_ENCODING;
@@ -58,6 +91,12 @@ public class ExoPcmStreamConfig {
     private int audioUsage = DEFAULT_AUDIO_USAGE;
     private int contentType = DEFAULT_CONTENT_TYPE;
     private long maxQueuedDurationMs = DEFAULT_MAX_QUEUED_DURATION_MS;
+    private ExoPcmBackpressureMode backpressureMode = DEFAULT_BACKPRESSURE_MODE;
+    private long backpressureTimeoutMs = DEFAULT_BACKPRESSURE_TIMEOUT_MS;
+    private long drainBatchDurationMs = DEFAULT_DRAIN_BATCH_DURATION_MS;
+    private boolean nonBlockingWriteEnabled = DEFAULT_NON_BLOCKING_WRITE_ENABLED;
+    private int outputSampleRateHz = DEFAULT_OUTPUT_SAMPLE_RATE_HZ;
+    private ExoResamplerQuality resamplerQuality = DEFAULT_RESAMPLER_QUALITY;
 
     /**
      * 创建一个使用库默认值的配置对象。
@@ -81,6 +120,12 @@ public class ExoPcmStreamConfig {
         this.audioUsage = other.audioUsage;
         this.contentType = other.contentType;
         this.maxQueuedDurationMs = other.maxQueuedDurationMs;
+        this.backpressureMode = other.backpressureMode;
+        this.backpressureTimeoutMs = other.backpressureTimeoutMs;
+        this.drainBatchDurationMs = other.drainBatchDurationMs;
+        this.nonBlockingWriteEnabled = other.nonBlockingWriteEnabled;
+        this.outputSampleRateHz = other.outputSampleRateHz;
+        this.resamplerQuality = other.resamplerQuality;
     }
 
     /**
@@ -200,7 +245,7 @@ public class ExoPcmStreamConfig {
     }
 
     /**
-     * 返回允许保留在内存中的最大 PCM 排队时长。
+     * 返回允许保留在内存中的最大 PCM 排队时长，0 表示不限制。
      */
     public long getMaxQueuedDurationMs() {
         return maxQueuedDurationMs;
@@ -209,7 +254,10 @@ public class ExoPcmStreamConfig {
     /**
      * 设置触发背压前允许保留的最大 PCM 排队时长。
      *
-     * @param maxQueuedDurationMs 最大待播时长，单位毫秒
+     * <p>为 0 时不限制排队时长：待播缓冲区按需扩容，{@link #getBackpressureMode()} 不会被触发，
+     * 内存占用随未播出的数据增长，调用方需自行控制输入节奏。
+     *
+     * @param maxQueuedDurationMs 最大待播时长，单位毫秒；为 0 时不限制
      * @return 当前配置对象，便于链式调用
      */
     public ExoPcmStreamConfig setMaxQueuedDurationMs(long maxQueuedDurationMs) {
@@ -217,6 +265,134 @@ public class ExoPcmStreamConfig {
         return this;
     }
 
+    /**
+     * 返回排队达到上限时的背压策略。
+     */
+    public ExoPcmBackpressureMode getBackpressureMode() {
+        return backpressureMode;
+    }
+
+    /**
+     * 设置排队达到 {@link #getMaxQueuedDurationMs()} 上限时的背压策略。
+     *
+     * @param backpressureMode 背压策略，不能为 {@code null}
+     * @return 当前配置对象，便于链式调用
+     */
+    public ExoPcmStreamConfig setBackpressureMode(ExoPcmBackpressureMode backpressureMode) {
+        this.backpressureMode = backpressureMode;
+        return this;
+    }
+
+    /**
+     * 返回 {@link ExoPcmBackpressureMode#BLOCK} 模式下单次追加的最长等待时间。
+     */
+    public long getBackpressureTimeoutMs() {
+        return backpressureTimeoutMs;
+    }
+
+    /**
+     * 设置 {@link ExoPcmBackpressureMode#BLOCK} 模式下单次追加的最长等待时间。
+     *
+     * <p>{@link ExoPcmBackpressureMode#DROP_OLDEST} 模式在等待工作线程回收已丢弃空间时同样受该值约束。
+     *
+     * @param backpressureTimeoutMs 最长等待时间，单位毫秒；为 0 时一直等待到有空间或会话结束
+     * @return 当前配置对象，便于链式调用
+     */
+    public ExoPcmStreamConfig setBackpressureTimeoutMs(long backpressureTimeoutMs) {
+        this.backpressureTimeoutMs = backpressureTimeoutMs;
+        return this;
+    }
+
+    /**
+     * 返回工作线程单次排空允许连续写出的 PCM 时长。
+     */
+    public long getDrainBatchDurationMs() {
+        return drainBatchDurationMs;
+    }
+
+    /**
+     * 设置工作线程单次排空允许连续写出的 PCM 时长（延迟预算）。
+     *
+     * <p>工作线程在一次调度中连续处理多个分片，直到写满该时长或队列取空才让出消息队列，
+     * 以减少消息分发和回调次数；暂停、取消等控制命令仍会在两次 AudioTrack 写入之间及时生效。
+     * 值越大调度开销越低，但与控制命令无关的其他 worker 任务等待时间越长。
+     *
+     * @param drainBatchDurationMs 单次排空的最大时长，单位毫秒；为 0 时每次只处理一个分片
+     * @return 当前配置对象，便于链式调用
+     */
+    public ExoPcmStreamConfig setDrainBatchDurationMs(long drainBatchDurationMs) {
+        this.drainBatchDurationMs = drainBatchDurationMs;
+        return this;
+    }
+
+    /**
+     * 返回是否以非阻塞方式写入 AudioTrack。
+     */
+    public boolean isNonBlockingWriteEnabled() {
+        return nonBlockingWriteEnabled;
+    }
+
+    /**
+     * 设置是否以非阻塞方式写入 AudioTrack（仅 API 23+ 生效，低版本始终阻塞写入）。
+     *
+     * <p>开启后工作线程不会因 AudioTrack 缓冲已满而挂起，而是按播放头周期通知补写数据，
+     * 暂停、取消等控制命令可在一个通知周期内生效，播放结束也改由标记位置通知判定。
+     *
+     * @param nonBlockingWriteEnabled {@code true} 表示使用非阻塞写入
+     * @return 当前配置对象，便于链式调用
+     */
+    public ExoPcmStreamConfig setNonBlockingWriteEnabled(boolean nonBlockingWriteEnabled) {
+        this.nonBlockingWriteEnabled = nonBlockingWriteEnabled;
+        return this;
+    }
+
+    /**
+     * 返回 AudioTrack 输出采样率；{@code <= 0} 表示与输入采样率一致。
+     */
+    public int getOutputSampleRateHz() {
+        return outputSampleRateHz;
+    }
+
+    /**
+     * 设置固定的 AudioTrack 输出采样率。
+     *
+     * <p>设置后，输入采样率与之不同的会话会先经过采样率转换再进入 EQ / 频谱处理链，多轮会话的输出格式
+     * 保持一致，AudioTrack 与处理链可以跨会话复用，避免每次切换采样率都重建 AudioTrack 带来的延迟和断音。
+     * 适合 TTS 供应商按 8k / 16k / 24k / 44.1k 混合下发的场景。
+     *
+     * @param outputSampleRateHz 输出采样率；{@code <= 0} 时与输入一致，不做转换
+     * @return 当前配置对象，便于链式调用
+     */
+    public ExoPcmStreamConfig setOutputSampleRateHz(int outputSampleRateHz) {
+        this.outputSampleRateHz = outputSampleRateHz;
+        return this;
+    }
+
+    /**
+     * 返回采样率转换档位。
+     */
+    public ExoResamplerQuality getResamplerQuality() {
+        return resamplerQuality;
+    }
+
+    /**
+     * 设置采样率转换的质量 / CPU 档位，仅在需要转换时生效。
+     *
+     * @param resamplerQuality 转换档位，不能为 {@code null}
+     * @return 当前配置对象，便于链式调用
+     */
+    public ExoPcmStreamConfig setResamplerQuality(ExoResamplerQuality resamplerQuality) {
+        this.resamplerQuality = resamplerQuality;
+        return this;
+    }
+
+    /**
+     * 返回实际写入 AudioTrack 的采样率：配置了输出采样率时取输出采样率，否则取输入采样率。
+     */
+    public int getResolvedOutputSampleRateHz() {
+        return outputSampleRateHz > 0 ? outputSampleRateHz : sampleRateHz;
+    }
+
     /**
      * 返回单帧 PCM 数据的字节数。
      *
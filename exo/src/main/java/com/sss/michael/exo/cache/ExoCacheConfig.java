@@ -27,8 +27,14 @@ public class ExoCacheConfig {
     private long taskTimeout;
     // 元数据最大条目数（内存管控上限）
     private int maxMetadataEntryCount;
+    // 后台缓存清扫间隔（毫秒），应用空闲时也会触发清扫
+    private long sweepInterval;
+    // 单批清扫最多淘汰的缓存片段数
+    private int sweepBatchSize;
     // 缓存Key剥离规则（外部可自定义，默认剥离?后面参数）
     private CacheKeyGenerator cacheKeyGenerator;
+    // 超限淘汰策略（外部可自定义，默认 LRU）
+    private EvictionPolicyFactory evictionPolicyFactory;
     // 缓存目录
     private File cacheDir;
 
@@ -41,7 +47,10 @@ public class ExoCacheConfig {
         this.cacheExpireTime = builder.cacheExpireTime;
         this.taskTimeout = builder.taskTimeout;
         this.maxMetadataEntryCount = builder.maxMetadataEntryCount;
+        this.sweepInterval = builder.sweepInterval;
+        this.sweepBatchSize = builder.sweepBatchSize;
         this.cacheKeyGenerator = builder.cacheKeyGenerator;
+        this.evictionPolicyFactory = builder.evictionPolicyFactory;
         this.cacheDir = builder.cacheDir;
     }
 
@@ -60,7 +69,10 @@ public class ExoCacheConfig {
         private long cacheExpireTime = ExoConfig.CACHE_DEFAULT_CACHE_EXPIRE_TIME;
         private long taskTimeout = ExoConfig.CACHE_DEFAULT_TASK_TIMEOUT;
         private int maxMetadataEntryCount = ExoConfig.CACHE_DEFAULT_MAX_METADATA_ENTRY_COUNT;
+        private long sweepInterval = ExoConfig.CACHE_DEFAULT_SWEEP_INTERVAL;
+        private int sweepBatchSize = ExoConfig.CACHE_DEFAULT_SWEEP_BATCH_SIZE;
         private CacheKeyGenerator cacheKeyGenerator = new DefaultCacheKeyGenerator();
+        private EvictionPolicyFactory evictionPolicyFactory = new LruEvictionPolicyFactory();
         private File cacheDir;
 
         public Builder setCacheSize(long cacheSize) {
@@ -103,11 +115,26 @@ public class ExoCacheConfig {
             return this;
         }
 
+        public Builder setEvictionPolicyFactory(EvictionPolicyFactory evictionPolicyFactory) {
+            this.evictionPolicyFactory = evictionPolicyFactory != null ? evictionPolicyFactory : new LruEvictionPolicyFactory();
+            return this;
+        }
+
         public Builder setMaxMetadataEntryCount(int maxMetadataEntryCount) {
             this.maxMetadataEntryCount = maxMetadataEntryCount;
             return this;
         }
 
+        public Builder setSweepInterval(long sweepInterval) {
+            this.sweepInterval = sweepInterval > 0 ? sweepInterval : ExoConfig.CACHE_DEFAULT_SWEEP_INTERVAL;
+            return this;
+        }
+
+        public Builder setSweepBatchSize(int sweepBatchSize) {
+            this.sweepBatchSize = sweepBatchSize > 0 ? sweepBatchSize : ExoConfig.CACHE_DEFAULT_SWEEP_BATCH_SIZE;
+            return this;
+        }
+
         public Builder setCacheDir(File cacheDir) {
             this.cacheDir = cacheDir;
             return this;
@@ -134,6 +161,27 @@ public class ExoCacheConfig {
         }
     }
 
+    // 淘汰策略工厂接口（每个缓存实例创建独立的策略对象）
+    public interface EvictionPolicyFactory {
+        ExoCacheEvictionPolicy create(ExoCacheConfig config);
+    }
+
+    // LRU 淘汰策略（默认）
+    public static class LruEvictionPolicyFactory implements EvictionPolicyFactory {
+        @Override
+        public ExoCacheEvictionPolicy create(ExoCacheConfig config) {
+            return new ExoLruEvictionPolicy();
+        }
+    }
+
+    // W-TinyLFU 淘汰策略：按频率准入，抗一次性划过的视频冲刷热门内容，并优先保留起播头部
+    public static class TinyLfuEvictionPolicyFactory implements EvictionPolicyFactory {
+        @Override
+        public ExoCacheEvictionPolicy create(ExoCacheConfig config) {
+            return new ExoTinyLfuEvictionPolicy(config.getCacheSize(), config.getMaxMetadataEntryCount(), config.getPreloadSize());
+        }
+    }
+
     public long getCacheSize() {
         return cacheSize;
     }
@@ -166,6 +214,14 @@ public class ExoCacheConfig {
         return maxMetadataEntryCount;
     }
 
+    public long getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public int getSweepBatchSize() {
+        return sweepBatchSize;
+    }
+
     public File getCacheDir() {
         return cacheDir;
     }
@@ -173,4 +229,8 @@ public class ExoCacheConfig {
     public CacheKeyGenerator getCacheKeyGenerator() {
         return cacheKeyGenerator;
     }
+
+    public EvictionPolicyFactory getEvictionPolicyFactory() {
+        return evictionPolicyFactory;
+    }
 }
\ No newline at end of file
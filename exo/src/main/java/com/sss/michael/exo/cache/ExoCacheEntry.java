@@ -0,0 +1,36 @@
+package com.sss.michael.exo.cache;
+
+/**
+ * @author Michael by 61642
+ * @date 2026/10/17 13:10
+ * @Description 淘汰策略可见的缓存片段条目
+ * 每个缓存片段（CacheSpan）对应一个条目，由 {@link ExpirableLruCacheEvictor} 创建并在回调中通知 {@link ExoCacheEvictionPolicy}。
+ * 条目同时携带供包内策略使用的侵入式链表字段，策略维护自身队列时无需额外分配节点或哈希查找
+ */
+public class ExoCacheEntry {
+    final String key; // 缓存主 Key
+    final long position; // 缓存片段起始位置
+    long length; // 缓存片段长度（字节）
+
+    // 以下字段仅由淘汰策略读写（调用均在淘汰器锁内）
+    ExoCacheEntry policyPrev; // 策略队列前驱
+    ExoCacheEntry policyNext; // 策略队列后继
+    ExoCacheEntryQueue policyQueue; // 所在策略队列，不在任何队列时为 null
+
+    ExoCacheEntry(String key, long position) {
+        this.key = key;
+        this.position = position;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getLength() {
+        return length;
+    }
+}
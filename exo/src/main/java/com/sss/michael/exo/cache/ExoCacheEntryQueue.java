@@ -0,0 +1,69 @@
+package com.sss.michael.exo.cache;
+
+/**
+ * @author Michael by 61642
+ * @date 2026/10/17 13:15
+ * @Description 淘汰策略使用的侵入式条目队列
+ * 头部为最早入队 / 最久未访问的条目，同时统计条目数与总字节数。入队、出队、移到尾部均为 O(1)
+ */
+final class ExoCacheEntryQueue {
+    private ExoCacheEntry head;
+    private ExoCacheEntry tail;
+    private int size;
+    private long bytes;
+
+    void addLast(ExoCacheEntry entry) {
+        entry.policyPrev = tail;
+        entry.policyNext = null;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.policyNext = entry;
+        }
+        tail = entry;
+        entry.policyQueue = this;
+        size++;
+        bytes += entry.length;
+    }
+
+    void remove(ExoCacheEntry entry) {
+        if (entry.policyPrev == null) {
+            head = entry.policyNext;
+        } else {
+            entry.policyPrev.policyNext = entry.policyNext;
+        }
+        if (entry.policyNext == null) {
+            tail = entry.policyPrev;
+        } else {
+            entry.policyNext.policyPrev = entry.policyPrev;
+        }
+        entry.policyPrev = null;
+        entry.policyNext = null;
+        entry.policyQueue = null;
+        size--;
+        bytes -= entry.length;
+    }
+
+    void moveToLast(ExoCacheEntry entry) {
+        if (tail != entry) {
+            remove(entry);
+            addLast(entry);
+        }
+    }
+
+    ExoCacheEntry peekFirst() {
+        return head;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+}
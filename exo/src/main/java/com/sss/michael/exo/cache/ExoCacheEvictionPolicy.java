@@ -0,0 +1,37 @@
+package com.sss.michael.exo.cache;
+
+import androidx.annotation.Nullable;
+
+/**
+ * @author Michael by 61642
+ * @date 2026/10/17 13:05
+ * @Description 缓存淘汰策略
+ * {@link ExpirableLruCacheEvictor} 负责片段索引、过期淘汰与容量统计，超出容量 / 条目上限时向策略索取淘汰对象。
+ * 所有回调都在淘汰器锁内串行调用，实现无需自行加锁，但应保持 O(1) 或有界开销（回调运行在缓存写入线程上）。
+ * 条目在加入后、移除前的长度保持不变；同一位置的片段被替换时按先移除再加入通知
+ */
+public interface ExoCacheEvictionPolicy {
+
+    /**
+     * 新片段写入缓存
+     */
+    void onEntryAdded(ExoCacheEntry entry);
+
+    /**
+     * 片段被读取
+     */
+    void onEntryAccessed(ExoCacheEntry entry);
+
+    /**
+     * 片段已从缓存删除（淘汰、过期或外部删除）
+     */
+    void onEntryRemoved(ExoCacheEntry entry);
+
+    /**
+     * 选择下一个淘汰对象，淘汰器随后删除该片段并回调 {@link #onEntryRemoved(ExoCacheEntry)}
+     *
+     * @return 策略中无条目时返回 null
+     */
+    @Nullable
+    ExoCacheEntry selectVictim();
+}
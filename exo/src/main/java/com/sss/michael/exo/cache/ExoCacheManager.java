@@ -9,10 +9,10 @@ import androidx.media3.datasource.cache.CacheDataSource;
 import androidx.media3.datasource.cache.CacheSpan;
 import androidx.media3.datasource.cache.SimpleCache;
 
+import com.sss.michael.exo.bean.ExoCacheKeyStats;
 import com.sss.michael.exo.util.ExoLog;
 
 import java.io.File;
-import java.util.Iterator;
 import java.util.NavigableSet;
 
 /**
@@ -22,6 +22,12 @@ import java.util.NavigableSet;
  */
 public class ExoCacheManager {
     private static SimpleCache sCache;
+    // 淘汰器同时维护按 key 的缓存统计，缓存命中与总大小查询直接读取
+    private static ExpirableLruCacheEvictor sEvictor;
+    // 读取入口包装：拦截两次清扫之间已过期的片段
+    private static ExpiryGuardedCache sGuardedCache;
+    // 后台清扫器：过期与超限淘汰不在缓存写入回调中执行
+    private static ExoCacheSweeper sSweeper;
     private static ExoCacheConfig sCacheConfig;
 
     // 初始化配置
@@ -61,13 +67,31 @@ public class ExoCacheManager {
             ExpirableLruCacheEvictor evictor = new ExpirableLruCacheEvictor(
                     config.getCacheSize(),
                     config.getCacheExpireTime(),
-                    config.getMaxMetadataEntryCount()
+                    config.getMaxMetadataEntryCount(),
+                    config.getEvictionPolicyFactory().create(config)
             );
             sCache = new SimpleCache(cacheDir, evictor, new StandaloneDatabaseProvider(context));
+            sEvictor = evictor;
+            sGuardedCache = new ExpiryGuardedCache(sCache, evictor);
+            sSweeper = new ExoCacheSweeper(evictor, config.getSweepInterval(), config.getSweepBatchSize());
+            sSweeper.start();
         }
         return sCache;
     }
 
+    /**
+     * 获取供读取使用的缓存：命中已过期片段时丢弃并回源
+     */
+    private static synchronized ExpiryGuardedCache getGuardedCache(Context context) {
+        getCache(context);
+        return sGuardedCache;
+    }
+
+    private static synchronized ExpirableLruCacheEvictor getEvictor(Context context) {
+        getCache(context);
+        return sEvictor;
+    }
+
     /**
      * 创建支持缓存的DataSource工厂
      */
@@ -76,46 +100,40 @@ public class ExoCacheManager {
                 .setAllowCrossProtocolRedirects(true);
 
         return new CacheDataSource.Factory()
-                .setCache(getCache(context))
+                .setCache(getGuardedCache(context))
                 .setUpstreamDataSourceFactory(httpFactory)
                 .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
     }
 
     /**
-     * 检查URL是否已缓存（且达到预加载大小）
-     * 解决：无 Cache.Stats 问题，通过遍历 CacheSpan 计算总缓存大小
+     * 检查URL起播所需的头部数据是否已缓存
+     * 要求从位置 0 起连续缓存预加载大小（文件更短时为整个文件），拖动播放后散落的缓存区间不计入，
+     * 避免头部缺失时误判为已缓存而跳过预加载。读取淘汰器增量维护的 key 统计，O(1)，不遍历 CacheSpan
      */
     public static boolean isCacheCompleted(Context context, String url) {
+        return ExoCachePrefixChecker.isStartupDataCached(getCacheKeyStats(context, url), getConfig().getPreloadSize());
+    }
+
+    /**
+     * 获取单个URL的缓存统计（头部连续字节数 / 总字节数 / 最近访问时间）
+     *
+     * @return 未配置缓存目录或该URL无缓存时返回 null
+     */
+    public static ExoCacheKeyStats getCacheKeyStats(Context context, String url) {
         if (TextUtils.isEmpty(url)) {
-            return false;
+            return null;
         }
         if (getConfig().getCacheDir() == null) {
             ExoLog.log("Skip cache check: cache dir is not configured");
-            return false;
+            return null;
         }
-        ExoCacheConfig config = getConfig();
-        String cacheKey = config.getCacheKeyGenerator().generateKey(url);
-        SimpleCache cache = getCache(context);
-
-        // 遍历该 key 对应的所有 CacheSpan，计算总缓存长度
-        long totalCacheLength = 0;
+        String cacheKey = getConfig().getCacheKeyGenerator().generateKey(url);
         try {
-            // 获取该 key 对应的所有缓存片段
-            NavigableSet<CacheSpan> cacheSpans = cache.getCachedSpans(cacheKey);
-            if (cacheSpans == null || cacheSpans.isEmpty()) {
-                return false;
-            }
-            // 累加所有片段的长度
-            for (CacheSpan span : cacheSpans) {
-                totalCacheLength += span.length;
-            }
+            return getEvictor(context).getKeyStats(cacheKey);
         } catch (Exception e) {
-            ExoLog.log("Cache completion query failed: " + e.getMessage());
-            return false;
+            ExoLog.log("Cache stats query failed: " + e.getMessage());
+            return null;
         }
-
-        // 缓存总长度 >= 预加载大小，视为缓存完成
-        return totalCacheLength >= config.getPreloadSize();
     }
 
     /**
@@ -161,7 +179,13 @@ public class ExoCacheManager {
         }
 
         try {
-            // 先释放缓存资源
+            // 先停止后台清扫，再释放缓存资源
+            if (sSweeper != null) {
+                sSweeper.release();
+                sSweeper = null;
+            }
+            sGuardedCache = null;
+            sEvictor = null;
             if (sCache != null) {
                 sCache.release();
                 sCache = null; // 置空，下次获取将重新创建
@@ -180,31 +204,15 @@ public class ExoCacheManager {
 
     /**
      * 获取当前缓存大小（字节）
-     * 解决：无 Cache.Stats 问题，通过遍历所有 CacheSpan 计算总大小
+     * 读取淘汰器增量维护的总大小，O(1)，不遍历 CacheSpan
      */
     public static long getCurrentCacheSize(Context context) {
-        SimpleCache cache = getCache(context);
-        long totalSize = 0;
-
         try {
-            // 获取所有缓存的 key 迭代器
-            Iterator<String> keyIterator = cache.getKeys().iterator();
-            while (keyIterator.hasNext()) {
-                String key = keyIterator.next();
-                // 遍历每个 key 对应的 CacheSpan，累加长度
-                NavigableSet<CacheSpan> cacheSpans = cache.getCachedSpans(key);
-                if (cacheSpans != null && !cacheSpans.isEmpty()) {
-                    for (CacheSpan span : cacheSpans) {
-                        totalSize += span.length;
-                    }
-                }
-            }
+            return getEvictor(context).getCurrentCacheSize();
         } catch (Exception e) {
             ExoLog.log("Get current cache size failed: " + e.getMessage());
-            totalSize = 0;
+            return 0;
         }
-
-        return totalSize;
     }
 
     /**
@@ -0,0 +1,41 @@
+package com.sss.michael.exo.cache;
+
+import androidx.annotation.Nullable;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+
+import com.sss.michael.exo.bean.ExoCacheKeyStats;
+
+/**
+ * @author Michael by 61642
+ * @date 2026/10/17 11:30
+ * @Description 起播数据缓存检查
+ * 判断起播所需的头部数据是否已连续缓存，而不是累加所有片段长度（拖动后散落的区间不能保证首帧）：
+ * 从位置 0 起连续缓存 min(预加载大小, 文件长度) 字节才视为就绪，文件长度未知时要求连续缓存达到预加载大小。
+ * 只读取淘汰器增量维护的 key 统计（{@link ExpirableLruCacheEvictor#getKeyStats(String)}），O(1)，
+ * 不访问 SimpleCache、不遍历片段，可在预加载调度等频繁调用的路径上使用
+ */
+@UnstableApi
+final class ExoCachePrefixChecker {
+
+    private ExoCachePrefixChecker() {
+    }
+
+    /**
+     * 起播所需的头部数据是否已缓存
+     *
+     * @param stats       该 key 的缓存统计，无缓存时为 null
+     * @param preloadSize 预加载大小（字节）
+     */
+    static boolean isStartupDataCached(@Nullable ExoCacheKeyStats stats, long preloadSize) {
+        if (stats == null) {
+            return false;
+        }
+        long required = preloadSize;
+        long contentLength = stats.getContentLength();
+        if (contentLength != C.LENGTH_UNSET) {
+            required = Math.min(required, contentLength);
+        }
+        return required > 0 && stats.getContiguousBytes() >= required;
+    }
+}
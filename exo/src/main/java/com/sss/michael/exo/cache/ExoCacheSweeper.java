@@ -0,0 +1,160 @@
+package com.sss.michael.exo.cache;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.sss.michael.exo.util.ExoLog;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Michael by 61642
+ * @date 2026/10/17 10:20
+ * @Description 缓存后台清扫器
+ * 在低优先级线程上分批调用 {@link ExpirableLruCacheEvictor#sweep(int)}，淘汰过期与超限的缓存片段：
+ * 1. 按配置的间隔定时清扫，最久未访问片段即将过期时提前到其过期时刻；
+ * 2. 淘汰器回调发现超限 / 读到过期片段时请求清扫；
+ * 3. 主线程空闲时补充清扫，把磁盘删除挪到用户无操作的时段。
+ * 单批淘汰数量有上限，仍有剩余时让出线程后立即续扫，避免长时间占用缓存锁阻塞加载线程
+ */
+public class ExoCacheSweeper {
+    // 主线程空闲触发清扫的最小间隔（毫秒），避免频繁空闲导致清扫过密
+    private static final long IDLE_SWEEP_MIN_INTERVAL_MS = 5 * 1000;
+
+    private final ExpirableLruCacheEvictor evictor;
+    private final long sweepInterval;
+    private final int sweepBatchSize;
+    private final HandlerThread sweepThread;
+    private final Handler sweepHandler;
+    private final Handler mainHandler;
+    // 是否已有待执行的清扫任务（请求合并，回调线程只做一次 CAS）
+    private final AtomicBoolean sweepPending = new AtomicBoolean(false);
+    // 上次清扫完成时间（uptimeMillis）
+    private volatile long lastSweepTime;
+    private volatile boolean released;
+
+    private final Runnable sweepRunnable = new Runnable() {
+        @Override
+        public void run() {
+            sweepPending.set(false);
+            if (released) {
+                return;
+            }
+            boolean hasMore;
+            try {
+                hasMore = evictor.sweep(sweepBatchSize);
+            } catch (Exception e) {
+                ExoLog.log("缓存清扫失败：" + e.getMessage());
+                hasMore = false;
+            }
+            lastSweepTime = SystemClock.uptimeMillis();
+            if (hasMore) {
+                // 仍有待淘汰片段：重新排队而非循环，让出缓存锁给加载线程
+                requestSweep();
+            } else {
+                scheduleNextSweep();
+            }
+        }
+    };
+
+    // 定时清扫：到点后走请求流程，与回调触发的清扫合并
+    private final Runnable scheduledSweepRunnable = new Runnable() {
+        @Override
+        public void run() {
+            requestSweep();
+        }
+    };
+
+    // 主线程空闲回调：距上次清扫足够久时补充一次清扫，返回 true 保持注册
+    private final MessageQueue.IdleHandler idleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            if (!released && SystemClock.uptimeMillis() - lastSweepTime >= IDLE_SWEEP_MIN_INTERVAL_MS) {
+                requestSweep();
+            }
+            return !released;
+        }
+    };
+
+    /**
+     * @param evictor        缓存淘汰器
+     * @param sweepInterval  定时清扫间隔（毫秒）
+     * @param sweepBatchSize 单批最多淘汰的片段数
+     */
+    public ExoCacheSweeper(ExpirableLruCacheEvictor evictor, long sweepInterval, int sweepBatchSize) {
+        this.evictor = evictor;
+        this.sweepInterval = sweepInterval;
+        this.sweepBatchSize = sweepBatchSize;
+        this.sweepThread = new HandlerThread("ExoCacheSweeper", Process.THREAD_PRIORITY_BACKGROUND);
+        this.sweepThread.start();
+        this.sweepHandler = new Handler(sweepThread.getLooper());
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * 启动清扫：注册淘汰器的清扫请求与主线程空闲回调，并立即执行首次清扫
+     */
+    public void start() {
+        evictor.setSweepRequestListener(new Runnable() {
+            @Override
+            public void run() {
+                requestSweep();
+            }
+        });
+        // IdleHandler 只能注册到当前线程的消息队列，切到主线程注册
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!released) {
+                    Looper.myQueue().addIdleHandler(idleHandler);
+                }
+            }
+        });
+        requestSweep();
+    }
+
+    /**
+     * 请求尽快执行一次清扫（任意线程可调用，多次请求合并为一次）
+     */
+    public void requestSweep() {
+        if (released || !sweepPending.compareAndSet(false, true)) {
+            return;
+        }
+        sweepHandler.post(sweepRunnable);
+    }
+
+    /**
+     * 安排下一次定时清扫：取清扫间隔与最久未访问片段剩余有效期的较小值
+     */
+    private void scheduleNextSweep() {
+        long delay = sweepInterval;
+        long nextExpiryDelay = evictor.getNextExpiryDelayMs();
+        if (nextExpiryDelay >= 0 && nextExpiryDelay < delay) {
+            // 过期时刻后再多等 1 毫秒，保证届时判定为已过期
+            delay = nextExpiryDelay + 1;
+        }
+        sweepHandler.removeCallbacks(scheduledSweepRunnable);
+        sweepHandler.postDelayed(scheduledSweepRunnable, delay);
+    }
+
+    /**
+     * 停止清扫并退出清扫线程
+     */
+    public void release() {
+        released = true;
+        evictor.setSweepRequestListener(null);
+        sweepHandler.removeCallbacks(sweepRunnable);
+        sweepHandler.removeCallbacks(scheduledSweepRunnable);
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Looper.myQueue().removeIdleHandler(idleHandler);
+            }
+        });
+        sweepThread.quitSafely();
+    }
+}
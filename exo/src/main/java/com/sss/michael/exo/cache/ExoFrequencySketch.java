@@ -0,0 +1,101 @@
+package com.sss.michael.exo.cache;
+
+/**
+ * @author Michael by 61642
+ * @date 2026/10/17 13:30
+ * @Description 访问频率估计（Count-Min Sketch）
+ * 4 位计数器，每个 long 打包 16 个计数器，每个元素映射到 4 个计数器，频率取最小值（上限 15）。
+ * 表长为预期元素数向上取 2 的幂，约 8 字节 / 元素；累计增量达到表长 10 倍时所有计数减半，
+ * 使频率随时间衰减，旧热点不会永久占据缓存
+ */
+final class ExoFrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    // 每个计数器右移一位后清除跨计数器借位
+    private static final long RESET_MASK = 0x7777777777777777L;
+    // 每个计数器的最低位
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MIN_TABLE_LENGTH = 64;
+    private static final int MAX_TABLE_LENGTH = 1 << 22;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize; // 触发衰减的累计增量
+    private int size; // 自上次衰减以来的累计增量
+
+    /**
+     * @param expectedEntryCount 预期同时跟踪的元素数量
+     */
+    ExoFrequencySketch(int expectedEntryCount) {
+        int length = MIN_TABLE_LENGTH;
+        while (length < expectedEntryCount && length < MAX_TABLE_LENGTH) {
+            length <<= 1;
+        }
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = 10 * length;
+    }
+
+    /**
+     * 估计元素的访问频率（0 ~ 15）
+     */
+    int frequency(int hash) {
+        int spread = spread(hash);
+        int start = (spread & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(spread, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * 元素访问一次，对应计数器加一（已饱和的计数器保持不变）
+     */
+    void increment(int hash) {
+        int spread = spread(hash);
+        int start = (spread & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(spread, i), start + i);
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 所有计数减半（老化），奇数计数减半时的截断误差从累计增量中扣除
+     */
+    private void reset() {
+        int oddCount = 0;
+        for (int i = 0; i < table.length; i++) {
+            oddCount += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (oddCount >>> 2);
+    }
+
+    private int indexOf(int spread, int depth) {
+        long hash = (spread + SEEDS[depth]) * SEEDS[depth];
+        hash += hash >>> 32;
+        return (int) hash & tableMask;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,38 @@
+package com.sss.michael.exo.cache;
+
+import androidx.annotation.Nullable;
+
+/**
+ * @author Michael by 61642
+ * @date 2026/10/17 13:20
+ * @Description LRU 淘汰策略（默认）
+ * 访问即移到队尾，淘汰队首最久未访问的片段
+ */
+public class ExoLruEvictionPolicy implements ExoCacheEvictionPolicy {
+    private final ExoCacheEntryQueue queue = new ExoCacheEntryQueue();
+
+    @Override
+    public void onEntryAdded(ExoCacheEntry entry) {
+        queue.addLast(entry);
+    }
+
+    @Override
+    public void onEntryAccessed(ExoCacheEntry entry) {
+        if (entry.policyQueue == queue) {
+            queue.moveToLast(entry);
+        }
+    }
+
+    @Override
+    public void onEntryRemoved(ExoCacheEntry entry) {
+        if (entry.policyQueue == queue) {
+            queue.remove(entry);
+        }
+    }
+
+    @Nullable
+    @Override
+    public ExoCacheEntry selectVictim() {
+        return queue.peekFirst();
+    }
+}
@@ -0,0 +1,157 @@
+package com.sss.michael.exo.cache;
+
+import androidx.annotation.Nullable;
+
+/**
+ * @author Michael by 61642
+ * @date 2026/10/17 13:40
+ * @Description W-TinyLFU 淘汰策略（按字节加权、区分起播头部）
+ * 缓存按字节划分为三个队列：
+ * 1. 窗口区（1%）：新写入的片段先进入窗口，吸收短时间内的重复读取；
+ * 2. 试用区：窗口溢出的片段在主区有空间时直接进入，主区已满时需通过准入比较；
+ * 3. 保护区（主区的 80%）：试用区内再次被读取的片段晋升到这里，超出时最久未访问的降回试用区。
+ * 准入比较：窗口最老的候选与试用区的淘汰对象比较保留价值，价值 = 访问频率（{@link ExoFrequencySketch}）× 代价权重 / 片段字节数，
+ * 候选价值更高才淘汰主区对象、否则淘汰候选。按字节归一化后，同等频率下大片段价值更低，淘汰一个大片段即可腾出多个小片段的空间。短视频流中只划过一次的视频频率低，无法挤掉反复观看的热门内容。
+ * 代价权重：位于预加载大小以内的起播头部片段重新下载会直接拖慢首帧，权重高于尾部片段，同等频率下优先保留头部。
+ * 淘汰对象从试用区头部抽样若干个，取价值最低者，避免逐个比较带来的大片段连锁淘汰
+ */
+public class ExoTinyLfuEvictionPolicy implements ExoCacheEvictionPolicy {
+    // 窗口区占总容量的比例
+    private static final float WINDOW_RATIO = 0.01f;
+    // 保护区占主区容量的比例
+    private static final float PROTECTED_RATIO = 0.8f;
+    // 起播头部片段的代价权重（尾部为 1）
+    private static final int PREFIX_COST_WEIGHT = 2;
+    // 主区淘汰对象的抽样数量
+    private static final int VICTIM_SAMPLE_COUNT = 8;
+    // 未限制容量时按该平均片段大小估算频率表规模
+    private static final long ESTIMATED_ENTRY_SIZE = 1024 * 1024;
+
+    private final long windowCapacity;
+    private final long mainCapacity;
+    private final long protectedCapacity;
+    private final long prefixBytes;
+    private final ExoFrequencySketch sketch;
+
+    private final ExoCacheEntryQueue window = new ExoCacheEntryQueue();
+    private final ExoCacheEntryQueue probation = new ExoCacheEntryQueue();
+    private final ExoCacheEntryQueue protectedQueue = new ExoCacheEntryQueue();
+
+    /**
+     * @param maxCacheSize          缓存总容量（字节，<=0 表示不限制）
+     * @param maxMetadataEntryCount 条目上限（<=0 表示不限制），用于估算频率表规模
+     * @param prefixBytes           起播头部大小（字节），起始位置在此之前的片段视为头部
+     */
+    public ExoTinyLfuEvictionPolicy(long maxCacheSize, int maxMetadataEntryCount, long prefixBytes) {
+        long capacity = maxCacheSize > 0 ? maxCacheSize : Long.MAX_VALUE;
+        this.windowCapacity = Math.max(1, (long) (capacity * WINDOW_RATIO));
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = (long) (mainCapacity * PROTECTED_RATIO);
+        this.prefixBytes = prefixBytes;
+        int expectedEntryCount = maxMetadataEntryCount > 0
+                ? maxMetadataEntryCount
+                : (int) Math.min(Integer.MAX_VALUE, capacity / ESTIMATED_ENTRY_SIZE);
+        this.sketch = new ExoFrequencySketch(expectedEntryCount);
+    }
+
+    @Override
+    public void onEntryAdded(ExoCacheEntry entry) {
+        sketch.increment(hash(entry));
+        window.addLast(entry);
+        // 主区有空间时窗口溢出的片段直接进入试用区，主区已满时留到淘汰阶段做准入比较
+        while (window.bytes() > windowCapacity && window.size() > 1) {
+            ExoCacheEntry candidate = window.peekFirst();
+            if (mainBytes() + candidate.length > mainCapacity) {
+                break;
+            }
+            window.remove(candidate);
+            probation.addLast(candidate);
+        }
+    }
+
+    @Override
+    public void onEntryAccessed(ExoCacheEntry entry) {
+        sketch.increment(hash(entry));
+        ExoCacheEntryQueue queue = entry.policyQueue;
+        if (queue == window || queue == protectedQueue) {
+            queue.moveToLast(entry);
+        } else if (queue == probation) {
+            // 试用区再次命中：晋升保护区，保护区超限时最久未访问的降回试用区
+            probation.remove(entry);
+            protectedQueue.addLast(entry);
+            while (protectedQueue.bytes() > protectedCapacity && protectedQueue.size() > 1) {
+                ExoCacheEntry demoted = protectedQueue.peekFirst();
+                protectedQueue.remove(demoted);
+                probation.addLast(demoted);
+            }
+        }
+    }
+
+    @Override
+    public void onEntryRemoved(ExoCacheEntry entry) {
+        ExoCacheEntryQueue queue = entry.policyQueue;
+        if (queue == window || queue == probation || queue == protectedQueue) {
+            queue.remove(entry);
+        }
+    }
+
+    @Nullable
+    @Override
+    public ExoCacheEntry selectVictim() {
+        ExoCacheEntry mainVictim = sampleMainVictim();
+        if (window.isEmpty()) {
+            return mainVictim;
+        }
+        ExoCacheEntry candidate = window.peekFirst();
+        if (mainVictim == null) {
+            return candidate;
+        }
+        if (window.bytes() <= windowCapacity) {
+            // 窗口未溢出：超限来自主区，直接淘汰主区对象
+            return mainVictim;
+        }
+        // 准入比较：候选价值更高则进入试用区并淘汰主区对象，否则淘汰候选
+        if (retentionValue(candidate) > retentionValue(mainVictim)) {
+            window.remove(candidate);
+            probation.addLast(candidate);
+            return mainVictim;
+        }
+        return candidate;
+    }
+
+    /**
+     * 从试用区（为空时从保护区）头部抽样，返回保留价值最低的条目
+     */
+    @Nullable
+    private ExoCacheEntry sampleMainVictim() {
+        ExoCacheEntry first = probation.isEmpty() ? protectedQueue.peekFirst() : probation.peekFirst();
+        ExoCacheEntry victim = first;
+        double victimValue = Double.MAX_VALUE;
+        int sampled = 0;
+        for (ExoCacheEntry entry = first; entry != null && sampled < VICTIM_SAMPLE_COUNT; entry = entry.policyNext, sampled++) {
+            double value = retentionValue(entry);
+            if (value < victimValue) {
+                victim = entry;
+                victimValue = value;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * 单位字节的保留价值：访问频率 × 代价权重 / 片段字节数
+     */
+    private double retentionValue(ExoCacheEntry entry) {
+        int frequency = sketch.frequency(hash(entry));
+        int weight = entry.position < prefixBytes ? PREFIX_COST_WEIGHT : 1;
+        return (double) frequency * weight / Math.max(1, entry.length);
+    }
+
+    private long mainBytes() {
+        return probation.bytes() + protectedQueue.bytes();
+    }
+
+    private static int hash(ExoCacheEntry entry) {
+        return entry.key.hashCode() * 31 + (int) (entry.position ^ (entry.position >>> 32));
+    }
+}
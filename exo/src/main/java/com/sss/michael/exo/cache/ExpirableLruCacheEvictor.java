@@ -1,69 +1,107 @@
 package com.sss.michael.exo.cache;
 
 import androidx.annotation.NonNull;
+import androidx.media3.common.C;
 import androidx.media3.common.util.UnstableApi;
 import androidx.media3.datasource.cache.Cache;
 import androidx.media3.datasource.cache.CacheEvictor;
 import androidx.media3.datasource.cache.CacheSpan;
+import androidx.media3.datasource.cache.ContentMetadata;
 
+import com.sss.michael.exo.bean.ExoCacheKeyStats;
 import com.sss.michael.exo.util.ExoLog;
 
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Michael by 61642
  * @date 2025/12/30 16:54
  * @Description 磁盘缓存淘汰策略管理器 纯 CacheSpan 实现「LRU + 过期时间」缓存淘汰器
+ * 单一侵入式索引：每个 CacheSpan 对应一个节点，节点同时挂在 LRU 双向链表（头部最久未访问）与按 key + position
+ * 分桶的哈希链上，访问时间以基本类型保存在节点内。添加 / 访问 / 移除均为 O(1)，不再分配查找用的 key 对象、不装箱；
+ * 访问即移到链表尾部，链表同时按访问时间有序，过期清理从头部扫描、遇到第一个未过期节点即停止。
+ * 回调只维护索引、不做任何淘汰扫描（回调运行在 ExoPlayer 写入缓存的加载线程上）；过期与超限淘汰由
+ * {@link ExoCacheSweeper} 在后台线程分批调用 {@link #sweep(int)} 完成。两次清扫之间过期的片段在被读取时
+ * 由 {@link #isStale(CacheSpan)} 识别，{@link ExpiryGuardedCache} 据此丢弃并回源，保证不会返回过期内容。
+ * 同时按 key 增量维护缓存统计（头部连续字节数 / 总字节数 / 文件长度 / 最近访问时间），缓存命中判断无需遍历片段。
+ * 超出容量 / 条目上限时淘汰哪个片段由 {@link ExoCacheEvictionPolicy} 决定（默认 LRU），过期淘汰始终按访问时间进行
  */
 @UnstableApi
 public class ExpirableLruCacheEvictor implements CacheEvictor {
+    // 哈希桶初始容量（2 的幂）
+    private static final int INITIAL_BUCKET_COUNT = 256;
+
     private final long maxCacheSize; // 缓存最大总容量（字节）
     private final long expireTimeMs; // 缓存过期时间（毫秒，<=0 永不过期）
     private final int maxMetadataEntryCount; // 元数据最大条目数（内存管控上限）
     private final ReentrantLock lock = new ReentrantLock(); // 线程安全锁
+    private final ExoCacheEvictionPolicy evictionPolicy; // 超限淘汰策略（初始化完成后才接收条目）
 
     /**
-     * CacheSpan 唯一标识（key + position 确保唯一性）
+     * 索引节点：LRU 链表节点 + 哈希链节点
      */
-    private static class SpanUniqueKey {
-        private final String key; // 缓存主 Key
-        private final long position; // 缓存片段起始位置
-
-        public SpanUniqueKey(String key, long position) {
-            this.key = key;
-            this.position = position;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            SpanUniqueKey that = (SpanUniqueKey) o;
-            return position == that.position && Objects.equals(key, that.key);
+    private static final class SpanNode extends ExoCacheEntry {
+        final int hash; // key + position 的哈希值
+        final KeyEntry keyEntry; // 所属 key 的统计条目
+        CacheSpan span; // 当前 CacheSpan 实例（访问后替换为新实例）
+        long lastAccessTimeMs; // 最后访问时间
+        SpanNode prev; // LRU 前驱（更早访问）
+        SpanNode next; // LRU 后继（更晚访问）
+        SpanNode bucketNext; // 同一哈希桶的下一个节点
+        boolean stale; // 被读取时已过期，等待丢弃
+
+        SpanNode(KeyEntry keyEntry, long position, int hash) {
+            super(keyEntry.key, position);
+            this.hash = hash;
+            this.keyEntry = keyEntry;
         }
+    }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(key, position);
+    /**
+     * 单个 key 的缓存统计，随片段增删增量更新
+     */
+    private static final class KeyEntry {
+        final String key;
+        int spanCount; // 片段数量
+        long contiguousBytes; // 从位置 0 起连续缓存的字节数
+        long totalBytes; // 所有片段长度之和
+        long contentLength = C.LENGTH_UNSET; // 文件总长度（片段添加时从内容元数据读取），未知时为 C.LENGTH_UNSET
+        long lastAccessTimeMs; // 任一片段最近一次添加 / 访问的时间
+
+        KeyEntry(String key) {
+            this.key = key;
         }
     }
 
-    // LRU 顺序映射：按访问顺序排序，存储 CacheSpan 实例
-    private final Map<SpanUniqueKey, CacheSpan> lruSpanMap = new LinkedHashMap<>(16, 0.75f, true);
-    // 访问时间映射：自主维护每个 CacheSpan 的最后访问时间
-    private final Map<SpanUniqueKey, Long> spanAccessTimeMap = new LinkedHashMap<>(16, 0.75f, true);
+    // 哈希桶数组，容量为 2 的幂
+    private SpanNode[] buckets = new SpanNode[INITIAL_BUCKET_COUNT];
+    // LRU 链表头（最久未访问）与尾（最近访问）
+    private SpanNode head;
+    private SpanNode tail;
+    private int spanCount = 0; // 当前索引的 CacheSpan 数量
+    // key → 缓存统计
+    private final HashMap<String, KeyEntry> keyEntries = new HashMap<>();
 
     private long currentCacheSize = 0; // 当前缓存总大小（所有 CacheSpan length 之和）
-    private Cache cache; // 持有 Cache 引用，用于执行 Span 移除操作
+    private volatile Cache cache; // 持有 Cache 引用，用于执行 Span 移除操作
+    // 缓存是否已完成初始化加载：加载期间沿用片段持久化的最后访问时间，过期时间跨进程重启仍然有效
+    private boolean cacheInitialized = false;
+    // 需要清扫时的通知（由清扫器注册，回调中只投递任务，不执行淘汰）
+    private volatile Runnable sweepRequestListener;
 
     public ExpirableLruCacheEvictor(long maxCacheSize, long expireTimeMs, int maxMetadataEntryCount) {
+        this(maxCacheSize, expireTimeMs, maxMetadataEntryCount, new ExoLruEvictionPolicy());
+    }
+
+    public ExpirableLruCacheEvictor(long maxCacheSize, long expireTimeMs, int maxMetadataEntryCount,
+                                    ExoCacheEvictionPolicy evictionPolicy) {
         this.maxCacheSize = maxCacheSize;
         this.expireTimeMs = expireTimeMs;
         this.maxMetadataEntryCount = maxMetadataEntryCount;
+        this.evictionPolicy = evictionPolicy != null ? evictionPolicy : new ExoLruEvictionPolicy();
     }
 
     @Override
@@ -74,7 +112,34 @@ public class ExpirableLruCacheEvictor implements CacheEvictor {
 
     @Override
     public void onCacheInitialized() {
-        ExoLog.log("缓存初始化");
+        lock.lock();
+        try {
+            // 加载顺序与访问时间无关，按访问时间排序一次，恢复链表有序性
+            sortByAccessTime();
+            // 按访问时间顺序交给淘汰策略，策略队列与历史访问顺序一致
+            for (SpanNode node = head; node != null; node = node.next) {
+                evictionPolicy.onEntryAdded(node);
+            }
+            cacheInitialized = true;
+            ExoLog.log("缓存初始化，已索引 " + spanCount + " 个缓存片段");
+        } finally {
+            lock.unlock();
+        }
+        requestSweep();
+    }
+
+    /**
+     * 设置清扫请求通知，缓存超限或读到过期片段时在回调线程触发，实现方只应投递任务
+     */
+    public void setSweepRequestListener(Runnable sweepRequestListener) {
+        this.sweepRequestListener = sweepRequestListener;
+    }
+
+    private void requestSweep() {
+        Runnable listener = sweepRequestListener;
+        if (listener != null) {
+            listener.run();
+        }
     }
 
     @Override
@@ -83,53 +148,66 @@ public class ExpirableLruCacheEvictor implements CacheEvictor {
     }
 
     /**
-     * CacheSpan 添加时 → 维护映射 + 更新大小 + 清理过期/超限 Span
+     * CacheSpan 添加时 → 维护索引 + 更新大小，超限时仅请求后台清扫
      */
     @Override
     public void onSpanAdded(Cache cache, CacheSpan span) {
+        // 回调运行在缓存自身的锁内，读取元数据不会再次等待该锁；在淘汰器锁外读取，不嵌套加锁
+        long contentLength = ContentMetadata.getContentLength(cache.getContentMetadata(span.key));
+        boolean overLimit;
         lock.lock();
         try {
             this.cache = cache;
-            SpanUniqueKey uniqueKey = new SpanUniqueKey(span.key, span.position);
-
-            // 维护 LRU 顺序映射
-            lruSpanMap.put(uniqueKey, span);
+            long now = currentTimeMillis();
+            if (!cacheInitialized && span.lastTouchTimestamp > 0 && span.lastTouchTimestamp < now) {
+                // 初始化加载的历史片段沿用持久化的最后访问时间
+                now = span.lastTouchTimestamp;
+            }
+            SpanNode node = findNode(span.key, span.position);
+            if (node == null) {
+                node = insertNode(span.key, span.position);
+            } else {
+                // 同一位置重复添加：先扣除旧片段大小，再按新片段计入
+                currentCacheSize -= node.span.length;
+                discountSpan(node);
+                if (cacheInitialized) {
+                    evictionPolicy.onEntryRemoved(node);
+                }
+                moveToTail(node);
+            }
+            setSpan(node, span);
+            if (contentLength != C.LENGTH_UNSET) {
+                node.keyEntry.contentLength = contentLength;
+            }
+            node.stale = false;
             // 自主维护初始访问时间（添加时视为首次访问）
-            spanAccessTimeMap.put(uniqueKey, System.currentTimeMillis());
+            node.lastAccessTimeMs = now;
             // 更新当前缓存总大小
             currentCacheSize += span.length;
-
-            // 清理过期 CacheSpan
-            cleanExpiredCacheSpans();
-            // 清理超限 LRU CacheSpan（磁盘容量）
-            trimToMaxSizeByCacheSpans();
-            // 清理元数据超限条目（内存管控）
-            trimMetadataToMaxCount();
+            accountSpan(node, now);
+            if (cacheInitialized) {
+                evictionPolicy.onEntryAdded(node);
+            }
+            overLimit = isOverSize() || isOverCount();
         } finally {
             lock.unlock();
         }
+        if (overLimit) {
+            requestSweep();
+        }
     }
 
     /**
-     * CacheSpan 移除时 → 清理映射 + 更新大小
+     * CacheSpan 移除时 → 清理索引 + 更新大小
      */
     @Override
     public void onSpanRemoved(Cache cache, CacheSpan span) {
         lock.lock();
         try {
             this.cache = cache;
-            SpanUniqueKey uniqueKey = new SpanUniqueKey(span.key, span.position);
-
-            // 从 LRU 顺序映射中移除
-            lruSpanMap.remove(uniqueKey);
-            // 从访问时间映射中移除（避免内存泄漏）
-            spanAccessTimeMap.remove(uniqueKey);
-            // 更新当前缓存总大小
-            currentCacheSize -= span.length;
-
-            // 兼容异常场景：防止缓存大小为负数
-            if (currentCacheSize < 0) {
-                currentCacheSize = 0;
+            SpanNode node = findNode(span.key, span.position);
+            if (node != null) {
+                removeNode(node);
             }
         } finally {
             lock.unlock();
@@ -137,144 +215,430 @@ public class ExpirableLruCacheEvictor implements CacheEvictor {
     }
 
     /**
-     * CacheSpan 被访问时 → 更新 LRU 顺序 + 刷新访问时间
+     * CacheSpan 被访问时 → 移到 LRU 尾部 + 刷新访问时间
+     * 已过期的片段不刷新访问时间，只标记为待丢弃，由读取方经 {@link #isStale(CacheSpan)} 识别后回源
      */
     @Override
     public void onSpanTouched(@NonNull Cache cache, @NonNull CacheSpan oldSpan, CacheSpan newSpan) {
+        boolean stale = false;
         lock.lock();
         try {
             this.cache = cache;
-            SpanUniqueKey newUniqueKey = new SpanUniqueKey(newSpan.key, newSpan.position);
-
-            // 更新 LRU 顺序（重新放入触发 LinkedHashMap 排序）
-            lruSpanMap.put(newUniqueKey, newSpan);
-            // 刷新自主维护的访问时间（关键：解决 Span 无 lastAccessTime 问题）
-            spanAccessTimeMap.put(newUniqueKey, System.currentTimeMillis());
+            long now = currentTimeMillis();
+            SpanNode node = findNode(oldSpan.key, oldSpan.position);
+            if (node == null) {
+                // 未被索引的片段（异常场景）：按新增处理，保证大小统计与索引一致
+                node = insertNode(newSpan.key, newSpan.position);
+                setSpan(node, newSpan);
+                node.lastAccessTimeMs = now;
+                currentCacheSize += newSpan.length;
+                accountSpan(node, now);
+                if (cacheInitialized) {
+                    evictionPolicy.onEntryAdded(node);
+                }
+            } else if (isExpired(node, now)) {
+                node.stale = true;
+                stale = true;
+            } else {
+                moveToTail(node);
+                // 刷新自主维护的访问时间（关键：解决 Span 无 lastAccessTime 问题）
+                node.lastAccessTimeMs = now;
+                node.keyEntry.lastAccessTimeMs = Math.max(node.keyEntry.lastAccessTimeMs, now);
+                if (cacheInitialized) {
+                    evictionPolicy.onEntryAccessed(node);
+                }
+            }
+            node.span = newSpan;
         } finally {
             lock.unlock();
         }
+        if (stale) {
+            requestSweep();
+        }
     }
 
     /**
-     * 清理过期 CacheSpan（使用自主维护的访问时间）
+     * 片段是否已过期（过期片段不应再返回给读取方）
      */
-    private void cleanExpiredCacheSpans() {
-        if (expireTimeMs <= 0 || cache == null || lruSpanMap.isEmpty() || spanAccessTimeMap.isEmpty()) {
-            return;
+    public boolean isStale(CacheSpan span) {
+        if (expireTimeMs <= 0) {
+            return false;
         }
+        lock.lock();
+        try {
+            SpanNode node = findNode(span.key, span.position);
+            return node != null && isExpired(node, currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        long currentTime = System.currentTimeMillis();
-        Iterator<Map.Entry<SpanUniqueKey, CacheSpan>> spanIterator = lruSpanMap.entrySet().iterator();
-
-        while (spanIterator.hasNext()) {
-            Map.Entry<SpanUniqueKey, CacheSpan> spanEntry = spanIterator.next();
-            SpanUniqueKey uniqueKey = spanEntry.getKey();
-            CacheSpan span = spanEntry.getValue();
-
-            // 从自主维护的映射中获取最后访问时间（不再依赖 Span 自身属性）
-            Long lastAccessTime = spanAccessTimeMap.get(uniqueKey);
-            if (lastAccessTime == null) {
-                continue;
-            }
-
-            // 判断是否过期
-            if (currentTime - lastAccessTime > expireTimeMs) {
-                try {
-                    // 精准移除当前过期的 CacheSpan
-                    cache.removeSpan(span);
-                    // 清理两个映射中的记录
-                    spanIterator.remove();
-                    spanAccessTimeMap.remove(uniqueKey);
-                } catch (Exception e) {
-                    // 捕获异常，避免单个 Span 移除失败中断整体流程
-                    e.printStackTrace();
+    /**
+     * 分批清扫：依次淘汰过期片段、超出容量与元数据上限的最久未访问片段，单次最多淘汰 maxEvictions 个
+     * 运行在后台清扫线程。先持有 Cache 监视器再持有本淘汰器的锁，与 Cache 回调淘汰器时的加锁顺序一致，避免死锁；
+     * 批次上限保证加载线程等待 Cache 监视器的时间有界
+     *
+     * @param maxEvictions 单批最多淘汰的片段数
+     * @return 是否仍有待淘汰的片段（调用方应尽快调度下一批）
+     */
+    public boolean sweep(int maxEvictions) {
+        Cache currentCache = cache;
+        if (currentCache == null) {
+            return false;
+        }
+        synchronized (currentCache) {
+            lock.lock();
+            try {
+                long now = currentTimeMillis();
+                int evictCount = 0;
+                // 清理过期 CacheSpan：从头部扫描到第一个未过期节点即停止
+                while (evictCount < maxEvictions && head != null && isExpired(head, now)) {
+                    evict(head);
+                    evictCount++;
+                }
+                // 清理超限 CacheSpan（磁盘容量），淘汰对象由策略选择
+                while (evictCount < maxEvictions && head != null && isOverSize()) {
+                    evict(selectVictim());
+                    evictCount++;
                 }
+                // 清理元数据超限条目（内存管控）
+                while (evictCount < maxEvictions && head != null && isOverCount()) {
+                    evict(selectVictim());
+                    evictCount++;
+                }
+                if (evictCount > 0) {
+                    ExoLog.log("缓存清扫淘汰 " + evictCount + " 个缓存片段，当前缓存大小：" + currentCacheSize / 1024 / 1024 + "MB，条目数：" + spanCount);
+                }
+                return head != null && (isExpired(head, now) || isOverSize() || isOverCount());
+            } finally {
+                lock.unlock();
             }
         }
     }
 
     /**
-     * 按 LRU 规则清理超限 CacheSpan
+     * 距离最久未访问片段过期的剩余时间（毫秒），已过期返回 0，无片段或永不过期返回 -1
      */
-    private void trimToMaxSizeByCacheSpans() {
-        if (maxCacheSize <= 0 || cache == null || lruSpanMap.isEmpty() || currentCacheSize <= maxCacheSize) {
-            return;
+    public long getNextExpiryDelayMs() {
+        if (expireTimeMs <= 0) {
+            return -1;
         }
-        // 打印超限日志，方便排查问题
-        long overSize = currentCacheSize - maxCacheSize;
-        ExoLog.log("磁盘缓存超限，需要淘汰：" + overSize / 1024 / 1024 + "MB（当前：" + currentCacheSize / 1024 / 1024 + "MB，上限：" + maxCacheSize / 1024 / 1024 + "MB）");
-
-        Iterator<Map.Entry<SpanUniqueKey, CacheSpan>> spanIterator = lruSpanMap.entrySet().iterator();
-        int evictCount = 0; // 记录淘汰的缓存片段数量
-        // 循环移除最久未访问的 Span（链表头部），直到缓存大小合规
-        while (spanIterator.hasNext() && currentCacheSize > maxCacheSize) {
-            Map.Entry<SpanUniqueKey, CacheSpan> spanEntry = spanIterator.next();
-            SpanUniqueKey uniqueKey = spanEntry.getKey();
-            CacheSpan oldestSpan = spanEntry.getValue();
-
-            try {
-                // 移除最久未访问的 CacheSpan
-                cache.removeSpan(oldestSpan);
-                // 清理映射 + 更新缓存大小
-                spanIterator.remove();
-                spanAccessTimeMap.remove(uniqueKey);
-                currentCacheSize -= oldestSpan.length;
-                evictCount++;
-            } catch (Exception e) {
-                ExoLog.log("淘汰超限缓存片段失败：" + e.getMessage());
-                e.printStackTrace();
+        lock.lock();
+        try {
+            if (head == null) {
+                return -1;
             }
+            return Math.max(0, head.lastAccessTimeMs + expireTimeMs - currentTimeMillis());
+        } finally {
+            lock.unlock();
         }
-        ExoLog.log("磁盘缓存超限淘汰完成，共淘汰 " + evictCount + " 个缓存片段，当前缓存大小：" + currentCacheSize / 1024 / 1024 + "MB");
+    }
 
+    private boolean isExpired(SpanNode node, long now) {
+        return expireTimeMs > 0 && (node.stale || now - node.lastAccessTimeMs > expireTimeMs);
+    }
+
+    private boolean isOverSize() {
+        return maxCacheSize > 0 && currentCacheSize > maxCacheSize;
+    }
+
+    private boolean isOverCount() {
+        return maxMetadataEntryCount > 0 && spanCount > maxMetadataEntryCount;
     }
 
     /**
-     * 元数据超限清理
+     * 向淘汰策略索取淘汰对象；策略无条目（初始化未完成）或返回非本淘汰器的条目时退回最久未访问的片段
      */
-    private void trimMetadataToMaxCount() {
-        if (maxMetadataEntryCount <= 0 || lruSpanMap.size() <= maxMetadataEntryCount) {
-            return;
+    private SpanNode selectVictim() {
+        ExoCacheEntry victim = cacheInitialized ? evictionPolicy.selectVictim() : null;
+        if (victim instanceof SpanNode && isLinked((SpanNode) victim)) {
+            return (SpanNode) victim;
         }
+        return head;
+    }
 
-        int overCount = lruSpanMap.size() - maxMetadataEntryCount;
-        ExoLog.log("缓存元数据条目超限，需要淘汰：" + overCount + " 条（当前：" + lruSpanMap.size() + " 条，上限：" + maxMetadataEntryCount + " 条）");
+    /**
+     * 删除节点对应的磁盘缓存
+     * Cache 删除成功时会同步回调 {@link #onSpanRemoved}（同一线程，可重入）移除节点；
+     * 删除失败或未回调时这里兜底移除，保证扫描循环总能前进
+     */
+    private void evict(SpanNode node) {
+        try {
+            cache.removeSpan(node.span);
+        } catch (Exception e) {
+            // 捕获异常，避免单个 Span 移除失败中断整体流程
+            ExoLog.log("淘汰缓存片段失败：" + e.getMessage());
+        }
+        if (isLinked(node)) {
+            removeNode(node);
+        }
+    }
 
-        Iterator<Map.Entry<SpanUniqueKey, CacheSpan>> spanIterator = lruSpanMap.entrySet().iterator();
-        int evictCount = 0;
+    /**
+     * 超限清理（同步完成全部淘汰，不受批次限制）
+     */
+    public void trimToMaxSize() {
+        sweep(Integer.MAX_VALUE);
+    }
 
-        // 移除最久未访问的元数据（同步删除对应磁盘缓存）
-        while (spanIterator.hasNext() && lruSpanMap.size() > maxMetadataEntryCount) {
-            Map.Entry<SpanUniqueKey, CacheSpan> spanEntry = spanIterator.next();
-            SpanUniqueKey uniqueKey = spanEntry.getKey();
-            CacheSpan oldestSpan = spanEntry.getValue();
+    /**
+     * 当前索引的缓存总大小（字节）
+     */
+    public long getCurrentCacheSize() {
+        lock.lock();
+        try {
+            return currentCacheSize;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            try {
-                // 删除对应磁盘缓存文件
-                cache.removeSpan(oldestSpan);
-                // 清理元数据映射
-                spanIterator.remove();
-                spanAccessTimeMap.remove(uniqueKey);
-                currentCacheSize -= oldestSpan.length;
-                evictCount++;
-            } catch (Exception e) {
-                ExoLog.log("淘汰元数据超限缓存片段失败：" + e.getMessage());
-                e.printStackTrace();
+    /**
+     * 获取单个 key 的缓存统计快照（O(1)，不遍历片段）
+     *
+     * @return 该 key 无缓存片段时返回 null
+     */
+    public ExoCacheKeyStats getKeyStats(String key) {
+        if (key == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            KeyEntry entry = keyEntries.get(key);
+            if (entry == null) {
+                return null;
             }
+            return new ExoCacheKeyStats(entry.key, entry.contiguousBytes, entry.totalBytes, entry.contentLength,
+                    entry.lastAccessTimeMs);
+        } finally {
+            lock.unlock();
         }
+    }
 
-        ExoLog.log("缓存元数据超限淘汰完成，共淘汰 " + evictCount + " 条，当前元数据条目数：" + lruSpanMap.size());
+    /**
+     * 当前索引的缓存 key 数量
+     */
+    public int getKeyCount() {
+        lock.lock();
+        try {
+            return keyEntries.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * 超限清理
+     * 当前索引的 CacheSpan 数量
      */
-    public void trimToMaxSize() {
+    public int getSpanCount() {
         lock.lock();
         try {
-            trimToMaxSizeByCacheSpans();
+            return spanCount;
         } finally {
             lock.unlock();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 当前时间（毫秒），单元测试可覆写以模拟时间流逝
+     */
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /* ------------------------------ 侵入式索引（需持锁调用） ------------------------------ */
+
+    private static int hash(String key, long position) {
+        int h = key.hashCode() * 31 + (int) (position ^ (position >>> 32));
+        // 扰动高位，避免按 2 的幂取模时只用到低位
+        return h ^ (h >>> 16);
+    }
+
+    private SpanNode findNode(String key, long position) {
+        int h = hash(key, position);
+        for (SpanNode node = buckets[h & (buckets.length - 1)]; node != null; node = node.bucketNext) {
+            if (node.hash == h && node.position == position && node.key.equals(key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 新建节点并挂到哈希桶与 LRU 尾部（片段统计由调用方设置 span 后经 {@link #accountSpan} 计入）
+     */
+    private SpanNode insertNode(String key, long position) {
+        if (spanCount >= buckets.length - (buckets.length >> 2)) {
+            resizeBuckets();
+        }
+        KeyEntry keyEntry = keyEntries.get(key);
+        if (keyEntry == null) {
+            keyEntry = new KeyEntry(key);
+            keyEntries.put(key, keyEntry);
+        }
+        keyEntry.spanCount++;
+        SpanNode node = new SpanNode(keyEntry, position, hash(key, position));
+        int index = node.hash & (buckets.length - 1);
+        node.bucketNext = buckets[index];
+        buckets[index] = node;
+        linkLast(node);
+        spanCount++;
+        return node;
+    }
+
+    /**
+     * 从哈希桶与 LRU 链表摘除节点，并扣除其大小
+     */
+    private void removeNode(SpanNode node) {
+        int index = node.hash & (buckets.length - 1);
+        SpanNode prevInBucket = null;
+        for (SpanNode current = buckets[index]; current != null; current = current.bucketNext) {
+            if (current == node) {
+                if (prevInBucket == null) {
+                    buckets[index] = node.bucketNext;
+                } else {
+                    prevInBucket.bucketNext = node.bucketNext;
+                }
+                break;
+            }
+            prevInBucket = current;
+        }
+        node.bucketNext = null;
+        unlink(node);
+        spanCount--;
+        currentCacheSize -= node.span.length;
+        // 兼容异常场景：防止缓存大小为负数
+        if (currentCacheSize < 0) {
+            currentCacheSize = 0;
+        }
+        discountSpan(node);
+        if (cacheInitialized) {
+            evictionPolicy.onEntryRemoved(node);
+        }
+        if (--node.keyEntry.spanCount == 0) {
+            keyEntries.remove(node.key);
+        }
+    }
+
+    private static void setSpan(SpanNode node, CacheSpan span) {
+        node.span = span;
+        node.length = span.length;
+    }
+
+    /**
+     * 将节点当前片段计入所属 key 的统计：片段恰好接在连续区间末尾时向后延伸连续区间
+     */
+    private void accountSpan(SpanNode node, long accessTimeMs) {
+        KeyEntry entry = node.keyEntry;
+        entry.totalBytes += node.span.length;
+        if (accessTimeMs > entry.lastAccessTimeMs) {
+            entry.lastAccessTimeMs = accessTimeMs;
+        }
+        if (node.position == entry.contiguousBytes) {
+            // 片段互不重叠：沿位置索引逐段向后查找，直到出现空洞
+            SpanNode next = node;
+            while (next != null && next.span.length > 0) {
+                entry.contiguousBytes += next.span.length;
+                next = findNode(entry.key, entry.contiguousBytes);
+            }
+        }
+    }
+
+    /**
+     * 从所属 key 的统计中扣除节点当前片段：片段位于连续区间内时连续区间截断到片段起点
+     */
+    private void discountSpan(SpanNode node) {
+        KeyEntry entry = node.keyEntry;
+        entry.totalBytes -= node.span.length;
+        if (entry.totalBytes < 0) {
+            entry.totalBytes = 0;
+        }
+        if (node.position < entry.contiguousBytes) {
+            entry.contiguousBytes = node.position;
+        }
+    }
+
+    /**
+     * 桶数组扩容为两倍，节点按哈希值重新分桶（不重新分配节点）
+     */
+    private void resizeBuckets() {
+        SpanNode[] oldBuckets = buckets;
+        SpanNode[] newBuckets = new SpanNode[oldBuckets.length << 1];
+        int mask = newBuckets.length - 1;
+        for (SpanNode bucket : oldBuckets) {
+            SpanNode node = bucket;
+            while (node != null) {
+                SpanNode next = node.bucketNext;
+                int index = node.hash & mask;
+                node.bucketNext = newBuckets[index];
+                newBuckets[index] = node;
+                node = next;
+            }
+        }
+        buckets = newBuckets;
+    }
+
+    /**
+     * 按访问时间对 LRU 链表做一次稳定排序（仅初始化加载完成时调用）
+     */
+    private void sortByAccessTime() {
+        if (spanCount < 2) {
+            return;
+        }
+        SpanNode[] nodes = new SpanNode[spanCount];
+        int count = 0;
+        for (SpanNode node = head; node != null; node = node.next) {
+            nodes[count++] = node;
+        }
+        Arrays.sort(nodes, 0, count, ACCESS_TIME_ORDER);
+        head = null;
+        tail = null;
+        for (int i = 0; i < count; i++) {
+            linkLast(nodes[i]);
+        }
+    }
+
+    private static final Comparator<SpanNode> ACCESS_TIME_ORDER = new Comparator<SpanNode>() {
+        @Override
+        public int compare(SpanNode a, SpanNode b) {
+            return Long.compare(a.lastAccessTimeMs, b.lastAccessTimeMs);
+        }
+    };
+
+    private boolean isLinked(SpanNode node) {
+        return node.prev != null || node.next != null || head == node;
+    }
+
+    private void linkLast(SpanNode node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+    }
+
+    private void unlink(SpanNode node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private void moveToTail(SpanNode node) {
+        if (tail != node) {
+            unlink(node);
+            linkLast(node);
+        }
+    }
+}
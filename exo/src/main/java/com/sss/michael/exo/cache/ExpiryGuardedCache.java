@@ -0,0 +1,146 @@
+package com.sss.michael.exo.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.cache.Cache;
+import androidx.media3.datasource.cache.CacheSpan;
+import androidx.media3.datasource.cache.ContentMetadata;
+import androidx.media3.datasource.cache.ContentMetadataMutations;
+
+import java.io.File;
+import java.util.NavigableSet;
+import java.util.Set;
+
+/**
+ * @author Michael by 61642
+ * @date 2026/10/17 10:40
+ * @Description 过期保护缓存
+ * 过期淘汰由 {@link ExoCacheSweeper} 在后台分批完成，两次清扫之间过期的片段仍留在磁盘上。
+ * 该包装在读取入口拦截：命中的缓存片段已过期时先删除再重新获取，读取方拿到空洞片段后回源下载，
+ * 保证超过 {@link ExoCacheConfig#getCacheExpireTime()} 的内容不会被返回。其余方法直接委托
+ */
+@UnstableApi
+final class ExpiryGuardedCache implements Cache {
+    private final Cache delegate;
+    private final ExpirableLruCacheEvictor evictor;
+
+    ExpiryGuardedCache(Cache delegate, ExpirableLruCacheEvictor evictor) {
+        this.delegate = delegate;
+        this.evictor = evictor;
+    }
+
+    @Override
+    public CacheSpan startReadWrite(String key, long position, long length) throws InterruptedException, CacheException {
+        CacheSpan span = delegate.startReadWrite(key, position, length);
+        if (isStale(span)) {
+            delegate.removeSpan(span);
+            span = delegate.startReadWrite(key, position, length);
+        }
+        return span;
+    }
+
+    @Nullable
+    @Override
+    public CacheSpan startReadWriteNonBlocking(String key, long position, long length) throws CacheException {
+        CacheSpan span = delegate.startReadWriteNonBlocking(key, position, length);
+        if (isStale(span)) {
+            delegate.removeSpan(span);
+            span = delegate.startReadWriteNonBlocking(key, position, length);
+        }
+        return span;
+    }
+
+    private boolean isStale(@Nullable CacheSpan span) {
+        return span != null && span.isCached && evictor.isStale(span);
+    }
+
+    @Override
+    public long getUid() {
+        return delegate.getUid();
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+    }
+
+    @NonNull
+    @Override
+    public NavigableSet<CacheSpan> addListener(String key, Listener listener) {
+        return delegate.addListener(key, listener);
+    }
+
+    @Override
+    public void removeListener(String key, Listener listener) {
+        delegate.removeListener(key, listener);
+    }
+
+    @NonNull
+    @Override
+    public NavigableSet<CacheSpan> getCachedSpans(String key) {
+        return delegate.getCachedSpans(key);
+    }
+
+    @NonNull
+    @Override
+    public Set<String> getKeys() {
+        return delegate.getKeys();
+    }
+
+    @Override
+    public long getCacheSpace() {
+        return delegate.getCacheSpace();
+    }
+
+    @Override
+    public File startFile(String key, long position, long length) throws CacheException {
+        return delegate.startFile(key, position, length);
+    }
+
+    @Override
+    public void commitFile(File file, long length) throws CacheException {
+        delegate.commitFile(file, length);
+    }
+
+    @Override
+    public void releaseHoleSpan(CacheSpan holeSpan) {
+        delegate.releaseHoleSpan(holeSpan);
+    }
+
+    @Override
+    public void removeResource(String key) {
+        delegate.removeResource(key);
+    }
+
+    @Override
+    public void removeSpan(CacheSpan span) {
+        delegate.removeSpan(span);
+    }
+
+    @Override
+    public boolean isCached(String key, long position, long length) {
+        return delegate.isCached(key, position, length);
+    }
+
+    @Override
+    public long getCachedLength(String key, long position, long length) {
+        return delegate.getCachedLength(key, position, length);
+    }
+
+    @Override
+    public long getCachedBytes(String key, long position, long length) {
+        return delegate.getCachedBytes(key, position, length);
+    }
+
+    @Override
+    public void applyContentMetadataMutations(String key, ContentMetadataMutations mutations) throws CacheException {
+        delegate.applyContentMetadataMutations(key, mutations);
+    }
+
+    @NonNull
+    @Override
+    public ContentMetadata getContentMetadata(String key) {
+        return delegate.getContentMetadata(key);
+    }
+}
@@ -42,6 +42,13 @@ public class ExoControllerWrapper implements IExoController, IExoPcmStreamContro
         }
     }
 
+    @Override
+    public void setSpectrumActive(boolean active) {
+        if (iExoController != null) {
+            iExoController.setSpectrumActive(active);
+        }
+    }
+
     @Override
     public void rePlay() {
         if (iExoController != null) {
@@ -182,17 +189,19 @@ public class ExoControllerWrapper implements IExoController, IExoPcmStreamContro
     }
 
     @Override
-    public void appendPcmData(ByteBuffer buffer) {
+    public int appendPcmData(ByteBuffer buffer) {
         if (iExoPcmStreamController != null) {
-            iExoPcmStreamController.appendPcmData(buffer);
+            return iExoPcmStreamController.appendPcmData(buffer);
         }
+        return 0;
     }
 
     @Override
-    public void appendPcmData(byte[] data, int offset, int length) {
+    public int appendPcmData(byte[] data, int offset, int length) {
         if (iExoPcmStreamController != null) {
-            iExoPcmStreamController.appendPcmData(data, offset, length);
+            return iExoPcmStreamController.appendPcmData(data, offset, length);
         }
+        return 0;
     }
 
     @Override
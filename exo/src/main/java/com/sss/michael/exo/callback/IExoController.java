@@ -20,6 +20,13 @@ public interface IExoController {
      */
     void setEqualizer(@NonNull ExoEqualizerPreset exoEqualizerPreset);
 
+    /**
+     * 启用 / 旁路频谱分析（频谱可视化组件按自身可见性调用），旁路期间不产生 FFT 开销
+     *
+     * @param active 是否需要频谱数据
+     */
+    void setSpectrumActive(boolean active);
+
     /**
      * 重新播放
      */
@@ -3,6 +3,7 @@ package com.sss.michael.exo.callback;
 /**
  * FFT数据回调监听器
  * 包含FFT原始数据回调和幅度数据回调
+ * ExoSpectrumProcessor 在低优先级的音频分析线程上直接回调，需要刷新 UI 时请自行切换到主线程
  */
 public interface IExoFFTCallBack {
     /**
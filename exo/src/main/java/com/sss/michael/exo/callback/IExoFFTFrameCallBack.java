@@ -0,0 +1,19 @@
+package com.sss.michael.exo.callback;
+
+import com.sss.michael.exo.processor.ExoSpectrumFrame;
+
+/**
+ * 频谱帧复用回调
+ * 实现该接口的监听器不再收到每帧新分配的数组，而是直接收到生产方循环复用的 {@link ExoSpectrumFrame}：
+ * 帧内数组只在回调期间有效，不可跨帧持有；实现该接口后 {@link #onFFTReady} / {@link #onMagnitudeReady}
+ * 不再被库内分发方调用，可保留空实现
+ */
+public interface IExoFFTFrameCallBack extends IExoFFTCallBack {
+
+    /**
+     * 频谱帧回调
+     *
+     * @param frame 最新频谱帧，回调返回后会被复用
+     */
+    void onSpectrumFrame(ExoSpectrumFrame frame);
+}
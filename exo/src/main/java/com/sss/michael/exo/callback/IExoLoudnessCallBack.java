@@ -0,0 +1,18 @@
+package com.sss.michael.exo.callback;
+
+import com.sss.michael.exo.processor.ExoLoudnessLevels;
+
+/**
+ * 响度计量回调监听器
+ * 按 ExoConfig.LOUDNESS_METER_INTERVAL_MS 的间隔回调峰值、RMS 与 LUFS 响度，用于电平表和响度归一化决策。
+ * 在低优先级的音频分析线程上回调，需要刷新 UI 时请自行切换到主线程
+ */
+public interface IExoLoudnessCallBack {
+
+    /**
+     * 响度计量回调
+     *
+     * @param levels 最新计量结果，回调返回后会被复用
+     */
+    void onLoudnessReady(ExoLoudnessLevels levels);
+}
@@ -0,0 +1,26 @@
+package com.sss.michael.exo.callback;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 10:40
+ * @Description PCM 多会话混音器回调接口
+ * 所有回调都在主线程分发；若实现类同时实现 {@link IExoFFTCallBack}，混音后的频谱数据也会回调给它
+ */
+public interface IExoPcmMixerCallBack {
+
+    /**
+     * 会话结束并已从混音器移除
+     *
+     * @param sessionId 会话 id
+     * @param canceled  {@code true} 表示被取消（含交叉淡出结束），{@code false} 表示数据自然播完
+     */
+    void onSessionEnded(int sessionId, boolean canceled);
+
+    /**
+     * 混音输出发生错误，混音器已停止输出
+     *
+     * @param errorMsg  错误描述
+     * @param throwable 异常，可能为 {@code null}
+     */
+    void onMixerError(String errorMsg, Throwable throwable);
+}
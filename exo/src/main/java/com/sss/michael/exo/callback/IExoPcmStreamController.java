@@ -18,8 +18,10 @@ import java.nio.ByteBuffer;
  *     <li>若需要中止会话，则调用 {@link #cancelPcmStream()}；组件销毁时继续沿用 {@code release()}。</li>
  * </ol>
  *
- * <p>所有追加方法都应当满足“对生产线程无阻塞”的要求：实现层负责复制输入数据到内部队列，
- * 再由专用工作线程串行执行 DSP 处理和 AudioTrack 写入。
+ * <p>追加方法只负责把输入数据复制到内部队列，再由专用工作线程串行执行 DSP 处理和 AudioTrack 写入。
+ * 队列达到上限时的行为由 {@link ExoPcmStreamConfig#getBackpressureMode()} 决定：只有
+ * {@link com.sss.michael.exo.constant.ExoPcmBackpressureMode#BLOCK} 模式会阻塞生产线程，其余模式都立即返回。
+ * 返回值均为本次实际被接受的字节数，调用方据此决定是否重试剩余部分。
  */
 public interface IExoPcmStreamController {
 
@@ -42,9 +44,12 @@ public interface IExoPcmStreamController {
      * <p>实现层必须复制 {@code buffer} 当前剩余区间的数据，因为上游合成回调通常会复用同一块
      * 缓冲区，不能直接持有调用方的可变引用。
      *
+     * <p>调用结束后 {@code buffer} 的 position 保持不变，调用方按返回值自行推进。
+     *
      * @param buffer 当前 remaining 区间内存放 PCM 16-bit 音频数据的缓冲区
+     * @return 实际被接受的字节数
      */
-    void appendPcmData(ByteBuffer buffer);
+    int appendPcmData(ByteBuffer buffer);
 
     /**
      * 以字节数组形式追加一段 PCM 数据。
@@ -55,8 +60,9 @@ public interface IExoPcmStreamController {
      * @param data 包含 PCM 16-bit 音频数据的源数组
      * @param offset 本次有效 PCM 数据的起始偏移
      * @param length 本次需要追加的 PCM 字节数
+     * @return 实际被接受的字节数
      */
-    void appendPcmData(byte[] data, int offset, int length);
+    int appendPcmData(byte[] data, int offset, int length);
 
     /**
      * 声明当前 PCM 输入已经结束。
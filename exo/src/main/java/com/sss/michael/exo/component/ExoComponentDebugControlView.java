@@ -14,6 +14,9 @@ import com.sss.michael.exo.constant.ExoCoreScale;
 import com.sss.michael.exo.core.ExoPlayerInfo;
 import com.sss.michael.exo.databinding.LayoutComponentExoDebugControlViewBinding;
 import com.sss.michael.exo.util.ExoFormatUtil;
+import com.sss.michael.exo.util.ExoTimingHistogram;
+
+import java.util.Locale;
 
 public class ExoComponentDebugControlView extends BaseExoControlComponent<LayoutComponentExoDebugControlViewBinding> {
     public ExoComponentDebugControlView(@NonNull Context context) {
@@ -75,7 +78,26 @@ public class ExoComponentDebugControlView extends BaseExoControlComponent<Layout
                         "视频相对屏幕Rect：" + exoPlayerInfo.getVideoInScreenRect();
         ;
 
-        binding.tvStatus.setText(string);
+        binding.tvStatus.setText(string + formatAudioProcessorTimings(exoPlayerInfo));
+    }
+
+    /**
+     * 音频处理链各阶段耗时：调用次数、P50 / P99 / 最大耗时（微秒）与占音频实时预算的比例
+     */
+    private String formatAudioProcessorTimings(ExoPlayerInfo exoPlayerInfo) {
+        if (exoPlayerInfo.getAudioProcessorTimings().isEmpty()) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder("\n音频处理耗时（P50 / P99 / 最大，μs）：");
+        for (ExoTimingHistogram timing : exoPlayerInfo.getAudioProcessorTimings()) {
+            builder.append(String.format(Locale.US, "\n%s：%d次 | %.1f / %.1f / %.1f | 占用%.2f%%",
+                    timing.getName(), timing.getTotalCount(),
+                    timing.getValueAtPercentile(50) / 1000f,
+                    timing.getValueAtPercentile(99) / 1000f,
+                    timing.getMaxNs() / 1000f,
+                    timing.getLoad() * 100));
+        }
+        return builder.toString();
     }
 
     @SuppressLint("SetTextI18n")
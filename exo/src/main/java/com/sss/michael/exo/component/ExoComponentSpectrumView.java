@@ -9,15 +9,22 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.sss.michael.exo.R;
+import com.sss.michael.exo.callback.ExoControllerWrapper;
+import com.sss.michael.exo.callback.IExoFFTFrameCallBack;
 import com.sss.michael.exo.core.ExoPlayerInfo;
 import com.sss.michael.exo.databinding.LayoutExoComponentSpectrumViewBinding;
+import com.sss.michael.exo.processor.ExoSpectrumFrame;
 
 /**
  * @author Michael by 61642
  * @date 2026/1/4 16:03
  * @Description 频谱组件
  */
-public class ExoComponentSpectrumView extends BaseExoControlComponent<LayoutExoComponentSpectrumViewBinding> {
+public class ExoComponentSpectrumView extends BaseExoControlComponent<LayoutExoComponentSpectrumViewBinding>
+        implements IExoFFTFrameCallBack {
+    // 上次通知播放器的频谱需求（组件可见时才需要频谱数据）
+    private boolean spectrumActive;
+
     public ExoComponentSpectrumView(@NonNull Context context) {
         super(context);
     }
@@ -46,6 +53,44 @@ public class ExoComponentSpectrumView extends BaseExoControlComponent<LayoutExoC
         setVisibility(GONE);
     }
 
+    @Override
+    public void attach(@NonNull ExoControllerWrapper exoControllerWrapper) {
+        super.attach(exoControllerWrapper);
+        updateSpectrumActive(isAttachedToWindow());
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateSpectrumActive(true);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        updateSpectrumActive(false);
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateSpectrumActive(isAttachedToWindow());
+    }
+
+    /**
+     * 组件（含父容器）可见时启用频谱分析，隐藏或移除时旁路，避免不可见页面的 FFT 开销
+     */
+    private void updateSpectrumActive(boolean attached) {
+        if (exoControllerWrapper == null) {
+            return;
+        }
+        boolean active = attached && isShown();
+        if (active != spectrumActive) {
+            spectrumActive = active;
+            exoControllerWrapper.setSpectrumActive(active);
+        }
+    }
+
 
     @Override
     public void onExoRenderedFirstFrame() {
@@ -109,4 +154,14 @@ public class ExoComponentSpectrumView extends BaseExoControlComponent<LayoutExoC
         super.onMagnitudeReady(sampleRateHz, magnitude);
         binding.exoSpectrumColumnView.onMagnitudeReady(sampleRateHz, magnitude);
     }
+
+    /**
+     * 柱状频谱视图只在回调内读取幅度数据，可直接使用复用帧，省去数组拷贝
+     */
+    @Override
+    public void onSpectrumFrame(ExoSpectrumFrame frame) {
+        if (frame.hasMagnitude()) {
+            binding.exoSpectrumColumnView.onMagnitudeReady(frame.getSampleRateHz(), frame.getMagnitude());
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package com.sss.michael.exo.constant;
+
+/**
+ * 参数均衡器的频段滤波器类型。
+ *
+ * <p>系数按 RBJ Audio EQ Cookbook 计算，每个频段都有独立的频率与 Q 值。
+ * 带增益的类型（峰值、搁架）在增益接近 0dB 时退化为直通，处理器会直接跳过；
+ * 通带 / 陷波类型不带增益，配置后始终参与滤波。
+ */
+public enum ExoEqFilterType {
+    /**
+     * 峰值滤波器。以中心频率为中心提升或衰减，Q 值越高影响的带宽越窄，图示均衡器的每个推子都是该类型。
+     */
+    PEAKING(true),
+    /**
+     * 低频搁架。提升或衰减转折频率以下的全部频率，Q 值控制转折处的坡度，0.707 时过渡最平缓且无过冲。
+     */
+    LOW_SHELF(true),
+    /**
+     * 高频搁架。提升或衰减转折频率以上的全部频率，Q 值含义同 {@link #LOW_SHELF}。
+     */
+    HIGH_SHELF(true),
+    /**
+     * 二阶低通。衰减截止频率以上的频率（-12dB/倍频程），Q 为 0.707 时为巴特沃斯响应。增益参数不生效。
+     */
+    LOW_PASS(false),
+    /**
+     * 二阶高通。衰减截止频率以下的频率（-12dB/倍频程），常用于切除超低频隆隆声。增益参数不生效。
+     */
+    HIGH_PASS(false),
+    /**
+     * 陷波滤波器。在中心频率处深度衰减，Q 值越高陷波越窄，常用于消除电源哼声或啸叫。增益参数不生效。
+     */
+    NOTCH(false);
+
+    private final boolean gainBased;
+
+    ExoEqFilterType(boolean gainBased) {
+        this.gainBased = gainBased;
+    }
+
+    /**
+     * 该类型的效果是否由增益决定，为 true 时增益为 0dB 即等同直通
+     */
+    public boolean isGainBased() {
+        return gainBased;
+    }
+}
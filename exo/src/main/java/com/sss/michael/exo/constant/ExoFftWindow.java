@@ -0,0 +1,22 @@
+package com.sss.michael.exo.constant;
+
+/**
+ * 频谱分析使用的窗函数。
+ *
+ * <p>窗函数决定频率选择性与幅度精度之间的取舍。处理器会把各窗的相干增益统一到与汉宁窗相同的水平，
+ * 切换窗函数不会让频谱整体变亮或变暗。
+ */
+public enum ExoFftWindow {
+    /**
+     * 汉宁窗。主瓣较窄、旁瓣衰减适中，适合通用的频谱可视化。
+     */
+    HANN,
+    /**
+     * 四项 Blackman-Harris 窗。旁瓣约 -92dB，强信号附近的弱分量更清晰，主瓣约为汉宁窗的两倍宽。
+     */
+    BLACKMAN_HARRIS,
+    /**
+     * 平顶窗。主瓣最宽，但落在两个 bin 之间的正弦分量幅度误差小于 0.1dB，适合读取电平数值。
+     */
+    FLAT_TOP
+}
@@ -0,0 +1,33 @@
+package com.sss.michael.exo.constant;
+
+/**
+ * PCM 流式会话的背压策略。
+ *
+ * <p>当待播 PCM（内部队列 + AudioTrack 尚未播出的缓冲）达到
+ * {@link com.sss.michael.exo.bean.ExoPcmStreamConfig#getMaxQueuedDurationMs()} 时，
+ * {@code appendPcmData(...)} 按该策略处理本次追加，返回值为实际被接受的字节数。
+ */
+public enum ExoPcmBackpressureMode {
+    /**
+     * 整块拒绝：本次分片整体丢弃并回调 onPlayerError，返回 0。兼容旧版本行为。
+     */
+    REJECT,
+    /**
+     * 阻塞生产线程直到队列腾出空间，最长等待
+     * {@link com.sss.michael.exo.bean.ExoPcmStreamConfig#getBackpressureTimeoutMs()}；
+     * 超时或会话结束时返回已接受的字节数。适合 TTS 等可以被播放速度反向限速的上游。
+     * 该模式会挂起调用线程，只能在后台线程追加数据，在主线程调用会抛出 {@link IllegalStateException}。
+     */
+    BLOCK,
+    /**
+     * 非阻塞部分写入：只接受当前放得下的部分（按帧对齐），立即返回已接受的字节数，
+     * 剩余数据由调用方稍后重试。
+     */
+    PARTIAL_WRITE,
+    /**
+     * 丢弃最旧数据：优先保证实时性，队列满时丢掉尚未写入设备的最旧 PCM，为新数据腾出空间。
+     * 返回值只包含实际排入队列的字节数，放不下的部分（例如单次数据超过队列容量）由调用方重试。
+     * 适合直播、实时通话等延迟优先的场景。
+     */
+    DROP_OLDEST
+}
@@ -0,0 +1,22 @@
+package com.sss.michael.exo.constant;
+
+/**
+ * PCM 采样率转换的质量 / CPU 档位。
+ *
+ * <p>档位越高，插值使用的邻近样本越多，频响越平直、混叠越少，CPU 开销也越大。
+ * 语音播报一般 {@link #MEDIUM} 即可；音乐或大比例降采样（如 44.1kHz 转 16kHz）建议使用 {@link #HIGH}。
+ */
+public enum ExoResamplerQuality {
+    /**
+     * 两点线性插值。开销最低，高频有明显衰减，降采样时不做抗混叠。
+     */
+    LOW,
+    /**
+     * 四点三次（Catmull-Rom）插值。开销约为线性插值的两倍，语音场景下与高档位差异很小。
+     */
+    MEDIUM,
+    /**
+     * 加窗 sinc 多相滤波。降采样时自动收窄截止频率抗混叠，每个输出样本约 16-48 次乘加。
+     */
+    HIGH
+}
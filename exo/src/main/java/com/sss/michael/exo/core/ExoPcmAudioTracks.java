@@ -0,0 +1,102 @@
+package com.sss.michael.exo.core;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+
+import com.sss.michael.exo.bean.ExoPcmStreamConfig;
+
+/**
+ * PCM 流式链路共用的 AudioTrack 构建工具。
+ *
+ * <p>{@link ExoPcmStreamCore} 与 {@link ExoPcmMixer} 都需要按同一份 {@link ExoPcmStreamConfig}
+ * 创建 MODE_STREAM 的 AudioTrack，这里统一处理 API 分支、声道掩码和缓冲区大小推导，
+ * 倍速等与具体引擎相关的参数由调用方在构建后自行应用。
+ */
+final class ExoPcmAudioTracks {
+
+    private ExoPcmAudioTracks() {
+    }
+
+    /**
+     * 按配置创建一个已初始化的 AudioTrack。
+     *
+     * @param config 输出格式配置
+     * @return 处于 STATE_INITIALIZED 的 AudioTrack
+     * @throws IllegalStateException 最小缓冲区计算失败或 AudioTrack 初始化失败时抛出
+     */
+    static AudioTrack build(ExoPcmStreamConfig config) {
+        int channelMask = getChannelMask(config.getChannelCount());
+        int minBufferSize = AudioTrack.getMinBufferSize(
+                config.getSampleRateHz(),
+                channelMask,
+                config.getEncoding()
+        );
+        if (minBufferSize <= 0) {
+            throw new IllegalStateException("AudioTrack 最小缓冲区大小计算失败: " + minBufferSize);
+        }
+
+        int resolvedBufferSize = config.getBufferSizeInBytes() > 0
+                ? config.getBufferSizeInBytes()
+                : minBufferSize * 2;
+
+        AudioTrack audioTrack;
+        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.M) {
+            /*
+             * API 23+ 使用 Builder 方式构建 AudioTrack，能够明确设置 AudioAttributes 和
+             * AudioFormat，适合当前这条需要语义化配置的 PCM 流渲染链路。
+             */
+            AudioAttributes audioAttributes = new AudioAttributes.Builder()
+                    .setUsage(config.getAudioUsage())
+                    .setContentType(config.getContentType())
+                    .build();
+            AudioFormat audioFormat = new AudioFormat.Builder()
+                    .setSampleRate(config.getSampleRateHz())
+                    .setEncoding(config.getEncoding())
+                    .setChannelMask(channelMask)
+                    .build();
+            audioTrack = new AudioTrack.Builder()
+                    .setAudioAttributes(audioAttributes)
+                    .setAudioFormat(audioFormat)
+                    .setTransferMode(AudioTrack.MODE_STREAM)
+                    .setBufferSizeInBytes(resolvedBufferSize)
+                    .build();
+        } else {
+            /*
+             * API 21-22 无 Builder 构造方式，回退到传统构造函数。此时统一映射到 STREAM_MUSIC，
+             * 以保证老设备上的兼容性和最小实现复杂度。
+             */
+            audioTrack = new AudioTrack(
+                    AudioManager.STREAM_MUSIC,
+                    config.getSampleRateHz(),
+                    channelMask,
+                    config.getEncoding(),
+                    resolvedBufferSize,
+                    AudioTrack.MODE_STREAM
+            );
+        }
+        if (audioTrack.getState() != AudioTrack.STATE_INITIALIZED) {
+            audioTrack.release();
+            throw new IllegalStateException("AudioTrack 初始化失败");
+        }
+        return audioTrack;
+    }
+
+    /**
+     * 将声道数映射为 AudioTrack 输出声道掩码。
+     *
+     * @param channelCount 声道数，仅支持 1 或 2
+     * @return 对应的输出声道掩码
+     */
+    static int getChannelMask(int channelCount) {
+        switch (channelCount) {
+            case 1:
+                return AudioFormat.CHANNEL_OUT_MONO;
+            case 2:
+                return AudioFormat.CHANNEL_OUT_STEREO;
+            default:
+                throw new IllegalArgumentException("仅支持 1 或 2 声道 PCM");
+        }
+    }
+}
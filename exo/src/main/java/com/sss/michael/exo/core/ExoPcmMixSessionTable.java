@@ -0,0 +1,75 @@
+package com.sss.michael.exo.core;
+
+import androidx.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 混音会话表：按 id 存取会话，并限制同时存在的会话数。
+ *
+ * <p>打开会话时“检查上限 + 插入”在同一把锁内完成，多个线程并发打开也不会超过上限；
+ * 查询、移除等操作直接访问并发 Map，不加锁。移除只会让会话数变小，因此无需与打开互斥。
+ *
+ * @param <T> 会话类型
+ */
+final class ExoPcmMixSessionTable<T> {
+
+    /**
+     * 按分配好的 id 创建会话。
+     */
+    interface Factory<T> {
+        T create(int sessionId);
+    }
+
+    private final int maxSessions;
+    private final ConcurrentHashMap<Integer, T> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSessionId = new AtomicInteger(1);
+    private final Object openLock = new Object();
+
+    ExoPcmMixSessionTable(int maxSessions) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("maxSessions must be > 0");
+        }
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * 分配 id、创建并登记一个会话。
+     *
+     * @return 新会话 id
+     * @throws IllegalStateException 会话数已达上限时抛出，此时不会调用 {@code factory}
+     */
+    int open(Factory<T> factory) {
+        synchronized (openLock) {
+            if (sessions.size() >= maxSessions) {
+                throw new IllegalStateException("PCM 混音会话数已达上限: " + maxSessions);
+            }
+            int sessionId = nextSessionId.getAndIncrement();
+            sessions.put(sessionId, factory.create(sessionId));
+            return sessionId;
+        }
+    }
+
+    @Nullable
+    T get(int sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    void remove(int sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    Collection<T> values() {
+        return sessions.values();
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    void clear() {
+        sessions.clear();
+    }
+}
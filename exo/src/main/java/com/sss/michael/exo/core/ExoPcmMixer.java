@@ -0,0 +1,905 @@
+package com.sss.michael.exo.core;
+
+import android.media.AudioFormat;
+import android.media.AudioTrack;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media3.common.C;
+import androidx.media3.common.audio.AudioProcessor;
+import androidx.media3.common.util.UnstableApi;
+
+import com.sss.michael.exo.bean.ExoPcmStreamConfig;
+import com.sss.michael.exo.callback.IExoFFTCallBack;
+import com.sss.michael.exo.callback.IExoLoudnessCallBack;
+import com.sss.michael.exo.callback.IExoPcmMixerCallBack;
+import com.sss.michael.exo.constant.ExoEqualizerPreset;
+import com.sss.michael.exo.processor.ExoPcmResampler;
+import com.sss.michael.exo.processor.ExoStandaloneAudioProcessorChain;
+import com.sss.michael.exo.util.ExoLog;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 多会话 PCM 混音引擎。
+ *
+ * <p>{@link ExoPcmStreamCore} 一次只服务一个流会话，重新 {@code startPcmStream} 会回收上一轮会话。
+ * 本类面向“同时存在多路 PCM”的场景，例如在背景朗读之上叠加提示音、在前后两段 TTS 之间无缝交叉淡化：
+ * 每个会话拥有独立的排队缓冲、增益和采样率，由混音工作线程按固定块长求和后写入同一个 AudioTrack，
+ * 并在写出前经过与单流链路相同的 EQ / 频谱处理链。处理链直接处理未削顶的浮点混音，多路叠加的过载交给
+ * 其中的真峰值限幅，处理完成后才转换为 16-bit PCM。
+ *
+ * <p>线程模型如下：
+ *
+ * <ul>
+ *     <li>每个会话的 {@code appendPcmData(...)} 把 PCM 写入该会话独立的 SPSC 环形缓冲区；同一会话同一时刻
+ *     只能由一个生产线程追加，不同会话可以在不同线程并发追加。追加为部分写入语义，返回实际接受的字节数。</li>
+ *     <li>混音工作线程独占 AudioTrack 与处理链，每块 {@value #MIX_BLOCK_DURATION_MS}ms 按优先级依次
+ *     解码、变采样率、施加增益后求和，以阻塞方式写入 AudioTrack，由设备消耗速度自然限速。</li>
+ *     <li>会话结束、错误等回调切回主线程分发。</li>
+ * </ul>
+ *
+ * <p>混音时会话按优先级从高到低渲染。单块耗时超过 CPU 预算后，剩余低优先级会话本块不再参与计算，
+ * 但仍按输出时长消耗其输入，保持与其他会话的时间轴一致，只表现为短暂静音。
+ */
+@UnstableApi
+public class ExoPcmMixer {
+
+    /**
+     * 单个混音块的时长。
+     *
+     * <p>块越短，增益和闪避的响应越快、新会话的起播延迟越低；块越长，每块固定开销占比越小。
+     * 20ms 与 AudioTrack 常见的最小缓冲区量级相当。
+     */
+    private static final int MIX_BLOCK_DURATION_MS = 20;
+
+    /**
+     * 工作线程单次调度最多连续混音的块数，之后让出消息队列处理增益、交叉淡化等控制命令。
+     */
+    private static final int MIX_BATCH_BLOCKS = 5;
+
+    /**
+     * 允许同时存在的最大会话数。
+     */
+    public static final int MAX_SESSIONS = 8;
+
+    /**
+     * 闪避从 1.0 过渡到目标增益（或恢复）所需的时长，避免增益突变产生咔嗒声。
+     */
+    private static final int DUCK_RAMP_DURATION_MS = 80;
+
+    /**
+     * 被闪避会话的默认增益。
+     */
+    public static final float DEFAULT_DUCKED_GAIN = 0.3f;
+
+    /**
+     * 单块混音默认允许占用的 CPU 时间（占块时长的百分比）。
+     */
+    public static final int DEFAULT_CPU_BUDGET_PERCENT = 50;
+
+    /**
+     * 会话默认优先级。
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private static final int BYTES_PER_FLOAT = 4;
+
+    private final ExoPcmStreamConfig outputConfig;
+    private final IExoPcmMixerCallBack iExoPcmMixerCallBack;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final HandlerThread workerThread;
+    private final Handler workerHandler;
+    private final ExoPcmMixSessionTable<MixSession> sessions = new ExoPcmMixSessionTable<>(MAX_SESSIONS);
+    private final AtomicBoolean mixScheduled = new AtomicBoolean(false);
+    private final Runnable mixRunnable = this::mixOnWorker;
+
+    // 以下字段仅由工作线程访问
+    private final AudioTrack audioTrack;
+    private final ExoStandaloneAudioProcessorChain audioProcessorChain;
+    // 频谱帧主线程分发器，回调未实现 IExoFFTCallBack 时为 null
+    private final ExoSpectrumFrameDispatcher spectrumFrameDispatcher;
+    private final List<MixSession> renderOrder = new ArrayList<>();
+    private final int outputChannelCount;
+    private final int blockFrames;
+    private final int duckRampFrames;
+    private final float[] mixBuffer;
+    // 送入处理链的浮点混音块（直接内存，本机字节序）
+    private final ByteBuffer floatMixBuffer;
+    private final ByteBuffer outputBuffer;
+    private boolean outputFailed;
+
+    // 会话集合变化后由工作线程重建 renderOrder
+    private volatile boolean sessionsChanged;
+    private volatile long cpuBudgetNanos;
+    private volatile boolean released;
+
+    /**
+     * 创建混音器并立即启动输出。
+     *
+     * @param outputConfig         输出 AudioTrack 的格式与音频属性，仅支持 PCM 16-bit 单/双声道
+     * @param iExoPcmMixerCallBack 会话结束与错误回调，可为 {@code null}
+     */
+    public ExoPcmMixer(@NonNull ExoPcmStreamConfig outputConfig,
+                       @Nullable IExoPcmMixerCallBack iExoPcmMixerCallBack) {
+        this.outputConfig = new ExoPcmStreamConfig(outputConfig);
+        validateConfig(this.outputConfig);
+        this.iExoPcmMixerCallBack = iExoPcmMixerCallBack;
+        this.outputChannelCount = this.outputConfig.getChannelCount();
+        int sampleRateHz = this.outputConfig.getSampleRateHz();
+        this.blockFrames = Math.max(1, (int) ((long) sampleRateHz * MIX_BLOCK_DURATION_MS / 1000));
+        this.duckRampFrames = Math.max(1, (int) ((long) sampleRateHz * DUCK_RAMP_DURATION_MS / 1000));
+        this.mixBuffer = new float[blockFrames * outputChannelCount];
+        this.floatMixBuffer = ByteBuffer.allocateDirect(mixBuffer.length * BYTES_PER_FLOAT)
+                .order(ByteOrder.nativeOrder());
+        this.outputBuffer = ByteBuffer.allocateDirect(blockFrames * this.outputConfig.getBytesPerFrame())
+                .order(ByteOrder.nativeOrder());
+        setCpuBudgetPercent(DEFAULT_CPU_BUDGET_PERCENT);
+
+        spectrumFrameDispatcher = iExoPcmMixerCallBack instanceof IExoFFTCallBack
+                ? new ExoSpectrumFrameDispatcher((IExoFFTCallBack) iExoPcmMixerCallBack)
+                : null;
+        try {
+            audioProcessorChain = new ExoStandaloneAudioProcessorChain(
+                    sampleRateHz, outputChannelCount, C.ENCODING_PCM_FLOAT, spectrumFrameDispatcher);
+        } catch (AudioProcessor.UnhandledAudioFormatException e) {
+            throw new IllegalStateException("PCM 混音处理链初始化失败", e);
+        }
+        try {
+            audioTrack = ExoPcmAudioTracks.build(this.outputConfig);
+        } catch (RuntimeException e) {
+            audioProcessorChain.release();
+            throw e;
+        }
+        audioTrack.play();
+
+        // AudioTrack 与处理链在此之后只由工作线程访问，Handler 投递保证初始化结果对其可见
+        workerThread = new HandlerThread("ExoPcmMixerWorker");
+        workerThread.start();
+        workerHandler = new Handler(workerThread.getLooper());
+    }
+
+    /**
+     * 以默认优先级打开一个新会话。
+     *
+     * @see #openSession(ExoPcmStreamConfig, int)
+     */
+    public int openSession(@NonNull ExoPcmStreamConfig config) {
+        return openSession(config, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * 打开一个新会话。
+     *
+     * <p>会话使用 {@code config} 中的采样率、声道数和 {@link ExoPcmStreamConfig#getMaxQueuedDurationMs()}
+     * 排队上限；采样率与输出不一致时在混音前按 {@link ExoPcmStreamConfig#getResamplerQuality()} 档位自动转换，
+     * 声道数不一致时自动上混或下混。
+     * 背压策略与 AudioTrack 相关字段对会话无效，追加始终为部分写入语义。
+     *
+     * @param config   会话输入格式
+     * @param priority 优先级，数值越大越先渲染，CPU 预算不足时越晚被跳过
+     * @return 会话 id
+     * @throws IllegalStateException 会话数已达 {@link #MAX_SESSIONS} 或混音器已释放时抛出
+     */
+    public int openSession(@NonNull ExoPcmStreamConfig config, int priority) {
+        ensureUsable();
+        ExoPcmStreamConfig sessionConfig = new ExoPcmStreamConfig(config);
+        validateConfig(sessionConfig);
+        if (sessionConfig.getMaxQueuedDurationMs() <= 0) {
+            throw new IllegalArgumentException("maxQueuedDurationMs 必须大于 0");
+        }
+        // 上限检查与插入在会话表内原子完成，并发打开也不会超过 MAX_SESSIONS
+        int sessionId = sessions.open(id -> new MixSession(id, priority, sessionConfig));
+        sessionsChanged = true;
+        return sessionId;
+    }
+
+    /**
+     * 向会话追加 16-bit PCM 数据，最多写入当前剩余排队空间，且按帧对齐。
+     *
+     * @param sessionId 会话 id
+     * @param data      PCM 数据
+     * @param offset    起始偏移
+     * @param length    字节数
+     * @return 实际接受的字节数；会话不存在、已结束或排队已满时返回 0
+     */
+    public int appendPcmData(int sessionId, byte[] data, int offset, int length) {
+        if (data == null || length <= 0) {
+            return 0;
+        }
+        if (offset < 0 || offset + length > data.length) {
+            throw new IndexOutOfBoundsException("PCM 数据区间越界");
+        }
+        MixSession session = obtainAppendableSession(sessionId);
+        if (session == null) {
+            return 0;
+        }
+        int acceptable = alignDown(Math.min(length, session.ringBuffer.getWritableBytes()), session.bytesPerFrame);
+        int accepted = acceptable > 0 ? session.ringBuffer.write(data, offset, acceptable) : 0;
+        if (accepted > 0) {
+            scheduleMix();
+        }
+        return accepted;
+    }
+
+    /**
+     * 向会话追加 16-bit PCM 数据（{@code buffer} 的 remaining 区间），语义同
+     * {@link #appendPcmData(int, byte[], int, int)}。调用方缓冲区的 position 保持不变。
+     */
+    public int appendPcmData(int sessionId, ByteBuffer buffer) {
+        if (buffer == null || !buffer.hasRemaining()) {
+            return 0;
+        }
+        MixSession session = obtainAppendableSession(sessionId);
+        if (session == null) {
+            return 0;
+        }
+        int acceptable = alignDown(Math.min(buffer.remaining(), session.ringBuffer.getWritableBytes()),
+                session.bytesPerFrame);
+        if (acceptable <= 0) {
+            return 0;
+        }
+        ByteBuffer source = buffer.duplicate();
+        source.limit(source.position() + acceptable);
+        int accepted = session.ringBuffer.write(source);
+        if (accepted > 0) {
+            scheduleMix();
+        }
+        return accepted;
+    }
+
+    /**
+     * 标记会话输入结束，已排队的数据播完后会话自动移除并回调 {@code onSessionEnded(id, false)}。
+     */
+    public void completeSession(int sessionId) {
+        MixSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        session.inputCompleted = true;
+        scheduleMix();
+    }
+
+    /**
+     * 立即取消会话，丢弃其未播放的数据并回调 {@code onSessionEnded(id, true)}。
+     */
+    public void cancelSession(int sessionId) {
+        MixSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        session.canceled = true;
+        scheduleMix();
+    }
+
+    /**
+     * 设置会话增益，工作线程会在一个混音块内平滑过渡到新值。
+     *
+     * @param gain 线性增益，{@code 1.0} 为原始音量，允许大于 1
+     */
+    public void setSessionGain(int sessionId, float gain) {
+        MixSession session = sessions.get(sessionId);
+        if (session != null) {
+            session.targetGain = Math.max(0f, gain);
+        }
+    }
+
+    /**
+     * 设置会话是否闪避其他会话：该会话有声音输出期间，其他不闪避他人的会话会平滑降低到各自的闪避增益。
+     */
+    public void setSessionDucksOthers(int sessionId, boolean ducksOthers) {
+        MixSession session = sessions.get(sessionId);
+        if (session != null) {
+            session.ducksOthers = ducksOthers;
+        }
+    }
+
+    /**
+     * 设置会话被闪避时的增益，默认 {@link #DEFAULT_DUCKED_GAIN}。
+     */
+    public void setSessionDuckedGain(int sessionId, float duckedGain) {
+        MixSession session = sessions.get(sessionId);
+        if (session != null) {
+            session.duckedGain = Math.max(0f, Math.min(1f, duckedGain));
+        }
+    }
+
+    /**
+     * 在两个会话之间交叉淡化：{@code fromSessionId} 在指定时长内淡出后自动结束
+     * （回调 {@code onSessionEnded(id, true)}），{@code toSessionId} 从静音淡入。
+     *
+     * <p>应在向 {@code toSessionId} 追加数据之前调用，保证目标会话的第一块即从静音开始。
+     * 任一会话不存在时只对存在的一方生效。
+     *
+     * @param durationMs 淡化时长，单位毫秒
+     */
+    public void crossfade(int fromSessionId, int toSessionId, long durationMs) {
+        ensureUsable();
+        int fadeFrames = (int) Math.max(1L, outputConfig.getSampleRateHz() * Math.max(0L, durationMs) / 1000L);
+        MixSession from = sessions.get(fromSessionId);
+        if (from != null) {
+            from.fadingOut = true;
+            from.pendingFade = new FadeRequest(0f, fadeFrames, true);
+        }
+        MixSession to = sessions.get(toSessionId);
+        if (to != null) {
+            to.pendingFade = new FadeRequest(1f, fadeFrames, false);
+        }
+        scheduleMix();
+    }
+
+    /**
+     * 设置混音输出的响度归一化，关闭时真峰值限幅仍然生效。
+     *
+     * @param enabled 是否开启归一化
+     * @param targetLufs 目标响度（LUFS）
+     */
+    public void setLoudnessNormalization(boolean enabled, float targetLufs) {
+        if (released) {
+            return;
+        }
+        audioProcessorChain.setLoudnessNormalization(enabled, targetLufs);
+    }
+
+    /**
+     * 设置混音输出的响度计量回调。
+     *
+     * @param iExoLoudnessCallBack 在音频分析线程接收峰值 / RMS / LUFS 的监听器，为 {@code null} 时停止计量
+     */
+    public void setExoLoudnessCallBack(IExoLoudnessCallBack iExoLoudnessCallBack) {
+        if (released) {
+            return;
+        }
+        audioProcessorChain.setExoLoudnessCallBack(iExoLoudnessCallBack);
+    }
+
+    /**
+     * 更新混音输出处理链的均衡器预设。
+     */
+    public void setEqualizer(ExoEqualizerPreset exoEqualizerPreset) {
+        if (released) {
+            return;
+        }
+        workerHandler.post(() -> {
+            if (!released) {
+                audioProcessorChain.setEqualizer(exoEqualizerPreset);
+            }
+        });
+    }
+
+    /**
+     * 设置单块混音允许占用的 CPU 时间。
+     *
+     * @param percent 占混音块时长的百分比，范围 1-100
+     */
+    public void setCpuBudgetPercent(int percent) {
+        int clamped = Math.max(1, Math.min(100, percent));
+        cpuBudgetNanos = MIX_BLOCK_DURATION_MS * 1_000_000L * clamped / 100;
+    }
+
+    /**
+     * 返回当前未结束的会话数。
+     */
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 返回会话仍在排队、尚未进入混音的时长。
+     *
+     * @return 排队时长，会话不存在时返回 0
+     */
+    public long getQueuedDurationMs(int sessionId) {
+        MixSession session = sessions.get(sessionId);
+        if (session == null) {
+            return 0L;
+        }
+        long frames = session.ringBuffer.getReadableBytes() / session.bytesPerFrame;
+        return frames * 1000L / session.sampleRateHz;
+    }
+
+    /**
+     * 永久释放混音器。所有未结束的会话直接丢弃，不再回调。
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        workerHandler.post(this::releaseOnWorker);
+        workerThread.quitSafely();
+        if (spectrumFrameDispatcher != null) {
+            spectrumFrameDispatcher.release();
+        }
+    }
+
+    private void ensureUsable() {
+        if (released) {
+            throw new IllegalStateException("PCM 混音器已释放");
+        }
+    }
+
+    private static void validateConfig(ExoPcmStreamConfig config) {
+        if (config.getSampleRateHz() <= 0) {
+            throw new IllegalArgumentException("sampleRateHz 必须大于 0");
+        }
+        if (config.getChannelCount() != 1 && config.getChannelCount() != 2) {
+            throw new IllegalArgumentException("当前版本仅支持单声道或双声道 PCM");
+        }
+        if (config.getEncoding() != AudioFormat.ENCODING_PCM_16BIT) {
+            throw new IllegalArgumentException("当前版本仅支持 PCM 16-bit");
+        }
+        if (config.getResamplerQuality() == null) {
+            throw new IllegalArgumentException("resamplerQuality 不能为空");
+        }
+    }
+
+    @Nullable
+    private MixSession obtainAppendableSession(int sessionId) {
+        if (released) {
+            return null;
+        }
+        MixSession session = sessions.get(sessionId);
+        if (session == null || session.inputCompleted || session.canceled || session.fadingOut) {
+            return null;
+        }
+        return session;
+    }
+
+    private void scheduleMix() {
+        if (!released && mixScheduled.compareAndSet(false, true)) {
+            workerHandler.post(mixRunnable);
+        }
+    }
+
+    private static int alignDown(int bytes, int bytesPerFrame) {
+        return bytes - bytes % bytesPerFrame;
+    }
+
+    private void mixOnWorker() {
+        // 先清除调度标记再取数据，混音期间到达的追加会重新投递一次
+        mixScheduled.set(false);
+        if (released || outputFailed) {
+            return;
+        }
+        boolean produced = false;
+        for (int i = 0; i < MIX_BATCH_BLOCKS && !released; i++) {
+            if (!mixBlockOnWorker()) {
+                break;
+            }
+            produced = true;
+        }
+        if (produced && !released) {
+            // 连续混音的块之间让出消息队列，交叉淡化等控制命令得以及时执行
+            scheduleMix();
+        }
+    }
+
+    /**
+     * 混音并写出一个块。
+     *
+     * @return 本块是否写出了数据
+     */
+    private boolean mixBlockOnWorker() {
+        if (sessionsChanged) {
+            rebuildRenderOrder();
+        }
+        if (renderOrder.isEmpty()) {
+            return false;
+        }
+
+        long blockStartNanos = System.nanoTime();
+        long budgetNanos = cpuBudgetNanos;
+        int mixFrames = 0;
+        boolean duckActive = false;
+        for (int i = 0; i < renderOrder.size(); i++) {
+            MixSession session = renderOrder.get(i);
+            if (session.canceled) {
+                session.renderedFrames = 0;
+                session.skipped = false;
+                continue;
+            }
+            // 至少保证最高优先级会话被渲染，其余会话在预算耗尽后仅推进时间轴
+            session.skipped = i > 0 && System.nanoTime() - blockStartNanos > budgetNanos;
+            session.renderedFrames = session.skipped
+                    ? session.skipFrames(blockFrames)
+                    : session.renderFrames(blockFrames);
+            mixFrames = Math.max(mixFrames, session.renderedFrames);
+            duckActive |= session.ducksOthers && session.renderedFrames > 0;
+        }
+
+        if (mixFrames > 0) {
+            int mixSamples = mixFrames * outputChannelCount;
+            float[] mix = mixBuffer;
+            Arrays.fill(mix, 0, mixSamples, 0f);
+            for (int i = 0; i < renderOrder.size(); i++) {
+                MixSession session = renderOrder.get(i);
+                float endGain = session.advanceGain(mixFrames, duckActive, duckRampFrames);
+                if (session.skipped || session.renderedFrames == 0) {
+                    continue;
+                }
+                session.started = true;
+                accumulate(session.renderBuffer, session.renderedFrames, session.channelCount,
+                        mix, outputChannelCount, session.blockStartGain, endGain);
+            }
+            writeMixOnWorker(mixSamples);
+        }
+
+        if (removeEndedSessions() && renderOrder.isEmpty()) {
+            drainProcessorChainOnWorker();
+        }
+        return mixFrames > 0 && !outputFailed;
+    }
+
+    /**
+     * 把会话本块的输出按线性增益斜坡叠加到混音缓冲区，并完成声道映射（单声道上混、双声道下混）。
+     *
+     * @param samples     会话本块的交错浮点样本
+     * @param frames      本块帧数
+     * @param inChannels  会话声道数
+     * @param mix         混音缓冲区
+     * @param outChannels 输出声道数
+     * @param startGain   斜坡起点增益（上一块结束时的增益）
+     * @param endGain     斜坡终点增益，最后一帧恰好使用该值
+     */
+    static void accumulate(float[] samples, int frames, int inChannels, float[] mix, int outChannels,
+                           float startGain, float endGain) {
+        float gainStep = (endGain - startGain) / frames;
+        float gain = startGain;
+        if (inChannels == outChannels) {
+            int index = 0;
+            for (int f = 0; f < frames; f++) {
+                gain += gainStep;
+                for (int c = 0; c < inChannels; c++, index++) {
+                    mix[index] += samples[index] * gain;
+                }
+            }
+        } else if (inChannels == 1) {
+            // 单声道上混到双声道
+            for (int f = 0; f < frames; f++) {
+                gain += gainStep;
+                float value = samples[f] * gain;
+                mix[f * 2] += value;
+                mix[f * 2 + 1] += value;
+            }
+        } else {
+            // 双声道下混到单声道
+            for (int f = 0; f < frames; f++) {
+                gain += gainStep;
+                mix[f] += (samples[f * 2] + samples[f * 2 + 1]) * 0.5f * gain;
+            }
+        }
+    }
+
+    /**
+     * 浮点混音直接送入处理链，由限幅器处理多路叠加的过载，处理结果再编码为 16-bit 写出。
+     */
+    private void writeMixOnWorker(int mixSamples) {
+        ByteBuffer input = floatMixBuffer;
+        input.clear();
+        for (int i = 0; i < mixSamples; i++) {
+            input.putFloat(mixBuffer[i]);
+        }
+        input.flip();
+        writeProcessedOnWorker(audioProcessorChain.process(input));
+    }
+
+    /**
+     * 最后一个会话结束后推出处理链延迟线中的尾部（限幅器前瞻延迟），再清空处理链，
+     * 避免尾音被截掉或在下一个会话开头播出。
+     */
+    private void drainProcessorChainOnWorker() {
+        writeProcessedOnWorker(audioProcessorChain.drain());
+        audioProcessorChain.flush();
+    }
+
+    /**
+     * 把处理链输出的浮点 PCM 按混音块分批编码为 16-bit 并阻塞写入 AudioTrack。
+     */
+    private void writeProcessedOnWorker(ByteBuffer processed) {
+        float[] samples = mixBuffer;
+        ByteBuffer output = outputBuffer;
+        while (processed.remaining() >= BYTES_PER_FLOAT && !released && !outputFailed) {
+            int sampleCount = Math.min(processed.remaining() / BYTES_PER_FLOAT, samples.length);
+            for (int i = 0; i < sampleCount; i++) {
+                samples[i] = processed.getFloat();
+            }
+            encodePcm16(samples, sampleCount, output);
+            while (output.hasRemaining() && !released) {
+                int written = audioTrack.write(output, output.remaining(), AudioTrack.WRITE_BLOCKING);
+                if (written <= 0) {
+                    onOutputErrorOnWorker("AudioTrack.write 返回异常值: " + written, null);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把浮点 PCM 编码为 16-bit 写入 {@code output}（从头写入并 flip），超出满幅的部分直接削顶
+     * （限幅器关闭时多路叠加的过载在此处理）。
+     */
+    static void encodePcm16(float[] mix, int samples, ByteBuffer output) {
+        output.clear();
+        for (int i = 0; i < samples; i++) {
+            float value = mix[i] * 32768f;
+            if (value > Short.MAX_VALUE) {
+                value = Short.MAX_VALUE;
+            } else if (value < Short.MIN_VALUE) {
+                value = Short.MIN_VALUE;
+            }
+            output.putShort((short) value);
+        }
+        output.flip();
+    }
+
+    private void onOutputErrorOnWorker(String errorMsg, Throwable throwable) {
+        outputFailed = true;
+        ExoLog.log("PCM 混音输出失败: " + errorMsg, throwable);
+        if (iExoPcmMixerCallBack != null) {
+            mainHandler.post(() -> iExoPcmMixerCallBack.onMixerError(errorMsg, throwable));
+        }
+    }
+
+    /**
+     * @return 本次是否移除了会话
+     */
+    private boolean removeEndedSessions() {
+        boolean removed = false;
+        for (int i = renderOrder.size() - 1; i >= 0; i--) {
+            MixSession session = renderOrder.get(i);
+            boolean canceled = session.canceled || session.isFadeOutFinished();
+            if (!canceled && !session.isDrained()) {
+                continue;
+            }
+            renderOrder.remove(i);
+            removed = true;
+            sessions.remove(session.sessionId);
+            session.ringBuffer.discardAll();
+            if (iExoPcmMixerCallBack != null) {
+                int sessionId = session.sessionId;
+                mainHandler.post(() -> iExoPcmMixerCallBack.onSessionEnded(sessionId, canceled));
+            }
+        }
+        return removed;
+    }
+
+    private void rebuildRenderOrder() {
+        sessionsChanged = false;
+        renderOrder.clear();
+        renderOrder.addAll(sessions.values());
+        // 优先级从高到低，同优先级按打开顺序
+        Collections.sort(renderOrder, (a, b) -> a.priority != b.priority
+                ? Integer.compare(b.priority, a.priority)
+                : Integer.compare(a.sessionId, b.sessionId));
+    }
+
+    private void releaseOnWorker() {
+        for (MixSession session : renderOrder) {
+            session.ringBuffer.discardAll();
+        }
+        renderOrder.clear();
+        sessions.clear();
+        try {
+            audioTrack.pause();
+            audioTrack.flush();
+            audioTrack.stop();
+        } catch (IllegalStateException e) {
+            ExoLog.log("PCM 混音器停止 AudioTrack 失败", e);
+        }
+        audioTrack.release();
+        audioProcessorChain.release();
+    }
+
+    /**
+     * 单个混音会话。生产线程只访问环形缓冲区写端和 volatile 控制字段，其余状态仅由工作线程访问。
+     */
+    private final class MixSession {
+
+        final int sessionId;
+        final int priority;
+        final int sampleRateHz;
+        final int channelCount;
+        final int bytesPerFrame;
+        final ExoPcmRingBuffer ringBuffer;
+        // 采样率与输出一致时为 null，直接从环形缓冲区解码
+        @Nullable
+        final ExoPcmResampler resampler;
+
+        volatile float targetGain = 1f;
+        volatile boolean ducksOthers;
+        volatile float duckedGain = DEFAULT_DUCKED_GAIN;
+        volatile boolean inputCompleted;
+        volatile boolean canceled;
+        // 交叉淡出已开始，不再接受追加
+        volatile boolean fadingOut;
+        // 待工作线程应用的淡化请求
+        volatile FadeRequest pendingFade;
+
+        // 以下字段仅由工作线程访问
+        float[] renderBuffer;
+        int renderedFrames;
+        boolean skipped;
+        // 是否已经输出过声音
+        boolean started;
+        // 上一块结束时实际施加的总增益，作为下一块斜坡起点
+        float appliedGain;
+        // 本块斜坡起点增益
+        float blockStartGain;
+        float currentGain;
+        float duckGain = 1f;
+        float fadeGain = 1f;
+        float fadeStep;
+        int fadeFramesRemaining;
+        boolean endAfterFade;
+
+        MixSession(int sessionId, int priority, ExoPcmStreamConfig config) {
+            this.sessionId = sessionId;
+            this.priority = priority;
+            this.sampleRateHz = config.getSampleRateHz();
+            this.channelCount = config.getChannelCount();
+            this.bytesPerFrame = config.getBytesPerFrame();
+            long capacity = (long) sampleRateHz * bytesPerFrame * config.getMaxQueuedDurationMs() / 1000L;
+            capacity = Math.min(Integer.MAX_VALUE - bytesPerFrame, Math.max(bytesPerFrame, capacity));
+            this.ringBuffer = new ExoPcmRingBuffer(alignDown((int) capacity, bytesPerFrame));
+            this.resampler = sampleRateHz == outputConfig.getSampleRateHz()
+                    ? null
+                    : new ExoPcmResampler(sampleRateHz, outputConfig.getSampleRateHz(), channelCount,
+                    config.getResamplerQuality());
+            this.renderBuffer = new float[blockFrames * channelCount];
+            this.currentGain = targetGain;
+            this.appliedGain = targetGain;
+        }
+
+        /**
+         * 渲染最多 {@code maxFrames} 个输出帧到 renderBuffer。
+         */
+        int renderFrames(int maxFrames) {
+            if (resampler == null) {
+                int frames = Math.min(maxFrames, ringBuffer.getReadableBytes() / bytesPerFrame);
+                readFromRing(frames, renderBuffer);
+                return frames;
+            }
+            feedResampler(maxFrames);
+            return resampler.read(renderBuffer, maxFrames);
+        }
+
+        /**
+         * 跳过最多 {@code maxFrames} 个输出帧，不做解码与插值。
+         */
+        int skipFrames(int maxFrames) {
+            if (resampler == null) {
+                int frames = Math.min(maxFrames, ringBuffer.getReadableBytes() / bytesPerFrame);
+                ringBuffer.commitRead(frames * bytesPerFrame);
+                return frames;
+            }
+            feedResampler(maxFrames);
+            return resampler.skip(maxFrames);
+        }
+
+        private void feedResampler(int outputFrames) {
+            int required = resampler.getRequiredInputFrames(outputFrames);
+            int readable = ringBuffer.getReadableBytes() / bytesPerFrame;
+            int frames = Math.min(required, readable);
+            while (frames > 0) {
+                ByteBuffer region = ringBuffer.peekContiguous(frames * bytesPerFrame);
+                int regionFrames = region.remaining() / bytesPerFrame;
+                if (regionFrames == 0) {
+                    break;
+                }
+                resampler.queueInput(region, regionFrames);
+                ringBuffer.commitRead(regionFrames * bytesPerFrame);
+                frames -= regionFrames;
+            }
+            if (inputCompleted && ringBuffer.getReadableBytes() < bytesPerFrame) {
+                resampler.queueEndOfStream();
+            }
+        }
+
+        private void readFromRing(int frames, float[] target) {
+            int index = 0;
+            int remaining = frames * bytesPerFrame;
+            while (remaining > 0) {
+                // 帧大小为偶数，环形区容量按帧对齐，因此连续区间内的样本不会被回绕截断
+                ByteBuffer region = ringBuffer.peekContiguous(remaining);
+                int length = region.remaining();
+                if (length == 0) {
+                    break;
+                }
+                int samples = length / 2;
+                for (int i = 0; i < samples; i++) {
+                    target[index++] = region.getShort() / 32768f;
+                }
+                ringBuffer.commitRead(length);
+                remaining -= length;
+            }
+        }
+
+        /**
+         * 应用调用线程提交的淡化请求。在本块渲染之后调用：渲染时已读到的追加数据一定先于请求之前提交的
+         * 淡化对工作线程可见，保证“先 crossfade 再追加”的目标会话第一块即从静音开始。
+         */
+        private void applyPendingFade() {
+            FadeRequest request = pendingFade;
+            if (request == null) {
+                return;
+            }
+            pendingFade = null;
+            if (!started && !request.endAfterFade) {
+                // 尚未出声的淡入会话从静音开始
+                fadeGain = 0f;
+            }
+            fadeStep = (request.targetGain - fadeGain) / request.frames;
+            fadeFramesRemaining = request.frames;
+            endAfterFade = request.endAfterFade;
+        }
+
+        /**
+         * 推进本块的增益、闪避与淡化状态。
+         *
+         * @return 本块结束时的总增益
+         */
+        float advanceGain(int frames, boolean duckActive, int duckRampFrames) {
+            applyPendingFade();
+            // 首次出声前的增益调整无需斜坡，直接从当前目标增益开始
+            blockStartGain = started ? appliedGain : targetGain * duckGain * fadeGain;
+            currentGain = targetGain;
+
+            float duckTarget = duckActive && !ducksOthers ? duckedGain : 1f;
+            float duckDelta = (float) frames / duckRampFrames;
+            if (duckGain < duckTarget) {
+                duckGain = Math.min(duckTarget, duckGain + duckDelta);
+            } else if (duckGain > duckTarget) {
+                duckGain = Math.max(duckTarget, duckGain - duckDelta);
+            }
+
+            if (fadeFramesRemaining > 0) {
+                int fadeFrames = Math.min(frames, fadeFramesRemaining);
+                fadeGain = Math.max(0f, Math.min(1f, fadeGain + fadeStep * fadeFrames));
+                fadeFramesRemaining -= fadeFrames;
+            }
+
+            appliedGain = currentGain * duckGain * fadeGain;
+            return appliedGain;
+        }
+
+        boolean isFadeOutFinished() {
+            return endAfterFade && fadeFramesRemaining == 0;
+        }
+
+        /**
+         * 输入已结束且数据全部进入混音。
+         */
+        boolean isDrained() {
+            if (!inputCompleted || renderedFrames > 0 || ringBuffer.getReadableBytes() >= bytesPerFrame) {
+                return false;
+            }
+            return resampler == null || resampler.isEnded();
+        }
+    }
+
+    /**
+     * 淡化请求：在 {@code frames} 个输出帧内把淡化增益线性过渡到 {@code targetGain}。
+     */
+    private static final class FadeRequest {
+
+        final float targetGain;
+        final int frames;
+        final boolean endAfterFade;
+
+        FadeRequest(float targetGain, int frames, boolean endAfterFade) {
+            this.targetGain = targetGain;
+            this.frames = frames;
+            this.endAfterFade = endAfterFade;
+        }
+    }
+}
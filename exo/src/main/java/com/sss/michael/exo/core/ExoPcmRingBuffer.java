@@ -0,0 +1,345 @@
+package com.sss.michael.exo.core;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者 / 单消费者（SPSC）PCM 字节环形缓冲区。
+ *
+ * <p>底层为一块固定容量的直接内存（可扩容模式下为按需追加的若干段直接内存）。读写位置使用单调递增的原子计数器表示：生产线程只推进写位置，
+ * 消费线程只推进读位置，两者之间无需加锁。写入方直接把 PCM 复制进环形区，消费方以“连续区间视图”的
+ * 形式读取，可直接交给 DSP 处理链或 {@code AudioTrack.write(ByteBuffer, int, int)}，整个过程没有
+ * 按分片分配的数组或节点对象。
+ *
+ * <p>线程约束：
+ *
+ * <ul>
+ *     <li>{@code write(...)}、{@link #discardOldest(int)} 只能由同一时刻唯一的生产线程调用。</li>
+ *     <li>{@link #peekContiguous(int)}、{@link #commitRead(int)}、{@link #skipDiscarded()}、
+ *     {@link #discardAll()} 只能由消费线程调用。</li>
+ *     <li>{@link #getReadableBytes()}、{@link #getWritableBytes()} 可在任意线程调用，结果为瞬时近似值。</li>
+ * </ul>
+ *
+ * <p>生产线程不能直接推进读位置，“丢弃最旧数据”通过单独的丢弃水位实现：生产线程只抬高水位，
+ * 消费线程在下一次取数据前调用 {@link #skipDiscarded()} 把读位置跳到水位处，从而释放物理空间。
+ * 正在被消费线程处理的区间不会被覆盖：消费线程每次 peek 都会发布认领位置，丢弃只从认领位置之后开始，
+ * 已交给处理链或 AudioTrack 的数据不会被标记丢弃。
+ *
+ * <p>可扩容模式（对应不限排队时长的会话）：当前段写满时生产线程封口当前段，并追加一段容量翻倍的新段继续写入，
+ * 读写位置仍是跨段连续的累计计数。消费线程读完一段（读位置到达封口位置）后切换到下一段，旧段随之被回收。
+ * 生产线程先写封口位置、再链接新段，消费线程先读写位置、再读封口位置，保证看到新段数据时封口位置一定可见。
+ */
+final class ExoPcmRingBuffer {
+
+    // 初始容量（可扩容模式下为首段容量）
+    private final int capacity;
+    // 是否在写满时追加新段
+    private final boolean growable;
+    // 生产线程当前写入的段
+    private Segment writeSegment;
+    // 消费线程当前读取的段
+    private Segment readSegment;
+    // 累计写入字节数（只由生产线程推进）
+    private final AtomicLong writePosition = new AtomicLong();
+    // 累计读取字节数（只由消费线程推进）
+    private final AtomicLong readPosition = new AtomicLong();
+    // 丢弃水位：读位置落后于该值的数据视为已丢弃（只由生产线程抬高）
+    private final AtomicLong discardPosition = new AtomicLong();
+    // 认领位置：消费线程已 peek 出去、正在处理或写入设备的区间末尾（只由消费线程推进）
+    private final AtomicLong claimPosition = new AtomicLong();
+
+    /**
+     * @param capacity 环形区容量（字节），必须大于 0
+     */
+    ExoPcmRingBuffer(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * @param capacity 环形区容量（字节），必须大于 0；可扩容模式下为首段容量，新段容量为其整数倍，
+     *                 因此按帧对齐的初始容量在扩容后同样按帧对齐
+     * @param growable 写满时是否追加新段，{@code false} 时超出容量的数据写不进去
+     */
+    ExoPcmRingBuffer(int capacity, boolean growable) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("ring buffer capacity must be > 0");
+        }
+        this.capacity = capacity;
+        this.growable = growable;
+        this.writeSegment = new Segment(capacity, 0L);
+        this.readSegment = writeSegment;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    boolean isGrowable() {
+        return growable;
+    }
+
+    /**
+     * 返回当前可读取的字节数（不含已标记丢弃的数据）。
+     */
+    int getReadableBytes() {
+        long read = readPosition.get();
+        return (int) (writePosition.get() - Math.max(read, discardPosition.get()));
+    }
+
+    /**
+     * 返回当前可写入的字节数。已标记丢弃但尚未被消费线程跳过的数据仍然占用物理空间。
+     * 可扩容模式下写满会追加新段，始终返回 {@link Integer#MAX_VALUE}。
+     */
+    int getWritableBytes() {
+        if (growable) {
+            return Integer.MAX_VALUE;
+        }
+        return capacity - (int) (writePosition.get() - readPosition.get());
+    }
+
+    /**
+     * 生产线程写入字节数组中的数据，最多写入当前剩余空间大小。
+     *
+     * @param data   源数组
+     * @param offset 源数组偏移
+     * @param length 期望写入的字节数
+     * @return 实际写入的字节数
+     */
+    int write(byte[] data, int offset, int length) {
+        long write = writePosition.get();
+        int written = 0;
+        while (written < length) {
+            Segment segment = obtainWritableSegment(write, length - written);
+            if (segment == null) {
+                break;
+            }
+            int toWrite = Math.min(length - written, segment.getWritableBytes(write, readPosition.get()));
+            int start = segment.offsetOf(write);
+            int firstSegment = Math.min(toWrite, segment.capacity - start);
+            ByteBuffer writeView = segment.writeView;
+            writeView.limit(start + firstSegment).position(start);
+            writeView.put(data, offset + written, firstSegment);
+            if (toWrite > firstSegment) {
+                writeView.limit(toWrite - firstSegment).position(0);
+                writeView.put(data, offset + written + firstSegment, toWrite - firstSegment);
+            }
+            write += toWrite;
+            written += toWrite;
+        }
+        // 数据写完后再发布写位置，保证消费线程看到新位置时数据已经可见
+        if (written > 0) {
+            writePosition.lazySet(write);
+        }
+        return written;
+    }
+
+    /**
+     * 生产线程写入 {@code source} remaining 区间的数据，最多写入当前剩余空间大小。
+     * 写入成功的部分会推进 {@code source} 的 position。
+     *
+     * @param source 源缓冲区
+     * @return 实际写入的字节数
+     */
+    int write(@NonNull ByteBuffer source) {
+        long write = writePosition.get();
+        int length = source.remaining();
+        int sourceLimit = source.limit();
+        int written = 0;
+        while (written < length) {
+            Segment segment = obtainWritableSegment(write, length - written);
+            if (segment == null) {
+                break;
+            }
+            int toWrite = Math.min(length - written, segment.getWritableBytes(write, readPosition.get()));
+            int start = segment.offsetOf(write);
+            int firstSegment = Math.min(toWrite, segment.capacity - start);
+            ByteBuffer writeView = segment.writeView;
+            writeView.limit(start + firstSegment).position(start);
+            source.limit(source.position() + firstSegment);
+            writeView.put(source);
+            if (toWrite > firstSegment) {
+                writeView.limit(toWrite - firstSegment).position(0);
+                source.limit(source.position() + toWrite - firstSegment);
+                writeView.put(source);
+            }
+            source.limit(sourceLimit);
+            write += toWrite;
+            written += toWrite;
+        }
+        if (written > 0) {
+            writePosition.lazySet(write);
+        }
+        return written;
+    }
+
+    /**
+     * 返回还有剩余空间的写入段；当前段已满时，可扩容模式下封口当前段并追加新段。
+     *
+     * @param write    当前写位置
+     * @param required 还需要写入的字节数，用于决定新段容量
+     * @return 可写入的段；已满且不可扩容（或容量已达上限）时返回 {@code null}
+     */
+    private Segment obtainWritableSegment(long write, int required) {
+        Segment segment = writeSegment;
+        if (segment.getWritableBytes(write, readPosition.get()) > 0) {
+            return segment;
+        }
+        if (!growable) {
+            return null;
+        }
+        long nextCapacity = segment.capacity;
+        do {
+            nextCapacity <<= 1;
+        } while (nextCapacity < required && nextCapacity <= Integer.MAX_VALUE);
+        if (nextCapacity > Integer.MAX_VALUE) {
+            return null;
+        }
+        Segment next = new Segment((int) nextCapacity, write);
+        // 先封口再链接：消费线程看到新段之前，旧段的封口位置已经可见
+        segment.endPosition = write;
+        segment.next = next;
+        writeSegment = next;
+        return next;
+    }
+
+    /**
+     * 消费线程获取从当前读位置开始的一段连续可读区间。
+     *
+     * <p>返回的视图为内部复用对象，position/limit 即为本次区间，仅在下一次调用 peek 之前有效。
+     * 读取不会推进读位置，调用方消费完成后需调用 {@link #commitRead(int)}。区间不会跨越段边界。
+     *
+     * @param maxBytes 本次最多读取的字节数
+     * @return 连续可读区间视图；无可读数据时 remaining 为 0
+     */
+    @NonNull
+    ByteBuffer peekContiguous(int maxBytes) {
+        long read = readPosition.get();
+        Segment segment = advanceReadSegment(read);
+        // 先读写位置再读封口位置：写位置越过封口位置时，封口位置一定已经可见
+        long write = writePosition.get();
+        long readable = Math.min(write, segment.endPosition) - read;
+        int start = segment.offsetOf(read);
+        int length = (int) Math.max(0L, Math.min(Math.min(readable, maxBytes), segment.capacity - start));
+        if (read + length > claimPosition.get()) {
+            claimPosition.set(read + length);
+        }
+        ByteBuffer readView = segment.readView;
+        readView.limit(start + length).position(start);
+        return readView;
+    }
+
+    /**
+     * 消费线程把读取段推进到包含 {@code read} 的段，已读完的旧段随之被回收。
+     */
+    private Segment advanceReadSegment(long read) {
+        Segment segment = readSegment;
+        while (segment.endPosition <= read && segment.next != null) {
+            segment = segment.next;
+        }
+        readSegment = segment;
+        return segment;
+    }
+
+    /**
+     * 消费线程确认已消费指定字节数，释放对应空间给生产线程。
+     *
+     * @param bytes 已消费字节数
+     */
+    void commitRead(int bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        readPosition.lazySet(readPosition.get() + bytes);
+    }
+
+    /**
+     * 生产线程标记丢弃最旧的 {@code bytes} 字节待读数据，最多丢弃到当前写位置。
+     *
+     * <p>仅抬高丢弃水位，物理空间要等消费线程调用 {@link #skipDiscarded()} 后才会释放。
+     * 消费线程已经 peek 出去的区间不在丢弃范围内，因此实际丢弃量可能小于 {@code bytes}。
+     *
+     * @param bytes 期望丢弃的字节数
+     * @return 本次新标记丢弃的字节数
+     */
+    int discardOldest(int bytes) {
+        if (bytes <= 0) {
+            return 0;
+        }
+        long write = writePosition.get();
+        long from = Math.max(Math.max(discardPosition.get(), readPosition.get()), claimPosition.get());
+        long to = Math.min(write, from + bytes);
+        if (to <= from) {
+            return 0;
+        }
+        discardPosition.lazySet(to);
+        return (int) (to - from);
+    }
+
+    /**
+     * 消费线程把读位置跳过已被生产线程标记丢弃的数据，释放对应的物理空间。
+     *
+     * @return 本次跳过的字节数
+     */
+    int skipDiscarded() {
+        long read = readPosition.get();
+        long discard = discardPosition.get();
+        if (discard <= read) {
+            return 0;
+        }
+        readPosition.lazySet(discard);
+        return (int) (discard - read);
+    }
+
+    /**
+     * 消费线程丢弃全部已写入但未读取的数据。
+     *
+     * @return 被丢弃的字节数
+     */
+    int discardAll() {
+        long write = writePosition.get();
+        int discarded = (int) (write - Math.max(readPosition.get(), discardPosition.get()));
+        readPosition.set(write);
+        claimPosition.set(write);
+        advanceReadSegment(write);
+        return Math.max(0, discarded);
+    }
+
+    /**
+     * 一段环形直接内存，存放累计位置 [startPosition, endPosition) 的数据。
+     */
+    private static final class Segment {
+        final int capacity;
+        // 本段第一个字节对应的累计位置
+        final long startPosition;
+        // 生产线程专用的写视图，避免每次写入 duplicate() 产生对象
+        final ByteBuffer writeView;
+        // 消费线程专用的读视图
+        final ByteBuffer readView;
+        // 封口位置：生产线程切换到下一段时写入，未封口时为 Long.MAX_VALUE
+        volatile long endPosition = Long.MAX_VALUE;
+        volatile Segment next;
+
+        Segment(int capacity, long startPosition) {
+            this.capacity = capacity;
+            this.startPosition = startPosition;
+            ByteBuffer storage = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+            // duplicate() 会把字节序重置为大端，这里显式恢复为本地字节序，保证处理器按 PCM 原始格式读取
+            this.writeView = storage.duplicate().order(ByteOrder.nativeOrder());
+            this.readView = storage.duplicate().order(ByteOrder.nativeOrder());
+        }
+
+        int offsetOf(long position) {
+            return (int) ((position - startPosition) % capacity);
+        }
+
+        /**
+         * 生产线程视角下本段剩余空间；读位置尚在前面的段时，本段数据从 startPosition 开始计
+         */
+        int getWritableBytes(long write, long read) {
+            return capacity - (int) (write - Math.max(read, startPosition));
+        }
+    }
+}
@@ -1,15 +1,14 @@
 package com.sss.michael.exo.core;
 
 import android.content.Context;
-import android.media.AudioAttributes;
 import android.media.AudioFormat;
-import android.media.AudioManager;
 import android.media.PlaybackParams;
 import android.media.AudioTrack;
 import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.view.View;
 
 import androidx.annotation.NonNull;
@@ -17,20 +16,31 @@ import androidx.media3.common.C;
 import androidx.media3.common.audio.AudioProcessor;
 import androidx.media3.common.util.UnstableApi;
 
+import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.bean.ExoEqBand;
 import com.sss.michael.exo.bean.ExoPcmStreamConfig;
 import com.sss.michael.exo.callback.IExoFFTCallBack;
+import com.sss.michael.exo.callback.IExoLoudnessCallBack;
 import com.sss.michael.exo.callback.IExoNotifyCallBack;
 import com.sss.michael.exo.constant.ExoAudioSourceType;
 import com.sss.michael.exo.constant.ExoEqualizerPreset;
+import com.sss.michael.exo.constant.ExoPcmBackpressureMode;
 import com.sss.michael.exo.constant.ExoPlayMode;
 import com.sss.michael.exo.constant.ExoPlaybackState;
 import com.sss.michael.exo.constant.ExoPlayerMode;
+import com.sss.michael.exo.processor.ExoPcmResampler;
 import com.sss.michael.exo.processor.ExoStandaloneAudioProcessorChain;
 import com.sss.michael.exo.util.ExoLog;
 
-import java.util.ArrayDeque;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 独立 PCM 流式播放核心。
@@ -42,8 +52,12 @@ import java.util.concurrent.atomic.AtomicReference;
  * <p>线程模型如下：
  *
  * <ul>
- *     <li>生产线程通过 {@code appendPcmData(...)} 追加原始 PCM 分片，调用本身只负责入队，不直接写设备。</li>
- *     <li>独立工作线程独占 AudioTrack，串行执行取队列、DSP 处理和阻塞写入。</li>
+ *     <li>生产线程通过 {@code appendPcmData(...)} 把原始 PCM 直接写入无锁 SPSC 环形缓冲区，调用本身
+ *     只负责入队，不直接写设备，也不按分片分配内存。排队达到上限时按配置的背压策略拒绝、部分写入、
+ *     阻塞等待或丢弃最旧数据。</li>
+ *     <li>独立工作线程独占 AudioTrack，串行执行取连续区间、DSP 处理和写入。API 23+ 默认非阻塞写入，
+ *     AudioTrack 写满后由播放头周期通知驱动补写，播放结束由标记位置通知判定；低版本或关闭该选项时
+ *     回退为阻塞写入。</li>
  *     <li>所有面向 UI 的状态回调都会切回主线程分发。</li>
  * </ul>
  */
@@ -59,17 +73,51 @@ public class ExoPcmStreamCore {
     private static final long COMPLETION_POLL_INTERVAL_MS = 20L;
 
     /**
-     * 单个入队 PCM 分片的目标时长。
+     * 非阻塞写入模式下，按标记位置等待播放结束时的兜底检查余量。
      *
-     * <p>腾讯云等流式 TTS SDK 可能一次回调返回较大的 PCM 数据块。如果把整块数据作为一个队列节点交给
-     * worker 线程，那么一次 {@link AudioTrack#write(byte[], int, int)} 可能会阻塞较久，导致暂停、
-     * 恢复、停止等控制命令虽然已经投递到同一条消息队列，却要等当前大块写完才有机会执行。
+     * <p>正常情况下播放头到达最后一帧时会收到 onMarkerReached。个别设备在停顿或倍速切换后可能丢失
+     * 标记通知，因此在预计剩余时长之后再额外留出该余量做一次兜底检查。
+     */
+    private static final long COMPLETION_MARKER_FALLBACK_MARGIN_MS = 200L;
+
+    /**
+     * 非阻塞写入模式下，AudioTrack 写满后等待周期通知补写的兜底间隔（以周期通知间隔的倍数计）。
      *
-     * <p>这里将输入进一步切成约 40ms 的小片段，让 worker 线程在音频输出过程中更频繁地把执行权还给
-     * Looper，从而显著改善交互控制的响应速度，同时又不会把分片切得过细，避免不必要的调度开销。
+     * <p>周期通知依赖底层播放头推进，部分设备在欠载恢复时可能漏发一次，兜底任务保证补写不会因此停滞。
+     */
+    private static final int REFILL_FALLBACK_PERIODS = 3;
+
+    /**
+     * 单次从环形缓冲区取出的 PCM 区间的目标时长。
+     *
+     * <p>腾讯云等流式 TTS SDK 可能一次回调返回较大的 PCM 数据块。如果 worker 线程一次把整块数据交给
+     * {@link AudioTrack#write(ByteBuffer, int, int)}，写入可能会阻塞较久，导致暂停、恢复、停止等控制命令
+     * 虽然已经投递到同一条消息队列，却要等当前大块写完才有机会执行。
+     *
+     * <p>这里每次最多取约 40ms 的连续区间，让 worker 线程在音频输出过程中更频繁地把执行权还给
+     * Looper，从而显著改善交互控制的响应速度，同时又不会把区间切得过细，避免不必要的调度开销。
+     *
+     * <p>非阻塞写入模式下写入本身不会挂起 worker，该时长同时作为播放头周期通知的间隔。
      */
     private static final long PCM_QUEUE_SLICE_DURATION_MS = 40L;
 
+    /**
+     * 背压等待时生产线程单次 park 的最长时间。
+     *
+     * <p>worker 写出数据后会主动唤醒生产线程，但排队上限同时包含 AudioTrack 内部尚未播出的缓冲，
+     * 这部分随播放头推进而释放，没有事件通知，因此等待方需要按该粒度醒来重新计算可写空间。
+     */
+    private static final long BACKPRESSURE_PARK_SLICE_MS = 10L;
+
+    /**
+     * 进度与排队信息回调的最小分发间隔。
+     *
+     * <p>排空循环每写一个分片、生产线程每追加一次都会刷新排队状态，如果逐次切回主线程分发，
+     * TTS 播放期间主线程每秒要处理上百条消息。这里统一按固定频率节流，状态切换类回调不受影响。
+     * 时间窗内被压下的更新会在窗口结束时由 worker 补发一次，保证最后一次变化不会丢失。
+     */
+    private static final long CALLBACK_DISPATCH_INTERVAL_MS = 100L;
+
     /**
      * PCM AudioTrack 倍速默认值和保护范围。
      *
@@ -96,21 +144,136 @@ public class ExoPcmStreamCore {
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private final HandlerThread workerThread;
     private final Handler workerHandler;
-    private final Object queueLock = new Object();
-    private final ArrayDeque<byte[]> pendingPcmQueue = new ArrayDeque<>();
+    /**
+     * 同一时刻最多只允许一个 drain 任务在 worker 队列中等待，使用 CAS 代替队列锁。
+     */
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
     private final Runnable drainRunnable = this::drainPendingPcmQueue;
-    private final IExoFFTCallBack mainThreadFftCallBack;
+    private final Runnable skipDiscardedRunnable = this::skipDiscardedPcmOnWorker;
+    /**
+     * 已投递但尚未执行的控制命令数（暂停、取消、释放等）。排空循环在两次 AudioTrack 写入之间检查该值，
+     * 非 0 时立即让出 worker，使控制命令不必等待整批数据写完。
+     */
+    private final AtomicInteger pendingControlCommands = new AtomicInteger();
+    /**
+     * 上一次分发进度回调、排队信息回调的时间（uptimeMillis），用于节流。
+     */
+    private final AtomicLong lastProgressDispatchMs = new AtomicLong();
+    private final AtomicLong lastQueueInfoDispatchMs = new AtomicLong();
+    /**
+     * 节流窗口结束时的补发任务是否已投递，同一窗口内只投递一次。
+     */
+    private final AtomicBoolean trailingProgressScheduled = new AtomicBoolean();
+    private final AtomicBoolean trailingQueueInfoScheduled = new AtomicBoolean();
+    private final Runnable trailingProgressRunnable = () -> {
+        trailingProgressScheduled.set(false);
+        dispatchProgressThrottled();
+    };
+    private final Runnable trailingQueueInfoRunnable = () -> {
+        trailingQueueInfoScheduled.set(false);
+        updatePlayerInfoWithQueueState();
+    };
+    // 频谱帧主线程分发器，通知回调未实现 IExoFFTCallBack 时为 null
+    private final ExoSpectrumFrameDispatcher spectrumFrameDispatcher;
+    // 响度计量回调，处理链重建时重新挂上
+    private volatile IExoLoudnessCallBack iExoLoudnessCallBack;
+    // 响度归一化开关与目标响度，处理链重建时重新应用
+    private volatile boolean loudnessNormalizationEnabled = ExoConfig.LOUDNESS_NORMALIZE_ENABLE;
+    private volatile float loudnessTargetLufs = ExoConfig.LOUDNESS_TARGET_LUFS;
 
     private AudioTrack audioTrack;
     private ExoStandaloneAudioProcessorChain audioProcessorChain;
-    private ExoPcmStreamConfig currentConfig;
-    private StreamState streamState = StreamState.IDLE;
-    private boolean drainScheduled;
-    private boolean inputCompleted;
+    /**
+     * 当前 AudioTrack 与处理链对应的输出格式。下一轮会话输出格式不变时两者直接复用，不再重建。
+     */
+    private ExoPcmStreamConfig audioOutputConfig;
+    /**
+     * 输入采样率与输出不一致时使用的采样率转换器及其复用的 16-bit 输出缓冲区，仅由 worker 访问。
+     */
+    private ExoPcmResampler pcmResampler;
+    private ByteBuffer resampledOutputBuffer;
+    /**
+     * 当前会话写入 AudioTrack 的采样率。
+     */
+    private volatile int outputSampleRateHz;
+    /**
+     * 本轮会话开始时 AudioTrack 的播放头位置。AudioTrack 跨会话复用时播放头不保证归零，已播放帧数以此为基准。
+     */
+    private long playbackHeadBaseFrames;
+    /**
+     * 当前会话是否正占用 AudioTrack。会话取消后 AudioTrack 只暂停保留，此时播放进度回退为已写入字节数。
+     */
+    private volatile boolean audioTrackAttached;
+    private volatile ExoPcmStreamConfig currentConfig;
+    private volatile StreamState streamState = StreamState.IDLE;
+    /**
+     * 待播 PCM 环形缓冲区，容量由 maxQueuedDurationMs 推导（为 0 时按需扩容），会话格式变化时重建。
+     */
+    private volatile ExoPcmRingBuffer pcmRingBuffer;
+    private volatile boolean inputCompleted;
     private boolean firstFrameDispatched;
-    private long queuedBytes;
-    private long totalInputBytes;
-    private long totalWrittenBytes;
+    /**
+     * 当前会话是否使用非阻塞写入，只在 worker 线程准备会话时确定。
+     */
+    private boolean nonBlockingWrite;
+    /**
+     * 非阻塞模式下尚未完整写入 AudioTrack 的处理结果，以及它对应的环形区字节数。
+     *
+     * <p>处理链输出缓冲区在下一次处理前保持有效，环形区对应区间也要等输出全部写完后才释放，
+     * 因此 worker 在写完这一段之前不会取下一段、也不会跳过已丢弃数据。
+     */
+    private ByteBuffer pendingOutputBuffer;
+    private int pendingOutputRegionBytes;
+    /**
+     * 处理链延迟线中是否还有未推出的尾部（如限幅器前瞻延迟），只在 worker 线程访问。
+     *
+     * <p>有音频经过处理链后置位；输入结束且队列取空时先推出尾部再进入完成态，否则每次会话都会丢掉
+     * 最后几毫秒，或在复用处理链时把上一段的尾音播到下一段开头。
+     */
+    private boolean processorTailPending;
+    /**
+     * 周期通知的间隔（毫秒），用于推算补写兜底时间。
+     */
+    private long positionNotificationPeriodMs;
+    private final Runnable refillFallbackRunnable = this::scheduleDrain;
+    private final Runnable completionCheckRunnable = this::handleStreamCompletedOnWorker;
+    private final AudioTrack.OnPlaybackPositionUpdateListener playbackPositionListener =
+            new AudioTrack.OnPlaybackPositionUpdateListener() {
+                @Override
+                public void onMarkerReached(AudioTrack track) {
+                    if (track == audioTrack) {
+                        handleStreamCompletedOnWorker();
+                    }
+                }
+
+                @Override
+                public void onPeriodicNotification(AudioTrack track) {
+                    if (track != audioTrack) {
+                        return;
+                    }
+                    // 播放头每推进一个周期，AudioTrack 就腾出一个周期的空间，此时补写正好填满
+                    if (pendingOutputBuffer != null || hasPendingPcmChunk()) {
+                        scheduleDrain();
+                    }
+                    dispatchProgressThrottled();
+                }
+            };
+    /**
+     * 累计输入字节数，只由生产线程累加；volatile 保证 worker 与 UI 线程读取到最新值。
+     */
+    private volatile long totalInputBytes;
+    /**
+     * 累计写入 AudioTrack 的字节数，只由 worker 线程累加。
+     */
+    private volatile long totalWrittenBytes;
+    /**
+     * 因 {@link ExoPcmBackpressureMode#DROP_OLDEST} 背压被丢弃、不会再播放的字节数，只在 worker 跳过丢弃数据时累加。
+     */
+    private final AtomicLong totalDroppedBytes = new AtomicLong();
+    /**
+     * 正在等待背压释放的生产线程，worker 消费数据或会话结束时据此唤醒。
+     */
+    private volatile Thread blockedProducer;
     /**
      * 当前 PCM 流播放倍速。
      *
@@ -126,27 +289,9 @@ public class ExoPcmStreamCore {
         this.playerView = playerView;
         this.playerInfo = playerInfo;
         this.iExoNotifyCallBack = iExoNotifyCallBack;
-        this.mainThreadFftCallBack = new IExoFFTCallBack() {
-            @Override
-            public void onFFTReady(int sampleRateHz, int channelCount, float[] fft) {
-                mainHandler.post(() -> {
-                    if (ExoPcmStreamCore.this.iExoNotifyCallBack instanceof IExoFFTCallBack) {
-                        ((IExoFFTCallBack) ExoPcmStreamCore.this.iExoNotifyCallBack)
-                                .onFFTReady(sampleRateHz, channelCount, fft);
-                    }
-                });
-            }
-
-            @Override
-            public void onMagnitudeReady(int sampleRateHz, float[] magnitude) {
-                mainHandler.post(() -> {
-                    if (ExoPcmStreamCore.this.iExoNotifyCallBack instanceof IExoFFTCallBack) {
-                        ((IExoFFTCallBack) ExoPcmStreamCore.this.iExoNotifyCallBack)
-                                .onMagnitudeReady(sampleRateHz, magnitude);
-                    }
-                });
-            }
-        };
+        this.spectrumFrameDispatcher = iExoNotifyCallBack instanceof IExoFFTCallBack
+                ? new ExoSpectrumFrameDispatcher((IExoFFTCallBack) iExoNotifyCallBack)
+                : null;
         workerThread = new HandlerThread("ExoPcmStreamWorker");
         workerThread.start();
         workerHandler = new Handler(workerThread.getLooper());
@@ -161,52 +306,311 @@ public class ExoPcmStreamCore {
         ensureUsable();
         currentConfig = new ExoPcmStreamConfig(config);
         validateConfig(currentConfig);
-        runOnWorkerBlocking(() -> prepareNewStreamOnWorker(currentConfig));
+        runControlCommandBlocking(() -> prepareNewStreamOnWorker(currentConfig));
     }
 
     /**
      * 复制并追加一段 PCM 数据，供异步工作线程后续处理和播放。
      *
+     * <p>数据直接写入环形缓冲区，热路径上不加锁、不分配。排队达到上限时按
+     * {@link ExoPcmStreamConfig#getBackpressureMode()} 处理。同一时刻只允许一个生产线程调用。
+     *
      * @param data 原始 PCM 字节数组
      * @param offset 源数组偏移
      * @param length 需要入队的 PCM 字节数
+     * @return 实际被接受的字节数；调用方需自行重试 {@code [offset + 返回值, offset + length)} 区间
      */
-    public void appendPcmData(byte[] data, int offset, int length) {
+    public int appendPcmData(byte[] data, int offset, int length) {
         ensureUsable();
         if (data == null || length <= 0) {
-            return;
+            return 0;
         }
         if (offset < 0 || length < 0 || offset + length > data.length) {
             throw new IndexOutOfBoundsException("appendPcmData range is out of bounds");
         }
-        if (currentConfig == null || streamState == StreamState.RELEASED) {
+        return appendPcmDataInternal(data, offset, null, length);
+    }
+
+    /**
+     * 复制并追加 {@code buffer} remaining 区间内的 PCM 数据，数据直接从源缓冲区写入环形缓冲区。
+     *
+     * <p>调用结束后 {@code buffer} 的 position 保持不变，调用方按返回值自行推进。同一时刻只允许一个
+     * 生产线程调用。
+     *
+     * @param buffer 存放 PCM 数据的缓冲区
+     * @return 实际被接受的字节数
+     */
+    public int appendPcmData(ByteBuffer buffer) {
+        ensureUsable();
+        if (buffer == null || !buffer.hasRemaining()) {
+            return 0;
+        }
+        int position = buffer.position();
+        try {
+            return appendPcmDataInternal(null, 0, buffer, buffer.remaining());
+        } finally {
+            buffer.position(position);
+        }
+    }
+
+    /**
+     * 按当前会话的背压策略把数据写入环形缓冲区。{@code data} 与 {@code buffer} 二选一。
+     */
+    private int appendPcmDataInternal(byte[] data, int offset, ByteBuffer buffer, int length) {
+        ExoPcmRingBuffer ringBuffer = obtainAppendableRingBuffer();
+        if (ringBuffer == null) {
+            return 0;
+        }
+        ExoPcmStreamConfig config = currentConfig;
+        switch (config.getBackpressureMode()) {
+            case BLOCK:
+                return appendBlocking(ringBuffer, config, data, offset, buffer, length);
+            case PARTIAL_WRITE:
+                return appendPartially(ringBuffer, data, offset, buffer, length);
+            case DROP_OLDEST:
+                return appendDroppingOldest(ringBuffer, config, data, offset, buffer, length);
+            case REJECT:
+            default:
+                return appendOrReject(ringBuffer, data, offset, buffer, length);
+        }
+    }
+
+    /**
+     * 校验会话状态，返回当前会话的环形缓冲区。
+     *
+     * @return 可写入的环形缓冲区；会话不可用时返回 {@code null}，并已回调错误
+     */
+    private ExoPcmRingBuffer obtainAppendableRingBuffer() {
+        ExoPcmRingBuffer ringBuffer = pcmRingBuffer;
+        if (currentConfig == null || ringBuffer == null || streamState == StreamState.RELEASED) {
             dispatchError("PCM 流尚未初始化，无法追加音频数据", null);
-            return;
+            return null;
         }
+        if (isAppendClosed()) {
+            dispatchError("当前 PCM 会话已经结束，无法继续追加音频数据", null);
+            return null;
+        }
+        return ringBuffer;
+    }
 
-        synchronized (queueLock) {
-            if (streamState == StreamState.CANCELED || streamState == StreamState.COMPLETED) {
-                dispatchError("当前 PCM 会话已经结束，无法继续追加音频数据", null);
-                return;
+    private boolean isAppendClosed() {
+        StreamState state = streamState;
+        return state == StreamState.CANCELED || state == StreamState.COMPLETED || state == StreamState.RELEASED;
+    }
+
+    /**
+     * {@link ExoPcmBackpressureMode#REJECT}：整块放得下才写入，否则整体丢弃并回调错误。
+     */
+    private int appendOrReject(ExoPcmRingBuffer ringBuffer, byte[] data, int offset, ByteBuffer buffer, int length) {
+        if (getAppendableBytes(ringBuffer) < length) {
+            // 队列上限按“时长”控制，而不是仅按块数或字节数控制。这样不同采样率和声道
+            // 的会话都能获得一致的背压语义，同时避免 AudioTrack 跟不上时持续堆内存。
+            dispatchError("PCM 队列已达到上限，本次音频分片已被丢弃", null);
+            ExoLog.log("PCM 队列超限，拒绝追加 " + length + " bytes");
+            return 0;
+        }
+        return writeToRingBuffer(ringBuffer, data, offset, buffer, length);
+    }
+
+    /**
+     * {@link ExoPcmBackpressureMode#PARTIAL_WRITE}：只写入当前放得下的部分，立即返回。
+     */
+    private int appendPartially(ExoPcmRingBuffer ringBuffer, byte[] data, int offset, ByteBuffer buffer, int length) {
+        int acceptable = getAcceptableBytes(ringBuffer, length);
+        if (acceptable <= 0) {
+            return 0;
+        }
+        return writeToRingBuffer(ringBuffer, data, offset, buffer, acceptable);
+    }
+
+    /**
+     * {@link ExoPcmBackpressureMode#BLOCK}：边写边等，直到整块写完、等待超时或会话结束。
+     *
+     * <p>该模式会挂起调用线程，只能在后台生产线程调用；在主线程调用会直接抛出异常，避免卡住 UI。
+     *
+     * <p>等待期间 worker 每写出一段数据都会唤醒生产线程；队列上限同时包含 AudioTrack 尚未播出的缓冲，
+     * 这部分随播放头推进而释放、没有回调通知，因此单次 park 最长 {@link #BACKPRESSURE_PARK_SLICE_MS}，
+     * 醒来后重新计算可写空间。
+     */
+    private int appendBlocking(ExoPcmRingBuffer ringBuffer, ExoPcmStreamConfig config,
+                               byte[] data, int offset, ByteBuffer buffer, int length) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("BLOCK 背压模式会挂起调用线程，不能在主线程追加 PCM 数据");
+        }
+        long deadlineNanos = getBackpressureDeadlineNanos(config);
+        int accepted = 0;
+        blockedProducer = Thread.currentThread();
+        try {
+            while (true) {
+                int acceptable = getAcceptableBytes(ringBuffer, length - accepted);
+                if (acceptable > 0) {
+                    accepted += writeToRingBuffer(ringBuffer, data, offset + accepted, buffer, acceptable);
+                }
+                if (accepted >= length || isAppendClosed() || !parkProducer(deadlineNanos)) {
+                    break;
+                }
             }
+        } finally {
+            blockedProducer = null;
+        }
+        if (accepted < length) {
+            ExoLog.log("PCM 背压等待结束，已接受 " + accepted + "/" + length + " bytes");
+        }
+        return accepted;
+    }
 
-            long maxQueuedBytes = durationMsToBytes(currentConfig.getMaxQueuedDurationMs());
-            long pendingPlaybackBytes = getPendingPlaybackBytes();
-            if (maxQueuedBytes > 0 && pendingPlaybackBytes + length > maxQueuedBytes) {
-                // 队列上限按“时长”控制，而不是仅按块数或字节数控制。这样不同采样率和声道
-                // 的会话都能获得一致的背压语义，同时避免 AudioTrack 跟不上时持续堆内存。
-                dispatchError("PCM 队列已达到上限，本次音频分片已被丢弃", null);
-                ExoLog.log("PCM 队列超限，拒绝追加 " + length + " bytes");
-                return;
+    /**
+     * {@link ExoPcmBackpressureMode#DROP_OLDEST}：丢弃环形区中尚未交给设备的最旧数据，为本次数据腾出空间。
+     *
+     * <p>已经写入 AudioTrack 或正在被 worker 处理的数据无法撤回，只丢弃其后的排队数据，因此当设备缓冲本身
+     * 就超过上限时，仍然以环形区容量为准接受新数据。被丢弃的空间需要 worker 跳过后才会物理释放，这里最多
+     * 等待 {@link ExoPcmStreamConfig#getBackpressureTimeoutMs()}（主线程上不等待）。单次数据超过环形区
+     * 容量或等待超时时只接受能放下的部分，剩余部分由调用方重试。
+     *
+     * @return 实际写入环形区的字节数
+     */
+    private int appendDroppingOldest(ExoPcmRingBuffer ringBuffer, ExoPcmStreamConfig config,
+                                     byte[] data, int offset, ByteBuffer buffer, int length) {
+        int bytesPerFrame = Math.max(1, config.getBytesPerFrame());
+        long maxQueuedBytes = durationMsToBytes(config.getMaxQueuedDurationMs());
+        long overflowBytes = (maxQueuedBytes > 0 ? getPendingPlaybackBytes() + length - maxQueuedBytes : 0L);
+        overflowBytes = Math.max(overflowBytes, (long) length - ringBuffer.getWritableBytes());
+        if (overflowBytes > 0) {
+            int dropped = ringBuffer.discardOldest(alignUpToFrame((int) Math.min(Integer.MAX_VALUE, overflowBytes), bytesPerFrame));
+            if (dropped > 0) {
+                ExoLog.log("PCM 队列超限，丢弃最旧的 " + dropped + " bytes");
+            }
+        }
+
+        int required = Math.min(length, ringBuffer.getCapacity());
+        if (ringBuffer.getWritableBytes() < required) {
+            long deadlineNanos = getBackpressureDeadlineNanos(config);
+            blockedProducer = Thread.currentThread();
+            try {
+                workerHandler.post(skipDiscardedRunnable);
+                while (ringBuffer.getWritableBytes() < required && !isAppendClosed() && parkProducer(deadlineNanos)) {
+                    // 等待 worker 跳过已丢弃的数据
+                }
+            } finally {
+                blockedProducer = null;
             }
+        }
+        int accepted = Math.min(length, ringBuffer.getWritableBytes());
+        if (accepted < length) {
+            accepted = alignDownToFrame(accepted, bytesPerFrame);
+        }
+        if (accepted <= 0) {
+            return 0;
+        }
+        return writeToRingBuffer(ringBuffer, data, offset, buffer, accepted);
+    }
 
-            enqueuePcmSlicesLocked(data, offset, length);
-            queuedBytes += length;
-            totalInputBytes += length;
-            inputCompleted = false;
-            updatePlayerInfoWithQueueStateLocked();
-            scheduleDrainLocked();
+    /**
+     * 写入环形缓冲区并累计统计、调度 drain。{@code buffer} 非空时从其 position 开始写入并推进 position。
+     *
+     * @return 实际写入的字节数
+     */
+    private int writeToRingBuffer(ExoPcmRingBuffer ringBuffer, byte[] data, int offset, ByteBuffer buffer, int length) {
+        int written;
+        if (buffer != null) {
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + length);
+            written = ringBuffer.write(buffer);
+            buffer.limit(limit);
+        } else {
+            written = ringBuffer.write(data, offset, length);
+        }
+        if (written > 0) {
+            onPcmDataAppended(written);
         }
+        return written;
+    }
+
+    /**
+     * 返回在不超过排队上限和环形区容量的前提下，当前还能追加的字节数。
+     */
+    private int getAppendableBytes(ExoPcmRingBuffer ringBuffer) {
+        long appendableBytes = ringBuffer.getWritableBytes();
+        long maxQueuedBytes = durationMsToBytes(currentConfig.getMaxQueuedDurationMs());
+        if (maxQueuedBytes > 0) {
+            appendableBytes = Math.min(appendableBytes, maxQueuedBytes - getPendingPlaybackBytes());
+        }
+        return (int) Math.max(0L, appendableBytes);
+    }
+
+    /**
+     * 返回本次最多可接受的字节数：能整块放下时返回 {@code length}，否则按帧对齐截断，避免把一帧拆开。
+     */
+    private int getAcceptableBytes(ExoPcmRingBuffer ringBuffer, int length) {
+        int appendableBytes = getAppendableBytes(ringBuffer);
+        if (appendableBytes >= length) {
+            return length;
+        }
+        return alignDownToFrame(appendableBytes, Math.max(1, currentConfig.getBytesPerFrame()));
+    }
+
+    private long getBackpressureDeadlineNanos(ExoPcmStreamConfig config) {
+        long timeoutMs = config.getBackpressureTimeoutMs();
+        return timeoutMs > 0 ? System.nanoTime() + timeoutMs * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    /**
+     * 挂起生产线程直到被 worker 唤醒或经过一个等待分片。
+     *
+     * @return {@code false} 表示已超时、线程被中断、当前就在 worker 线程上（等待会造成死锁）或在主线程上
+     *         （等待会卡住 UI），应停止等待
+     */
+    private boolean parkProducer(long deadlineNanos) {
+        long remainingNanos = deadlineNanos == Long.MAX_VALUE ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+        Looper looper = Looper.myLooper();
+        if (remainingNanos <= 0 || Thread.currentThread().isInterrupted()
+                || looper == workerThread.getLooper() || looper == Looper.getMainLooper()) {
+            return false;
+        }
+        LockSupport.parkNanos(this, Math.min(remainingNanos, BACKPRESSURE_PARK_SLICE_MS * 1_000_000L));
+        return true;
+    }
+
+    /**
+     * 唤醒可能正在等待背压的生产线程。
+     */
+    private void wakeBlockedProducer() {
+        Thread producer = blockedProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+    /**
+     * worker 线程跳过生产线程标记丢弃的数据，释放环形区物理空间。
+     */
+    private void skipDiscardedPcmOnWorker() {
+        ExoPcmRingBuffer ringBuffer = pcmRingBuffer;
+        // 非阻塞模式下可能有一段区间尚未写完，此时跳过会释放仍在使用的空间，需等这段写完
+        if (ringBuffer == null || pendingOutputBuffer != null) {
+            return;
+        }
+        int skipped = ringBuffer.skipDiscarded();
+        if (skipped > 0) {
+            totalDroppedBytes.addAndGet(skipped);
+            wakeBlockedProducer();
+        }
+    }
+
+    private static int alignDownToFrame(int bytes, int bytesPerFrame) {
+        return bytes - bytes % bytesPerFrame;
+    }
+
+    private static int alignUpToFrame(int bytes, int bytesPerFrame) {
+        int remainder = bytes % bytesPerFrame;
+        return remainder == 0 ? bytes : bytes + bytesPerFrame - remainder;
+    }
+
+    private void onPcmDataAppended(int length) {
+        totalInputBytes += length;
+        inputCompleted = false;
+        updatePlayerInfoWithQueueState();
+        scheduleDrain();
     }
 
     /**
@@ -214,15 +618,13 @@ public class ExoPcmStreamCore {
      */
     public void completePcmStream() {
         ensureUsable();
-        synchronized (queueLock) {
-            if (streamState == StreamState.RELEASED || streamState == StreamState.CANCELED) {
-                return;
-            }
-            inputCompleted = true;
-            scheduleDrainLocked();
-            if (queuedBytes == 0) {
-                workerHandler.post(this::handleStreamCompletedOnWorker);
-            }
+        if (streamState == StreamState.RELEASED || streamState == StreamState.CANCELED) {
+            return;
+        }
+        inputCompleted = true;
+        scheduleDrain();
+        if (getQueuedBytes() == 0) {
+            workerHandler.post(this::handleQueueDrainedOnWorker);
         }
     }
 
@@ -233,7 +635,7 @@ public class ExoPcmStreamCore {
         if (streamState == StreamState.RELEASED) {
             return;
         }
-        runOnWorkerBlocking(this::cancelStreamOnWorker);
+        runControlCommandBlocking(this::cancelStreamOnWorker);
     }
 
     /**
@@ -245,7 +647,7 @@ public class ExoPcmStreamCore {
         if (streamState == StreamState.RELEASED) {
             return;
         }
-        workerHandler.post(() -> {
+        postControlCommand(() -> {
             if (audioTrack == null || streamState == StreamState.CANCELED || streamState == StreamState.COMPLETED) {
                 return;
             }
@@ -266,13 +668,13 @@ public class ExoPcmStreamCore {
         if (streamState == StreamState.RELEASED) {
             return;
         }
-        workerHandler.post(() -> {
+        postControlCommand(() -> {
             if (audioTrack == null || streamState == StreamState.CANCELED || streamState == StreamState.COMPLETED) {
                 return;
             }
             try {
                 audioTrack.play();
-                if (queuedBytes > 0) {
+                if (pendingOutputBuffer != null || hasPendingPcmChunk()) {
                     streamState = StreamState.PLAYING;
                     dispatchPlaybackState(ExoPlaybackState.STATE_PLAYING);
                     drainPendingPcmQueue();
@@ -305,6 +707,59 @@ public class ExoPcmStreamCore {
         audioProcessorChain.setEqualizer(exoEqualizerPreset);
     }
 
+    /**
+     * 将参数均衡频段应用到独立 DSP 处理链。
+     *
+     * @param bands 需要生效的频段描述，为 null 或空时均衡不生效
+     */
+    public void setEqualizerBands(List<ExoEqBand> bands) {
+        if (streamState == StreamState.RELEASED || audioProcessorChain == null) {
+            return;
+        }
+        audioProcessorChain.setEqualizerBands(bands);
+    }
+
+    /**
+     * 设置响度计量回调，对当前及之后重建的处理链生效。
+     *
+     * @param iExoLoudnessCallBack 在音频分析线程接收峰值 / RMS / LUFS 的监听器，为 {@code null} 时停止计量
+     */
+    public void setExoLoudnessCallBack(IExoLoudnessCallBack iExoLoudnessCallBack) {
+        this.iExoLoudnessCallBack = iExoLoudnessCallBack;
+        if (streamState == StreamState.RELEASED) {
+            return;
+        }
+        // 处理链由 worker 线程创建和重建，投递到同一线程挂上回调，避免与重建交错
+        workerHandler.post(this::applyLoudnessCallBackOnWorker);
+    }
+
+    private void applyLoudnessCallBackOnWorker() {
+        if (audioProcessorChain != null) {
+            audioProcessorChain.setExoLoudnessCallBack(iExoLoudnessCallBack);
+        }
+    }
+
+    /**
+     * 设置响度归一化，对当前及之后重建的处理链生效；关闭时真峰值限幅仍然生效。
+     *
+     * @param enabled 是否开启归一化
+     * @param targetLufs 目标响度（LUFS）
+     */
+    public void setLoudnessNormalization(boolean enabled, float targetLufs) {
+        this.loudnessTargetLufs = targetLufs;
+        this.loudnessNormalizationEnabled = enabled;
+        if (streamState == StreamState.RELEASED) {
+            return;
+        }
+        workerHandler.post(this::applyLoudnessNormalizationOnWorker);
+    }
+
+    private void applyLoudnessNormalizationOnWorker() {
+        if (audioProcessorChain != null) {
+            audioProcessorChain.setLoudnessNormalization(loudnessNormalizationEnabled, loudnessTargetLufs);
+        }
+    }
+
     /**
      * 设置 PCM 流的实时播放倍速。
      *
@@ -347,13 +802,13 @@ public class ExoPcmStreamCore {
     }
 
     /**
-     * 返回当前会话已经接收的 PCM 总时长。
+     * 返回当前会话已经接收的 PCM 总时长（不含因背压被丢弃的数据）。
      */
     public long getDuration() {
         if (currentConfig == null) {
             return 0L;
         }
-        return bytesToDurationMs(totalInputBytes);
+        return bytesToDurationMs(Math.max(0L, totalInputBytes - totalDroppedBytes.get()));
     }
 
     /**
@@ -363,7 +818,8 @@ public class ExoPcmStreamCore {
         if (currentConfig == null) {
             return 0L;
         }
-        return bytesToDurationMs(getPlayedBytes());
+        // 写入量含处理链推出的尾部，播放位置不超过已接收时长
+        return Math.min(getDuration(), bytesToDurationMs(outputBytesToInputBytes(getPlayedBytes())));
     }
 
     /**
@@ -383,34 +839,33 @@ public class ExoPcmStreamCore {
         if (streamState == StreamState.RELEASED) {
             return;
         }
-        runOnWorkerBlocking(this::releaseInternalOnWorker);
+        runControlCommandBlocking(this::releaseInternalOnWorker);
         workerThread.quitSafely();
+        if (spectrumFrameDispatcher != null) {
+            spectrumFrameDispatcher.release();
+        }
         streamState = StreamState.RELEASED;
     }
 
     private void prepareNewStreamOnWorker(ExoPcmStreamConfig config) {
-        // startPcmStream 需要具备幂等性。无论此前是否已有流会话，都先完整回收旧资源，
-        // 防止不同采样率/声道配置复用到上一个 AudioTrack 或 DSP 链导致格式错配。
+        // startPcmStream 需要具备幂等性。无论此前是否已有流会话，都先停止旧会话并清空待播数据；
+        // AudioTrack 与 DSP 链只在输出格式变化时才重建，防止格式错配的同时避免无谓的重建开销。
         cancelStreamResourcesOnWorker();
         inputCompleted = false;
         firstFrameDispatched = false;
         totalInputBytes = 0L;
         totalWrittenBytes = 0L;
-        queuedBytes = 0L;
-
-        try {
-            // 顺序固定为 EQ -> FFT。频谱分析看到的是“均衡器处理后的最终音频”，这样 UI
-            // 展示与用户实际听到的声音保持一致，也避免维护第二套 DSP 逻辑。
-            audioProcessorChain = new ExoStandaloneAudioProcessorChain(
-                    config.getSampleRateHz(),
-                    config.getChannelCount(),
-                    mainThreadFftCallBack
-            );
-        } catch (AudioProcessor.UnhandledAudioFormatException e) {
-            throw new IllegalStateException("PCM 处理链初始化失败", e);
-        }
-
-        audioTrack = buildAudioTrack(config);
+        totalDroppedBytes.set(0L);
+        prepareRingBufferOnWorker(config);
+
+        ExoPcmStreamConfig outputConfig = new ExoPcmStreamConfig(config)
+                .setSampleRateHz(config.getResolvedOutputSampleRateHz());
+        outputSampleRateHz = outputConfig.getSampleRateHz();
+        prepareAudioOutputOnWorker(outputConfig);
+        preparePcmResamplerOnWorker(config, outputConfig);
+        setupPlaybackPositionNotification(outputConfig);
+        playbackHeadBaseFrames = audioTrack.getPlaybackHeadPosition() & 0xFFFFFFFFL;
+        audioTrackAttached = true;
         audioTrack.play();
         streamState = StreamState.PREPARED;
 
@@ -424,65 +879,110 @@ public class ExoPcmStreamCore {
         dispatchProgress();
     }
 
-    private AudioTrack buildAudioTrack(ExoPcmStreamConfig config) {
-        int channelMask = getChannelMask(config.getChannelCount());
-        int minBufferSize = AudioTrack.getMinBufferSize(
-                config.getSampleRateHz(),
-                channelMask,
-                config.getEncoding()
-        );
-        if (minBufferSize <= 0) {
-            throw new IllegalStateException("AudioTrack 最小缓冲区大小计算失败: " + minBufferSize);
+    /**
+     * 按本次会话的排队上限准备环形缓冲区，容量与扩容模式不变时复用上一轮的直接内存。
+     *
+     * <p>背压判定以“尚未真正播出”的字节数为准，它始终不小于环形区中的字节数，因此容量取
+     * maxQueuedDurationMs 对应的字节数即可保证通过背压校验的数据一定写得下。maxQueuedDurationMs
+     * 为 0（不限时长）时，环形区先按 {@link ExoPcmStreamConfig#DEFAULT_MAX_QUEUED_DURATION_MS} 分配，
+     * 写满后按需追加容量翻倍的新段，与旧版本不限排队的语义一致。
+     */
+    private void prepareRingBufferOnWorker(ExoPcmStreamConfig config) {
+        boolean unlimited = config.getMaxQueuedDurationMs() <= 0;
+        long queuedDurationMs = unlimited
+                ? ExoPcmStreamConfig.DEFAULT_MAX_QUEUED_DURATION_MS
+                : config.getMaxQueuedDurationMs();
+        int bytesPerFrame = Math.max(1, config.getBytesPerFrame());
+        long capacityBytes = queuedDurationMs * config.getSampleRateHz() * bytesPerFrame / 1000L;
+        // 容量按帧对齐，保证环形区回绕处不会把一帧拆成两段
+        capacityBytes = Math.max(bytesPerFrame, capacityBytes - capacityBytes % bytesPerFrame);
+        int capacity = (int) Math.min(Integer.MAX_VALUE - bytesPerFrame, capacityBytes);
+        ExoPcmRingBuffer ringBuffer = pcmRingBuffer;
+        if (ringBuffer != null && ringBuffer.getCapacity() == capacity && ringBuffer.isGrowable() == unlimited) {
+            ringBuffer.discardAll();
+        } else {
+            pcmRingBuffer = new ExoPcmRingBuffer(capacity, unlimited);
         }
+    }
 
-        int resolvedBufferSize = config.getBufferSizeInBytes() > 0
-                ? config.getBufferSizeInBytes()
-                : minBufferSize * 2;
-
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.M) {
-            /*
-             * API 23+ 使用 Builder 方式构建 AudioTrack，能够明确设置 AudioAttributes 和
-             * AudioFormat，适合当前这条需要语义化配置的 PCM 流渲染链路。
-             */
-            AudioAttributes audioAttributes = new AudioAttributes.Builder()
-                    .setUsage(config.getAudioUsage())
-                    .setContentType(config.getContentType())
-                    .build();
-            AudioFormat audioFormat = new AudioFormat.Builder()
-                    .setSampleRate(config.getSampleRateHz())
-                    .setEncoding(config.getEncoding())
-                    .setChannelMask(channelMask)
-                    .build();
-            AudioTrack audioTrack = new AudioTrack.Builder()
-                    .setAudioAttributes(audioAttributes)
-                    .setAudioFormat(audioFormat)
-                    .setTransferMode(AudioTrack.MODE_STREAM)
-                    .setBufferSizeInBytes(resolvedBufferSize)
-                    .build();
-            if (audioTrack.getState() != AudioTrack.STATE_INITIALIZED) {
-                throw new IllegalStateException("AudioTrack 初始化失败");
+    /**
+     * 准备处理链与 AudioTrack：输出格式与上一轮一致时直接复用（处理链只清空内部状态），否则释放后按新格式重建。
+     *
+     * @param outputConfig 写入 AudioTrack 的格式，采样率为转换后的输出采样率
+     */
+    private void prepareAudioOutputOnWorker(ExoPcmStreamConfig outputConfig) {
+        ExoPcmStreamConfig previousConfig = audioOutputConfig;
+        if (audioProcessorChain != null && previousConfig != null
+                && previousConfig.getSampleRateHz() == outputConfig.getSampleRateHz()
+                && previousConfig.getChannelCount() == outputConfig.getChannelCount()) {
+            audioProcessorChain.flush();
+        } else {
+            releaseProcessorChainOnWorker();
+            try {
+                // 顺序固定为 EQ -> 响度归一化 / 限幅 -> FFT。频谱分析看到的是“均衡器处理后的最终音频”，这样 UI
+                // 展示与用户实际听到的声音保持一致，也避免维护第二套 DSP 逻辑。
+                audioProcessorChain = new ExoStandaloneAudioProcessorChain(
+                        outputConfig.getSampleRateHz(),
+                        outputConfig.getChannelCount(),
+                        spectrumFrameDispatcher
+                );
+                audioProcessorChain.setExoLoudnessCallBack(iExoLoudnessCallBack);
+                audioProcessorChain.setLoudnessNormalization(loudnessNormalizationEnabled, loudnessTargetLufs);
+            } catch (AudioProcessor.UnhandledAudioFormatException e) {
+                throw new IllegalStateException("PCM 处理链初始化失败", e);
             }
-            // 新建 AudioTrack 后立刻应用当前倍速，否则会短暂按 1.0x 输出。
+        }
+
+        if (audioTrack != null && isSameAudioTrackFormat(previousConfig, outputConfig)) {
+            // 复用上一轮的 AudioTrack：取消旧会话时已暂停并清空，这里只需同步当前倍速
             applyPlaybackParameters(audioTrack);
-            return audioTrack;
-        }
-
-        /*
-         * API 21-22 无 Builder 构造方式，回退到传统构造函数。此时统一映射到 STREAM_MUSIC，
-         * 以保证老设备上的兼容性和最小实现复杂度。
-         */
-        AudioTrack audioTrack = new AudioTrack(
-                AudioManager.STREAM_MUSIC,
-                config.getSampleRateHz(),
-                channelMask,
-                config.getEncoding(),
-                resolvedBufferSize,
-                AudioTrack.MODE_STREAM
-        );
-        if (audioTrack.getState() != AudioTrack.STATE_INITIALIZED) {
-            throw new IllegalStateException("AudioTrack 初始化失败");
-        }
-        // 老版本构造路径同样需要应用当前倍速，保证不同 API 分支行为一致。
+        } else {
+            releaseAudioTrackOnWorker();
+            audioTrack = buildAudioTrack(outputConfig);
+        }
+        audioOutputConfig = outputConfig;
+    }
+
+    private static boolean isSameAudioTrackFormat(ExoPcmStreamConfig previous, ExoPcmStreamConfig next) {
+        return previous != null
+                && previous.getSampleRateHz() == next.getSampleRateHz()
+                && previous.getChannelCount() == next.getChannelCount()
+                && previous.getEncoding() == next.getEncoding()
+                && previous.getBufferSizeInBytes() == next.getBufferSizeInBytes()
+                && previous.getAudioUsage() == next.getAudioUsage()
+                && previous.getContentType() == next.getContentType();
+    }
+
+    /**
+     * 输入采样率与输出不一致时准备采样率转换器；转换参数不变时复用上一轮的实例与输出缓冲区。
+     */
+    private void preparePcmResamplerOnWorker(ExoPcmStreamConfig config, ExoPcmStreamConfig outputConfig) {
+        if (config.getSampleRateHz() == outputConfig.getSampleRateHz()) {
+            pcmResampler = null;
+            return;
+        }
+        ExoPcmResampler resampler = pcmResampler;
+        if (resampler != null
+                && resampler.getInputSampleRateHz() == config.getSampleRateHz()
+                && resampler.getOutputSampleRateHz() == outputConfig.getSampleRateHz()
+                && resampler.getChannelCount() == config.getChannelCount()
+                && resampler.getQuality() == config.getResamplerQuality()) {
+            resampler.reset();
+        } else {
+            pcmResampler = new ExoPcmResampler(config.getSampleRateHz(), outputConfig.getSampleRateHz(),
+                    config.getChannelCount(), config.getResamplerQuality());
+        }
+        // 转换后每次输出一个分片时长，与不转换时单次取出的区间时长一致
+        long sliceFrames = Math.max(1L, PCM_QUEUE_SLICE_DURATION_MS * outputConfig.getSampleRateHz() / 1000L);
+        int capacity = (int) sliceFrames * outputConfig.getBytesPerFrame();
+        if (resampledOutputBuffer == null || resampledOutputBuffer.capacity() != capacity) {
+            resampledOutputBuffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    private AudioTrack buildAudioTrack(ExoPcmStreamConfig config) {
+        AudioTrack audioTrack = ExoPcmAudioTracks.build(config);
+        // 新建 AudioTrack 后立刻应用当前倍速，否则会短暂按 1.0x 输出。
         applyPlaybackParameters(audioTrack);
         return audioTrack;
     }
@@ -518,98 +1018,190 @@ public class ExoPcmStreamCore {
         return Math.max(min, Math.min(max, value));
     }
 
+    /**
+     * 排空环形缓冲区中的待播数据。
+     *
+     * <p>单次调度内连续处理多个分片，直到写满 {@link ExoPcmStreamConfig#getDrainBatchDurationMs()}
+     * 或队列取空，避免每个分片都经历一次消息分发和多次主线程回调。每次 AudioTrack 写入之间检查
+     * 是否有待执行的控制命令，有则立即让出 worker。
+     */
     private void drainPendingPcmQueue() {
-        synchronized (queueLock) {
-            drainScheduled = false;
-        }
-        if (audioTrack == null || audioProcessorChain == null) {
-            return;
-        }
-        if (streamState == StreamState.PAUSED || streamState == StreamState.CANCELED
-                || streamState == StreamState.COMPLETED || streamState == StreamState.RELEASED) {
+        drainScheduled.set(false);
+        if (!isDrainable()) {
             return;
         }
 
-        byte[] pcmChunk = dequeueNextPendingPcmChunk();
-        if (pcmChunk == null) {
-            handleQueueDrainedOnWorker();
-            return;
-        }
+        ExoPcmRingBuffer ringBuffer = pcmRingBuffer;
+        long batchBudgetBytes = durationMsToBytes(currentConfig.getDrainBatchDurationMs());
+        long batchBytes = 0L;
+        boolean starved = false;
+        boolean trackFull = false;
+        boolean wroteAny = false;
+        do {
+            try {
+                if (pendingOutputBuffer == null) {
+                    skipDiscardedPcmOnWorker();
+                    ByteBuffer output = processNextPendingPcm(ringBuffer);
+                    if (output == null) {
+                        starved = true;
+                        break;
+                    }
+                    pendingOutputBuffer = output;
+                    processorTailPending = true;
+                }
+                long writtenBefore = totalWrittenBytes;
+                boolean completed = writePendingOutput(ringBuffer);
+                wroteAny |= totalWrittenBytes > writtenBefore;
+                batchBytes += outputBytesToInputBytes(totalWrittenBytes - writtenBefore);
+                if (!completed) {
+                    trackFull = true;
+                    break;
+                }
+            } catch (Exception e) {
+                dispatchError("PCM 数据写入 AudioTrack 失败", e);
+                cancelStreamOnWorker();
+                // 写入失败的 AudioTrack 不再复用
+                releaseAudioOutputOnWorker();
+                return;
+            }
+        } while (batchBytes < batchBudgetBytes && pendingControlCommands.get() == 0 && isDrainable());
 
-        try {
-            // PCM 分片始终先经过复用的音频处理链，再进入 AudioTrack。这样 URL 主链和
-            // 流式主链共享同一套 EQ/频谱能力，行为保持一致。
-            byte[] processedChunk = audioProcessorChain.process(pcmChunk, 0, pcmChunk.length);
-            writeFully(processedChunk);
-            totalWrittenBytes += processedChunk.length;
+        if (trackFull) {
+            // AudioTrack 已写满：不再空转重试，等播放头周期通知腾出空间后补写，同时挂一个兜底任务
+            workerHandler.removeCallbacks(refillFallbackRunnable);
+            workerHandler.postDelayed(refillFallbackRunnable, positionNotificationPeriodMs * REFILL_FALLBACK_PERIODS);
+        }
 
+        if (wroteAny) {
             if (!firstFrameDispatched) {
                 firstFrameDispatched = true;
                 mainHandler.post(iExoNotifyCallBack::onExoRenderedFirstFrame);
             }
-            streamState = StreamState.PLAYING;
-            dispatchPlaybackState(ExoPlaybackState.STATE_PLAYING);
-            dispatchProgress();
-        } catch (Exception e) {
-            dispatchError("PCM 数据写入 AudioTrack 失败", e);
-            cancelStreamOnWorker();
-            return;
+            if (streamState == StreamState.PREPARED) {
+                // 只在状态真正切换时分发，持续播放期间不再逐批重复回调 STATE_PLAYING
+                streamState = StreamState.PLAYING;
+                dispatchPlaybackState(ExoPlaybackState.STATE_PLAYING);
+            }
+            updatePlayerInfoWithQueueState();
+            dispatchProgressThrottled();
         }
 
-        if (hasPendingPcmChunk()) {
-            scheduleDrainOnWorker();
+        if (trackFull) {
+            return;
+        }
+        if (!starved && (pendingOutputBuffer != null || hasPendingPcmChunk())) {
+            scheduleDrain();
         } else {
             handleQueueDrainedOnWorker();
         }
     }
 
     /**
-     * 从待播队列中取出下一段 PCM 数据，并同步更新队列相关调试状态。
+     * 取出下一段待播 PCM 并执行处理链，返回待写入 AudioTrack 的结果。
      *
-     * <p>工作线程是队列的唯一消费者。将取队列逻辑单独抽出后，主循环可以直接表达为“持续取数直到
-     * 队列为空”，避免使用难以审计的无限循环加中途返回。
+     * <p>PCM 始终先经过复用的音频处理链，再进入 AudioTrack。这样 URL 主链和流式主链共享同一套
+     * EQ/频谱能力，行为保持一致。不做采样率转换时，处理链为空返回的就是环形区视图本身，因此该区间
+     * 要等写完 AudioTrack 之后才释放（记录在 {@link #pendingOutputRegionBytes}）。
      *
-     * @return 下一段 PCM 数据；当队列已清空时返回 {@code null}
+     * @param ringBuffer 当前会话的环形缓冲区
+     * @return 处理结果；暂无可处理的数据时返回 {@code null}
+     */
+    private ByteBuffer processNextPendingPcm(ExoPcmRingBuffer ringBuffer) {
+        if (pcmResampler != null) {
+            return resampleNextPendingPcm(ringBuffer);
+        }
+        ByteBuffer pcmRegion = peekNextPendingPcmRegion(ringBuffer);
+        if (pcmRegion == null) {
+            return null;
+        }
+        pendingOutputRegionBytes = pcmRegion.remaining();
+        return audioProcessorChain.process(pcmRegion);
+    }
+
+    /**
+     * 采样率转换路径：从环形区取出恰好能产出一个分片的输入帧交给转换器并立即释放，再把转换结果送入处理链。
+     * 转换结果位于独立的输出缓冲区，因此这一路径不占用环形区，{@link #pendingOutputRegionBytes} 恒为 0。
      */
-    private byte[] dequeueNextPendingPcmChunk() {
-        synchronized (queueLock) {
-            byte[] pcmChunk = pendingPcmQueue.pollFirst();
-            if (pcmChunk == null) {
-                updatePlayerInfoWithQueueStateLocked();
-                return null;
+    private ByteBuffer resampleNextPendingPcm(ExoPcmRingBuffer ringBuffer) {
+        ExoPcmResampler resampler = pcmResampler;
+        int bytesPerFrame = Math.max(1, currentConfig.getBytesPerFrame());
+        if (resampler.isEnded() && getQueuedBytes() >= bytesPerFrame) {
+            // 上一段输入的尾音已全部输出，complete 之后又追加了新数据：从干净状态继续转换
+            resampler.reset();
+        }
+        ByteBuffer output = resampledOutputBuffer;
+        int sliceFrames = output.capacity() / bytesPerFrame;
+        int requiredFrames = resampler.getRequiredInputFrames(sliceFrames);
+        boolean consumed = false;
+        while (requiredFrames > 0 && ringBuffer != null) {
+            ByteBuffer region = ringBuffer.peekContiguous(requiredFrames * bytesPerFrame);
+            int frames = region.remaining() / bytesPerFrame;
+            if (frames == 0) {
+                break;
+            }
+            resampler.queueInput(region, frames);
+            ringBuffer.commitRead(frames * bytesPerFrame);
+            requiredFrames -= frames;
+            consumed = true;
+        }
+        if (consumed) {
+            wakeBlockedProducer();
+        }
+        if (inputCompleted && ringBuffer != null) {
+            int tailBytes = ringBuffer.getReadableBytes();
+            if (tailBytes < bytesPerFrame) {
+                // 输入已结束：丢弃不足一帧的尾部字节，让转换器补齐邻域并输出最后的样本
+                ringBuffer.commitRead(tailBytes);
+                resampler.queueEndOfStream();
             }
-            queuedBytes -= pcmChunk.length;
-            updatePlayerInfoWithQueueStateLocked();
-            return pcmChunk;
         }
+        output.clear();
+        if (resampler.read(output, sliceFrames) == 0) {
+            return null;
+        }
+        output.flip();
+        pendingOutputRegionBytes = 0;
+        return audioProcessorChain.process(output);
+    }
+
+    /**
+     * 当前状态下 worker 是否可以继续向 AudioTrack 写数据。
+     */
+    private boolean isDrainable() {
+        if (audioTrack == null || audioProcessorChain == null) {
+            return false;
+        }
+        StreamState state = streamState;
+        return state != StreamState.PAUSED && state != StreamState.CANCELED
+                && state != StreamState.COMPLETED && state != StreamState.RELEASED;
     }
 
     /**
-     * 按固定目标时长将原始 PCM 数据切成多个更小的队列节点。
+     * 从环形缓冲区取出下一段待播 PCM 连续区间（不推进读位置）。
      *
-     * <p>这里切片的目的不是改变音频内容，而是改善 worker 线程对控制命令的协作式调度能力。
-     * 只要切片边界按 PCM 帧大小对齐，就不会破坏采样点完整性，也不会影响 EQ/FFT 处理链的输入语义。
+     * <p>工作线程是环形区的唯一消费者。区间长度不超过 {@link #PCM_QUEUE_SLICE_DURATION_MS} 对应的字节数，
+     * 并按 PCM 帧大小对齐，保证不会破坏采样点完整性。只有在输入已经结束时，才会把不足一帧的尾部数据
+     * 一并交出。
      *
-     * @param data 原始 PCM 字节数组
-     * @param offset 起始偏移
-     * @param length 需要入队的总字节数
+     * @param ringBuffer 当前会话的环形缓冲区
+     * @return 下一段 PCM 区间视图；当暂无完整帧可读时返回 {@code null}
      */
-    private void enqueuePcmSlicesLocked(byte[] data, int offset, int length) {
+    private ByteBuffer peekNextPendingPcmRegion(ExoPcmRingBuffer ringBuffer) {
+        if (ringBuffer == null) {
+            return null;
+        }
         int bytesPerFrame = Math.max(1, currentConfig.getBytesPerFrame());
-        int preferredSliceBytes = getPreferredPcmSliceBytes(bytesPerFrame);
-        int cursor = offset;
-        int end = offset + length;
-        while (cursor < end) {
-            int nextSliceSize = Math.min(preferredSliceBytes, end - cursor);
-            int alignedSliceSize = nextSliceSize - (nextSliceSize % bytesPerFrame);
-            if (alignedSliceSize <= 0) {
-                alignedSliceSize = Math.min(bytesPerFrame, end - cursor);
-            }
-            byte[] pcmChunk = new byte[alignedSliceSize];
-            System.arraycopy(data, cursor, pcmChunk, 0, alignedSliceSize);
-            pendingPcmQueue.addLast(pcmChunk);
-            cursor += alignedSliceSize;
+        ByteBuffer region = ringBuffer.peekContiguous(getPreferredPcmSliceBytes(bytesPerFrame));
+        int regionBytes = region.remaining();
+        if (regionBytes == 0) {
+            return null;
+        }
+        int alignedBytes = regionBytes - (regionBytes % bytesPerFrame);
+        if (alignedBytes == 0) {
+            return inputCompleted ? region : null;
         }
+        region.limit(region.position() + alignedBytes);
+        return region;
     }
 
     /**
@@ -628,37 +1220,96 @@ public class ExoPcmStreamCore {
     }
 
     /**
-     * 判断当前是否仍有待播 PCM 分片。
+     * 判断当前是否仍有待播 PCM 数据。
      *
-     * <p>该方法仅用于 worker 线程在单分片消费模式下决定是否继续追加下一次 drain 调度，
-     * 以便让 pause、cancel 等控制命令有机会在两个音频分片之间插队执行。
+     * <p>该方法仅用于 worker 线程在单区间消费模式下决定是否继续追加下一次 drain 调度，
+     * 以便让 pause、cancel 等控制命令有机会在两个音频区间之间插队执行。
      */
     private boolean hasPendingPcmChunk() {
-        synchronized (queueLock) {
-            return !pendingPcmQueue.isEmpty();
-        }
+        return getQueuedBytes() > 0 || (pcmResampler != null && pcmResampler.getBufferedInputFrames() > 0);
+    }
+
+    /**
+     * 返回环形缓冲区中尚未写入 AudioTrack 的字节数。
+     */
+    private long getQueuedBytes() {
+        ExoPcmRingBuffer ringBuffer = pcmRingBuffer;
+        return ringBuffer == null ? 0L : ringBuffer.getReadableBytes();
     }
 
     /**
      * 在队列被完全消费后收口本轮工作线程的排空流程。
      *
      * <p>如果上游已经调用过 {@link #completePcmStream()}，则队列清空意味着本次会话可以进入
-     * 完成态；否则播放器继续停留在已准备或等待新输入的状态。
+     * 完成态：先把处理链延迟线中的尾部作为最后一段写入 AudioTrack，写完后再次回到这里完成；
+     * 否则播放器继续停留在已准备或等待新输入的状态。
      */
     private void handleQueueDrainedOnWorker() {
-        if (inputCompleted) {
-            handleStreamCompletedOnWorker();
+        if (!inputCompleted) {
+            return;
         }
+        if (processorTailPending && audioProcessorChain != null
+                && pendingOutputBuffer == null && !hasPendingPcmChunk()) {
+            processorTailPending = false;
+            ByteBuffer tail = audioProcessorChain.drain();
+            if (tail.hasRemaining()) {
+                // 尾部不占用环形区
+                pendingOutputBuffer = tail;
+                pendingOutputRegionBytes = 0;
+                scheduleDrain();
+                return;
+            }
+        }
+        handleStreamCompletedOnWorker();
     }
 
-    private void writeFully(byte[] audioBytes) {
-        int offset = 0;
-        while (offset < audioBytes.length) {
-            int written = audioTrack.write(audioBytes, offset, audioBytes.length - offset);
-            if (written <= 0) {
+    /**
+     * 把 {@link #pendingOutputBuffer} 写入 AudioTrack，全部写完后释放环形区对应区间。
+     *
+     * <p>阻塞模式下一直写到完成；非阻塞模式下 AudioTrack 写满即返回，剩余部分保留到下一次补写。
+     * ByteBuffer 版本的 write 会自动推进 position，直接内存无需再经过 Java 数组中转。
+     *
+     * @return {@code true} 表示本段已全部写入；{@code false} 表示 AudioTrack 已满，需等待补写
+     */
+    private boolean writePendingOutput(ExoPcmRingBuffer ringBuffer) {
+        ByteBuffer outputBuffer = pendingOutputBuffer;
+        int writeMode = nonBlockingWrite ? AudioTrack.WRITE_NON_BLOCKING : AudioTrack.WRITE_BLOCKING;
+        while (outputBuffer.hasRemaining()) {
+            int written = audioTrack.write(outputBuffer, outputBuffer.remaining(), writeMode);
+            if (written < 0 || (written == 0 && !nonBlockingWrite)) {
                 throw new IllegalStateException("AudioTrack.write 返回异常值: " + written);
             }
-            offset += written;
+            totalWrittenBytes += written;
+            if (written == 0) {
+                return false;
+            }
+        }
+        // 先累计已写入字节再释放环形区，保证生产线程计算待播量时只会偏大、不会漏算这一段
+        ringBuffer.commitRead(pendingOutputRegionBytes);
+        pendingOutputBuffer = null;
+        pendingOutputRegionBytes = 0;
+        wakeBlockedProducer();
+        return true;
+    }
+
+    /**
+     * 按配置决定本次会话的写入模式；非阻塞模式下注册播放头周期通知与结束标记通知，回调在 worker 线程执行。
+     */
+    private void setupPlaybackPositionNotification(ExoPcmStreamConfig config) {
+        nonBlockingWrite = config.isNonBlockingWriteEnabled()
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+        pendingOutputBuffer = null;
+        pendingOutputRegionBytes = 0;
+        positionNotificationPeriodMs = PCM_QUEUE_SLICE_DURATION_MS;
+        if (!nonBlockingWrite) {
+            return;
+        }
+        int periodFrames = (int) Math.max(1L, PCM_QUEUE_SLICE_DURATION_MS * config.getSampleRateHz() / 1000L);
+        audioTrack.setPlaybackPositionUpdateListener(playbackPositionListener, workerHandler);
+        if (audioTrack.setPositionNotificationPeriod(periodFrames) != AudioTrack.SUCCESS) {
+            // 周期通知不可用时退回阻塞写入，避免写满后无人唤醒补写
+            ExoLog.log("AudioTrack 周期通知设置失败，PCM 流回退为阻塞写入");
+            nonBlockingWrite = false;
         }
     }
 
@@ -671,10 +1322,8 @@ public class ExoPcmStreamCore {
             return;
         }
 
-        synchronized (queueLock) {
-            if (queuedBytes > 0) {
-                return;
-            }
+        if (pendingOutputBuffer != null || hasPendingPcmChunk()) {
+            return;
         }
 
         long pendingPlaybackBytes = Math.max(0L, totalWrittenBytes - getPlayedBytes());
@@ -684,10 +1333,21 @@ public class ExoPcmStreamCore {
              * 如果此时直接 pause/flush，会把仍停留在底层缓冲中的尾音硬切掉，表现为播到句尾或
              * 某个短语边界就突然结束。这里改为等待真实播放头追平最后写入位置后再转完成态。
              */
-            workerHandler.postDelayed(this::handleStreamCompletedOnWorker, COMPLETION_POLL_INTERVAL_MS);
-            dispatchProgress();
+            workerHandler.removeCallbacks(completionCheckRunnable);
+            if (nonBlockingWrite) {
+                // 非阻塞模式在最后一帧处设置标记，由 onMarkerReached 触发完成，不再轮询播放头
+                long writtenFrames = totalWrittenBytes / Math.max(1, currentConfig.getBytesPerFrame());
+                audioTrack.setNotificationMarkerPosition((int) (playbackHeadBaseFrames + writtenFrames));
+                workerHandler.postDelayed(completionCheckRunnable,
+                        bytesToDurationMs(outputBytesToInputBytes(pendingPlaybackBytes))
+                                + COMPLETION_MARKER_FALLBACK_MARGIN_MS);
+            } else {
+                workerHandler.postDelayed(completionCheckRunnable, COMPLETION_POLL_INTERVAL_MS);
+            }
+            dispatchProgressThrottled();
             return;
         }
+        workerHandler.removeCallbacks(completionCheckRunnable);
 
         try {
             if (audioTrack != null && audioTrack.getPlayState() != AudioTrack.PLAYSTATE_STOPPED) {
@@ -709,34 +1369,70 @@ public class ExoPcmStreamCore {
         // 或销毁场景。它与 complete 的“播完剩余缓存再结束”语义刻意区分。
         cancelStreamResourcesOnWorker();
         streamState = StreamState.CANCELED;
+        wakeBlockedProducer();
         playerInfo.setQueuedPcmDurationMs(0L);
         dispatchPlaybackState(ExoPlaybackState.STATE_IDLE);
         dispatchProgress();
     }
 
     private void cancelStreamResourcesOnWorker() {
-        synchronized (queueLock) {
-            pendingPcmQueue.clear();
-            queuedBytes = 0L;
-            drainScheduled = false;
-            inputCompleted = false;
-            updatePlayerInfoWithQueueStateLocked();
+        ExoPcmRingBuffer ringBuffer = pcmRingBuffer;
+        if (ringBuffer != null) {
+            ringBuffer.discardAll();
         }
+        drainScheduled.set(false);
+        inputCompleted = false;
+        pendingOutputBuffer = null;
+        pendingOutputRegionBytes = 0;
+        processorTailPending = false;
+        workerHandler.removeCallbacks(refillFallbackRunnable);
+        workerHandler.removeCallbacks(completionCheckRunnable);
+        updatePlayerInfoWithQueueState();
+        audioTrackAttached = false;
         if (audioTrack != null) {
+            // 只暂停并清空 AudioTrack，实例保留给下一轮同格式的会话复用，真正释放在 release 或格式变化时进行
             try {
-                audioTrack.pause();
+                audioTrack.setPlaybackPositionUpdateListener(null);
             } catch (Exception ignored) {
             }
             try {
-                audioTrack.flush();
+                audioTrack.pause();
             } catch (Exception ignored) {
             }
             try {
-                audioTrack.release();
+                audioTrack.flush();
             } catch (Exception ignored) {
             }
-            audioTrack = null;
         }
+    }
+
+    /**
+     * 释放 AudioTrack 与处理链，下一轮会话会按新格式重建。
+     */
+    private void releaseAudioOutputOnWorker() {
+        releaseAudioTrackOnWorker();
+        releaseProcessorChainOnWorker();
+        pcmResampler = null;
+        resampledOutputBuffer = null;
+    }
+
+    private void releaseAudioTrackOnWorker() {
+        if (audioTrack == null) {
+            return;
+        }
+        try {
+            audioTrack.setPlaybackPositionUpdateListener(null);
+        } catch (Exception ignored) {
+        }
+        try {
+            audioTrack.release();
+        } catch (Exception ignored) {
+        }
+        audioTrack = null;
+        audioOutputConfig = null;
+    }
+
+    private void releaseProcessorChainOnWorker() {
         if (audioProcessorChain != null) {
             audioProcessorChain.release();
             audioProcessorChain = null;
@@ -747,12 +1443,50 @@ public class ExoPcmStreamCore {
         // release 比 cancel 更进一步：不仅终止当前会话，还会把核心推进到不可复用终态，
         // 防止已经销毁的 View 继续向正在退出的工作线程投递任务。
         cancelStreamResourcesOnWorker();
+        releaseAudioOutputOnWorker();
         streamState = StreamState.RELEASED;
+        wakeBlockedProducer();
     }
 
-    private void updatePlayerInfoWithQueueStateLocked() {
+    /**
+     * 刷新排队时长，并按 {@link #CALLBACK_DISPATCH_INTERVAL_MS} 节流分发 onPlayerInfoChanged。
+     * 生产线程与 worker 都会调用，节流时间戳通过 CAS 竞争，同一时间窗内只有一方真正投递。
+     */
+    private void updatePlayerInfoWithQueueState() {
         playerInfo.setQueuedPcmDurationMs(bytesToDurationMs(getPendingPlaybackBytes()));
-        mainHandler.post(() -> iExoNotifyCallBack.onPlayerInfoChanged(playerInfo));
+        if (tryAcquireDispatchSlot(lastQueueInfoDispatchMs)) {
+            mainHandler.post(() -> iExoNotifyCallBack.onPlayerInfoChanged(playerInfo));
+        } else {
+            scheduleTrailingDispatch(trailingQueueInfoScheduled, trailingQueueInfoRunnable, lastQueueInfoDispatchMs);
+        }
+    }
+
+    /**
+     * 按 {@link #CALLBACK_DISPATCH_INTERVAL_MS} 节流分发进度回调。开始、结束、取消等状态切换时仍直接调用
+     * {@link #dispatchProgress()}，保证边界进度准确。
+     */
+    private void dispatchProgressThrottled() {
+        if (tryAcquireDispatchSlot(lastProgressDispatchMs)) {
+            dispatchProgress();
+        } else {
+            scheduleTrailingDispatch(trailingProgressScheduled, trailingProgressRunnable, lastProgressDispatchMs);
+        }
+    }
+
+    /**
+     * 本次更新被节流压下时，在当前时间窗结束后于 worker 补发一次，分发的是补发时刻的最新状态。
+     */
+    private void scheduleTrailingDispatch(AtomicBoolean scheduled, Runnable trailingRunnable, AtomicLong lastDispatchMs) {
+        if (scheduled.compareAndSet(false, true)) {
+            long elapsedMs = SystemClock.uptimeMillis() - lastDispatchMs.get();
+            workerHandler.postDelayed(trailingRunnable, Math.max(0L, CALLBACK_DISPATCH_INTERVAL_MS - elapsedMs));
+        }
+    }
+
+    private boolean tryAcquireDispatchSlot(AtomicLong lastDispatchMs) {
+        long now = SystemClock.uptimeMillis();
+        long last = lastDispatchMs.get();
+        return now - last >= CALLBACK_DISPATCH_INTERVAL_MS && lastDispatchMs.compareAndSet(last, now);
     }
 
     private void dispatchPlaybackState(int playbackState) {
@@ -811,16 +1545,14 @@ public class ExoPcmStreamCore {
         if (config.getMaxQueuedDurationMs() < 0) {
             throw new IllegalArgumentException("maxQueuedDurationMs 不能小于 0");
         }
-    }
-
-    private int getChannelMask(int channelCount) {
-        switch (channelCount) {
-            case 1:
-                return AudioFormat.CHANNEL_OUT_MONO;
-            case 2:
-                return AudioFormat.CHANNEL_OUT_STEREO;
-            default:
-                throw new IllegalArgumentException("仅支持 1 或 2 声道 PCM");
+        if (config.getBackpressureMode() == null) {
+            throw new IllegalArgumentException("backpressureMode 不能为空");
+        }
+        if (config.getBackpressureTimeoutMs() < 0) {
+            throw new IllegalArgumentException("backpressureTimeoutMs 不能小于 0");
+        }
+        if (config.getResamplerQuality() == null) {
+            throw new IllegalArgumentException("resamplerQuality 不能为空");
         }
     }
 
@@ -845,18 +1577,20 @@ public class ExoPcmStreamCore {
     /**
      * 读取 AudioTrack 当前已经真正播放完成的 PCM 字节数。
      *
-     * <p>{@link AudioTrack#write(byte[], int, int)} 返回成功只意味着数据已经进入 AudioTrack 或底层音频
+     * <p>{@link AudioTrack#write(ByteBuffer, int, int)} 返回成功只意味着数据已经进入 AudioTrack 或底层音频
      * 缓冲区，并不代表用户已经听到了这些声音。完成态判定必须依赖播放头，而不能直接复用
      * {@link #totalWrittenBytes}。
      *
      * @return 已经实际播放的字节数；当播放器尚未初始化或系统暂时无法提供播放头时，回退为已写入字节数
      */
     private long getPlayedBytes() {
-        if (audioTrack == null || currentConfig == null) {
+        if (audioTrack == null || currentConfig == null || !audioTrackAttached) {
             return totalWrittenBytes;
         }
         try {
-            long playedFrames = audioTrack.getPlaybackHeadPosition() & 0xFFFFFFFFL;
+            // 播放头为 32 位无符号计数，与会话起点相减后同样按 32 位回绕
+            long playedFrames = ((audioTrack.getPlaybackHeadPosition() & 0xFFFFFFFFL) - playbackHeadBaseFrames)
+                    & 0xFFFFFFFFL;
             long playedBytes = playedFrames * currentConfig.getBytesPerFrame();
             return Math.min(totalWrittenBytes, Math.max(0L, playedBytes));
         } catch (Exception e) {
@@ -869,16 +1603,30 @@ public class ExoPcmStreamCore {
      * 返回当前仍处于“尚未真正播出”状态的 PCM 总字节数。
      *
      * <p>该值同时覆盖两部分数据：
-     * 1. 仍停留在 Java 队列中的待写 PCM；
+     * 1. 仍停留在环形缓冲区中的待写 PCM（不含已标记丢弃的部分）；
      * 2. 已经写入 AudioTrack，但底层播放头尚未消费完的硬件缓冲。
      *
-     * <p>对于长文本 TTS，这个指标比单纯的 {@code queuedBytes} 更能反映真实背压压力，
+     * <p>对于长文本 TTS，这个指标比单纯的环形区待写字节数更能反映真实背压压力，
      * 因为云端回包速度可能快于本地播速，很多音频虽然已经离开队列，却仍然滞留在 AudioTrack 内部等待出声。
      *
      * @return 尚未实际播放完成的 PCM 字节数
      */
     private long getPendingPlaybackBytes() {
-        return Math.max(0L, totalInputBytes - getPlayedBytes());
+        // 环形区部分按“未被丢弃的待读字节”统计，因此 DROP_OLDEST 标记丢弃后立即体现在背压判定中
+        return getQueuedBytes() + outputBytesToInputBytes(Math.max(0L, totalWrittenBytes - getPlayedBytes()));
+    }
+
+    /**
+     * 把 AudioTrack 侧（输出采样率）的字节数换算为输入采样率下的等时长字节数，便于与队列字节数统一计算。
+     */
+    private long outputBytesToInputBytes(long outputBytes) {
+        ExoPcmStreamConfig config = currentConfig;
+        int outputRate = outputSampleRateHz;
+        if (config == null || outputRate <= 0 || outputRate == config.getSampleRateHz()) {
+            return outputBytes;
+        }
+        int bytesPerFrame = Math.max(1, config.getBytesPerFrame());
+        return outputBytes / bytesPerFrame * config.getSampleRateHz() / outputRate * bytesPerFrame;
     }
 
     private String getPlaybackStateName(int playbackState) {
@@ -900,43 +1648,53 @@ public class ExoPcmStreamCore {
         }
     }
 
-    private void scheduleDrainLocked() {
-        if (streamState == StreamState.PAUSED || streamState == StreamState.RELEASED) {
+    /**
+     * 为下一段 PCM 数据续约 drain 调度，生产线程与 worker 线程共用。
+     *
+     * <p>只允许一个 drain 任务在 worker 上串行运行，保证 AudioTrack 写入顺序稳定，也避免持续 append
+     * 时产生多份重复 drain 任务。“是否已调度”通过 CAS 判定，生产线程无需加锁。
+     */
+    private void scheduleDrain() {
+        StreamState state = streamState;
+        if (state == StreamState.PAUSED || state == StreamState.RELEASED
+                || state == StreamState.CANCELED || state == StreamState.COMPLETED) {
             return;
         }
-        if (!drainScheduled) {
-            // 只允许一个 drain 任务在 worker 上串行运行，保证 AudioTrack 写入顺序稳定，
-            // 也避免多个 append 调用并发提交同一队列导致重复消费。
-            drainScheduled = true;
+        if (drainScheduled.compareAndSet(false, true)) {
             workerHandler.post(drainRunnable);
         }
     }
 
+    private void ensureUsable() {
+        if (streamState == StreamState.RELEASED) {
+            throw new IllegalStateException("PCM 流核心已经释放，不能继续使用");
+        }
+    }
+
     /**
-     * 在 worker 线程内为下一段 PCM 分片续约 drain 调度。
-     *
-     * <p>与 {@link #scheduleDrainLocked()} 的区别在于，这里调用方已经位于 worker 线程，不需要也不应该
-     * 再持有外部锁去完成投递。统一复用 {@code drainScheduled} 标记，可以保证“同一时刻最多只有一个
-     * drain runnable 在队列中等待执行”，避免一边持续 append、一边产生多份重复 drain 任务。
+     * 投递一条控制命令。命令执行前，正在进行的排空循环会在下一次 AudioTrack 写入前让出 worker。
      */
-    private void scheduleDrainOnWorker() {
-        synchronized (queueLock) {
-            if (streamState == StreamState.PAUSED || streamState == StreamState.RELEASED
-                    || streamState == StreamState.CANCELED || streamState == StreamState.COMPLETED) {
-                return;
-            }
-            if (drainScheduled) {
-                return;
-            }
-            drainScheduled = true;
-        }
-        workerHandler.post(drainRunnable);
+    private void postControlCommand(@NonNull Runnable command) {
+        pendingControlCommands.incrementAndGet();
+        workerHandler.post(() -> {
+            pendingControlCommands.decrementAndGet();
+            command.run();
+        });
     }
 
-    private void ensureUsable() {
-        if (streamState == StreamState.RELEASED) {
-            throw new IllegalStateException("PCM 流核心已经释放，不能继续使用");
+    /**
+     * 以控制命令的优先级在 worker 上同步执行 {@code command}。
+     */
+    private void runControlCommandBlocking(@NonNull Runnable command) {
+        if (Looper.myLooper() == workerThread.getLooper()) {
+            command.run();
+            return;
         }
+        pendingControlCommands.incrementAndGet();
+        runOnWorkerBlocking(() -> {
+            pendingControlCommands.decrementAndGet();
+            command.run();
+        });
     }
 
     private void runOnWorkerBlocking(@NonNull Runnable action) {
@@ -6,6 +6,12 @@ import android.view.OrientationEventListener;
 
 import com.sss.michael.exo.constant.ExoCoreScale;
 import com.sss.michael.exo.constant.ExoPlayMode;
+import com.sss.michael.exo.processor.ExoBaseAudioProcessor;
+import com.sss.michael.exo.util.ExoTimingHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author Michael by 61642
@@ -102,6 +108,10 @@ public class ExoPlayerInfo {
      * 当前尚未送入底层音频设备的 PCM 排队时长。
      */
     private long queuedPcmDurationMs;
+    /**
+     * 音频处理链各阶段 queueInput 耗时快照（按处理链顺序），由监控任务在主线程刷新。
+     */
+    private final List<ExoTimingHistogram> audioProcessorTimings = new ArrayList<>();
 
     public int getCurrentRetryCountWhileFail() {
         return currentRetryCountWhileFail;
@@ -305,4 +315,33 @@ public class ExoPlayerInfo {
     public void setQueuedPcmDurationMs(long queuedPcmDurationMs) {
         this.queuedPcmDurationMs = queuedPcmDurationMs;
     }
+
+    public List<ExoTimingHistogram> getAudioProcessorTimings() {
+        return Collections.unmodifiableList(audioProcessorTimings);
+    }
+
+    /**
+     * 按处理链顺序刷新各处理器的耗时快照，快照对象按位置复用。
+     *
+     * @param audioProcessors 当前音频处理链，为 null 时清空
+     */
+    public void updateAudioProcessorTimings(List<? extends ExoBaseAudioProcessor> audioProcessors) {
+        int size = audioProcessors == null ? 0 : audioProcessors.size();
+        while (audioProcessorTimings.size() > size) {
+            audioProcessorTimings.remove(audioProcessorTimings.size() - 1);
+        }
+        for (int i = 0; i < size; i++) {
+            ExoTimingHistogram source = audioProcessors.get(i).getTimingHistogram();
+            ExoTimingHistogram snapshot = i < audioProcessorTimings.size() ? audioProcessorTimings.get(i) : null;
+            if (snapshot == null || !source.getName().equals(snapshot.getName())) {
+                snapshot = new ExoTimingHistogram(source.getName());
+                if (i < audioProcessorTimings.size()) {
+                    audioProcessorTimings.set(i, snapshot);
+                } else {
+                    audioProcessorTimings.add(snapshot);
+                }
+            }
+            source.copyInto(snapshot);
+        }
+    }
 }
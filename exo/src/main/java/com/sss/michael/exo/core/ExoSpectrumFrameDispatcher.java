@@ -0,0 +1,118 @@
+package com.sss.michael.exo.core;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import com.sss.michael.exo.callback.IExoFFTCallBack;
+import com.sss.michael.exo.callback.IExoFFTFrameCallBack;
+import com.sss.michael.exo.processor.ExoSpectrumFrame;
+import com.sss.michael.exo.processor.ExoSpectrumFrameExchange;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 频谱帧主线程分发器。
+ *
+ * <p>作为频谱处理器的回调挂在分析线程一侧：每帧只把数据拷入预分配的三缓冲槽位，
+ * 并在尚未登记时向 {@link Choreographer} 登记一次 vsync 回调。主线程在 vsync 时取最新一帧分发给目标，
+ * 两次 vsync 之间产生的多帧自然合并，不再为每次回调向主线程投递 lambda。
+ *
+ * <p>目标实现 {@link IExoFFTFrameCallBack} 时直接收到复用帧；否则按旧接口收到数组副本。
+ */
+final class ExoSpectrumFrameDispatcher implements IExoFFTFrameCallBack, Choreographer.FrameCallback {
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExoSpectrumFrameExchange frameExchange = new ExoSpectrumFrameExchange();
+    private final AtomicBoolean frameCallbackPosted = new AtomicBoolean(false);
+    private final IExoFFTCallBack target;
+    // 只能在主线程获取，首次登记时通过主线程 Handler 初始化
+    private volatile Choreographer choreographer;
+    private final Runnable postFrameCallbackRunnable = this::postFrameCallbackOnMain;
+    private volatile boolean released;
+
+    /**
+     * @param target 主线程上接收频谱数据的目标
+     */
+    ExoSpectrumFrameDispatcher(@NonNull IExoFFTCallBack target) {
+        this.target = target;
+    }
+
+    /**
+     * 分析线程回调：写入三缓冲并按需登记 vsync
+     */
+    @Override
+    public void onSpectrumFrame(ExoSpectrumFrame frame) {
+        if (released) {
+            return;
+        }
+        frameExchange.publish(frame);
+        if (frameCallbackPosted.compareAndSet(false, true)) {
+            Choreographer current = choreographer;
+            if (current != null) {
+                current.postFrameCallback(this);
+            } else {
+                mainHandler.post(postFrameCallbackRunnable);
+            }
+        }
+    }
+
+    private void postFrameCallbackOnMain() {
+        if (choreographer == null) {
+            choreographer = Choreographer.getInstance();
+        }
+        choreographer.postFrameCallback(this);
+    }
+
+    /**
+     * vsync 回调（主线程）：取最新一帧分发
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameCallbackPosted.set(false);
+        if (released) {
+            return;
+        }
+        ExoSpectrumFrame frame = frameExchange.acquireLatest();
+        if (frame == null) {
+            return;
+        }
+        if (target instanceof IExoFFTFrameCallBack) {
+            ((IExoFFTFrameCallBack) target).onSpectrumFrame(frame);
+            return;
+        }
+        float[] fft = frame.getFft();
+        target.onFFTReady(frame.getSampleRateHz(), frame.getChannelCount(), Arrays.copyOf(fft, fft.length));
+        if (frame.hasMagnitude()) {
+            float[] magnitude = frame.getMagnitude();
+            target.onMagnitudeReady(frame.getSampleRateHz(), Arrays.copyOf(magnitude, magnitude.length));
+        }
+    }
+
+    /**
+     * 处理器对帧回调实现只调用 {@link #onSpectrumFrame}，旧接口方法不会被调用
+     */
+    @Override
+    public void onFFTReady(int sampleRateHz, int channelCount, float[] fft) {
+    }
+
+    @Override
+    public void onMagnitudeReady(int sampleRateHz, float[] magnitude) {
+    }
+
+    /**
+     * 停止分发并移除已登记的 vsync 回调
+     */
+    void release() {
+        released = true;
+        mainHandler.removeCallbacks(postFrameCallbackRunnable);
+        mainHandler.post(() -> {
+            if (choreographer != null) {
+                choreographer.removeFrameCallback(this);
+            }
+        });
+    }
+}
@@ -23,19 +23,21 @@ import com.sss.michael.exo.ExoConfig;
 import com.sss.michael.exo.callback.IExoController;
 import com.sss.michael.exo.callback.IExoFFTCallBack;
 import com.sss.michael.exo.callback.IExoLifecycle;
+import com.sss.michael.exo.callback.IExoLoudnessCallBack;
 import com.sss.michael.exo.callback.IExoNotifyCallBack;
 import com.sss.michael.exo.constant.ExoEqualizerPreset;
 import com.sss.michael.exo.constant.ExoPlayMode;
 import com.sss.michael.exo.constant.ExoPlaybackState;
 import com.sss.michael.exo.factory.ExoLoadControlFactory;
 import com.sss.michael.exo.helper.ExoMonitorManager;
-import com.sss.michael.exo.processor.ExoBaseAudioProcessor;
+import com.sss.michael.exo.processor.ExoAudioProcessorChain;
 import com.sss.michael.exo.processor.ExoEqualizerProcessor;
+import com.sss.michael.exo.processor.ExoLoudnessMeterProcessor;
+import com.sss.michael.exo.processor.ExoLoudnessNormalizerProcessor;
 import com.sss.michael.exo.processor.ExoSpectrumProcessor;
 import com.sss.michael.exo.util.ExoLog;
 
 import java.util.ArrayList;
-import java.util.List;
 
 /**
  * @author Michael by 61642
@@ -55,10 +57,18 @@ public abstract class ExoVideoCore implements IExoController, IExoLifecycle {
     protected long experienceTimeMs;
     // 用于延时执行重试的任务
     protected Runnable retryRunnable;
-    // 音频处理器列表
-    protected List<ExoBaseAudioProcessor> audioProcessors = new ArrayList<>();
+    // 动态音频处理链（唯一注入 AudioSink 的处理器，运行期可启用 / 旁路 / 插入阶段）
+    protected ExoAudioProcessorChain audioProcessorChain = new ExoAudioProcessorChain();
     // EQ处理器
     protected ExoEqualizerProcessor equalizerProcessor;
+    // 响度归一化 / 真峰值限幅处理器
+    protected ExoLoudnessNormalizerProcessor loudnessNormalizerProcessor;
+    // 频谱处理器
+    protected ExoSpectrumProcessor spectrumProcessor;
+    // 响度计量处理器
+    protected ExoLoudnessMeterProcessor loudnessMeterProcessor;
+    // 频谱帧主线程分发器，按 vsync 合并分发
+    protected ExoSpectrumFrameDispatcher spectrumFrameDispatcher;
     protected Handler mainHandler = new Handler(Looper.getMainLooper());
     protected IExoNotifyCallBack iExoNotifyCallBack;
     // <editor-fold defaultstate="collapsed" desc="初始化构建">
@@ -70,38 +80,37 @@ public abstract class ExoVideoCore implements IExoController, IExoLifecycle {
         if (ExoConfig.COMPONENT_EQ_ENABLE && equalizerProcessor == null) {
             equalizerProcessor = new ExoEqualizerProcessor();
             equalizerProcessor.setBandGains(ExoEqualizerPreset.CUSTOM.getGains());
-            audioProcessors.add(equalizerProcessor);
+            audioProcessorChain.addStage(equalizerProcessor, true);
+        }
+        if (ExoConfig.COMPONENT_LOUDNESS_NORMALIZER_ENABLE) {
+            // 紧跟EQ：先做响度归一化与真峰值限幅，频谱与响度计量看到的是最终输出
+            loudnessNormalizerProcessor = new ExoLoudnessNormalizerProcessor();
+            audioProcessorChain.addStage(loudnessNormalizerProcessor, true);
         }
         if (ExoConfig.COMPONENT_SPECTRUM_ENABLE) {
-            ExoSpectrumProcessor spectrumProcessor = new ExoSpectrumProcessor();
-
-            spectrumProcessor.setExoFFTCallBack(new IExoFFTCallBack() {
-                @Override
-                public void onFFTReady(int sampleRateHz, int channelCount, float[] fft) {
-                    mainHandler.post(() -> {
-                        if (IExoFFTCallBack != null) {
-                            IExoFFTCallBack.onFFTReady(sampleRateHz, channelCount, fft);
-                        }
-                    });
-                }
-
-                @Override
-                public void onMagnitudeReady(int sampleRateHz, float[] magnitude) {
-                    mainHandler.post(() -> {
-                        if (IExoFFTCallBack != null) {
-                            IExoFFTCallBack.onMagnitudeReady(sampleRateHz, magnitude);
-                        }
-                    });
-                }
-            });
-            audioProcessors.add(spectrumProcessor);
+            spectrumProcessor = new ExoSpectrumProcessor();
+            if (IExoFFTCallBack != null) {
+                spectrumFrameDispatcher = new ExoSpectrumFrameDispatcher(IExoFFTCallBack);
+                spectrumProcessor.setExoFFTCallBack(spectrumFrameDispatcher);
+            }
+            // 按需模式下默认旁路，由 setSpectrumActive 在有可见的频谱消费者时启用
+            audioProcessorChain.addStage(spectrumProcessor, !ExoConfig.SPECTRUM_ANALYSIS_ON_DEMAND);
+        }
+        if (ExoConfig.COMPONENT_LOUDNESS_METER_ENABLE) {
+            loudnessMeterProcessor = new ExoLoudnessMeterProcessor();
+            boolean hasLoudnessCallBack = iExoNotifyCallBack instanceof IExoLoudnessCallBack;
+            if (hasLoudnessCallBack) {
+                loudnessMeterProcessor.setExoLoudnessCallBack((IExoLoudnessCallBack) iExoNotifyCallBack);
+            }
+            // 无监听时旁路计量阶段
+            audioProcessorChain.addStage(loudnessMeterProcessor, hasLoudnessCallBack);
         }
         ExoLog.log("FFmpeg 扩展是否可用: " + FfmpegLibrary.isAvailable());
         DefaultRenderersFactory renderersFactory = new DefaultRenderersFactory(mContext) {
             @Override
             protected void buildAudioRenderers(Context context, int extensionRendererMode, MediaCodecSelector mediaCodecSelector, boolean enableDecoderFallback, AudioSink audioSink, Handler eventHandler, AudioRendererEventListener eventListener, ArrayList<Renderer> out) {
-                // 保持原有的 AudioSink 逻辑，但注入自定义的 Processors
-                AudioProcessor[] processors = audioProcessors.toArray(new AudioProcessor[0]);
+                // 保持原有的 AudioSink 逻辑，只注入动态处理链，阶段的启用 / 旁路无需重建 AudioSink
+                AudioProcessor[] processors = {audioProcessorChain};
                 AudioSink customSink = new DefaultAudioSink.Builder(context)
                         .setAudioProcessors(processors)
                         .build();
@@ -139,6 +148,9 @@ public abstract class ExoVideoCore implements IExoController, IExoLifecycle {
                 if (iExoNotifyCallBack != null) {
                     iExoNotifyCallBack.onNetworkBytesChanged(playerInfo.getBytesInLastSecond(), playerInfo.getTotalBytes());
                     iExoNotifyCallBack.onPlayingProgressPositionChanged(player.getCurrentPosition(), player.getDuration(), player.getBufferedPosition(), player.getBufferedPercentage());
+                    if (ExoConfig.AUDIO_PROCESSOR_TIMING_ENABLE && audioProcessorChain != null) {
+                        playerInfo.updateAudioProcessorTimings(audioProcessorChain.getStages());
+                    }
                     iExoNotifyCallBack.onPlayerInfoChanged(playerInfo);
                     if (experienceTimeMs > 0 && player.getCurrentPosition() >= experienceTimeMs) {
                         seekTo(experienceTimeMs);
@@ -26,7 +26,9 @@ import androidx.media3.exoplayer.source.MediaSource;
 
 import com.sss.michael.exo.ExoConfig;
 import com.sss.michael.exo.SimpleExoPlayerView;
+import com.sss.michael.exo.bean.ExoEqBand;
 import com.sss.michael.exo.callback.IExoFFTCallBack;
+import com.sss.michael.exo.callback.IExoLoudnessCallBack;
 import com.sss.michael.exo.callback.IExoNotifyCallBack;
 import com.sss.michael.exo.callback.IExoPlayerListener;
 import com.sss.michael.exo.constant.ExoCoreScale;
@@ -37,11 +39,13 @@ import com.sss.michael.exo.constant.ExoPlayerMode;
 import com.sss.michael.exo.constant.ExoScreenOrientation;
 import com.sss.michael.exo.factory.ExoMediaSourceFactory;
 import com.sss.michael.exo.helper.ExoOrientationHelper;
-import com.sss.michael.exo.processor.ExoBaseAudioProcessor;
+import com.sss.michael.exo.processor.ExoAudioProcessorChain;
 import com.sss.michael.exo.util.ExoCutoutUtil;
 import com.sss.michael.exo.util.ExoLog;
 import com.sss.michael.exo.util.ExoPlayerUtils;
 
+import java.util.List;
+
 /**
  * @author Michael by 61642
  * @date 2025/12/24 17:05
@@ -875,6 +879,68 @@ public class ExoVideoView extends ExoVideoCore {
         }
     }
 
+    /**
+     * 设置参数均衡频段（类型、频率、Q、增益），替换当前频段布局
+     * 之后调用 {@link #setEqualizer(ExoEqualizerPreset)} 会恢复默认 10 段布局
+     *
+     * @param bands 频段描述，为 null 或空时均衡不生效
+     */
+    public void setEqualizerBands(List<ExoEqBand> bands) {
+        if (ExoConfig.COMPONENT_EQ_ENABLE && equalizerProcessor != null) {
+            equalizerProcessor.setBands(bands);
+            ExoLog.log("已设置参数均衡频段: " + (bands == null ? 0 : bands.size()) + " 段");
+        }
+    }
+
+    /**
+     * 设置响度计量回调
+     * 回调在音频分析线程触发，按 {@link ExoConfig#LOUDNESS_METER_INTERVAL_MS} 输出峰值、RMS 与 LUFS 响度
+     *
+     * @param iExoLoudnessCallBack 监听器，为 null 时停止计量
+     */
+    public void setExoLoudnessCallBack(IExoLoudnessCallBack iExoLoudnessCallBack) {
+        if (loudnessMeterProcessor != null) {
+            loudnessMeterProcessor.setExoLoudnessCallBack(iExoLoudnessCallBack);
+            // 无监听时旁路计量阶段，不再逐块计算
+            audioProcessorChain.setStageActive(loudnessMeterProcessor, iExoLoudnessCallBack != null);
+        }
+    }
+
+    /**
+     * 启用 / 旁路频谱分析阶段，无需重建播放器
+     * {@link ExoConfig#SPECTRUM_ANALYSIS_ON_DEMAND} 关闭时频谱分析始终运行，忽略旁路请求
+     *
+     * @param active 是否有可见的频谱消费者（频谱组件或外部 FFT 监听）
+     */
+    @Override
+    public void setSpectrumActive(boolean active) {
+        if (spectrumProcessor != null && audioProcessorChain != null) {
+            audioProcessorChain.setStageActive(spectrumProcessor, active || !ExoConfig.SPECTRUM_ANALYSIS_ON_DEMAND);
+        }
+    }
+
+    /**
+     * 动态音频处理链，可在运行期插入 / 移除自定义处理阶段（{@link ExoAudioProcessorChain#addStage}）
+     */
+    public ExoAudioProcessorChain getAudioProcessorChain() {
+        return audioProcessorChain;
+    }
+
+    /**
+     * 设置响度归一化
+     * 关闭时增益平滑回到 0dB，真峰值限幅保持生效
+     *
+     * @param enabled    是否开启
+     * @param targetLufs 目标响度（LUFS），例如 -14 / -16
+     */
+    public void setLoudnessNormalization(boolean enabled, float targetLufs) {
+        if (loudnessNormalizerProcessor != null) {
+            loudnessNormalizerProcessor.setTargetLufs(targetLufs);
+            loudnessNormalizerProcessor.setNormalizationEnabled(enabled);
+            ExoLog.log("响度归一化: " + (enabled ? "开启，目标 " + targetLufs + " LUFS" : "关闭"));
+        }
+    }
+
     /**
      * 重新播放
      */
@@ -1172,14 +1238,19 @@ public class ExoVideoView extends ExoVideoCore {
      */
     @Override
     public void release() {
-        if (audioProcessors != null) {
-            for (ExoBaseAudioProcessor audioProcessor : audioProcessors) {
-                audioProcessor.release();
-            }
-            audioProcessors.clear();
-            audioProcessors = null;
+        if (audioProcessorChain != null) {
+            // 处理链释放时一并释放其全部阶段
+            audioProcessorChain.release();
+            audioProcessorChain = null;
+        }
+        if (spectrumFrameDispatcher != null) {
+            spectrumFrameDispatcher.release();
+            spectrumFrameDispatcher = null;
         }
         equalizerProcessor = null;
+        loudnessNormalizerProcessor = null;
+        spectrumProcessor = null;
+        loudnessMeterProcessor = null;
         pendingUrl = null;
         pendingMode = null;
         pendingLastPlayTime = 0;
@@ -40,7 +40,7 @@ final class BiquadFilter {
         double cosW0 = Math.cos(w0);
         // 计算alpha（带宽系数）
         double alpha = sinW0 / (2 * Q);
-        // 计算增益幅度
+        // 计算增益幅度（沿用历史标度，与 BiquadFilterBank 的峰值频段一致）
         double A = Math.pow(10, dbGain / 20);
         // 计算目标系数（瞬时更新，无平滑，仅作为收敛方向）
         double numeratorB0 = 1 + alpha * A;
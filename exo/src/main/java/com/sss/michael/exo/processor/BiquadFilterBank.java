@@ -0,0 +1,398 @@
+package com.sss.michael.exo.processor;
+
+import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.constant.ExoEqFilterType;
+import com.sss.michael.exo.util.ExoLog;
+
+import java.util.Arrays;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/2/12 21:06
+ * @Description 级联滤波器组（结构数组布局）
+ * 取代 BiquadFilter[声道][频段] 对象网格：系数按频段、延迟状态按声道+频段紧凑存放在基本类型数组中，
+ * 滤波时顺序访问连续内存，无对象指针跳转。峰值EQ的计算公式与 {@link BiquadFilter} 一致，系数收敛后输出逐位相同；
+ * 系数收敛途中按固定分段推算段末系数、段内线性斜坡过渡，逼近逐sample指数平滑曲线。
+ * 支持 {@link ExoEqFilterType} 全部滤波器类型（RBJ Audio EQ Cookbook），频段数可在播放中调整；
+ * 目标为直通且已收敛的频段每块只做一次系数比较即跳过，平坦频段几乎不占用处理时间
+ */
+final class BiquadFilterBank {
+    // 每个频段的系数个数：b0, b1, b2, a1, a2
+    private static final int COEFF_STRIDE = 5;
+    // 每个滤波器的延迟状态个数：x1, x2, y1, y2
+    private static final int STATE_STRIDE = 4;
+    // Block处理时系数斜坡的分段长度（帧），分段线性逼近逐sample指数平滑曲线
+    private static final int RAMP_SEGMENT_FRAMES = 32;
+
+    // 声道数
+    private final int channelCount;
+    // 频段数（可通过 resize 调整）
+    private int bandCount;
+    // 当前工作系数：[band * 5 + k]，所有声道共享同一频段的系数
+    private double[] coeffs;
+    // 目标系数：布局同coeffs
+    private double[] targetCoeffs;
+    // 延迟状态：[(channel * bandCount + band) * 4 + k]
+    private double[] states;
+    // 各频段初始化标记（首次配置时直接对齐工作系数与目标系数）
+    private boolean[] initialized;
+
+    /**
+     * @param channelCount 声道数
+     * @param bandCount    频段数
+     */
+    BiquadFilterBank(int channelCount, int bandCount) {
+        this.channelCount = channelCount;
+        this.bandCount = bandCount;
+        this.coeffs = new double[bandCount * COEFF_STRIDE];
+        this.targetCoeffs = new double[bandCount * COEFF_STRIDE];
+        this.states = new double[channelCount * bandCount * STATE_STRIDE];
+        this.initialized = new boolean[bandCount];
+        reset();
+    }
+
+    int getChannelCount() {
+        return channelCount;
+    }
+
+    int getBandCount() {
+        return bandCount;
+    }
+
+    /**
+     * 调整频段数（音频线程调用），保留前 min(旧, 新) 个频段的系数与延迟状态；
+     * 新增频段以直通系数起步并视为已初始化，之后配置的目标系数会平滑过渡生效，不会突变
+     *
+     * @param newBandCount 新的频段数
+     */
+    void resize(int newBandCount) {
+        if (newBandCount == bandCount) {
+            return;
+        }
+        int keep = Math.min(bandCount, newBandCount);
+        double[] newCoeffs = new double[newBandCount * COEFF_STRIDE];
+        double[] newTargetCoeffs = new double[newBandCount * COEFF_STRIDE];
+        double[] newStates = new double[channelCount * newBandCount * STATE_STRIDE];
+        boolean[] newInitialized = new boolean[newBandCount];
+        System.arraycopy(coeffs, 0, newCoeffs, 0, keep * COEFF_STRIDE);
+        System.arraycopy(targetCoeffs, 0, newTargetCoeffs, 0, keep * COEFF_STRIDE);
+        System.arraycopy(initialized, 0, newInitialized, 0, keep);
+        for (int c = 0; c < channelCount; c++) {
+            System.arraycopy(states, c * bandCount * STATE_STRIDE,
+                    newStates, c * newBandCount * STATE_STRIDE, keep * STATE_STRIDE);
+        }
+        for (int band = keep; band < newBandCount; band++) {
+            newCoeffs[band * COEFF_STRIDE] = 1;
+            newTargetCoeffs[band * COEFF_STRIDE] = 1;
+            newInitialized[band] = true;
+        }
+        this.coeffs = newCoeffs;
+        this.targetCoeffs = newTargetCoeffs;
+        this.states = newStates;
+        this.initialized = newInitialized;
+        this.bandCount = newBandCount;
+    }
+
+    /**
+     * 配置指定频段的Peaking EQ（对该频段所有声道生效，首次调用时直接对齐工作系数）
+     *
+     * @param band       频段索引
+     * @param freq       中心频率(Hz)
+     * @param sampleRate 采样率(Hz)
+     * @param Q          品质因子
+     * @param dbGain     增益(dB)
+     */
+    void setPeakingEQ(int band, double freq, double sampleRate, double Q, double dbGain) {
+        setFilter(band, ExoEqFilterType.PEAKING, freq, sampleRate, Q, dbGain);
+    }
+
+    /**
+     * 按 RBJ Audio EQ Cookbook 配置指定频段的滤波器（对该频段所有声道生效，首次调用时直接对齐工作系数）
+     *
+     * @param band       频段索引
+     * @param type       滤波器类型
+     * @param freq       中心 / 转折频率(Hz)
+     * @param sampleRate 采样率(Hz)
+     * @param Q          品质因子
+     * @param dbGain     增益(dB)，仅峰值与搁架类型生效
+     */
+    void setFilter(int band, ExoEqFilterType type, double freq, double sampleRate, double Q, double dbGain) {
+        if (freq <= 0 || sampleRate <= 0 || Q <= 0) {
+            ExoLog.log("BiquadFilterBank 无效参数：freq>0、sampleRate>0、Q>0，跳过配置");
+            return;
+        }
+        double w0 = 2 * Math.PI * freq / sampleRate;
+        double sinW0 = Math.sin(w0);
+        double cosW0 = Math.cos(w0);
+        double alpha = sinW0 / (2 * Q);
+        // 搁架的幅度因子：搁架处的增益为 A^2，即 dbGain
+        double A = Math.pow(10, dbGain / 40);
+        double b0, b1, b2, a0, a1, a2;
+        switch (type) {
+            case LOW_SHELF: {
+                double twoSqrtAAlpha = 2 * Math.sqrt(A) * alpha;
+                b0 = A * ((A + 1) - (A - 1) * cosW0 + twoSqrtAAlpha);
+                b1 = 2 * A * ((A - 1) - (A + 1) * cosW0);
+                b2 = A * ((A + 1) - (A - 1) * cosW0 - twoSqrtAAlpha);
+                a0 = (A + 1) + (A - 1) * cosW0 + twoSqrtAAlpha;
+                a1 = -2 * ((A - 1) + (A + 1) * cosW0);
+                a2 = (A + 1) + (A - 1) * cosW0 - twoSqrtAAlpha;
+                break;
+            }
+            case HIGH_SHELF: {
+                double twoSqrtAAlpha = 2 * Math.sqrt(A) * alpha;
+                b0 = A * ((A + 1) + (A - 1) * cosW0 + twoSqrtAAlpha);
+                b1 = -2 * A * ((A - 1) + (A + 1) * cosW0);
+                b2 = A * ((A + 1) + (A - 1) * cosW0 - twoSqrtAAlpha);
+                a0 = (A + 1) - (A - 1) * cosW0 + twoSqrtAAlpha;
+                a1 = 2 * ((A - 1) - (A + 1) * cosW0);
+                a2 = (A + 1) - (A - 1) * cosW0 - twoSqrtAAlpha;
+                break;
+            }
+            case LOW_PASS:
+                b0 = (1 - cosW0) / 2;
+                b1 = 1 - cosW0;
+                b2 = (1 - cosW0) / 2;
+                a0 = 1 + alpha;
+                a1 = -2 * cosW0;
+                a2 = 1 - alpha;
+                break;
+            case HIGH_PASS:
+                b0 = (1 + cosW0) / 2;
+                b1 = -(1 + cosW0);
+                b2 = (1 + cosW0) / 2;
+                a0 = 1 + alpha;
+                a1 = -2 * cosW0;
+                a2 = 1 - alpha;
+                break;
+            case NOTCH:
+                b0 = 1;
+                b1 = -2 * cosW0;
+                b2 = 1;
+                a0 = 1 + alpha;
+                a1 = -2 * cosW0;
+                a2 = 1 - alpha;
+                break;
+            case PEAKING:
+            default:
+                // 峰值频段沿用本库历史增益标度（幅度因子 10^(dB/20)，中心处增益为 2 倍标称 dB），
+                // 内置预设与已保存的 SP_EQ_GAINS 均按此标度调校
+                A = Math.pow(10, dbGain / 20);
+                b0 = 1 + alpha * A;
+                b1 = -2 * cosW0;
+                b2 = 1 - alpha * A;
+                a0 = 1 + alpha / A;
+                a1 = -2 * cosW0;
+                a2 = 1 - alpha / A;
+                break;
+        }
+
+        int base = band * COEFF_STRIDE;
+        targetCoeffs[base] = b0 / a0;
+        targetCoeffs[base + 1] = b1 / a0;
+        targetCoeffs[base + 2] = b2 / a0;
+        targetCoeffs[base + 3] = a1 / a0;
+        targetCoeffs[base + 4] = a2 / a0;
+
+        if (!initialized[band]) {
+            System.arraycopy(targetCoeffs, base, coeffs, base, COEFF_STRIDE);
+            initialized[band] = true;
+        }
+    }
+
+    /**
+     * 将指定频段的目标设为直通（0dB 或无法实现的频段），工作系数平滑过渡到直通后该频段不再参与滤波
+     *
+     * @param band 频段索引
+     */
+    void setIdentity(int band) {
+        int base = band * COEFF_STRIDE;
+        targetCoeffs[base] = 1;
+        for (int k = 1; k < COEFF_STRIDE; k++) {
+            targetCoeffs[base + k] = 0;
+        }
+        if (!initialized[band]) {
+            System.arraycopy(targetCoeffs, base, coeffs, base, COEFF_STRIDE);
+            initialized[band] = true;
+        }
+    }
+
+    /**
+     * 原地处理交织音频块（全部声道、全部频段）
+     * 按频段依次处理，每个频段仅判断一次旁路（已收敛到直通的频段直接跳过）；系数收敛途中按分段线性斜坡过渡
+     *
+     * @param buffer     交织音频块（[-1,1]浮点样本），处理结果写回原数组
+     * @param frameCount 需要处理的帧数
+     */
+    void process(float[] buffer, int frameCount) {
+        if (frameCount <= 0) {
+            return;
+        }
+        for (int band = 0; band < bandCount; band++) {
+            if (isBypassed(band) && isConverged(band)) {
+                continue;
+            }
+            int frameOffset = 0;
+            int remaining = frameCount;
+            while (remaining > 0 && !isConverged(band)) {
+                int segmentFrames = Math.min(RAMP_SEGMENT_FRAMES, remaining);
+                processBandWithRamp(band, buffer, frameOffset, segmentFrames);
+                frameOffset += segmentFrames;
+                remaining -= segmentFrames;
+            }
+            if (remaining > 0) {
+                processBand(band, buffer, frameOffset, remaining);
+            }
+        }
+    }
+
+    /**
+     * 系数已收敛时处理单个频段（全部声道）
+     */
+    private void processBand(int band, float[] buffer, int frameOffset, int frameCount) {
+        int base = band * COEFF_STRIDE;
+        final double b0 = coeffs[base];
+        final double b1 = coeffs[base + 1];
+        final double b2 = coeffs[base + 2];
+        final double a1 = coeffs[base + 3];
+        final double a2 = coeffs[base + 4];
+        final int stride = channelCount;
+        for (int c = 0; c < channelCount; c++) {
+            int s = (c * bandCount + band) * STATE_STRIDE;
+            double x1 = states[s], x2 = states[s + 1], y1 = states[s + 2], y2 = states[s + 3];
+            int index = frameOffset * stride + c;
+            for (int i = 0; i < frameCount; i++, index += stride) {
+                float in = buffer[index];
+                double out = b0 * in + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+                x2 = x1;
+                x1 = in;
+                y2 = y1;
+                y1 = out;
+                buffer[index] = (float) out;
+            }
+            states[s] = x1;
+            states[s + 1] = x2;
+            states[s + 2] = y1;
+            states[s + 3] = y2;
+        }
+    }
+
+    /**
+     * 系数收敛途中处理单个频段的一个分段（全部声道共享同一斜坡）
+     */
+    private void processBandWithRamp(int band, float[] buffer, int frameOffset, int frameCount) {
+        int base = band * COEFF_STRIDE;
+        double decay = Math.pow(1.0 - ExoConfig.FILTER_COEFF_SMOOTH_FACTOR, frameCount);
+        double eb0 = rampEnd(coeffs[base], targetCoeffs[base], decay);
+        double eb1 = rampEnd(coeffs[base + 1], targetCoeffs[base + 1], decay);
+        double eb2 = rampEnd(coeffs[base + 2], targetCoeffs[base + 2], decay);
+        double ea1 = rampEnd(coeffs[base + 3], targetCoeffs[base + 3], decay);
+        double ea2 = rampEnd(coeffs[base + 4], targetCoeffs[base + 4], decay);
+
+        double db0 = (eb0 - coeffs[base]) / frameCount;
+        double db1 = (eb1 - coeffs[base + 1]) / frameCount;
+        double db2 = (eb2 - coeffs[base + 2]) / frameCount;
+        double da1 = (ea1 - coeffs[base + 3]) / frameCount;
+        double da2 = (ea2 - coeffs[base + 4]) / frameCount;
+
+        final int stride = channelCount;
+        for (int c = 0; c < channelCount; c++) {
+            double b0 = coeffs[base], b1 = coeffs[base + 1], b2 = coeffs[base + 2];
+            double a1 = coeffs[base + 3], a2 = coeffs[base + 4];
+            int s = (c * bandCount + band) * STATE_STRIDE;
+            double x1 = states[s], x2 = states[s + 1], y1 = states[s + 2], y2 = states[s + 3];
+            int index = frameOffset * stride + c;
+            for (int i = 0; i < frameCount; i++, index += stride) {
+                // 先推进系数，再滤波
+                b0 += db0;
+                b1 += db1;
+                b2 += db2;
+                a1 += da1;
+                a2 += da2;
+                float in = buffer[index];
+                double out = b0 * in + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+                x2 = x1;
+                x1 = in;
+                y2 = y1;
+                y1 = out;
+                buffer[index] = (float) out;
+            }
+            states[s] = x1;
+            states[s + 1] = x2;
+            states[s + 2] = y1;
+            states[s + 3] = y2;
+        }
+        // 段末直接落到推算值
+        coeffs[base] = eb0;
+        coeffs[base + 1] = eb1;
+        coeffs[base + 2] = eb2;
+        coeffs[base + 3] = ea1;
+        coeffs[base + 4] = ea2;
+    }
+
+    /**
+     * 推算指数平滑若干sample后的系数值，进入收敛阈值后直接对齐目标值
+     */
+    private static double rampEnd(double current, double target, double decay) {
+        double end = target + (current - target) * decay;
+        return Math.abs(end - target) > ExoConfig.FILTER_COEFF_CONVERGE_THRESHOLD ? end : target;
+    }
+
+    private boolean isConverged(int band) {
+        int base = band * COEFF_STRIDE;
+        for (int k = 0; k < COEFF_STRIDE; k++) {
+            if (coeffs[base + k] != targetCoeffs[base + k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 基于当前工作系数判断指定频段是否旁路，判定规则与 {@link BiquadFilter#isBypassed()} 一致
+     */
+    boolean isBypassed(int band) {
+        int base = band * COEFF_STRIDE;
+        return Math.abs(coeffs[base] - 1.0) < ExoConfig.FILTER_BYPASS_EPS
+                && Math.abs(coeffs[base + 1]) < ExoConfig.FILTER_BYPASS_EPS
+                && Math.abs(coeffs[base + 2]) < ExoConfig.FILTER_BYPASS_EPS
+                && Math.abs(coeffs[base + 3]) < ExoConfig.FILTER_BYPASS_EPS
+                && Math.abs(coeffs[base + 4]) < ExoConfig.FILTER_BYPASS_EPS;
+    }
+
+    /**
+     * 全部频段是否已收敛到直通（此时整个滤波器组不改变音频，调用方可跳过处理）
+     */
+    boolean isIdle() {
+        for (int band = 0; band < bandCount; band++) {
+            if (!isBypassed(band) || !isConverged(band)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 仅清空延迟状态（专为 onFlush() 设计），不改动系数
+     */
+    void resetInternalStates() {
+        Arrays.fill(states, 0);
+    }
+
+    /**
+     * 重置全部系数、延迟状态与初始化标记（管线重建时调用）
+     */
+    void reset() {
+        for (int band = 0; band < bandCount; band++) {
+            int base = band * COEFF_STRIDE;
+            coeffs[base] = 1;
+            targetCoeffs[base] = 1;
+            for (int k = 1; k < COEFF_STRIDE; k++) {
+                coeffs[base + k] = 0;
+                targetCoeffs[base + k] = 0;
+            }
+        }
+        Arrays.fill(states, 0);
+        Arrays.fill(initialized, false);
+    }
+}
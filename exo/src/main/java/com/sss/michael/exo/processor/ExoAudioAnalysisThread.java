@@ -0,0 +1,40 @@
+package com.sss.michael.exo.processor;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 14:10
+ * @Description 音频分析线程
+ * 进程内所有分析型处理器共享的低优先级线程：音频渲染线程只负责拷贝样本，
+ * FFT 等重计算统一挪到这里执行，避免偶发的计算尖峰拖慢 AudioTrack 写入。
+ * 线程按需创建，随进程存活，不单独退出
+ */
+final class ExoAudioAnalysisThread {
+
+    private static volatile Handler handler;
+
+    private ExoAudioAnalysisThread() {
+    }
+
+    /**
+     * 获取分析线程的 Handler，首次调用时启动线程
+     */
+    static Handler getHandler() {
+        Handler current = handler;
+        if (current == null) {
+            synchronized (ExoAudioAnalysisThread.class) {
+                current = handler;
+                if (current == null) {
+                    HandlerThread thread = new HandlerThread("ExoAudioAnalysis", Process.THREAD_PRIORITY_BACKGROUND);
+                    thread.start();
+                    current = new Handler(thread.getLooper());
+                    handler = current;
+                }
+            }
+        }
+        return current;
+    }
+}
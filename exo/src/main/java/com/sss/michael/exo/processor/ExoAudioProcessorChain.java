@@ -0,0 +1,621 @@
+package com.sss.michael.exo.processor;
+
+import androidx.annotation.NonNull;
+import androidx.media3.common.util.UnstableApi;
+
+import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.util.ExoLog;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 21:40
+ * @Description 动态音频处理链
+ * 作为唯一的处理器注入 AudioSink，内部按顺序驱动各处理阶段，运行期可启用、旁路、插入或移除阶段，
+ * 无需重建 ExoPlayer 或 AudioSink。整条链只做一次 PCM → float 解码与写回，各阶段直接处理浮点块。
+ * <p>
+ * 线程模型：阶段列表写时复制，任意线程修改后整体发布；音频线程在每个块开始时同步，
+ * 自行维护各阶段的配置、淡入淡出与延迟补偿状态，处理路径上不加锁。
+ * <p>
+ * 切换策略：
+ * 1. 修改音频的阶段启用 / 旁路时在 {@link ExoConfig#AUDIO_STAGE_CROSSFADE_MS} 内与旁路信号交叉淡化；
+ * 2. 分析型阶段（不修改音频）直接开始 / 停止调用，重新启用时先 flush 丢弃过期状态；
+ * 3. 存在固定输出延迟的阶段（如前瞻限幅）旁路时插入等长延迟线，保证切换前后时间轴连续；
+ * 4. 旁路且无延迟的阶段，以及当前参数下为恒等变换的阶段（如平直的均衡器）完全不被调用，
+ * 全部阶段都无需处理时整块原样拷贝，不做解码与写回；
+ * 5. 流结束时以静音推出各延迟阶段的尾部样本，总延迟计入输出时长；
+ * 6. 每块同步各阶段后级是否有完全启用的峰值限幅器，没有时均衡器等阶段自行削波。
+ */
+@UnstableApi
+public class ExoAudioProcessorChain extends ExoBaseAudioProcessor {
+
+    private static final Stage[] EMPTY_STAGES = new Stage[0];
+    private static final StageState[] EMPTY_STATES = new StageState[0];
+
+    // 已发布的阶段列表（写时复制，修改方在 stageLock 内替换）
+    private volatile Stage[] stages = EMPTY_STAGES;
+    private final Object stageLock = new Object();
+
+    // ---------- 以下仅音频线程访问 ----------
+    // 运行中的阶段状态（含已移除、正在淡出的阶段）
+    private StageState[] states = EMPTY_STATES;
+    // 上次同步的发布列表
+    private Stage[] syncedStages = EMPTY_STAGES;
+    // 当前输入格式，阶段按引用判断是否需要重新配置
+    private AudioFormat inputFormat;
+    // 交叉淡化帧数
+    private int crossfadeFrames = 1;
+    // 旁路（干）信号暂存块，按容量复用
+    private float[] dryBlock;
+    // 延迟阶段启用时回灌历史样本的暂存块
+    private float[] primeBlock;
+    // 本块是否有阶段修改了音频
+    private boolean outputModified;
+
+    /**
+     * 追加处理阶段
+     *
+     * @param processor 处理器，已在链中时只更新启用状态
+     * @param active    是否启用
+     */
+    public void addStage(@NonNull ExoBaseAudioProcessor processor, boolean active) {
+        addStage(Integer.MAX_VALUE, processor, active);
+    }
+
+    /**
+     * 在指定位置插入处理阶段，音频线程在下一个块配置该阶段并淡入
+     *
+     * @param index     插入位置，超出范围时追加到末尾
+     * @param processor 处理器，已在链中时只更新启用状态
+     * @param active    是否启用
+     */
+    public void addStage(int index, @NonNull ExoBaseAudioProcessor processor, boolean active) {
+        if (processor == this) {
+            return;
+        }
+        synchronized (stageLock) {
+            Stage[] current = stages;
+            Stage existing = findStage(current, processor);
+            if (existing != null) {
+                existing.active = active;
+                return;
+            }
+            int position = Math.max(0, Math.min(index, current.length));
+            Stage[] next = new Stage[current.length + 1];
+            System.arraycopy(current, 0, next, 0, position);
+            next[position] = new Stage(processor, active);
+            System.arraycopy(current, position, next, position + 1, current.length - position);
+            stages = next;
+        }
+    }
+
+    /**
+     * 移除处理阶段：音频线程将其淡出后不再调用并 reset，处理器本身由调用方负责释放
+     *
+     * @return 处理器是否在链中
+     */
+    public boolean removeStage(ExoBaseAudioProcessor processor) {
+        synchronized (stageLock) {
+            Stage[] current = stages;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].processor == processor) {
+                    Stage[] next = new Stage[current.length - 1];
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                    stages = next;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 启用 / 旁路处理阶段（任意线程），不在链中的处理器忽略
+     */
+    public void setStageActive(ExoBaseAudioProcessor processor, boolean active) {
+        Stage stage = findStage(stages, processor);
+        if (stage != null) {
+            stage.active = active;
+        }
+    }
+
+    public boolean isStageActive(ExoBaseAudioProcessor processor) {
+        Stage stage = findStage(stages, processor);
+        return stage != null && stage.active;
+    }
+
+    /**
+     * 当前阶段列表（按处理顺序，不含正在淡出的已移除阶段）
+     */
+    public List<ExoBaseAudioProcessor> getStages() {
+        Stage[] current = stages;
+        List<ExoBaseAudioProcessor> processors = new ArrayList<>(current.length);
+        for (Stage stage : current) {
+            processors.add(stage.processor);
+        }
+        return processors;
+    }
+
+    private static Stage findStage(Stage[] stages, ExoBaseAudioProcessor processor) {
+        for (Stage stage : stages) {
+            if (stage.processor == processor) {
+                return stage;
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    @Override
+    public AudioFormat onConfigure(AudioFormat inputAudioFormat) throws UnhandledAudioFormatException {
+        AudioFormat outputAudioFormat = super.onConfigure(inputAudioFormat);
+        this.inputFormat = inputAudioFormat;
+        return outputAudioFormat;
+    }
+
+    @Override
+    protected void onConfigChanged() {
+        crossfadeFrames = Math.max(1, Math.round(sampleRateHz * ExoConfig.AUDIO_STAGE_CROSSFADE_MS / 1000f));
+    }
+
+    @Override
+    protected void process(ByteBuffer input, ByteBuffer output, int sampleRateHz, int channelCount) {
+        syncStages();
+        if (!hasRunningStage()) {
+            // 全部阶段旁路：整块原样拷贝，不解码
+            output.put(input);
+            return;
+        }
+        super.process(input, output, sampleRateHz, channelCount);
+    }
+
+    @Override
+    protected void process(float[] samples, int frameCount, int sampleRateHz, int channelCount) {
+        syncOutputLimited();
+        boolean modified = false;
+        boolean hasRetired = false;
+        for (StageState state : states) {
+            if (state.stage == null) {
+                hasRetired = true;
+            }
+            if (!isRunning(state) || !ensureConfigured(state) || isPassthrough(state)) {
+                continue;
+            }
+            if (state.processor.isOutputModified()) {
+                modified |= processModifyingStage(state, samples, frameCount);
+            } else {
+                processAnalysisStage(state, samples, frameCount);
+            }
+        }
+        outputModified = modified;
+        if (hasRetired) {
+            dropRetiredStages(false);
+        }
+    }
+
+    @Override
+    protected boolean isOutputModified() {
+        return outputModified;
+    }
+
+    /**
+     * 链的总输出延迟：各运行中延迟阶段的延迟之和（启用时为阶段自身延迟，旁路时为等长延迟补偿），
+     * 流结束时据此推出各阶段延迟线的尾部，并计入 {@link #getDurationAfterProcessorApplied(long)}
+     */
+    @Override
+    protected int getOutputDelayFrames() {
+        int delayFrames = 0;
+        for (StageState state : states) {
+            if (state.delayFrames > 0 && state.configuredFormat != null
+                    && state.configuredFormat == inputFormat && isRunning(state)) {
+                delayFrames += state.delayFrames;
+            }
+        }
+        return delayFrames;
+    }
+
+    /**
+     * 从后向前通知各阶段其后是否有完全启用的峰值限幅器（淡入 / 淡出中的限幅器不计，期间前级照常削波）
+     */
+    private void syncOutputLimited() {
+        boolean limited = false;
+        for (int i = states.length - 1; i >= 0; i--) {
+            StageState state = states[i];
+            state.processor.setOutputLimited(limited);
+            limited |= state.mix == 1f && isActive(state) && state.processor.isPeakLimiter();
+        }
+    }
+
+    /**
+     * 分析型阶段：启用即调用，旁路即停止，不需要淡化
+     */
+    private void processAnalysisStage(StageState state, float[] samples, int frameCount) {
+        if (!isActive(state)) {
+            state.mix = 0f;
+            return;
+        }
+        if (state.mix == 0f) {
+            state.processor.flush();
+            state.mix = 1f;
+        }
+        processStage(state, samples, frameCount);
+    }
+
+    /**
+     * 修改音频的阶段：干信号（必要时经延迟补偿）与处理后的湿信号按淡化进度混合
+     *
+     * @return 本块输出是否被修改
+     */
+    private boolean processModifyingStage(StageState state, float[] samples, int frameCount) {
+        boolean delayed = state.delayFrames > 0;
+        float mixTarget = isActive(state) && (!delayed || state.alignMix == 1f) ? 1f : 0f;
+        // 湿信号淡出完成前保持延迟对齐，对齐完成前不淡入
+        float alignTarget = delayed && (state.stage != null || state.mix > 0f) ? 1f : 0f;
+        boolean wet = state.mix > 0f || mixTarget > 0f;
+
+        if (!delayed && state.mix == 1f && mixTarget == 1f) {
+            processStage(state, samples, frameCount);
+            return true;
+        }
+        if (!wet && !delayed) {
+            return false;
+        }
+        if (wet && state.mix == 0f) {
+            activateStage(state);
+        }
+        int sampleCount = frameCount * channelCount;
+        float[] dry = obtainDryBlock(sampleCount);
+        System.arraycopy(samples, 0, dry, 0, sampleCount);
+        if (delayed) {
+            applyDelay(state, dry, frameCount);
+            // 未延迟 → 延迟 的对齐过渡（仅在插入 / 移除带延迟的阶段时发生）
+            state.alignMix = crossfade(samples, dry, dry, frameCount, state.alignMix, alignTarget);
+        }
+        if (wet) {
+            processStage(state, samples, frameCount);
+            state.mix = crossfade(dry, samples, samples, frameCount, state.mix, mixTarget);
+        } else {
+            System.arraycopy(dry, 0, samples, 0, sampleCount);
+        }
+        return true;
+    }
+
+    /**
+     * 阶段从旁路转为启用：清空过期状态；有延迟的阶段回灌延迟补偿线中的历史样本，
+     * 使其内部延迟线与旁路信号对齐，淡入期间不出现空白
+     */
+    private void activateStage(StageState state) {
+        state.processor.flush();
+        int delay = state.delayFrames;
+        if (delay == 0 || state.alignMix == 0f) {
+            return;
+        }
+        int channels = channelCount;
+        float[] block = obtainPrimeBlock(delay * channels);
+        float[] delayLine = state.delayLine;
+        int position = state.delayIndex;
+        for (int frame = 0; frame < delay; frame++) {
+            for (int c = 0; c < channels; c++) {
+                block[frame * channels + c] = delayLine[c * delay + position];
+            }
+            position = position + 1 == delay ? 0 : position + 1;
+        }
+        state.processor.process(block, delay, sampleRateHz, channels);
+    }
+
+    /**
+     * 调用阶段处理浮点块，并将耗时记入该阶段自身的耗时统计
+     */
+    private void processStage(StageState state, float[] samples, int frameCount) {
+        if (!ExoConfig.AUDIO_PROCESSOR_TIMING_ENABLE) {
+            state.processor.process(samples, frameCount, sampleRateHz, channelCount);
+            return;
+        }
+        long startNs = System.nanoTime();
+        state.processor.process(samples, frameCount, sampleRateHz, channelCount);
+        state.processor.getTimingHistogram().record(System.nanoTime() - startNs,
+                frameCount * 1_000_000_000L / sampleRateHz);
+    }
+
+    /**
+     * 经延迟补偿线原地延迟 delayFrames 帧
+     */
+    private void applyDelay(StageState state, float[] block, int frameCount) {
+        final float[] delayLine = state.delayLine;
+        final int delay = state.delayFrames;
+        final int channels = channelCount;
+        int position = state.delayIndex;
+        for (int frame = 0, index = 0; frame < frameCount; frame++) {
+            for (int c = 0; c < channels; c++, index++) {
+                int delayOffset = c * delay + position;
+                float x = block[index];
+                block[index] = delayLine[delayOffset];
+                delayLine[delayOffset] = x;
+            }
+            position = position + 1 == delay ? 0 : position + 1;
+        }
+        state.delayIndex = position;
+    }
+
+    /**
+     * 按帧线性淡化：out = from + (to - from) * mix，mix 每帧向 target 移动 1 / crossfadeFrames
+     * out 可与 from 或 to 为同一数组
+     *
+     * @return 块末的淡化进度
+     */
+    private float crossfade(float[] from, float[] to, float[] out, int frameCount, float mix, float target) {
+        int sampleCount = frameCount * channelCount;
+        if (mix == target) {
+            float[] source = mix == 1f ? to : from;
+            if (source != out) {
+                System.arraycopy(source, 0, out, 0, sampleCount);
+            }
+            return mix;
+        }
+        final int channels = channelCount;
+        final float step = target > mix ? 1f / crossfadeFrames : -1f / crossfadeFrames;
+        float g = mix;
+        for (int frame = 0, index = 0; frame < frameCount; frame++) {
+            g = step > 0 ? Math.min(target, g + step) : Math.max(target, g + step);
+            for (int c = 0; c < channels; c++, index++) {
+                out[index] = from[index] + (to[index] - from[index]) * g;
+            }
+        }
+        return g;
+    }
+
+    /**
+     * 同步发布的阶段列表：按处理器匹配保留已有状态，已移除的阶段留在原位置附近直至淡出
+     */
+    private void syncStages() {
+        Stage[] published = stages;
+        if (published == syncedStages) {
+            return;
+        }
+        syncedStages = published;
+        StageState[] previous = states;
+        List<StageState> next = new ArrayList<>(published.length + previous.length);
+        for (Stage stage : published) {
+            StageState state = null;
+            for (StageState candidate : previous) {
+                if (candidate.processor == stage.processor) {
+                    state = candidate;
+                    break;
+                }
+            }
+            if (state == null) {
+                state = new StageState(stage.processor);
+            }
+            state.stage = stage;
+            next.add(state);
+        }
+        for (int i = 0; i < previous.length; i++) {
+            StageState state = previous[i];
+            if (!next.contains(state)) {
+                state.stage = null;
+                next.add(Math.min(i, next.size()), state);
+            }
+        }
+        states = next.toArray(EMPTY_STATES);
+    }
+
+    private boolean hasRunningStage() {
+        for (StageState state : states) {
+            if (state.stage == null || (isRunning(state) && !isPassthrough(state))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 阶段本块是否需要参与处理：启用、淡化中，或已配置的延迟阶段（旁路时仍需延迟补偿）
+     */
+    private boolean isRunning(StageState state) {
+        return isActive(state) || state.mix > 0f || state.alignMix > 0f
+                || (state.stage != null && state.delayFrames > 0 && state.configuredFormat == inputFormat);
+    }
+
+    /**
+     * 完全启用、无延迟且当前参数下为恒等变换的修改型阶段：本块不调用，也不视为修改了音频
+     * 恒等阶段被跳过与被调用的输出逐样本相同，参数变化后下一块即恢复处理
+     */
+    private boolean isPassthrough(StageState state) {
+        return state.mix == 1f && state.delayFrames == 0 && isActive(state)
+                && state.configuredFormat == inputFormat && state.processor.isOutputModified()
+                && state.processor.isIdentity();
+    }
+
+    private static boolean isActive(StageState state) {
+        Stage stage = state.stage;
+        return stage != null && stage.active;
+    }
+
+    /**
+     * 按当前输入格式配置阶段（音频线程），处理器不支持该格式时记录并跳过
+     */
+    private boolean ensureConfigured(StageState state) {
+        AudioFormat format = inputFormat;
+        if (format == null) {
+            return false;
+        }
+        if (state.configuredFormat == format) {
+            return true;
+        }
+        if (state.failedFormat == format) {
+            return false;
+        }
+        try {
+            state.processor.configure(format);
+            state.processor.flush();
+        } catch (UnhandledAudioFormatException e) {
+            ExoLog.log("音频处理阶段不支持当前格式，已跳过: " + state.processor.getClass().getSimpleName() + " " + format);
+            state.failedFormat = format;
+            return false;
+        }
+        state.configuredFormat = format;
+        state.mix = 0f;
+        state.alignMix = 0f;
+        state.delayFrames = Math.max(0, state.processor.getOutputDelayFrames());
+        state.delayLine = state.delayFrames > 0 ? new float[state.delayFrames * channelCount] : null;
+        state.delayIndex = 0;
+        return true;
+    }
+
+    /**
+     * 丢弃已移除的阶段
+     *
+     * @param immediately true 时不等待淡出（flush / reset 时使用）
+     */
+    private void dropRetiredStages(boolean immediately) {
+        int kept = 0;
+        StageState[] current = states;
+        for (StageState state : current) {
+            if (!isRetired(state, immediately)) {
+                kept++;
+            }
+        }
+        if (kept == current.length) {
+            return;
+        }
+        StageState[] next = new StageState[kept];
+        int index = 0;
+        for (StageState state : current) {
+            if (isRetired(state, immediately)) {
+                state.processor.reset();
+            } else {
+                next[index++] = state;
+            }
+        }
+        states = next;
+    }
+
+    /**
+     * 已移除且淡出完成（或从未按当前格式配置过）的阶段可以丢弃
+     */
+    private boolean isRetired(StageState state, boolean immediately) {
+        return state.stage == null && (immediately || state.configuredFormat != inputFormat
+                || (state.mix == 0f && state.alignMix == 0f));
+    }
+
+    private float[] obtainDryBlock(int sampleCount) {
+        if (dryBlock == null || dryBlock.length < sampleCount) {
+            dryBlock = new float[sampleCount];
+        }
+        return dryBlock;
+    }
+
+    private float[] obtainPrimeBlock(int sampleCount) {
+        if (primeBlock == null || primeBlock.length < sampleCount) {
+            primeBlock = new float[sampleCount];
+        }
+        return primeBlock;
+    }
+
+    /**
+     * flush（起播 / seek / 格式切换）时输出本就不连续：直接跳到目标状态，不做淡化，
+     * 已配置过或启用中的阶段按新格式配置并清空状态
+     */
+    @Override
+    protected void onFlush() {
+        super.onFlush();
+        syncStages();
+        dropRetiredStages(true);
+        for (StageState state : states) {
+            boolean active = isActive(state);
+            if ((active || state.configuredFormat != null) && ensureConfigured(state)) {
+                state.processor.flush();
+                state.mix = active ? 1f : 0f;
+                state.alignMix = state.delayFrames > 0 ? 1f : 0f;
+                if (state.delayLine != null) {
+                    Arrays.fill(state.delayLine, 0f);
+                }
+                state.delayIndex = 0;
+            } else {
+                state.mix = 0f;
+                state.alignMix = 0f;
+            }
+        }
+    }
+
+    @Override
+    protected void onReset() {
+        super.onReset();
+        syncStages();
+        dropRetiredStages(true);
+        for (StageState state : states) {
+            state.processor.reset();
+            state.configuredFormat = null;
+            state.failedFormat = null;
+            state.mix = 0f;
+            state.alignMix = 0f;
+        }
+        inputFormat = null;
+        outputModified = false;
+    }
+
+    /**
+     * 释放链上全部阶段（含正在淡出的阶段）
+     */
+    @Override
+    protected void releaseResources() {
+        Stage[] published;
+        synchronized (stageLock) {
+            published = stages;
+            stages = EMPTY_STAGES;
+        }
+        for (Stage stage : published) {
+            stage.processor.release();
+        }
+        for (StageState state : states) {
+            if (state.stage == null) {
+                state.processor.release();
+            }
+        }
+        states = EMPTY_STATES;
+        syncedStages = EMPTY_STAGES;
+        dryBlock = null;
+        primeBlock = null;
+    }
+
+    /**
+     * 已发布的阶段：处理器 + 启用开关
+     */
+    private static final class Stage {
+        final ExoBaseAudioProcessor processor;
+        volatile boolean active;
+
+        Stage(ExoBaseAudioProcessor processor, boolean active) {
+            this.processor = processor;
+            this.active = active;
+        }
+    }
+
+    /**
+     * 音频线程持有的阶段运行状态
+     */
+    private static final class StageState {
+        final ExoBaseAudioProcessor processor;
+        // 对应的发布阶段，为 null 表示已移除，淡出后丢弃
+        Stage stage;
+        AudioFormat configuredFormat;
+        AudioFormat failedFormat;
+        // 湿信号占比：0 旁路，1 完全启用
+        float mix;
+        // 延迟补偿占比：0 未延迟，1 与阶段输出对齐
+        float alignMix;
+        int delayFrames;
+        // 延迟补偿线：每声道 delayFrames 个样本
+        float[] delayLine;
+        int delayIndex;
+
+        StageState(ExoBaseAudioProcessor processor) {
+            this.processor = processor;
+        }
+    }
+}
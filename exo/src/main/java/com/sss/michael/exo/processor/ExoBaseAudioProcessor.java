@@ -5,12 +5,22 @@ import androidx.media3.common.C;
 import androidx.media3.common.audio.BaseAudioProcessor;
 import androidx.media3.common.util.UnstableApi;
 
+import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.util.ExoTimingHistogram;
+
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * @author Michael by SSS
  * @date 2026/1/2 21:10
  * @Description 音频处理器基类
+ * 支持 16-bit / 24-bit / 32-bit 整型 PCM 与 float PCM 输入（小端）。
+ * 子类只需实现 float 样本块处理：基类负责按输入编码一次性解码为 [-1,1] 浮点交织块，
+ * 处理后再按原编码写回，避免每个子类各自做 short→float→short 的重复转换。
+ * 每次 queueInput 的耗时记入 {@link #getTimingHistogram()}，用于定位占用音频线程预算的处理阶段。
+ * 存在固定输出延迟（{@link #getOutputDelayFrames()}）的处理器在流结束时以静音推出延迟线中的尾部样本，
+ * 并在 {@link #getDurationAfterProcessorApplied(long)} 中计入该延迟
  */
 @UnstableApi
 public abstract class ExoBaseAudioProcessor extends BaseAudioProcessor {
@@ -18,21 +28,51 @@ public abstract class ExoBaseAudioProcessor extends BaseAudioProcessor {
     protected int sampleRateHz = C.RATE_UNSET_INT;
     protected int channelCount = C.LENGTH_UNSET;
     protected int encoding = C.ENCODING_INVALID;
+    // 单个样本的字节数，由输入编码决定
+    protected int bytesPerSample = C.LENGTH_UNSET;
+
+    // 复用的浮点交织块，仅在容量不足时扩容，稳定播放期间不产生分配
+    private float[] floatBlock;
+    // queueInput 耗时统计（音频线程写入）
+    private final ExoTimingHistogram timingHistogram = new ExoTimingHistogram(getClass().getSimpleName());
+    // 已收到流结束、延迟线尾部尚未输出
+    private boolean tailDrainPending;
 
     @NonNull
     @Override
     public AudioFormat onConfigure(AudioFormat inputAudioFormat) throws UnhandledAudioFormatException {
-        // 目前仅处理最通用的 16-bit PCM
-        if (inputAudioFormat.encoding != C.ENCODING_PCM_16BIT) {
+        int sampleBytes = getBytesPerSample(inputAudioFormat.encoding);
+        if (sampleBytes == C.LENGTH_UNSET) {
             throw new UnhandledAudioFormatException(inputAudioFormat);
         }
         this.sampleRateHz = inputAudioFormat.sampleRate;
         this.channelCount = inputAudioFormat.channelCount;
         this.encoding = inputAudioFormat.encoding;
+        this.bytesPerSample = sampleBytes;
         onConfigChanged();
         return inputAudioFormat;
     }
 
+    /**
+     * 获取支持的编码对应的单个样本字节数
+     *
+     * @param encoding PCM 编码
+     * @return 样本字节数，不支持的编码返回 {@link C#LENGTH_UNSET}
+     */
+    private static int getBytesPerSample(int encoding) {
+        switch (encoding) {
+            case C.ENCODING_PCM_16BIT:
+                return 2;
+            case C.ENCODING_PCM_24BIT:
+                return 3;
+            case C.ENCODING_PCM_32BIT:
+            case C.ENCODING_PCM_FLOAT:
+                return 4;
+            default:
+                return C.LENGTH_UNSET;
+        }
+    }
+
     @Override
     public void queueInput(ByteBuffer inputBuffer) {
         int remaining = inputBuffer.remaining();
@@ -44,17 +84,238 @@ public abstract class ExoBaseAudioProcessor extends BaseAudioProcessor {
             outputBuffer.put(inputBuffer); // 配置未就绪时直接透传，不处理
             return;
         }
+        boolean timingEnabled = ExoConfig.AUDIO_PROCESSOR_TIMING_ENABLE;
+        long startNs = timingEnabled ? System.nanoTime() : 0;
         process(inputBuffer, outputBuffer, sampleRateHz, channelCount);
         outputBuffer.flip();
+        if (timingEnabled) {
+            long frameCount = remaining / ((long) channelCount * bytesPerSample);
+            timingHistogram.record(System.nanoTime() - startNs, frameCount * 1_000_000_000L / sampleRateHz);
+        }
+    }
+
+    @Override
+    protected void onQueueEndOfStream() {
+        tailDrainPending = sampleRateHz != C.RATE_UNSET_INT && channelCount != C.LENGTH_UNSET
+                && getOutputDelayFrames() > 0;
+    }
+
+    /**
+     * 流结束后，上一块输出被取走时再输出延迟线尾部，尾部取走后才报告结束
+     */
+    @NonNull
+    @Override
+    public ByteBuffer getOutput() {
+        if (tailDrainPending && !hasPendingOutput()) {
+            tailDrainPending = false;
+            drainTail();
+        }
+        return super.getOutput();
+    }
+
+    @Override
+    public boolean isEnded() {
+        return super.isEnded() && !tailDrainPending;
+    }
+
+    /**
+     * 输出时长 = 输入时长 + 固定输出延迟（流结束时延迟线尾部会被完整输出）
+     */
+    @Override
+    public long getDurationAfterProcessorApplied(long durationUs) {
+        int delayFrames = getOutputDelayFrames();
+        if (durationUs == C.TIME_UNSET || delayFrames <= 0 || sampleRateHz == C.RATE_UNSET_INT) {
+            return durationUs;
+        }
+        return durationUs + delayFrames * C.MICROS_PER_SECOND / sampleRateHz;
+    }
+
+    /**
+     * 送入 {@link #getOutputDelayFrames()} 帧静音，将延迟线中剩余的样本推到输出
+     */
+    private void drainTail() {
+        int frameCount = getOutputDelayFrames();
+        if (frameCount <= 0) {
+            return;
+        }
+        int sampleCount = frameCount * channelCount;
+        float[] block = obtainFloatBlock(sampleCount);
+        Arrays.fill(block, 0, sampleCount, 0f);
+        process(block, frameCount, sampleRateHz, channelCount);
+        ByteBuffer outputBuffer = replaceOutputBuffer(sampleCount * bytesPerSample);
+        writeFloats(block, sampleCount, outputBuffer);
+        outputBuffer.flip();
+    }
+
+    /**
+     * queueInput 耗时统计（含解码 / 写回），任意线程可通过 {@link ExoTimingHistogram#copyInto(ExoTimingHistogram)} 读取
+     */
+    public ExoTimingHistogram getTimingHistogram() {
+        return timingHistogram;
     }
 
     /**
      * 核心处理方法
+     * 默认实现：解码为浮点交织块 → {@link #process(float[], int, int, int)} → 按原编码写回；
+     * 对于 {@link #isOutputModified()} 返回 false 的分析型处理器，输入原样透传，省去写回的编码开销。
+     * 仅处理完整的声道组，剩余不足一帧的字节直接丢弃
      *
-     * @param input  输入数据 (请使用 get 读取，不要修改 position，或者读取后手动还原)
+     * @param input  输入数据
      * @param output 输出数据 (请使用 put 写入)
      */
-    protected abstract void process(ByteBuffer input, ByteBuffer output, int sampleRateHz, int channelCount);
+    protected void process(ByteBuffer input, ByteBuffer output, int sampleRateHz, int channelCount) {
+        int frameCount = input.remaining() / (channelCount * bytesPerSample);
+        int sampleCount = frameCount * channelCount;
+        float[] block = obtainFloatBlock(sampleCount);
+        readFloats(input, block, sampleCount);
+
+        process(block, frameCount, sampleRateHz, channelCount);
+
+        if (isOutputModified()) {
+            writeFloats(block, sampleCount, output);
+            input.position(input.limit());
+        } else {
+            output.put(input);
+        }
+    }
+
+    /**
+     * 浮点块处理方法
+     *
+     * @param samples      交织浮点样本（[-1,1]，float PCM 输入可能超出该范围），修改音频的处理器直接原地写回
+     * @param frameCount   帧数（有效样本数 = frameCount * channelCount）
+     * @param sampleRateHz 采样率
+     * @param channelCount 声道数
+     */
+    protected abstract void process(float[] samples, int frameCount, int sampleRateHz, int channelCount);
+
+    /**
+     * 处理器是否会修改音频内容
+     * 返回 false 时基类将输入原样透传到输出，{@link #process(float[], int, int, int)} 中对样本的修改不会生效
+     */
+    protected boolean isOutputModified() {
+        return true;
+    }
+
+    /**
+     * 当前参数下处理器是否为恒等变换（输出与输入逐样本相同、无输出延迟），例如全部频段为 0dB 的均衡器
+     * 动态处理链对完全启用且为恒等变换的阶段跳过调用，所有阶段都无需处理时整块原样拷贝，不做解码与写回。
+     * 仅在音频线程、配置完成后调用
+     */
+    protected boolean isIdentity() {
+        return false;
+    }
+
+    /**
+     * 输出相对输入的固定延迟帧数（例如前瞻限幅器的延迟线），配置完成后有效
+     * 动态处理链在旁路该处理器时插入等长延迟，使启用 / 旁路切换前后的时间轴保持连续；
+     * 流结束时基类据此输出延迟线尾部
+     */
+    protected int getOutputDelayFrames() {
+        return 0;
+    }
+
+    /**
+     * 处理器是否保证输出不超过满幅（例如真峰值限幅器），处理链据此通知其前级无需自行削波
+     */
+    protected boolean isPeakLimiter() {
+        return false;
+    }
+
+    /**
+     * 处理链同步后级是否有生效的峰值限幅器（{@link #isPeakLimiter()}），默认忽略
+     * 会在浮点块中产生过载的处理器（如均衡器）据此决定是否自行削波
+     */
+    protected void setOutputLimited(boolean outputLimited) {
+    }
+
+    private float[] obtainFloatBlock(int sampleCount) {
+        if (floatBlock == null || floatBlock.length < sampleCount) {
+            floatBlock = new float[sampleCount];
+        }
+        return floatBlock;
+    }
+
+    /**
+     * 按当前编码将输入解码为浮点样本（不修改 input 的 position）
+     * 按绝对下标直接从 input 读取（按 input 的字节序），不创建 ShortBuffer / FloatBuffer 视图，音频线程上不产生分配
+     */
+    private void readFloats(ByteBuffer input, float[] block, int sampleCount) {
+        int position = input.position();
+        switch (encoding) {
+            case C.ENCODING_PCM_16BIT:
+                for (int i = 0; i < sampleCount; i++, position += 2) {
+                    block[i] = input.getShort(position) / 32768.0f;
+                }
+                break;
+            case C.ENCODING_PCM_24BIT:
+                for (int i = 0; i < sampleCount; i++, position += 3) {
+                    // 24-bit 小端：低字节在前，最高字节保留符号位
+                    int value = (input.get(position) & 0xFF)
+                            | ((input.get(position + 1) & 0xFF) << 8)
+                            | (input.get(position + 2) << 16);
+                    block[i] = value / 8388608.0f;
+                }
+                break;
+            case C.ENCODING_PCM_32BIT:
+                for (int i = 0; i < sampleCount; i++, position += 4) {
+                    block[i] = (float) (input.getInt(position) / 2147483648.0);
+                }
+                break;
+            case C.ENCODING_PCM_FLOAT:
+                for (int i = 0; i < sampleCount; i++, position += 4) {
+                    block[i] = input.getFloat(position);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 按当前编码将浮点样本写回输出；整型编码先钳位到[-1,1]，float 编码保留余量不钳位
+     */
+    private void writeFloats(float[] block, int sampleCount, ByteBuffer output) {
+        switch (encoding) {
+            case C.ENCODING_PCM_16BIT:
+                for (int i = 0; i < sampleCount; i++) {
+                    output.putShort((short) (clamp(block[i]) * 32767));
+                }
+                break;
+            case C.ENCODING_PCM_24BIT:
+                for (int i = 0; i < sampleCount; i++) {
+                    int value = (int) (clamp(block[i]) * 8388607);
+                    output.put((byte) value);
+                    output.put((byte) (value >> 8));
+                    output.put((byte) (value >> 16));
+                }
+                break;
+            case C.ENCODING_PCM_32BIT:
+                for (int i = 0; i < sampleCount; i++) {
+                    output.putInt((int) (clamp(block[i]) * 2147483647.0));
+                }
+                break;
+            case C.ENCODING_PCM_FLOAT:
+                for (int i = 0; i < sampleCount; i++) {
+                    output.putFloat(block[i]);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static float clamp(float sample) {
+        return Math.max(-1f, Math.min(1f, sample));
+    }
+
+    /**
+     * 子类重写时需调用 super，丢弃未输出的延迟线尾部
+     */
+    @Override
+    protected void onFlush() {
+        tailDrainPending = false;
+    }
 
     /**
      * 只有在播放器彻底销毁（release）时才重置所有参数
@@ -64,6 +325,7 @@ public abstract class ExoBaseAudioProcessor extends BaseAudioProcessor {
         sampleRateHz = C.RATE_UNSET_INT;
         channelCount = C.LENGTH_UNSET;
         encoding = C.ENCODING_INVALID;
+        bytesPerSample = C.LENGTH_UNSET;
     }
 
 
@@ -72,6 +334,7 @@ public abstract class ExoBaseAudioProcessor extends BaseAudioProcessor {
      */
     public void release() {
         onReset();
+        floatBlock = null;
         releaseResources();
     }
 
@@ -83,4 +346,4 @@ public abstract class ExoBaseAudioProcessor extends BaseAudioProcessor {
      */
     protected abstract void releaseResources();
 
-}
\ No newline at end of file
+}
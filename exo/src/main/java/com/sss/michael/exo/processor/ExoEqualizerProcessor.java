@@ -1,31 +1,40 @@
 package com.sss.michael.exo.processor;
 
+import androidx.media3.common.C;
 import androidx.media3.common.util.UnstableApi;
 
 import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.bean.ExoEqBand;
 import com.sss.michael.exo.util.ExoLog;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Michael by 61642
  * @date 2026/1/4 14:41
  * @Description 均衡处理器
+ * 参数均衡：频段由 {@link ExoEqBand} 描述（类型、频率、Q、增益），数量可动态增删，默认布局为
+ * {@link ExoConfig#EQ_CENTER_FREQUENCIES} 的 10 段峰值均衡。0dB 频段的目标系数为直通，收敛后在滤波器组中直接跳过，
+ * 31 段图示均衡在多数频段平坦时的开销与 10 段相当
  */
 @UnstableApi
 public class ExoEqualizerProcessor extends ExoBaseAudioProcessor {
 
 
-    // 滤波器二维数组：[声道数][频段数]，每个声道对应一组10频段Biquad滤波器
-    private BiquadFilter[][] filters;
-    // 目标增益数组（单位：dB），用户直接设置，无额外增益平滑层，瞬时更新
-    private float[] targetGains;
+    // 级联滤波器组：系数与延迟状态按[声道][频段]紧凑存放在基本类型数组中
+    private BiquadFilterBank filterBank;
+    // 频段描述（写时复制，仅在持锁时替换），用户直接设置，无额外增益平滑层，瞬时更新
+    private ExoEqBand[] bands;
 
+    // 用户启用开关（持锁修改）：禁用时保留频段配置，全部频段以直通为目标
+    private boolean isEqEnabled = true;
     // 标记位：是否有待更新的滤波器目标系数（增益变化后标记为true）
     private volatile boolean isPendingUpdate = true;
-    // EQ激活状态标记（存在非零增益时为true，用于快速路径判断是否透传数据）
+    // EQ激活状态标记（存在生效频段时为true，用于快速路径判断是否透传数据）
     private boolean isEqActive = false;
     // 可重入锁：保证增益设置、滤波器更新等操作的线程安全
     private final ReentrantLock eqLock = new ReentrantLock();
@@ -34,34 +43,158 @@ public class ExoEqualizerProcessor extends ExoBaseAudioProcessor {
     private float targetGlobalGain = 1.0f;
     // 全局当前增益（线性倍数）：用于平滑过渡全局增益，避免“咔哒”声
     private float currentGlobalGain = 1.0f;
+    // 本次 process 调用使用的滤波器组快照（加锁读取后交给浮点块处理），仅在音频线程访问
+    private BiquadFilterBank processingFilterBank;
+    // 全局增益对齐阈值（线性倍数）
+    private static final float GLOBAL_GAIN_SNAP_EPS = 1e-5f;
+    // 后级是否有生效的真峰值限幅器：有则交给限幅器处理过载，否则本处理器按配置削波
+    private volatile boolean outputLimited = false;
 
 
     public ExoEqualizerProcessor() {
-        int bandCount = ExoConfig.EQ_CENTER_FREQUENCIES.length;
-        // 初始化目标增益数组，默认所有频段增益为0dB（无EQ效果）
-        this.targetGains = new float[bandCount];
-        Arrays.fill(targetGains, 0);
+        // 默认 10 段峰值均衡，所有频段增益为0dB（无EQ效果）
+        this.bands = createDefaultBands();
+    }
+
+    private static ExoEqBand[] createDefaultBands() {
+        return ExoEqBand.graphic(ExoConfig.EQ_CENTER_FREQUENCIES, ExoConfig.EQ_QUALITY_FACTOR).toArray(new ExoEqBand[0]);
+    }
+
+    /**
+     * 替换全部频段（线程安全），频段数可与当前不同，已有频段的滤波器状态保留并平滑过渡到新参数
+     *
+     * @param newBands 频段描述，为 null 或空时 EQ 不生效；超过 {@link ExoConfig#EQ_MAX_BAND_COUNT} 时本次设置跳过
+     */
+    public void setBands(List<ExoEqBand> newBands) {
+        int count = newBands == null ? 0 : newBands.size();
+        if (count > ExoConfig.EQ_MAX_BAND_COUNT) {
+            ExoLog.log("ExoEqualizerProcessor 频段数 " + count + " 超过上限 " + ExoConfig.EQ_MAX_BAND_COUNT + "，本次设置跳过");
+            return;
+        }
+        ExoEqBand[] copy = count == 0 ? new ExoEqBand[0] : newBands.toArray(new ExoEqBand[0]);
+        for (ExoEqBand band : copy) {
+            if (band == null) {
+                ExoLog.log("ExoEqualizerProcessor 频段描述不能为 null，本次设置跳过");
+                return;
+            }
+        }
+        eqLock.lock();
+        try {
+            applyBands(copy);
+        } finally {
+            eqLock.unlock();
+        }
+    }
+
+    /**
+     * 替换单个频段（线程安全）
+     *
+     * @param bandIndex 频段索引
+     * @param band      新的频段描述
+     */
+    public void setBand(int bandIndex, ExoEqBand band) {
+        if (band == null) {
+            return;
+        }
+        eqLock.lock();
+        try {
+            if (!checkBandIndex(bandIndex)) {
+                return;
+            }
+            ExoEqBand[] copy = bands.clone();
+            copy[bandIndex] = band;
+            applyBands(copy);
+        } finally {
+            eqLock.unlock();
+        }
+    }
+
+    /**
+     * 在末尾追加频段（线程安全）
+     *
+     * @param band 频段描述
+     * @return 新频段的索引，超过 {@link ExoConfig#EQ_MAX_BAND_COUNT} 时返回 -1
+     */
+    public int addBand(ExoEqBand band) {
+        if (band == null) {
+            return -1;
+        }
+        eqLock.lock();
+        try {
+            if (bands.length >= ExoConfig.EQ_MAX_BAND_COUNT) {
+                ExoLog.log("ExoEqualizerProcessor 频段数已达上限 " + ExoConfig.EQ_MAX_BAND_COUNT + "，追加跳过");
+                return -1;
+            }
+            ExoEqBand[] copy = Arrays.copyOf(bands, bands.length + 1);
+            copy[bands.length] = band;
+            applyBands(copy);
+            return bands.length - 1;
+        } finally {
+            eqLock.unlock();
+        }
+    }
+
+    /**
+     * 移除频段（线程安全），其后的频段索引前移
+     *
+     * @param bandIndex 频段索引
+     */
+    public void removeBand(int bandIndex) {
+        eqLock.lock();
+        try {
+            if (!checkBandIndex(bandIndex)) {
+                return;
+            }
+            ExoEqBand[] copy = new ExoEqBand[bands.length - 1];
+            System.arraycopy(bands, 0, copy, 0, bandIndex);
+            System.arraycopy(bands, bandIndex + 1, copy, bandIndex, copy.length - bandIndex);
+            applyBands(copy);
+        } finally {
+            eqLock.unlock();
+        }
+    }
+
+    /**
+     * 当前频段描述（线程安全，返回不可修改的快照）
+     */
+    public List<ExoEqBand> getBands() {
+        eqLock.lock();
+        try {
+            return Collections.unmodifiableList(Arrays.asList(bands.clone()));
+        } finally {
+            eqLock.unlock();
+        }
+    }
+
+    /**
+     * 当前频段数（线程安全）
+     */
+    public int getBandCount() {
+        eqLock.lock();
+        try {
+            return bands.length;
+        } finally {
+            eqLock.unlock();
+        }
     }
 
     /**
      * 设置单个频段的目标增益（线程安全）
      * 直接更新目标增益，瞬时生效，无增益平滑层，增益变化后标记滤波器需更新
      *
-     * @param bandIndex 频段索引 (0-9，对应10个中心频率)
+     * @param bandIndex 频段索引
      * @param dbGain    目标增益（单位：dB），自动钳位在[-15,15]范围内
      */
     public void setBandGain(int bandIndex, float dbGain) {
         eqLock.lock();
         try {
-            if (bandIndex < 0 || bandIndex >= targetGains.length) {
-                ExoLog.log("ExoEqualizerProcessor 无效的频段索引：" + bandIndex + "，合法范围[0, " + (targetGains.length - 1) + "]，本次设置跳过");
+            if (!checkBandIndex(bandIndex)) {
                 return;
             }
-            // 增益范围钳位：限制在[-15,15]dB，避免无效增益导致失真
-            float clampedGain = Math.max(ExoConfig.EQ_MIN_DB, Math.min(ExoConfig.EQ_MAX_DB, dbGain));
-            this.targetGains[bandIndex] = clampedGain;
-            this.isPendingUpdate = true;
-            checkIfActive();
+            ExoEqBand[] copy = bands.clone();
+            // 增益范围钳位由 ExoEqBand 完成：限制在[-15,15]dB，避免无效增益导致失真
+            copy[bandIndex] = copy[bandIndex].withGain(dbGain);
+            applyBands(copy);
         } finally {
             eqLock.unlock();
         }
@@ -69,93 +202,153 @@ public class ExoEqualizerProcessor extends ExoBaseAudioProcessor {
 
     /**
      * 批量设置所有频段的目标增益（线程安全）
-     * 核心特性：计算全局预衰减（Pre-cut），防止多频段增益叠加导致音频过载破音
+     * 长度与当前频段数一致时逐段替换增益；长度为 {@link ExoConfig#EQ_CENTER_FREQUENCIES} 个数（预设）而当前为自定义布局时，
+     * 恢复默认 10 段布局后再应用增益；其余长度本次设置跳过
      *
-     * @param gains 增益数组（长度必须为10，对应10个EQ频段）
+     * @param gains 增益数组
      */
     public void setBandGains(float[] gains) {
+        if (gains == null) {
+            return;
+        }
         eqLock.lock();
         try {
-            if (gains == null || gains.length != targetGains.length) return;
-
-            // 计算最大正增益，用于推导全局预衰减值
-            float maxPositiveGain = 0;
-            for (float g : gains) {
-                if (g > maxPositiveGain) maxPositiveGain = g;
+            ExoEqBand[] copy;
+            if (gains.length == bands.length) {
+                copy = bands.clone();
+            } else if (gains.length == ExoConfig.EQ_CENTER_FREQUENCIES.length) {
+                copy = createDefaultBands();
+                ExoLog.log("ExoEqualizerProcessor 应用 " + gains.length + " 段预设，恢复默认频段布局");
+            } else {
+                ExoLog.log("ExoEqualizerProcessor 增益数组长度 " + gains.length + " 与频段数 " + bands.length + " 不一致，本次设置跳过");
+                return;
             }
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = copy[i].withGain(gains[i]);
+            }
+            applyBands(copy);
+        } finally {
+            eqLock.unlock();
+        }
+    }
 
-            // 计算全局预衰减（Pre-cut）dB值
-            // 核心公式：preCutDb = -maxPositiveGain * 0.8f
-            // 作用：对所有频段进行整体衰减，避免增益提升后的音频峰值超出0dB，杜绝破音
-            float preCutDb = maxPositiveGain > 0 ? -maxPositiveGain * 0.8f : 0f;
+    private boolean checkBandIndex(int bandIndex) {
+        if (bandIndex < 0 || bandIndex >= bands.length) {
+            ExoLog.log("ExoEqualizerProcessor 无效的频段索引：" + bandIndex + "，合法范围[0, " + (bands.length - 1) + "]，本次设置跳过");
+            return false;
+        }
+        return true;
+    }
 
-            // 将预衰减dB值转换为线性倍数（音频处理通用转换公式）
-            this.targetGlobalGain = (float) Math.pow(ExoConfig.EQ_BAND_COUNT, preCutDb / 20.0f);
+    /**
+     * 替换频段并重新计算全局预衰减（需持锁调用）
+     * 核心特性：计算全局预衰减（Pre-cut），防止多频段增益叠加导致音频过载破音
+     */
+    private void applyBands(ExoEqBand[] newBands) {
+        this.bands = newBands;
+        updateGlobalGain();
+        this.isPendingUpdate = true;
+        checkIfActive();
+    }
 
-            // 批量更新目标增益，同时钳位增益范围
-            for (int i = 0; i < targetGains.length; i++) {
-                targetGains[i] = Math.max(ExoConfig.EQ_MIN_DB, Math.min(ExoConfig.EQ_MAX_DB, gains[i]));
+    /**
+     * 按当前频段重新计算全局预衰减（需持锁调用），禁用时回到 1
+     */
+    private void updateGlobalGain() {
+        // 计算生效频段的最大正增益，用于推导全局预衰减值
+        float maxPositiveGain = 0;
+        if (isEqEnabled) {
+            for (ExoEqBand band : bands) {
+                if (band.isEffective() && band.getGainDb() > maxPositiveGain) {
+                    maxPositiveGain = band.getGainDb();
+                }
             }
-
-            this.isPendingUpdate = true;
-            checkIfActive();
-        } finally {
-            eqLock.unlock();
         }
+
+        // 计算全局预衰减（Pre-cut）dB值
+        // 核心公式：preCutDb = -maxPositiveGain * 0.8f
+        // 作用：对所有频段进行整体衰减，避免增益提升后的音频峰值超出0dB，杜绝破音
+        float preCutDb = maxPositiveGain > 0 ? -maxPositiveGain * 0.8f : 0f;
+
+        // 将预衰减dB值转换为线性倍数（音频处理通用转换公式）
+        this.targetGlobalGain = (float) Math.pow(10, preCutDb / 20.0f);
     }
 
     /**
      * 检查EQ是否激活
-     * 判定规则：遍历目标增益数组，若存在绝对值大于增益跳过阈值的增益，标记为激活
+     * 判定规则：已启用且存在生效频段（增益绝对值大于增益跳过阈值，或通带 / 陷波类型）时标记为激活
      */
     private void checkIfActive() {
         isEqActive = false;
-        if (targetGains == null) {
+        if (!isEqEnabled) {
             return;
         }
-        for (float gain : targetGains) {
-            if (Math.abs(gain) > ExoConfig.EQ_GAIN_SKIP_THRESHOLD) {
+        for (ExoEqBand band : bands) {
+            if (band.isEffective()) {
                 isEqActive = true;
-                break; // 存在有效增益，直接标记为激活并退出循环
+                break; // 存在生效频段，直接标记为激活并退出循环
             }
         }
     }
 
     /**
      * 禁用EQ
-     * 清零所有目标增益，依赖Biquad滤波器内部系数平滑过渡到无EQ状态
-     * 与onReset()的区别：disableEQ=用户主动关闭（修改业务配置）；onReset=管线重建（保留业务配置）
+     * 保留频段配置，全部频段以直通为目标、全局增益回到 1，依赖Biquad滤波器内部系数平滑过渡到无EQ状态；
+     * 禁用期间仍可修改频段，启用后生效
+     * 与onReset()的区别：disableEQ=用户主动关闭；onReset=管线重建（两者都保留业务配置）
      */
     public void disableEQ() {
+        setEqEnabled(false);
+        ExoLog.log("ExoEqualizerProcessor EQ已禁用，频段以直通为目标，系数平滑过渡");
+    }
+
+    /**
+     * 启用EQ（用户主动操作）
+     * 恢复禁用前的频段布局与增益，无需重新配置，依赖滤波器系数平滑过渡生效
+     */
+    public void enableEQ() {
+        setEqEnabled(true);
+        ExoLog.log("ExoEqualizerProcessor EQ已启用，恢复上次频段配置");
+    }
+
+    /**
+     * EQ是否已启用（线程安全）
+     */
+    public boolean isEqEnabled() {
         eqLock.lock();
         try {
-            Arrays.fill(targetGains, 0);
-            this.isPendingUpdate = true;
-            this.isEqActive = false;
-            ExoLog.log("ExoEqualizerProcessor EQ已禁用，目标增益重置为0，系数平滑过渡");
+            return isEqEnabled;
         } finally {
             eqLock.unlock();
         }
     }
 
-    /**
-     * 启用EQ（用户主动操作）
-     * 恢复上次设置的目标增益，无需重新配置，依赖滤波器系数平滑过渡生效
-     */
-    public void enableEQ() {
+    private void setEqEnabled(boolean enabled) {
         eqLock.lock();
         try {
+            this.isEqEnabled = enabled;
+            updateGlobalGain();
             this.isPendingUpdate = true;
             checkIfActive();
-            ExoLog.log("ExoEqualizerProcessor EQ已启用，恢复上次目标增益");
         } finally {
             eqLock.unlock();
         }
     }
 
+    /**
+     * 设置后级是否有生效的真峰值限幅器（由处理链同步）
+     *
+     * @param outputLimited true 时不再削波，超出 [-1,1] 的样本交给限幅器；false 时按
+     *                      {@link ExoConfig#EQ_CLIPPING_THRESHOLD} / {@link ExoConfig#EQ_USE_SOFT_CLIPPING} 削波
+     */
+    @Override
+    public void setOutputLimited(boolean outputLimited) {
+        this.outputLimited = outputLimited;
+    }
+
     /**
      * 音频数据滤波 + 透传 + 削波保护
-     * 执行流程：1. 加锁更新滤波器 2. 快速路径透传 3. 无锁音频滤波 4. 削波处理
+     * 执行流程：1. 加锁更新滤波器 2. 快速路径透传（不解码） 3. 无锁音频滤波 4. 后级无限幅器时削波
      *
      * @param input        输入音频缓冲区
      * @param output       输出音频缓冲区
@@ -164,122 +357,70 @@ public class ExoEqualizerProcessor extends ExoBaseAudioProcessor {
      */
     @Override
     protected void process(ByteBuffer input, ByteBuffer output, int sampleRateHz, int channelCount) {
-        BiquadFilter[][] currentFilters = null;
-        boolean currentActive = false;
-
-        eqLock.lock();
-        try {
-            // 滤波器未初始化/声道数变化/增益更新时，更新滤波器目标系数
-            if (isPendingUpdate || filters == null || filters.length != channelCount) {
-                updateFilterTargetCoefficients(sampleRateHz, channelCount);
-                isPendingUpdate = false;
-            }
-
-            currentFilters = filters;
-            currentActive = isEqActive;
-        } finally {
-            eqLock.unlock();
-        }
+        BiquadFilterBank currentFilterBank = acquireFilterBank(sampleRateHz, channelCount);
 
-        // 快速路径（FastPath）：EQ未激活或滤波器为空，直接透传数据，不做任何处理
-        if (!currentActive || currentFilters == null) {
+        // 快速路径（FastPath）：EQ未激活、滤波器为空或当前为平直响应，直接透传数据，不做任何处理
+        if (currentFilterBank == null || isFlat(currentFilterBank)) {
             output.put(input);
             return;
         }
 
-        // 无锁核心处理：音频样本滤波 + 全局增益平滑 + 削波保护
+        // 无锁核心处理：基类解码为浮点块后回调 process(float[]...)，再按原编码写回
+        int inputPosition = input.position();
         try {
-            // 按声道遍历音频样本，每次处理一个声道组（所有声道的一个样本）
-            while (input.hasRemaining()) {
-                // 剩余数据不足一个声道组时，停止处理
-                if (input.remaining() < channelCount * 2) {
-                    break;
-                }
-
-                // 遍历每个声道，单独进行滤波处理
-                for (int c = 0; c < channelCount; c++) {
-                    // 读取16位音频样本（short类型，占2字节）
-                    short rawSample = input.getShort();
-                    // 全局增益平滑过渡，避免瞬时变化产生“咔哒”声
-                    currentGlobalGain += (targetGlobalGain - currentGlobalGain) * ExoConfig.EQ_GLOBAL_GAIN_SMOOTH;
-                    // 样本归一化（转换为[-1,1]浮点型） + 应用全局增益
-                    float sample = (rawSample / 32768.0f) * currentGlobalGain;
-                    // FastPath滤波处理（基于滤波器系数状态判断是否旁路）
-                    sample = processWithFastPath(sample, currentFilters[c]);
-
-                    // 削波处理，防止样本超出范围导致破音
-                    sample = applyClipping(sample);
-
-                    // 将处理后的样本转换为short类型，写入输出缓冲区
-                    output.putShort((short) (sample * 32767));
-                }
-            }
+            processingFilterBank = currentFilterBank;
+            super.process(input, output, sampleRateHz, channelCount);
         } catch (Exception e) {
             // 异常时透传数据，避免音频播放中断
             ExoLog.log("ExoEqualizerProcessor 处理异常，已透传数据", e);
+            output.clear();
+            input.position(inputPosition);
             output.put(input);
+        } finally {
+            processingFilterBank = null;
         }
     }
 
     /**
-     * FastPath：基于Biquad滤波器内部系数状态判断是否旁路
-     * 优势：避免系数收敛途中切断IIR滤波器，防止相位尾音不连续，达到DAW级音频质量
-     * 与“基于外部增益判断旁路”的区别：系数状态判断更精准，无过渡失真
-     *
-     * @param sample  输入浮点型音频样本（[-1,1]）
-     * @param filters 单个声道对应的10频段Biquad滤波器数组
-     * @return 处理后的浮点型音频样本
-     */
-    private float processWithFastPath(float sample, BiquadFilter[] filters) {
-        // 遍历该声道的所有频段滤波器
-        for (BiquadFilter filter : filters) {
-            // 仅当滤波器未旁路时（系数状态非零增益），才进行滤波处理
-            if (!filter.isBypassed()) {
-                sample = filter.process(sample);
-            }
-        }
-        return sample;
-    }
-
-    /**
-     * 更新滤波器目标系数（仅更新目标值，不修改当前工作系数，无突变）
-     * 执行流程：1. 计算奈奎斯特频率 2. 懒加载初始化滤波器 3. 批量更新每个滤波器的峰值EQ参数
+     * 浮点块滤波：全局增益平滑 + Block级级联滤波 + 削波保护
+     * 后级有生效的 {@link ExoLoudnessNormalizerProcessor} 时不削波，过载交给其真峰值限幅
      *
-     * @param sampleRate   音频采样率
+     * @param samples      交织浮点样本，原地写回
+     * @param frameCount   帧数
+     * @param sampleRateHz 音频采样率
      * @param channelCount 音频声道数
      */
-    private void updateFilterTargetCoefficients(int sampleRate, int channelCount) {
-        // 奈奎斯特频率：采样率的一半，超过该频率的信号无法被正确采样，需跳过配置
-        float nyquist = sampleRate / 2.0f;
-        ExoLog.log("ExoEqualizerProcessor 更新EQ滤波器目标系数：采样率=" + sampleRate + "，声道数=" + channelCount + "，奈奎斯特频率=" + nyquist + "Hz");
-
-        if (filters == null || filters.length != channelCount) {
-            filters = new BiquadFilter[channelCount][ExoConfig.EQ_CENTER_FREQUENCIES.length];
-            for (int c = 0; c < channelCount; c++) {
-                for (int i = 0; i < ExoConfig.EQ_CENTER_FREQUENCIES.length; i++) {
-                    filters[c][i] = new BiquadFilter();
-                    // 初始化滤波器为0dB增益（无EQ效果），首次调用直接对齐工作系数
-                    filters[c][i].setPeakingEQ(ExoConfig.EQ_CENTER_FREQUENCIES[i], sampleRate, ExoConfig.EQ_QUALITY_FACTOR, 0);
-                }
+    @Override
+    protected void process(float[] samples, int frameCount, int sampleRateHz, int channelCount) {
+        BiquadFilterBank currentFilterBank = processingFilterBank;
+        if (currentFilterBank == null) {
+            // 由动态处理链直接驱动浮点路径时，在此更新并获取滤波器
+            currentFilterBank = acquireFilterBank(sampleRateHz, channelCount);
+            if (currentFilterBank == null) {
+                return;
             }
         }
-
-        // 批量更新滤波器目标系数（峰值EQ）
-        for (int c = 0; c < channelCount; c++) {
-            for (int i = 0; i < ExoConfig.EQ_CENTER_FREQUENCIES.length; i++) {
-                float freq = ExoConfig.EQ_CENTER_FREQUENCIES[i];
-                // 跳过超出奈奎斯特频率的频段（无法被正确采样，配置无效）
-                if (freq > nyquist) {
-                    ExoLog.log("ExoEqualizerProcessor 频段 " + freq + "Hz 超出奈奎斯特频率，跳过配置");
-                    continue;
-                }
-                // 设置峰值EQ参数：中心频率、采样率、Q值（1.414=√2，默认值）、目标增益
-                // 仅更新目标系数，当前工作系数由Biquad内部平滑过渡
-                filters[c][i].setPeakingEQ(freq, sampleRate, ExoConfig.EQ_QUALITY_FACTOR, targetGains[i]);
-            }
+        int sampleCount = frameCount * channelCount;
+        for (int i = 0; i < sampleCount; i++) {
+            // 全局增益平滑过渡，避免瞬时变化产生“咔哒”声
+            currentGlobalGain += (targetGlobalGain - currentGlobalGain) * ExoConfig.EQ_GLOBAL_GAIN_SMOOTH;
+            samples[i] *= currentGlobalGain;
+        }
+        if (Math.abs(targetGlobalGain - currentGlobalGain) < GLOBAL_GAIN_SNAP_EPS) {
+            // 浮点指数平滑无法精确到达目标，进入阈值后直接对齐，便于判定处理器空闲
+            currentGlobalGain = targetGlobalGain;
         }
 
-        ExoLog.log("ExoEqualizerProcessor EQ滤波器目标系数更新完成");
+        // 全部声道执行Block级级联滤波（基于滤波器系数状态判断是否旁路）
+        currentFilterBank.process(samples, frameCount);
+
+        if (outputLimited) {
+            return;
+        }
+        for (int i = 0; i < sampleCount; i++) {
+            // 削波处理，防止样本超出范围导致破音
+            samples[i] = applyClipping(samples[i]);
+        }
     }
 
     /**
@@ -305,29 +446,101 @@ public class ExoEqualizerProcessor extends ExoBaseAudioProcessor {
         }
     }
 
+    /**
+     * 平直响应（全部频段 0dB 或已收敛到直通、全局增益为 1）时不改变音频，动态处理链据此跳过该阶段
+     */
+    @Override
+    protected boolean isIdentity() {
+        if (sampleRateHz == C.RATE_UNSET_INT || channelCount == C.LENGTH_UNSET) {
+            return false;
+        }
+        BiquadFilterBank currentFilterBank = acquireFilterBank(sampleRateHz, channelCount);
+        return currentFilterBank == null || isFlat(currentFilterBank);
+    }
+
+    /**
+     * 滤波器组全部频段已收敛到直通且全局增益已到达 1，此时 process 输出与输入逐样本相同
+     */
+    private boolean isFlat(BiquadFilterBank currentFilterBank) {
+        return currentGlobalGain == 1f && targetGlobalGain == 1f && currentFilterBank.isIdle();
+    }
+
+    /**
+     * 加锁同步滤波器参数（未初始化 / 声道数变化 / 增益更新时重新计算目标系数）
+     *
+     * @return 当前滤波器组；EQ未激活且滤波器与全局增益均已平滑回到直通时返回 null
+     */
+    private BiquadFilterBank acquireFilterBank(int sampleRateHz, int channelCount) {
+        eqLock.lock();
+        try {
+            if (isPendingUpdate || filterBank == null || filterBank.getChannelCount() != channelCount) {
+                updateFilterTargetCoefficients(sampleRateHz, channelCount);
+                isPendingUpdate = false;
+            }
+            // 关闭EQ后继续处理到系数与全局增益收敛，避免直接切断IIR产生爆音
+            boolean settling = !filterBank.isIdle() || currentGlobalGain != targetGlobalGain;
+            return isEqActive || settling ? filterBank : null;
+        } finally {
+            eqLock.unlock();
+        }
+    }
+
+    /**
+     * 更新滤波器目标系数（仅更新目标值，不修改当前工作系数，无突变）
+     * 执行流程：1. 计算奈奎斯特频率 2. 懒加载初始化滤波器 / 按频段数调整 3. 批量更新每个频段的滤波器参数
+     *
+     * @param sampleRate   音频采样率
+     * @param channelCount 音频声道数
+     */
+    private void updateFilterTargetCoefficients(int sampleRate, int channelCount) {
+        // 奈奎斯特频率：采样率的一半，达到或超过该频率的信号无法被正确采样，需跳过配置
+        float nyquist = sampleRate / 2.0f;
+        ExoLog.log("ExoEqualizerProcessor 更新EQ滤波器目标系数：采样率=" + sampleRate + "，声道数=" + channelCount + "，频段数=" + bands.length + "，奈奎斯特频率=" + nyquist + "Hz");
+
+        if (filterBank == null || filterBank.getChannelCount() != channelCount) {
+            // 新建的滤波器组首次配置直接对齐工作系数
+            filterBank = new BiquadFilterBank(channelCount, bands.length);
+        } else if (filterBank.getBandCount() != bands.length) {
+            // 频段数变化：保留已有频段的状态，新增频段从直通平滑过渡
+            filterBank.resize(bands.length);
+        }
+
+        // 批量更新滤波器目标系数，系数按频段存放，所有声道共享
+        for (int i = 0; i < bands.length; i++) {
+            ExoEqBand band = bands[i];
+            // 禁用时与 0dB 频段以直通为目标，收敛后滤波器组直接跳过，不参与逐样本计算
+            if (!isEqEnabled || !band.isEffective()) {
+                filterBank.setIdentity(i);
+                continue;
+            }
+            // 跳过超出奈奎斯特频率的频段（无法被正确采样，配置无效）
+            if (band.getFrequencyHz() >= nyquist) {
+                ExoLog.log("ExoEqualizerProcessor 频段 " + band.getFrequencyHz() + "Hz 超出奈奎斯特频率，按直通处理");
+                filterBank.setIdentity(i);
+                continue;
+            }
+            // 仅更新目标系数，当前工作系数由滤波器组内部平滑过渡
+            filterBank.setFilter(i, band.getType(), band.getFrequencyHz(), sampleRate, band.getQ(), band.getGainDb());
+        }
+
+        ExoLog.log("ExoEqualizerProcessor EQ滤波器目标系数更新完成");
+    }
+
     /**
      * 重置处理器（管线重建时调用）
-     * 仅重置状态变量（更新标记、激活状态），保留目标增益配置
-     * 与disableEQ()的核心区别：不修改业务配置（targetGains），仅恢复初始状态
+     * 仅重置状态变量（更新标记、激活状态），保留频段配置
+     * 与disableEQ()的核心区别：不修改业务配置（bands），仅恢复初始状态
      */
     @Override
     protected void onReset() {
         eqLock.lock();
         try {
             super.onReset();
-            // 仅重置状态变量，保留targetGains数组（管线重建后可恢复原有EQ配置）
+            // 仅重置状态变量，保留bands（管线重建后可恢复原有EQ配置）
             this.isPendingUpdate = true;
             this.isEqActive = false;
-            if (filters != null) {
-                for (BiquadFilter[] channelFilters : filters) {
-                    if (channelFilters != null) {
-                        for (BiquadFilter filter : channelFilters) {
-                            if (filter != null) {
-                                filter.reset();
-                            }
-                        }
-                    }
-                }
+            if (filterBank != null) {
+                filterBank.reset();
             }
             ExoLog.log("ExoEqualizerProcessor 管线重建，调用滤波器全量reset");
         } finally {
@@ -349,23 +562,16 @@ public class ExoEqualizerProcessor extends ExoBaseAudioProcessor {
 
     @Override
     protected void onFlush() {
+        super.onFlush();
         eqLock.lock();
         try {
             // 强制清空当前滤波器引用，触发下一次 process 重新初始化
-            this.filters = null;
+            this.filterBank = null;
             this.isPendingUpdate = true;
             checkIfActive();
             // 若滤波器已初始化，先重置所有滤波器的内部延迟状态，消除残音
-            if (filters != null) {
-                for (BiquadFilter[] channelFilters : filters) {
-                    if (channelFilters != null) {
-                        for (BiquadFilter filter : channelFilters) {
-                            if (filter != null) {
-                                filter.resetInternalStates();
-                            }
-                        }
-                    }
-                }
+            if (filterBank != null) {
+                filterBank.resetInternalStates();
             }
 
             ExoLog.log("ExoEqualizerProcessor 执行 Flush，强制重置滤波器引用以对齐管线");
@@ -376,35 +582,22 @@ public class ExoEqualizerProcessor extends ExoBaseAudioProcessor {
 
     /**
      * 释放处理器资源（销毁时调用）
-     * 执行流程：销毁滤波器数组、清零目标增益，避免内存泄漏
+     * 执行流程：销毁滤波器组、恢复默认频段，避免内存泄漏
      */
     @Override
     protected void releaseResources() {
         eqLock.lock();
         try {
-            if (filters != null) {
-                // 销毁每个声道的滤波器数组
-                for (BiquadFilter[] channelFilters : filters) {
-                    if (channelFilters != null) {
-                        for (int i = 0; i < channelFilters.length; i++) {
-                            BiquadFilter filter = channelFilters[i];
-                            if (filter != null) {
-                                // 重置滤波器内部状态
-                                filter.reset();
-                                channelFilters[i] = null;
-                            }
-                        }
-                        // 清空一维数组引用
-                        Arrays.fill(channelFilters, null);
-                    }
-                }
-                filters = null;
-            }
-            // 清零目标增益
-            if (targetGains != null) {
-                Arrays.fill(targetGains, 0);
-                targetGains = null;
+            if (filterBank != null) {
+                // 重置滤波器组内部状态
+                filterBank.reset();
+                filterBank = null;
             }
+            // 恢复默认频段布局（增益全部为0）
+            bands = createDefaultBands();
+            isEqActive = false;
+            targetGlobalGain = 1.0f;
+            currentGlobalGain = 1.0f;
         } finally {
             eqLock.unlock();
         }
@@ -413,17 +606,17 @@ public class ExoEqualizerProcessor extends ExoBaseAudioProcessor {
     /**
      * 获取指定频段的目标增益（供外部查询，线程安全）
      *
-     * @param bandIndex 频段索引（0-9）
+     * @param bandIndex 频段索引
      * @return 该频段的目标增益（单位：dB），索引无效时返回0
      */
     public float getTargetGain(int bandIndex) {
-        // 频段索引合法性校验
-        if (bandIndex < 0 || bandIndex >= targetGains.length) {
-            return 0;
-        }
         eqLock.lock();
         try {
-            return targetGains[bandIndex];
+            // 频段索引合法性校验
+            if (bandIndex < 0 || bandIndex >= bands.length) {
+                return 0;
+            }
+            return bands[bandIndex].getGainDb();
         } finally {
             eqLock.unlock();
         }
@@ -0,0 +1,124 @@
+package com.sss.michael.exo.processor;
+
+import java.util.Arrays;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 19:00
+ * @Description ITU-R BS.1770 K 加权滤波器
+ * 两级 IIR：高架预滤波（约 +4dB，转折约 1.68kHz）+ RLB 高通（约 38Hz），逐声道保存转置直接 II 型状态。
+ * 系数按 BS.1770 给出的模拟原型参数在当前采样率下做双线性变换，48kHz 时与标准表列系数一致。
+ * 响度计量与响度归一化共用，状态数组只在声道数变化时分配
+ */
+final class ExoKWeightingFilter {
+
+    // 5.1 / 7.1 布局（FL, FR, FC, LFE, 环绕...）中环绕声道的加权系数
+    private static final double SURROUND_CHANNEL_WEIGHT = 1.41;
+
+    // 高架预滤波系数
+    private double preB0, preB1, preB2, preA1, preA2;
+    // RLB 高通系数（b = 1, -2, 1）
+    private double rlbA1, rlbA2;
+    // 逐声道滤波状态，每声道 4 个：预滤波 z1, z2 与高通 z1, z2
+    private double[] states = new double[0];
+    // 逐声道加权系数，LFE 为 0
+    private double[] channelWeights = new double[0];
+
+    /**
+     * 按采样率与声道数重建系数并清空状态
+     */
+    void configure(int sampleRateHz, int channelCount) {
+        double rate = Math.max(1, sampleRateHz);
+        double f0 = 1681.974450955533;
+        double gainDb = 3.999843853973347;
+        double q = 0.7071752369554196;
+        double k = Math.tan(Math.PI * f0 / rate);
+        double vh = Math.pow(10.0, gainDb / 20.0);
+        double vb = Math.pow(vh, 0.4996667741545416);
+        double a0 = 1.0 + k / q + k * k;
+        preB0 = (vh + vb * k / q + k * k) / a0;
+        preB1 = 2.0 * (k * k - vh) / a0;
+        preB2 = (vh - vb * k / q + k * k) / a0;
+        preA1 = 2.0 * (k * k - 1.0) / a0;
+        preA2 = (1.0 - k / q + k * k) / a0;
+
+        f0 = 38.13547087602444;
+        q = 0.5003270373238773;
+        k = Math.tan(Math.PI * f0 / rate);
+        a0 = 1.0 + k / q + k * k;
+        rlbA1 = 2.0 * (k * k - 1.0) / a0;
+        rlbA2 = (1.0 - k / q + k * k) / a0;
+
+        int channels = Math.max(1, channelCount);
+        if (states.length != channels * 4) {
+            states = new double[channels * 4];
+            channelWeights = new double[channels];
+        } else {
+            reset();
+        }
+        for (int c = 0; c < channels; c++) {
+            if (channels >= 6 && c == 3) {
+                channelWeights[c] = 0;
+            } else if (channels >= 6 && c >= 4) {
+                channelWeights[c] = SURROUND_CHANNEL_WEIGHT;
+            } else {
+                channelWeights[c] = 1;
+            }
+        }
+    }
+
+    /**
+     * 对单个声道的一段连续帧做 K 加权，返回加权后的平方和（已乘声道加权系数）
+     * 滤波状态与系数拷贝到局部变量，循环内不访问字段
+     *
+     * @param samples    交织浮点样本
+     * @param startFrame 起始帧
+     * @param frames     帧数
+     * @param channel    声道下标
+     * @param stride     声道数
+     */
+    double process(float[] samples, int startFrame, int frames, int channel, int stride) {
+        final double b0 = preB0, b1 = preB1, b2 = preB2, a1 = preA1, a2 = preA2;
+        final double ha1 = rlbA1, ha2 = rlbA2;
+        final int stateIndex = channel << 2;
+        double p1 = states[stateIndex];
+        double p2 = states[stateIndex + 1];
+        double h1 = states[stateIndex + 2];
+        double h2 = states[stateIndex + 3];
+        double sum = 0;
+
+        int index = startFrame * stride + channel;
+        for (int i = 0; i < frames; i++, index += stride) {
+            float in = samples[index];
+            // 高架预滤波
+            double pre = b0 * in + p1;
+            p1 = b1 * in - a1 * pre + p2;
+            p2 = b2 * in - a2 * pre;
+            // RLB 高通（b0 = 1, b1 = -2, b2 = 1）
+            double out = pre + h1;
+            h1 = -2.0 * pre - ha1 * out + h2;
+            h2 = pre - ha2 * out;
+            sum += out * out;
+        }
+
+        states[stateIndex] = p1;
+        states[stateIndex + 1] = p2;
+        states[stateIndex + 2] = h1;
+        states[stateIndex + 3] = h2;
+        return sum * channelWeights[channel];
+    }
+
+    /**
+     * 清空滤波状态，保留系数
+     */
+    void reset() {
+        Arrays.fill(states, 0);
+    }
+
+    /**
+     * 均方能量转换为 LUFS，0 返回负无穷
+     */
+    static float energyToLufs(double energy) {
+        return energy > 0 ? (float) (-0.691 + 10 * Math.log10(energy)) : Float.NEGATIVE_INFINITY;
+    }
+}
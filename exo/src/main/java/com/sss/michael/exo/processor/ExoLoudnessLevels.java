@@ -0,0 +1,113 @@
+package com.sss.michael.exo.processor;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 18:10
+ * @Description 响度计量结果
+ * 一个回调周期内的逐声道采样峰值 / RMS，以及按 ITU-R BS.1770（EBU R128）计算的瞬时、短期与综合响度。
+ * 对象及其数组由生产方预分配并循环复用，只在回调期间有效；需要跨周期保存数据的监听器请自行拷贝
+ */
+public final class ExoLoudnessLevels {
+
+    private static final float[] EMPTY = new float[0];
+
+    private int sampleRateHz;
+    private int channelCount;
+    // 本周期逐声道采样峰值（线性，满幅为 1）
+    private float[] peak = EMPTY;
+    // 本周期逐声道 RMS（线性，满幅正弦约为 0.707）
+    private float[] rms = EMPTY;
+    // 瞬时响度（400ms 窗口，LUFS），数据不足时为负无穷
+    private float momentaryLufs = Float.NEGATIVE_INFINITY;
+    // 短期响度（3s 窗口，LUFS），不足 3s 时按已有数据计算
+    private float shortTermLufs = Float.NEGATIVE_INFINITY;
+    // 综合响度（绝对门限 -70 LUFS + 相对门限 -10 LU，LUFS），无有效数据时为负无穷
+    private float integratedLufs = Float.NEGATIVE_INFINITY;
+    // 序号，从 1 开始递增，0 表示尚未写入过
+    private long sequence;
+    // 生成结果时的 System.nanoTime()
+    private long timestampNs;
+
+    public int getSampleRateHz() {
+        return sampleRateHz;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    /**
+     * 逐声道采样峰值数组，长度即声道数
+     */
+    public float[] getPeak() {
+        return peak;
+    }
+
+    /**
+     * 逐声道 RMS 数组，长度即声道数
+     */
+    public float[] getRms() {
+        return rms;
+    }
+
+    public float getMomentaryLufs() {
+        return momentaryLufs;
+    }
+
+    public float getShortTermLufs() {
+        return shortTermLufs;
+    }
+
+    public float getIntegratedLufs() {
+        return integratedLufs;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampNs() {
+        return timestampNs;
+    }
+
+    /**
+     * 线性幅度转换为 dBFS，0 返回负无穷
+     */
+    public static float toDecibels(float linear) {
+        return linear > 0 ? (float) (20 * Math.log10(linear)) : Float.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * 获取长度恰好为声道数的峰值数组，声道数变化时才重新分配
+     */
+    float[] obtainPeak(int channelCount) {
+        if (peak.length != channelCount) {
+            peak = new float[channelCount];
+        }
+        return peak;
+    }
+
+    /**
+     * 获取长度恰好为声道数的 RMS 数组，声道数变化时才重新分配
+     */
+    float[] obtainRms(int channelCount) {
+        if (rms.length != channelCount) {
+            rms = new float[channelCount];
+        }
+        return rms;
+    }
+
+    /**
+     * 数据写完后标记结果信息
+     */
+    void markReady(int sampleRateHz, int channelCount, float momentaryLufs, float shortTermLufs,
+                   float integratedLufs, long sequence, long timestampNs) {
+        this.sampleRateHz = sampleRateHz;
+        this.channelCount = channelCount;
+        this.momentaryLufs = momentaryLufs;
+        this.shortTermLufs = shortTermLufs;
+        this.integratedLufs = integratedLufs;
+        this.sequence = sequence;
+        this.timestampNs = timestampNs;
+    }
+}
@@ -0,0 +1,326 @@
+package com.sss.michael.exo.processor;
+
+import android.os.Handler;
+
+import androidx.media3.common.util.UnstableApi;
+
+import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.callback.IExoLoudnessCallBack;
+import com.sss.michael.exo.util.ExoLog;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 18:20
+ * @Description 响度计量处理器
+ * 按 ITU-R BS.1770-4 / EBU R128 计算瞬时（400ms）、短期（3s）与综合响度，同时统计逐声道采样峰值与 RMS。
+ * K 加权由 {@link ExoKWeightingFilter} 逐声道增量完成，每 100ms 汇总一个能量块；
+ * 综合响度的门限块按 0.1 LU 直方图累计，状态大小固定，不随播放时长增长。
+ * 音频线程只做滤波和累加，稳定运行期间不分配内存；结果按 {@link ExoConfig#LOUDNESS_METER_INTERVAL_MS}
+ * 写入三缓冲，由分析线程回调给监听器。音频数据由基类原样透传
+ */
+@UnstableApi
+public class ExoLoudnessMeterProcessor extends ExoBaseAudioProcessor {
+
+    // BS.1770 能量块长度与窗口长度（以 100ms 块计）
+    private static final int BLOCK_DURATION_MS = 100;
+    private static final int MOMENTARY_BLOCKS = 4;
+    private static final int SHORT_TERM_BLOCKS = 30;
+    // 综合响度门限与直方图范围：[-70, +5) LUFS，0.1 LU 一格
+    private static final float ABSOLUTE_GATE_LUFS = -70f;
+    private static final float RELATIVE_GATE_LU = -10f;
+    private static final float HISTOGRAM_MAX_LUFS = 5f;
+    private static final int HISTOGRAM_BINS_PER_LU = 10;
+    private static final int HISTOGRAM_SIZE = (int) ((HISTOGRAM_MAX_LUFS - ABSOLUTE_GATE_LUFS) * HISTOGRAM_BINS_PER_LU);
+
+    // 回调监听器（在分析线程回调）
+    private volatile IExoLoudnessCallBack iExoLoudnessCallBack;
+    private volatile boolean released;
+
+    // 以下字段仅由音频线程访问
+    // 逐声道 K 加权滤波器
+    private final ExoKWeightingFilter kWeightingFilter = new ExoKWeightingFilter();
+    // 当前 100ms 块的帧数、已累计帧数与加权能量
+    private int blockFrames;
+    private int blockFrameIndex;
+    private double blockEnergySum;
+    // 最近 30 个块的平均能量（环形），用于瞬时 / 短期响度
+    private final double[] blockEnergies = new double[SHORT_TERM_BLOCKS];
+    private int blockWriteIndex;
+    private int blockCount;
+    // 最近一次完成块时的瞬时 / 短期平均能量
+    private double momentaryEnergy;
+    private double shortTermEnergy;
+    // 综合响度直方图：各格门限块数量与能量和
+    private final int[] histogramCounts = new int[HISTOGRAM_SIZE];
+    private final double[] histogramEnergies = new double[HISTOGRAM_SIZE];
+    // 本回调周期内的逐声道峰值、平方和及帧数
+    private float[] intervalPeaks;
+    private double[] intervalSquareSums;
+    private int intervalFrames;
+    private long sequence;
+
+    // 三缓冲：音频线程填写 backLevels 后与 readyLevels 交换，分析线程取走 readyLevels 中较新的一份
+    private ExoLoudnessLevels backLevels = new ExoLoudnessLevels();
+    private final AtomicReference<ExoLoudnessLevels> readyLevels = new AtomicReference<>(new ExoLoudnessLevels());
+    // 以下两个字段仅由分析线程访问
+    private ExoLoudnessLevels frontLevels = new ExoLoudnessLevels();
+    private long lastDeliveredSequence;
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean(false);
+    private final Runnable deliveryRunnable = this::deliverLevels;
+
+    /**
+     * 设置响度计量回调监听器
+     * 未设置监听器时处理器只透传音频，不做任何计量
+     *
+     * @param iExoLoudnessCallBack 监听器实例，在分析线程回调
+     */
+    public void setExoLoudnessCallBack(IExoLoudnessCallBack iExoLoudnessCallBack) {
+        this.iExoLoudnessCallBack = iExoLoudnessCallBack;
+    }
+
+    @Override
+    protected void onConfigChanged() {
+        int channels = Math.max(1, channelCount);
+        kWeightingFilter.configure(sampleRateHz, channels);
+        blockFrames = Math.max(1, sampleRateHz * BLOCK_DURATION_MS / 1000);
+        intervalPeaks = new float[channels];
+        intervalSquareSums = new double[channels];
+        resetBlocks();
+        resetIntegrated();
+    }
+
+    /**
+     * 计量（音频数据由基类原样透传）
+     * 按 100ms 块边界把输入切段，每段逐声道做 K 加权并累加能量、峰值与平方和，
+     * 达到回调间隔时发布一次结果
+     *
+     * @param samples      交织浮点样本（[-1,1]）
+     * @param frameCount   帧数
+     * @param sampleRateHz 音频采样率
+     * @param channelCount 音频声道数
+     */
+    @Override
+    protected void process(float[] samples, int frameCount, int sampleRateHz, int channelCount) {
+        if (iExoLoudnessCallBack == null || released || intervalPeaks == null) {
+            return;
+        }
+        try {
+            int frame = 0;
+            while (frame < frameCount) {
+                int segmentFrames = Math.min(frameCount - frame, blockFrames - blockFrameIndex);
+                for (int c = 0; c < channelCount; c++) {
+                    measureChannel(samples, frame, segmentFrames, c, channelCount);
+                }
+                frame += segmentFrames;
+                blockFrameIndex += segmentFrames;
+                if (blockFrameIndex >= blockFrames) {
+                    completeBlock();
+                }
+            }
+            intervalFrames += frameCount;
+            long intervalMs = Math.max(1, ExoConfig.LOUDNESS_METER_INTERVAL_MS);
+            if (intervalFrames >= sampleRateHz * intervalMs / 1000) {
+                publishLevels(sampleRateHz, channelCount);
+            }
+        } catch (Exception e) {
+            // 异常时仍由基类透传数据，避免音频播放中断
+            ExoLog.log("ExoLoudnessMeterProcessor 计量异常，已透传数据", e);
+        }
+    }
+
+    /**
+     * 对单个声道的一段连续帧做 K 加权累加块能量，同时统计峰值与平方和
+     */
+    private void measureChannel(float[] samples, int startFrame, int frames, int channel, int stride) {
+        blockEnergySum += kWeightingFilter.process(samples, startFrame, frames, channel, stride);
+        double squareSum = 0;
+        float peak = intervalPeaks[channel];
+        int index = startFrame * stride + channel;
+        for (int i = 0; i < frames; i++, index += stride) {
+            float in = samples[index];
+            squareSum += (double) in * in;
+            float magnitude = Math.abs(in);
+            if (magnitude > peak) {
+                peak = magnitude;
+            }
+        }
+        intervalSquareSums[channel] += squareSum;
+        intervalPeaks[channel] = peak;
+    }
+
+    /**
+     * 完成一个 100ms 块：更新瞬时 / 短期能量，满 400ms 后把门限块计入综合响度直方图
+     */
+    private void completeBlock() {
+        blockEnergies[blockWriteIndex] = blockEnergySum / blockFrames;
+        blockWriteIndex = (blockWriteIndex + 1) % SHORT_TERM_BLOCKS;
+        if (blockCount < SHORT_TERM_BLOCKS) {
+            blockCount++;
+        }
+        blockFrameIndex = 0;
+        blockEnergySum = 0;
+
+        momentaryEnergy = averageRecentBlocks(MOMENTARY_BLOCKS);
+        shortTermEnergy = averageRecentBlocks(SHORT_TERM_BLOCKS);
+        if (blockCount >= MOMENTARY_BLOCKS) {
+            // 400ms 门限块，相邻块重叠 75%
+            float blockLufs = ExoKWeightingFilter.energyToLufs(momentaryEnergy);
+            if (blockLufs >= ABSOLUTE_GATE_LUFS) {
+                int bin = Math.min(HISTOGRAM_SIZE - 1, (int) ((blockLufs - ABSOLUTE_GATE_LUFS) * HISTOGRAM_BINS_PER_LU));
+                histogramCounts[bin]++;
+                histogramEnergies[bin] += momentaryEnergy;
+            }
+        }
+    }
+
+    /**
+     * 最近 count 个块的平均能量，块数不足时按已有块计算
+     */
+    private double averageRecentBlocks(int count) {
+        int available = Math.min(count, blockCount);
+        if (available == 0) {
+            return 0;
+        }
+        double sum = 0;
+        int index = blockWriteIndex;
+        for (int i = 0; i < available; i++) {
+            index = index == 0 ? SHORT_TERM_BLOCKS - 1 : index - 1;
+            sum += blockEnergies[index];
+        }
+        return sum / available;
+    }
+
+    /**
+     * 按 BS.1770 两级门限计算综合响度：先取绝对门限以上块的平均响度，再以其 -10 LU 作为相对门限重新平均
+     */
+    private float computeIntegratedLufs() {
+        double energySum = 0;
+        long count = 0;
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            energySum += histogramEnergies[i];
+            count += histogramCounts[i];
+        }
+        if (count == 0) {
+            return Float.NEGATIVE_INFINITY;
+        }
+        float relativeGate = ExoKWeightingFilter.energyToLufs(energySum / count) + RELATIVE_GATE_LU;
+        int startBin = Math.max(0, (int) Math.ceil((relativeGate - ABSOLUTE_GATE_LUFS) * HISTOGRAM_BINS_PER_LU));
+        energySum = 0;
+        count = 0;
+        for (int i = startBin; i < HISTOGRAM_SIZE; i++) {
+            energySum += histogramEnergies[i];
+            count += histogramCounts[i];
+        }
+        return count == 0 ? Float.NEGATIVE_INFINITY : ExoKWeightingFilter.energyToLufs(energySum / count);
+    }
+
+    /**
+     * 写入一份结果并交给分析线程回调（音频线程调用），随后清空本周期的峰值与平方和
+     */
+    private void publishLevels(int sampleRateHz, int channelCount) {
+        ExoLoudnessLevels levels = backLevels;
+        float[] peaks = levels.obtainPeak(channelCount);
+        float[] rms = levels.obtainRms(channelCount);
+        int frames = Math.max(1, intervalFrames);
+        for (int c = 0; c < channelCount; c++) {
+            peaks[c] = intervalPeaks[c];
+            rms[c] = (float) Math.sqrt(intervalSquareSums[c] / frames);
+        }
+        levels.markReady(sampleRateHz, channelCount,
+                blockCount >= MOMENTARY_BLOCKS ? ExoKWeightingFilter.energyToLufs(momentaryEnergy) : Float.NEGATIVE_INFINITY,
+                ExoKWeightingFilter.energyToLufs(shortTermEnergy),
+                computeIntegratedLufs(),
+                ++sequence, System.nanoTime());
+        backLevels = readyLevels.getAndSet(levels);
+
+        Arrays.fill(intervalPeaks, 0f);
+        Arrays.fill(intervalSquareSums, 0);
+        intervalFrames = 0;
+
+        if (deliveryScheduled.compareAndSet(false, true)) {
+            ExoAudioAnalysisThread.getHandler().post(deliveryRunnable);
+        }
+    }
+
+    /**
+     * 分析线程任务：取出最新结果回调，已回调过的旧结果不再重复
+     */
+    private void deliverLevels() {
+        deliveryScheduled.set(false);
+        IExoLoudnessCallBack callBack = iExoLoudnessCallBack;
+        if (released || callBack == null) {
+            return;
+        }
+        frontLevels = readyLevels.getAndSet(frontLevels);
+        if (frontLevels.getSequence() <= lastDeliveredSequence) {
+            return;
+        }
+        lastDeliveredSequence = frontLevels.getSequence();
+        try {
+            callBack.onLoudnessReady(frontLevels);
+        } catch (Exception e) {
+            ExoLog.log("ExoLoudnessMeterProcessor 回调异常", e);
+        }
+    }
+
+    /**
+     * 清空综合响度的累计结果，从下一个块重新开始统计（例如切换曲目时）
+     * 需在音频线程或播放器停止输入时调用
+     */
+    public void resetIntegrated() {
+        Arrays.fill(histogramCounts, 0);
+        Arrays.fill(histogramEnergies, 0);
+    }
+
+    /**
+     * 清空滤波状态与 100ms 块，避免 seek 前后的音频混入同一窗口
+     */
+    private void resetBlocks() {
+        kWeightingFilter.reset();
+        Arrays.fill(blockEnergies, 0);
+        blockWriteIndex = 0;
+        blockCount = 0;
+        blockFrameIndex = 0;
+        blockEnergySum = 0;
+        momentaryEnergy = 0;
+        shortTermEnergy = 0;
+        if (intervalPeaks != null) {
+            Arrays.fill(intervalPeaks, 0f);
+            Arrays.fill(intervalSquareSums, 0);
+        }
+        intervalFrames = 0;
+    }
+
+    /**
+     * 响度计量只做分析，不修改音频内容
+     */
+    @Override
+    protected boolean isOutputModified() {
+        return false;
+    }
+
+    /**
+     * seek / 切换片段时清空窗口，综合响度保留，直到格式变化或调用 {@link #resetIntegrated()}
+     */
+    @Override
+    protected void onFlush() {
+        super.onFlush();
+        resetBlocks();
+    }
+
+    /**
+     * 释放处理器资源
+     */
+    @Override
+    protected void releaseResources() {
+        released = true;
+        iExoLoudnessCallBack = null;
+        ExoAudioAnalysisThread.getHandler().removeCallbacks(deliveryRunnable);
+        intervalPeaks = null;
+        intervalSquareSums = null;
+    }
+}
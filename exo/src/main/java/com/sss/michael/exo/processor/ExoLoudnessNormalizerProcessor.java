@@ -0,0 +1,499 @@
+package com.sss.michael.exo.processor;
+
+import androidx.media3.common.util.UnstableApi;
+
+import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.util.ExoLog;
+
+import java.util.Arrays;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 19:10
+ * @Description 响度归一化 + 真峰值限幅处理器
+ * 归一化：输入按 BS.1770 K 加权统计 400ms 门限块，首个有效块直接作为响度估计（快速起步），
+ * 之后在能量域按 {@link ExoConfig#LOUDNESS_NORMALIZE_WINDOW_MS} 做指数平均；目标增益 = 目标响度 - 估计响度，
+ * 限制在最大提升 / 衰减范围内，并逐帧一阶平滑，静音（低于门限）期间保持当前增益。
+ * 限幅：4 倍过采样多相 FIR（BS.1770 附录 2）估计真峰值，滑动最小值 + 释放 + 等长滑动平均得到无过冲的增益曲线，
+ * 音频经等长前瞻延迟后与增益对齐，输出真峰值不超过 {@link ExoConfig#LOUDNESS_TRUE_PEAK_CEILING_DB}。
+ * 该处理器接在均衡器之后，取代均衡器原先的硬 / 软削波。
+ * 信号较小且限幅器已完全释放时跳过过采样，只做增益与延迟，开销可忽略，适合常开。
+ * 前瞻延迟约 {@link ExoConfig#LOUDNESS_LIMITER_LOOKAHEAD_MS} + 0.1ms，流结束时由基类以静音推出延迟线中的尾部样本
+ */
+@UnstableApi
+public class ExoLoudnessNormalizerProcessor extends ExoBaseAudioProcessor {
+
+    private static final int BLOCK_DURATION_MS = 100;
+    private static final int MOMENTARY_BLOCKS = 4;
+    private static final float ABSOLUTE_GATE_LUFS = -70f;
+    private static final float RELATIVE_GATE_LU = -10f;
+
+    // 真峰值插值滤波器：4 相 x 12 抽头，各相在 x[n-6] 与 x[n-5] 之间插值
+    private static final int TRUE_PEAK_PHASES = 4;
+    private static final int TRUE_PEAK_TAPS = 12;
+    // 插值输出对应的原始样本延迟（帧）
+    private static final int TRUE_PEAK_DELAY = 6;
+    private static final float[][] TRUE_PEAK_COEFFICIENTS = {
+            {0.0017089843750f, 0.0109863281250f, -0.0196533203125f, 0.0332031250000f, -0.0594482421875f, 0.1373291015625f,
+                    0.9721679687500f, -0.1022949218750f, 0.0476074218750f, -0.0266113281250f, 0.0148925781250f, -0.0083007812500f},
+            {-0.0291748046875f, 0.0292968750000f, -0.0517578125000f, 0.0891113281250f, -0.1665039062500f, 0.4650878906250f,
+                    0.7797851562500f, -0.2003173828125f, 0.1015625000000f, -0.0582275390625f, 0.0330810546875f, -0.0189208984375f},
+            {-0.0189208984375f, 0.0330810546875f, -0.0582275390625f, 0.1015625000000f, -0.2003173828125f, 0.7797851562500f,
+                    0.4650878906250f, -0.1665039062500f, 0.0891113281250f, -0.0517578125000f, 0.0292968750000f, -0.0291748046875f},
+            {-0.0083007812500f, 0.0148925781250f, -0.0266113281250f, 0.0476074218750f, -0.1022949218750f, 0.9721679687500f,
+                    0.1373291015625f, -0.0594482421875f, 0.0332031250000f, -0.0196533203125f, 0.0109863281250f, 0.0017089843750f}
+    };
+    // 快速路径余量：样本峰值低于上限的一半（-6dB）时，插值点（系数绝对值和约 1.5）不可能超过上限
+    private static final float FAST_PATH_HEADROOM = 0.5f;
+
+    // 运行时开关与目标响度（任意线程写，音频线程读）
+    private volatile boolean normalizationEnabled = ExoConfig.LOUDNESS_NORMALIZE_ENABLE;
+    private volatile float targetLufs = ExoConfig.LOUDNESS_TARGET_LUFS;
+    private volatile boolean resetRequested;
+
+    // 以下字段仅由音频线程访问
+    private final ExoKWeightingFilter kWeightingFilter = new ExoKWeightingFilter();
+    // 当前 100ms 块的帧数、已累计帧数与加权能量，最近 4 个块组成 400ms 门限块
+    private int blockFrames;
+    private int blockFrameIndex;
+    private double blockEnergySum;
+    private final double[] blockEnergies = new double[MOMENTARY_BLOCKS];
+    private int blockWriteIndex;
+    private int blockCount;
+    // 响度估计（能量域），hasEstimate 为 false 时下一个有效门限块直接作为估计值
+    private double estimateEnergy;
+    private boolean hasEstimate;
+    // 连续被相对门限排除的门限块数，超过平均窗口时视为内容整体变小，重新快速起步
+    private int gatedBlocks;
+    // 归一化增益（线性）：目标值与逐帧平滑后的当前值
+    private float targetGain = 1f;
+    private float currentGain = 1f;
+    private float gainSmoothCoefficient;
+
+    // 限幅参数
+    private float ceiling;
+    private int lookaheadFrames;
+    private int delayFrames;
+    private float releaseCoefficient;
+    // 插值历史：每声道 2 * 12 个样本（双写环形，任意位置都能连续读出最近 12 个样本）
+    private float[] history;
+    private int historyIndex;
+    // 前瞻延迟线：每声道 delayFrames 个样本
+    private float[] delayLine;
+    private int delayIndex;
+    // 插值系数按读取顺序（旧 → 新）倒序存放
+    private final float[] reversedCoefficients = new float[TRUE_PEAK_PHASES * TRUE_PEAK_TAPS];
+    private float previousTruePeak;
+    // 滑动最小值单调队列（环形）：值与帧序号
+    private float[] minQueueValues;
+    private long[] minQueueFrames;
+    private int minQueueHead;
+    private int minQueueSize;
+    private long limiterFrame;
+    // 释放跟随值与等长滑动平均
+    private float releaseGain = 1f;
+    private float[] averageWindow;
+    private int averageIndex;
+    private double averageSum;
+    // 连续处于无衰减状态的帧数，不小于前瞻长度时限幅器视为完全释放
+    private int unityFrames;
+
+    public ExoLoudnessNormalizerProcessor() {
+        for (int p = 0; p < TRUE_PEAK_PHASES; p++) {
+            for (int i = 0; i < TRUE_PEAK_TAPS; i++) {
+                reversedCoefficients[p * TRUE_PEAK_TAPS + i] = TRUE_PEAK_COEFFICIENTS[p][TRUE_PEAK_TAPS - 1 - i];
+            }
+        }
+    }
+
+    /**
+     * 开启 / 关闭响度归一化，关闭后增益平滑回到 0dB，真峰值限幅始终生效
+     */
+    public void setNormalizationEnabled(boolean enabled) {
+        this.normalizationEnabled = enabled;
+    }
+
+    public boolean isNormalizationEnabled() {
+        return normalizationEnabled;
+    }
+
+    /**
+     * 设置归一化目标响度
+     *
+     * @param targetLufs 目标响度（LUFS），常用 -14 / -16 / -23
+     */
+    public void setTargetLufs(float targetLufs) {
+        this.targetLufs = targetLufs;
+    }
+
+    /**
+     * 丢弃当前响度估计（例如切换曲目时），下一个有效门限块重新快速起步；当前增益仍平滑过渡
+     */
+    public void resetLoudnessEstimate() {
+        this.resetRequested = true;
+    }
+
+    @Override
+    protected void onConfigChanged() {
+        int channels = Math.max(1, channelCount);
+        int rate = Math.max(1, sampleRateHz);
+        kWeightingFilter.configure(rate, channels);
+        blockFrames = Math.max(1, rate * BLOCK_DURATION_MS / 1000);
+        gainSmoothCoefficient = onePoleCoefficient(ExoConfig.LOUDNESS_GAIN_SMOOTH_MS, rate);
+
+        ceiling = (float) Math.pow(10, Math.min(0f, ExoConfig.LOUDNESS_TRUE_PEAK_CEILING_DB) / 20.0);
+        lookaheadFrames = Math.max(1, (int) (rate * ExoConfig.LOUDNESS_LIMITER_LOOKAHEAD_MS / 1000));
+        delayFrames = lookaheadFrames - 1 + TRUE_PEAK_DELAY;
+        releaseCoefficient = onePoleCoefficient(ExoConfig.LOUDNESS_LIMITER_RELEASE_MS, rate);
+        history = new float[channels * TRUE_PEAK_TAPS * 2];
+        delayLine = new float[channels * delayFrames];
+        minQueueValues = new float[lookaheadFrames + 1];
+        minQueueFrames = new long[lookaheadFrames + 1];
+        averageWindow = new float[lookaheadFrames];
+
+        resetMeasurement();
+        resetLimiter();
+        hasEstimate = false;
+        estimateEnergy = 0;
+        gatedBlocks = 0;
+        targetGain = 1f;
+        currentGain = 1f;
+    }
+
+    @Override
+    protected int getOutputDelayFrames() {
+        return delayLine == null ? 0 : delayFrames;
+    }
+
+    /**
+     * 真峰值限幅始终生效（与归一化开关无关）
+     */
+    @Override
+    protected boolean isPeakLimiter() {
+        return true;
+    }
+
+    /**
+     * 一阶平滑系数：时间常数 timeMs 对应的每帧逼近比例
+     */
+    private static float onePoleCoefficient(float timeMs, int sampleRateHz) {
+        double frames = Math.max(1.0, timeMs * sampleRateHz / 1000.0);
+        return (float) (1.0 - Math.exp(-1.0 / frames));
+    }
+
+    /**
+     * 响度测量 → 更新目标增益 → 增益 + 真峰值限幅（原地写回，输出相对输入延迟 delayFrames 帧）
+     *
+     * @param samples      交织浮点样本
+     * @param frameCount   帧数
+     * @param sampleRateHz 音频采样率
+     * @param channelCount 音频声道数
+     */
+    @Override
+    protected void process(float[] samples, int frameCount, int sampleRateHz, int channelCount) {
+        if (history == null || frameCount == 0) {
+            return;
+        }
+        if (resetRequested) {
+            resetRequested = false;
+            hasEstimate = false;
+            estimateEnergy = 0;
+            gatedBlocks = 0;
+        }
+        if (normalizationEnabled) {
+            measure(samples, frameCount, channelCount);
+        } else {
+            targetGain = 1f;
+        }
+
+        // 历史中尚未完成真峰值估计的样本与本块输入都足够小，且限幅器已完全释放时走快速路径
+        float quietLimit = ceiling * FAST_PATH_HEADROOM;
+        if (unityFrames >= lookaheadFrames
+                && peakOf(history, history.length) < quietLimit
+                && peakOf(samples, frameCount * channelCount) * Math.max(currentGain, targetGain) < quietLimit) {
+            processQuiet(samples, frameCount, channelCount);
+        } else {
+            processLimited(samples, frameCount, channelCount);
+        }
+    }
+
+    /**
+     * 按 100ms 块边界切段做 K 加权，完成的块更新响度估计与目标增益
+     */
+    private void measure(float[] samples, int frameCount, int channelCount) {
+        int frame = 0;
+        while (frame < frameCount) {
+            int segmentFrames = Math.min(frameCount - frame, blockFrames - blockFrameIndex);
+            for (int c = 0; c < channelCount; c++) {
+                blockEnergySum += kWeightingFilter.process(samples, frame, segmentFrames, c, channelCount);
+            }
+            frame += segmentFrames;
+            blockFrameIndex += segmentFrames;
+            if (blockFrameIndex >= blockFrames) {
+                completeBlock();
+            }
+        }
+    }
+
+    /**
+     * 完成一个 100ms 块，满 400ms 后以门限块更新响度估计：低于绝对门限或低于估计值 10 LU 的块视为静音，保持增益
+     */
+    private void completeBlock() {
+        blockEnergies[blockWriteIndex] = blockEnergySum / blockFrames;
+        blockWriteIndex = (blockWriteIndex + 1) % MOMENTARY_BLOCKS;
+        if (blockCount < MOMENTARY_BLOCKS) {
+            blockCount++;
+        }
+        blockFrameIndex = 0;
+        blockEnergySum = 0;
+        if (blockCount < MOMENTARY_BLOCKS) {
+            return;
+        }
+
+        double energy = 0;
+        for (double blockEnergy : blockEnergies) {
+            energy += blockEnergy;
+        }
+        energy /= MOMENTARY_BLOCKS;
+        float lufs = ExoKWeightingFilter.energyToLufs(energy);
+        if (lufs < ABSOLUTE_GATE_LUFS) {
+            return;
+        }
+        if (!hasEstimate) {
+            estimateEnergy = energy;
+            hasEstimate = true;
+        } else {
+            if (lufs < ExoKWeightingFilter.energyToLufs(estimateEnergy) + RELATIVE_GATE_LU) {
+                if (++gatedBlocks * BLOCK_DURATION_MS >= ExoConfig.LOUDNESS_NORMALIZE_WINDOW_MS) {
+                    hasEstimate = false;
+                    gatedBlocks = 0;
+                }
+                return;
+            }
+            gatedBlocks = 0;
+            float alpha = Math.min(1f, BLOCK_DURATION_MS / Math.max(BLOCK_DURATION_MS, ExoConfig.LOUDNESS_NORMALIZE_WINDOW_MS));
+            estimateEnergy += (energy - estimateEnergy) * alpha;
+        }
+
+        float gainDb = targetLufs - ExoKWeightingFilter.energyToLufs(estimateEnergy);
+        gainDb = Math.max(-ExoConfig.LOUDNESS_MAX_CUT_DB, Math.min(ExoConfig.LOUDNESS_MAX_BOOST_DB, gainDb));
+        targetGain = (float) Math.pow(10, gainDb / 20.0);
+    }
+
+    private static float peakOf(float[] samples, int sampleCount) {
+        float peak = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            float magnitude = Math.abs(samples[i]);
+            if (magnitude > peak) {
+                peak = magnitude;
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * 快速路径：限幅器已完全释放且本块不可能触发限幅，只做增益平滑、插值历史更新与前瞻延迟
+     */
+    private void processQuiet(float[] samples, int frameCount, int channelCount) {
+        final int taps = TRUE_PEAK_TAPS;
+        final int historyStride = taps * 2;
+        final float[] history = this.history;
+        final float[] delayLine = this.delayLine;
+        final int delay = delayFrames;
+        final float target = targetGain;
+        final float coefficient = gainSmoothCoefficient;
+        float gain = currentGain;
+        int historyPosition = historyIndex;
+        int delayPosition = delayIndex;
+        int index = 0;
+        for (int f = 0; f < frameCount; f++) {
+            gain += (target - gain) * coefficient;
+            for (int c = 0; c < channelCount; c++, index++) {
+                float x = samples[index] * gain;
+                int historyBase = c * historyStride + historyPosition;
+                history[historyBase] = x;
+                history[historyBase + taps] = x;
+                int delayOffset = c * delay + delayPosition;
+                samples[index] = delayLine[delayOffset];
+                delayLine[delayOffset] = x;
+            }
+            historyPosition = historyPosition + 1 == taps ? 0 : historyPosition + 1;
+            delayPosition = delayPosition + 1 == delay ? 0 : delayPosition + 1;
+        }
+        currentGain = gain;
+        historyIndex = historyPosition;
+        delayIndex = delayPosition;
+        limiterFrame += frameCount;
+        previousTruePeak = 0;
+    }
+
+    /**
+     * 完整路径：逐帧估计真峰值（各声道联动），计算限幅增益并作用于延迟后的音频
+     */
+    private void processLimited(float[] samples, int frameCount, int channelCount) {
+        final int taps = TRUE_PEAK_TAPS;
+        final int historyStride = taps * 2;
+        final float[] history = this.history;
+        final float[] delayLine = this.delayLine;
+        final float[] coefficients = reversedCoefficients;
+        final int delay = delayFrames;
+        final int lookahead = lookaheadFrames;
+        final float target = targetGain;
+        final float coefficient = gainSmoothCoefficient;
+        float gain = currentGain;
+        int historyPosition = historyIndex;
+        int delayPosition = delayIndex;
+        int index = 0;
+        for (int f = 0; f < frameCount; f++) {
+            gain += (target - gain) * coefficient;
+            int nextPosition = historyPosition + 1 == taps ? 0 : historyPosition + 1;
+            // 1. 写入插值历史与延迟线，估计本帧真峰值：x[n-6] 的采样峰值与其后 4 个插值点
+            float truePeak = 0;
+            for (int c = 0, i = index; c < channelCount; c++, i++) {
+                float x = samples[i] * gain;
+                int historyBase = c * historyStride;
+                history[historyBase + historyPosition] = x;
+                history[historyBase + historyPosition + taps] = x;
+                int delayOffset = c * delay + delayPosition;
+                samples[i] = delayLine[delayOffset];
+                delayLine[delayOffset] = x;
+
+                // 最近 12 个样本（旧 → 新）从 nextPosition 起连续存放
+                int window = historyBase + nextPosition;
+                float peak = Math.abs(history[window + taps - 1 - TRUE_PEAK_DELAY]);
+                for (int p = 0, k = 0; p < TRUE_PEAK_PHASES; p++) {
+                    float sum = 0;
+                    for (int t = 0; t < taps; t++, k++) {
+                        sum += coefficients[k] * history[window + t];
+                    }
+                    float magnitude = Math.abs(sum);
+                    if (magnitude > peak) {
+                        peak = magnitude;
+                    }
+                }
+                if (peak > truePeak) {
+                    truePeak = peak;
+                }
+            }
+            historyPosition = nextPosition;
+            delayPosition = delayPosition + 1 == delay ? 0 : delayPosition + 1;
+            // 2. 前后两帧取大，覆盖输出样本两侧的插值区间
+            float guardedPeak = Math.max(truePeak, previousTruePeak);
+            previousTruePeak = truePeak;
+            float limit = guardedPeak > ceiling ? ceiling / guardedPeak : 1f;
+            // 3. 前瞻窗口内的最小增益 → 释放跟随 → 等长滑动平均（起音平滑且在峰值到达时不高于所需增益）
+            float minimum = pushMinimum(limit, lookahead);
+            float release = releaseGain + (1f - releaseGain) * releaseCoefficient;
+            if (release >= minimum) {
+                release = minimum;
+            }
+            if (release > 0.99999f && minimum >= 1f) {
+                release = 1f;
+            }
+            releaseGain = release;
+            averageSum += release - averageWindow[averageIndex];
+            averageWindow[averageIndex] = release;
+            averageIndex = averageIndex + 1 == lookahead ? 0 : averageIndex + 1;
+            float outputGain = (float) (averageSum / lookahead);
+            if (release == 1f) {
+                if (++unityFrames >= lookahead) {
+                    unityFrames = lookahead;
+                    averageSum = lookahead;
+                    outputGain = 1f;
+                }
+            } else {
+                unityFrames = 0;
+            }
+            // 4. 延迟 delayFrames 帧后的样本与其限幅增益对齐
+            for (int c = 0; c < channelCount; c++, index++) {
+                samples[index] *= outputGain;
+            }
+        }
+        currentGain = gain;
+        historyIndex = historyPosition;
+        delayIndex = delayPosition;
+    }
+
+    /**
+     * 压入一帧限幅增益并返回最近 lookahead 帧内的最小值（单调队列，均摊 O(1)）
+     */
+    private float pushMinimum(float value, int lookahead) {
+        int capacity = minQueueValues.length;
+        long frame = limiterFrame++;
+        while (minQueueSize > 0) {
+            int tail = (minQueueHead + minQueueSize - 1) % capacity;
+            if (minQueueValues[tail] < value) {
+                break;
+            }
+            minQueueSize--;
+        }
+        int tail = (minQueueHead + minQueueSize) % capacity;
+        minQueueValues[tail] = value;
+        minQueueFrames[tail] = frame;
+        minQueueSize++;
+        while (minQueueFrames[minQueueHead] <= frame - lookahead) {
+            minQueueHead = (minQueueHead + 1) % capacity;
+            minQueueSize--;
+        }
+        return minQueueValues[minQueueHead];
+    }
+
+    private void resetMeasurement() {
+        kWeightingFilter.reset();
+        Arrays.fill(blockEnergies, 0);
+        blockWriteIndex = 0;
+        blockCount = 0;
+        blockFrameIndex = 0;
+        blockEnergySum = 0;
+    }
+
+    /**
+     * 清空插值历史、延迟线与限幅状态
+     */
+    private void resetLimiter() {
+        if (history != null) {
+            Arrays.fill(history, 0f);
+            Arrays.fill(delayLine, 0f);
+            Arrays.fill(averageWindow, 1f);
+        }
+        historyIndex = 0;
+        delayIndex = 0;
+        previousTruePeak = 0;
+        minQueueHead = 0;
+        minQueueSize = 0;
+        limiterFrame = 0;
+        releaseGain = 1f;
+        averageIndex = 0;
+        averageSum = lookaheadFrames;
+        unityFrames = lookaheadFrames;
+    }
+
+    /**
+     * seek / 切换片段时清空延迟线与限幅状态，保留响度估计与当前增益，避免每次 seek 重新起步
+     */
+    @Override
+    protected void onFlush() {
+        super.onFlush();
+        if (history == null) {
+            return;
+        }
+        try {
+            resetMeasurement();
+            resetLimiter();
+        } catch (Exception e) {
+            ExoLog.log("ExoLoudnessNormalizerProcessor flush 异常", e);
+        }
+    }
+
+    /**
+     * 释放处理器资源
+     */
+    @Override
+    protected void releaseResources() {
+        history = null;
+        delayLine = null;
+        minQueueValues = null;
+        minQueueFrames = null;
+        averageWindow = null;
+    }
+}
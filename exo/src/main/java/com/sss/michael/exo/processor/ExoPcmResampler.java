@@ -0,0 +1,453 @@
+package com.sss.michael.exo.processor;
+
+import androidx.annotation.NonNull;
+
+import com.sss.michael.exo.constant.ExoResamplerQuality;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 10:20
+ * @Description 流式 PCM 采样率转换器
+ * 输入为 16-bit PCM 或 [-1,1] 浮点交织块，输出为目标采样率的浮点交织块或 16-bit PCM。
+ * 内部只缓存尚未被插值消费的输入帧（含插值所需的左右邻域），输入分片可以任意切分，
+ * 输出与一次性转换整段数据一致；缓冲区仅在容量不足时扩容，稳定流式播放期间不产生分配。
+ * 插值方式由 {@link ExoResamplerQuality} 决定。非线程安全，应由单一工作线程持有
+ */
+public final class ExoPcmResampler {
+
+    // HIGH 档位 sinc 核单侧的过零点数，决定过渡带宽度
+    private static final int SINC_ZERO_CROSSINGS = 8;
+    // HIGH 档位截止频率相对输入/输出较低奈奎斯特频率的比例，预留过渡带抑制混叠
+    private static final double SINC_CUTOFF_RATIO = 0.95;
+    // HIGH 档位多相表的相位数，相位之间再做线性插值
+    private static final int SINC_PHASES = 128;
+
+    private final int inputSampleRateHz;
+    private final int outputSampleRateHz;
+    private final int channelCount;
+    private final ExoResamplerQuality quality;
+    // 读位置以 1/phaseDenominator 帧为单位精确推进：每输出一帧前进 stepNumerator 个单位，
+    // 即输入采样率 / 输出采样率约分后的分数，避免浮点累积误差导致输出随输入切分方式变化
+    private final int phaseDenominator;
+    private final int stepNumerator;
+    private final float inversePhaseDenominator;
+    // 插值点左侧、右侧需要的输入帧数
+    private final int leftContext;
+    private final int rightContext;
+    // HIGH 档位：sinc 抽头数与多相系数表（SINC_PHASES + 1 行，每行 sincTaps 个系数）
+    private final int sincTaps;
+    private final float[] sincTable;
+    // 尚未消费的输入帧（交织）
+    private float[] inputBuffer;
+    // inputBuffer 中有效的输入帧数
+    private int bufferedFrames;
+    // 下一输出帧在 inputBuffer 中的读位置：整数帧部分与小数部分的分子（分母为 phaseDenominator）
+    private int positionFrames;
+    private int positionPhase;
+    // 已追加结束补帧，输入侧不再接受新数据
+    private boolean inputEnded;
+    // 16-bit 输出时复用的浮点暂存块
+    private float[] outputScratch;
+
+    /**
+     * 以 {@link ExoResamplerQuality#MEDIUM} 档位创建转换器
+     *
+     * @param inputSampleRateHz  输入采样率
+     * @param outputSampleRateHz 输出采样率
+     * @param channelCount       声道数
+     */
+    public ExoPcmResampler(int inputSampleRateHz, int outputSampleRateHz, int channelCount) {
+        this(inputSampleRateHz, outputSampleRateHz, channelCount, ExoResamplerQuality.MEDIUM);
+    }
+
+    /**
+     * @param inputSampleRateHz  输入采样率
+     * @param outputSampleRateHz 输出采样率
+     * @param channelCount       声道数
+     * @param quality            质量档位
+     */
+    public ExoPcmResampler(int inputSampleRateHz, int outputSampleRateHz, int channelCount,
+                           @NonNull ExoResamplerQuality quality) {
+        if (inputSampleRateHz <= 0 || outputSampleRateHz <= 0 || channelCount <= 0) {
+            throw new IllegalArgumentException("采样率与声道数必须大于 0");
+        }
+        this.inputSampleRateHz = inputSampleRateHz;
+        this.outputSampleRateHz = outputSampleRateHz;
+        this.channelCount = channelCount;
+        this.quality = quality;
+        int divisor = gcd(inputSampleRateHz, outputSampleRateHz);
+        this.stepNumerator = inputSampleRateHz / divisor;
+        this.phaseDenominator = outputSampleRateHz / divisor;
+        this.inversePhaseDenominator = 1f / phaseDenominator;
+        switch (quality) {
+            case LOW:
+                leftContext = 0;
+                rightContext = 1;
+                sincTaps = 0;
+                sincTable = null;
+                break;
+            case MEDIUM:
+                leftContext = 1;
+                rightContext = 2;
+                sincTaps = 0;
+                sincTable = null;
+                break;
+            default:
+                // 降采样时截止频率随输出奈奎斯特频率收窄，核在输入域按比例展宽
+                double cutoff = Math.min(1.0, (double) outputSampleRateHz / inputSampleRateHz) * SINC_CUTOFF_RATIO;
+                int halfTaps = (int) Math.ceil(SINC_ZERO_CROSSINGS / cutoff);
+                leftContext = halfTaps - 1;
+                rightContext = halfTaps;
+                sincTaps = halfTaps * 2;
+                sincTable = buildSincTable(halfTaps, cutoff);
+                break;
+        }
+        this.inputBuffer = new float[channelCount * Math.max(256, (leftContext + rightContext + 1) * 2)];
+        reset();
+    }
+
+    /**
+     * 生成多相 sinc 系数表：第 p 行对应小数相位 p / SINC_PHASES，第 k 个系数作用于输入帧 idx + k - (halfTaps - 1)。
+     * Blackman 窗截断，每行归一化为直流增益 1
+     */
+    private static float[] buildSincTable(int halfTaps, double cutoff) {
+        int taps = halfTaps * 2;
+        float[] table = new float[(SINC_PHASES + 1) * taps];
+        for (int phase = 0; phase <= SINC_PHASES; phase++) {
+            double frac = (double) phase / SINC_PHASES;
+            double sum = 0;
+            int rowOffset = phase * taps;
+            for (int k = 0; k < taps; k++) {
+                double x = k - (halfTaps - 1) - frac;
+                double sinc = x == 0 ? 1.0 : Math.sin(Math.PI * cutoff * x) / (Math.PI * cutoff * x);
+                double w = (x + halfTaps) / (2.0 * halfTaps);
+                double window = w <= 0 || w >= 1 ? 0
+                        : 0.42 - 0.5 * Math.cos(2 * Math.PI * w) + 0.08 * Math.cos(4 * Math.PI * w);
+                double value = sinc * window;
+                table[rowOffset + k] = (float) value;
+                sum += value;
+            }
+            if (sum != 0) {
+                for (int k = 0; k < taps; k++) {
+                    table[rowOffset + k] /= (float) sum;
+                }
+            }
+        }
+        return table;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    public int getInputSampleRateHz() {
+        return inputSampleRateHz;
+    }
+
+    public int getOutputSampleRateHz() {
+        return outputSampleRateHz;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    public ExoResamplerQuality getQuality() {
+        return quality;
+    }
+
+    /**
+     * 输入输出采样率一致时无需转换，调用方可以直接绕过本类
+     */
+    public boolean isPassthrough() {
+        return inputSampleRateHz == outputSampleRateHz;
+    }
+
+    /**
+     * 追加 16-bit PCM 输入，按 {@code pcm16} 的字节序读取并推进其 position
+     *
+     * @param pcm16      16-bit 交织 PCM
+     * @param frameCount 本次追加的帧数
+     */
+    public void queueInput(@NonNull ByteBuffer pcm16, int frameCount) {
+        if (frameCount <= 0 || inputEnded) {
+            return;
+        }
+        ensureInputCapacity(bufferedFrames + frameCount);
+        int index = bufferedFrames * channelCount;
+        int end = index + frameCount * channelCount;
+        float[] buffer = inputBuffer;
+        for (; index < end; index++) {
+            buffer[index] = pcm16.getShort() / 32768f;
+        }
+        bufferedFrames += frameCount;
+    }
+
+    /**
+     * 追加浮点输入
+     *
+     * @param samples    [-1,1] 浮点交织样本
+     * @param frameCount 本次追加的帧数
+     */
+    public void queueInput(@NonNull float[] samples, int frameCount) {
+        if (frameCount <= 0 || inputEnded) {
+            return;
+        }
+        ensureInputCapacity(bufferedFrames + frameCount);
+        System.arraycopy(samples, 0, inputBuffer, bufferedFrames * channelCount, frameCount * channelCount);
+        bufferedFrames += frameCount;
+    }
+
+    /**
+     * 标记输入结束：在末尾补齐右侧邻域的静音帧，使尾部样本也能全部输出
+     */
+    public void queueEndOfStream() {
+        if (inputEnded) {
+            return;
+        }
+        inputEnded = true;
+        ensureInputCapacity(bufferedFrames + rightContext);
+        int start = bufferedFrames * channelCount;
+        Arrays.fill(inputBuffer, start, start + rightContext * channelCount, 0f);
+        bufferedFrames += rightContext;
+    }
+
+    /**
+     * 当前已缓存的输入能够产出的输出帧数
+     */
+    public int getAvailableOutputFrames() {
+        // 第 n 个输出帧（从 0 计）的整数位置 floor((P + n * step) / den) 不能超过 bufferedFrames - 1 - rightContext
+        long span = (long) (bufferedFrames - rightContext) * phaseDenominator - 1 - getPositionUnits();
+        if (span < 0) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, span / stepNumerator + 1);
+    }
+
+    /**
+     * 产出 {@code outputFrames} 帧还需要追加的输入帧数
+     *
+     * @param outputFrames 期望产出的输出帧数
+     * @return 还需追加的输入帧数，已足够时返回 0
+     */
+    public int getRequiredInputFrames(int outputFrames) {
+        if (outputFrames <= 0) {
+            return 0;
+        }
+        long lastIndex = (getPositionUnits() + (long) (outputFrames - 1) * stepNumerator) / phaseDenominator;
+        return (int) Math.max(0L, lastIndex + rightContext + 1 - bufferedFrames);
+    }
+
+    /**
+     * 返回已缓存但尚未被输出消费的输入帧数（不含插值邻域补帧），用于估算待播时长
+     */
+    public int getBufferedInputFrames() {
+        return Math.max(0, bufferedFrames - positionFrames - (inputEnded ? rightContext : 0));
+    }
+
+    /**
+     * 插值产出浮点输出帧
+     *
+     * @param output    输出交织块，长度至少为 {@code maxFrames * channelCount}
+     * @param maxFrames 本次最多产出的帧数
+     * @return 实际产出的帧数
+     */
+    public int read(@NonNull float[] output, int maxFrames) {
+        int frames = Math.min(maxFrames, getAvailableOutputFrames());
+        if (frames <= 0) {
+            return 0;
+        }
+        switch (quality) {
+            case LOW:
+                readLinear(output, frames);
+                break;
+            case MEDIUM:
+                readCubic(output, frames);
+                break;
+            default:
+                readSinc(output, frames);
+                break;
+        }
+        advance(frames);
+        compact();
+        return frames;
+    }
+
+    /**
+     * 插值产出 16-bit PCM，写入 {@code output} 的 position 处并推进 position
+     *
+     * @param output    目标缓冲区，剩余空间至少为 {@code maxFrames * channelCount * 2} 字节
+     * @param maxFrames 本次最多产出的帧数
+     * @return 实际产出的帧数
+     */
+    public int read(@NonNull ByteBuffer output, int maxFrames) {
+        int samples = maxFrames * channelCount;
+        if (outputScratch == null || outputScratch.length < samples) {
+            outputScratch = new float[samples];
+        }
+        int frames = read(outputScratch, maxFrames);
+        float[] scratch = outputScratch;
+        for (int i = 0, n = frames * channelCount; i < n; i++) {
+            float value = scratch[i] * 32768f;
+            if (value > Short.MAX_VALUE) {
+                value = Short.MAX_VALUE;
+            } else if (value < Short.MIN_VALUE) {
+                value = Short.MIN_VALUE;
+            }
+            output.putShort((short) value);
+        }
+        return frames;
+    }
+
+    /**
+     * 跳过输出帧：只推进读位置、不做插值，供调用方在 CPU 预算不足时保持时间轴
+     *
+     * @param maxFrames 期望跳过的输出帧数
+     * @return 实际跳过的帧数
+     */
+    public int skip(int maxFrames) {
+        int frames = Math.min(maxFrames, getAvailableOutputFrames());
+        if (frames <= 0) {
+            return 0;
+        }
+        advance(frames);
+        compact();
+        return frames;
+    }
+
+    /**
+     * 输入已结束且缓存已全部输出
+     */
+    public boolean isEnded() {
+        return inputEnded && getAvailableOutputFrames() == 0;
+    }
+
+    /**
+     * 清空缓存与读位置，可重新开始接收输入
+     */
+    public void reset() {
+        // 预置左侧邻域的静音帧，使第一个输出帧与第一个输入帧对齐
+        Arrays.fill(inputBuffer, 0, leftContext * channelCount, 0f);
+        bufferedFrames = leftContext;
+        positionFrames = leftContext;
+        positionPhase = 0;
+        inputEnded = false;
+    }
+
+    private void readLinear(float[] output, int frames) {
+        float[] buffer = inputBuffer;
+        int channels = channelCount;
+        int index = positionFrames;
+        int phase = positionPhase;
+        for (int f = 0, outBase = 0; f < frames; f++, outBase += channels) {
+            float frac = phase * inversePhaseDenominator;
+            int base = index * channels;
+            for (int c = 0; c < channels; c++) {
+                float left = buffer[base + c];
+                output[outBase + c] = left + (buffer[base + channels + c] - left) * frac;
+            }
+            phase += stepNumerator;
+            index += phase / phaseDenominator;
+            phase %= phaseDenominator;
+        }
+    }
+
+    private void readCubic(float[] output, int frames) {
+        float[] buffer = inputBuffer;
+        int channels = channelCount;
+        int index = positionFrames;
+        int phase = positionPhase;
+        for (int f = 0, outBase = 0; f < frames; f++, outBase += channels) {
+            float t = phase * inversePhaseDenominator;
+            int base = index * channels;
+            for (int c = 0; c < channels; c++) {
+                float p0 = buffer[base - channels + c];
+                float p1 = buffer[base + c];
+                float p2 = buffer[base + channels + c];
+                float p3 = buffer[base + 2 * channels + c];
+                output[outBase + c] = p1 + 0.5f * t * (p2 - p0
+                        + t * (2f * p0 - 5f * p1 + 4f * p2 - p3
+                        + t * (3f * (p1 - p2) + p3 - p0)));
+            }
+            phase += stepNumerator;
+            index += phase / phaseDenominator;
+            phase %= phaseDenominator;
+        }
+    }
+
+    private void readSinc(float[] output, int frames) {
+        float[] buffer = inputBuffer;
+        float[] table = sincTable;
+        int channels = channelCount;
+        int taps = sincTaps;
+        int index = positionFrames;
+        int phase = positionPhase;
+        for (int f = 0, outBase = 0; f < frames; f++, outBase += channels) {
+            float phasePosition = phase * inversePhaseDenominator * SINC_PHASES;
+            int row = Math.min((int) phasePosition, SINC_PHASES - 1);
+            float phaseFrac = phasePosition - row;
+            int row0 = row * taps;
+            int row1 = row0 + taps;
+            int firstBase = (index - leftContext) * channels;
+            for (int c = 0; c < channels; c++) {
+                float acc = 0f;
+                int sample = firstBase + c;
+                for (int k = 0; k < taps; k++, sample += channels) {
+                    float coefficient = table[row0 + k] + (table[row1 + k] - table[row0 + k]) * phaseFrac;
+                    acc += buffer[sample] * coefficient;
+                }
+                output[outBase + c] = acc;
+            }
+            phase += stepNumerator;
+            index += phase / phaseDenominator;
+            phase %= phaseDenominator;
+        }
+    }
+
+    /**
+     * 丢弃左侧邻域之外、已不再参与插值的输入帧
+     */
+    private void compact() {
+        int consumed = Math.min(positionFrames - leftContext, bufferedFrames);
+        if (consumed <= 0) {
+            return;
+        }
+        int remaining = bufferedFrames - consumed;
+        if (remaining > 0) {
+            System.arraycopy(inputBuffer, consumed * channelCount, inputBuffer, 0, remaining * channelCount);
+        }
+        bufferedFrames = remaining;
+        positionFrames -= consumed;
+    }
+
+    private long getPositionUnits() {
+        return (long) positionFrames * phaseDenominator + positionPhase;
+    }
+
+    /**
+     * 读位置前进 {@code frames} 个输出帧
+     */
+    private void advance(int frames) {
+        long units = getPositionUnits() + (long) frames * stepNumerator;
+        positionFrames = (int) (units / phaseDenominator);
+        positionPhase = (int) (units % phaseDenominator);
+    }
+
+    private void ensureInputCapacity(int frames) {
+        int required = frames * channelCount;
+        if (inputBuffer.length >= required) {
+            return;
+        }
+        float[] expanded = new float[Math.max(required, inputBuffer.length * 2)];
+        System.arraycopy(inputBuffer, 0, expanded, 0, bufferedFrames * channelCount);
+        inputBuffer = expanded;
+    }
+}
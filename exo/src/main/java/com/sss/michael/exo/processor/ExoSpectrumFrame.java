@@ -0,0 +1,103 @@
+package com.sss.michael.exo.processor;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 15:00
+ * @Description 频谱帧
+ * 一次 FFT 分析的结果：FFT 原始数据与（可选的）幅度数据。帧对象及其数组由生产方预分配并循环复用，
+ * 只在回调期间有效；需要跨帧保存数据的监听器请自行拷贝
+ */
+public final class ExoSpectrumFrame {
+
+    private static final float[] EMPTY = new float[0];
+
+    private int sampleRateHz;
+    private int channelCount;
+    // FFT 输出，偶数位为实部，奇数位为虚部，长度等于 FFT 样本大小
+    private float[] fft = EMPTY;
+    // 幅度数据，长度为 FFT 样本大小的一半；对数频带模式下为频带数
+    private float[] magnitude = EMPTY;
+    private boolean hasMagnitude;
+    // 帧序号，从 1 开始递增，0 表示尚未写入过
+    private long sequence;
+    // 生成帧时的 System.nanoTime()
+    private long timestampNs;
+
+    public int getSampleRateHz() {
+        return sampleRateHz;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    /**
+     * FFT 原始数据，数组长度即有效长度
+     */
+    public float[] getFft() {
+        return fft;
+    }
+
+    /**
+     * 频谱幅度数据，{@link #hasMagnitude()} 为 false 时为空数组
+     */
+    public float[] getMagnitude() {
+        return hasMagnitude ? magnitude : EMPTY;
+    }
+
+    public boolean hasMagnitude() {
+        return hasMagnitude;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampNs() {
+        return timestampNs;
+    }
+
+    /**
+     * 获取长度恰好为 size 的 FFT 数组，长度变化时才重新分配
+     */
+    float[] obtainFft(int size) {
+        if (fft.length != size) {
+            fft = new float[size];
+        }
+        return fft;
+    }
+
+    /**
+     * 获取长度恰好为 size 的幅度数组，长度变化时才重新分配
+     */
+    float[] obtainMagnitude(int size) {
+        if (magnitude.length != size) {
+            magnitude = new float[size];
+        }
+        return magnitude;
+    }
+
+    /**
+     * 数据写完后标记帧信息
+     */
+    void markReady(int sampleRateHz, int channelCount, boolean hasMagnitude, long sequence, long timestampNs) {
+        this.sampleRateHz = sampleRateHz;
+        this.channelCount = channelCount;
+        this.hasMagnitude = hasMagnitude;
+        this.sequence = sequence;
+        this.timestampNs = timestampNs;
+    }
+
+    /**
+     * 拷贝另一帧的全部内容，数组长度一致时不产生分配
+     */
+    void copyFrom(ExoSpectrumFrame source) {
+        float[] sourceFft = source.fft;
+        System.arraycopy(sourceFft, 0, obtainFft(sourceFft.length), 0, sourceFft.length);
+        if (source.hasMagnitude) {
+            float[] sourceMagnitude = source.magnitude;
+            System.arraycopy(sourceMagnitude, 0, obtainMagnitude(sourceMagnitude.length), 0, sourceMagnitude.length);
+        }
+        markReady(source.sampleRateHz, source.channelCount, source.hasMagnitude, source.sequence, source.timestampNs);
+    }
+}
@@ -0,0 +1,58 @@
+package com.sss.michael.exo.processor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 15:05
+ * @Description 频谱帧三缓冲交换区
+ * 单生产者单消费者：生产方把新帧写入后台槽位后与中间槽位交换，消费方（通常在 vsync 时）
+ * 只在中间槽位有新帧时与前台槽位交换。双方都不加锁、不等待、不分配，
+ * 生产快于消费时旧帧被直接覆盖，消费方总是拿到最新一帧
+ */
+public final class ExoSpectrumFrameExchange {
+
+    // 中间槽位状态：低两位为槽位下标，DIRTY 位表示有消费方尚未取走的新帧
+    private static final int INDEX_MASK = 0x3;
+    private static final int DIRTY = 0x4;
+
+    private final ExoSpectrumFrame[] slots = {
+            new ExoSpectrumFrame(), new ExoSpectrumFrame(), new ExoSpectrumFrame()
+    };
+    private final AtomicInteger middle = new AtomicInteger(1);
+    // 生产方独占的后台槽位
+    private int backIndex = 0;
+    // 消费方独占的前台槽位
+    private int frontIndex = 2;
+
+    /**
+     * 发布一帧（生产线程调用），内容拷贝到预分配的槽位中，source 可立即复用
+     *
+     * @param source 新帧
+     */
+    public void publish(ExoSpectrumFrame source) {
+        slots[backIndex].copyFrom(source);
+        backIndex = middle.getAndSet(backIndex | DIRTY) & INDEX_MASK;
+    }
+
+    /**
+     * 是否有消费方尚未取走的新帧
+     */
+    public boolean hasNewFrame() {
+        return (middle.get() & DIRTY) != 0;
+    }
+
+    /**
+     * 取最新一帧（消费线程调用）
+     * 返回的帧在下一次调用本方法之前保持不变；没有新帧时返回上一次取到的帧
+     *
+     * @return 最新帧，从未发布过时返回 null
+     */
+    public ExoSpectrumFrame acquireLatest() {
+        if (hasNewFrame()) {
+            frontIndex = middle.getAndSet(frontIndex) & INDEX_MASK;
+        }
+        ExoSpectrumFrame frame = slots[frontIndex];
+        return frame.getSequence() == 0 ? null : frame;
+    }
+}
@@ -1,18 +1,21 @@
 package com.sss.michael.exo.processor;
 
 import android.annotation.SuppressLint;
-import android.os.SystemClock;
+import android.os.Handler;
 
 import androidx.media3.common.util.UnstableApi;
 
 import com.sss.michael.exo.ExoConfig;
 import com.sss.michael.exo.callback.IExoFFTCallBack;
+import com.sss.michael.exo.callback.IExoFFTFrameCallBack;
+import com.sss.michael.exo.constant.ExoFftWindow;
 import com.sss.michael.exo.util.ExoLog;
+import com.sss.michael.exo.util.ExoTimingHistogram;
 
-import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import be.tarsos.dsp.util.fft.FFT;
+import be.tarsos.dsp.util.fft.FloatFFT;
 
 /**
  * @author Michael by SSS
@@ -22,47 +25,68 @@ import be.tarsos.dsp.util.fft.FFT;
 @UnstableApi
 public class ExoSpectrumProcessor extends ExoBaseAudioProcessor {
 
-    // FFT样本大小（必须为2的幂，影响频谱分辨率）
-    private int sampleSize;
-    // FFT计算间隔（毫秒），由最大帧率推导得出
-    private long fftIntervalMs;
-
-    // 存储待进行FFT分析的音频浮点数组
-    private float[] audioFloats;
-    // TarsosDSP的FFT工具类实例
-    private FFT fft;
-    // FFT数据回调监听器
-    private IExoFFTCallBack iExoFFTCallBack;
-    // 上一次执行FFT的时间戳，用于控制帧率
-    private long lastFftTime = 0;
-    // 环形缓冲区，用于缓存音频样本（避免数据溢出，高效存取）
-    private CircularShortBuffer sampleBuffer;
-    // 汉宁窗数组，用于抑制FFT频谱泄漏
-    private float[] hanningWindow;
-
-    // process方法耗时统计（单位：纳秒）
-    private long processTotalTimeNs = 0;
-    private long processCallCount = 0;
-    private long processMaxTimeNs = 0;
-    private long processMinTimeNs = Long.MAX_VALUE;
-    // performFftAnalysis方法耗时统计
-    private long fftTotalTimeNs = 0;
-    private long fftCallCount = 0;
-    private long fftMaxTimeNs = 0;
-    private long fftMinTimeNs = Long.MAX_VALUE;
-    // calculateAndCallbackMagnitude方法耗时统计
-    private long magnitudeTotalTimeNs = 0;
-    private long magnitudeCallCount = 0;
-    private long magnitudeMaxTimeNs = 0;
-    private long magnitudeMinTimeNs = Long.MAX_VALUE;
-    // 统计输出间隔
-    private long lastStatPrintTimeMs = 0;
+    // 跳步模式下单个分析周期最多分析的窗口数，积压更多时跳过最旧的窗口
+    private static final int MAX_WINDOWS_PER_ANALYSIS = 16;
+
+    // FFT样本大小（必须为2的幂，影响频谱分辨率），可在任意线程修改，分析线程在下一帧生效
+    private volatile int sampleSize;
+    // 幅度输出的对数频带数，0 表示输出全部线性 bin
+    private volatile int bandCount;
+    // 窗函数类型，分析线程在下一帧生效
+    private volatile ExoFftWindow windowType;
+    // 相邻分析窗口的跳步帧数，0 表示每个分析周期只取最新窗口
+    private volatile int hopSize;
+    // 分析线程当前使用的样本大小，与 sampleSize 不一致时重建 FFT 相关数组
+    private int analysisSampleSize;
+
+    // 以下字段仅由分析线程访问
+    // 预分配的分析帧：加窗样本直接写入帧内 FFT 数组并原地变换，幅度也直接写入帧内，稳定运行期间不分配
+    private final ExoSpectrumFrame analysisFrame = new ExoSpectrumFrame();
+    // 幅度计算的中间结果（平滑前），长度为 FFT 样本大小的一半
+    private float[] rawMagnitude;
+    // 本周期各窗口的 bin 功率累加值，用于多窗口平均
+    private float[] powerSum;
+    // 频带模式下平滑后、聚合前的 bin 幅度
+    private float[] smoothedMagnitude;
+    // 每 bin 增益与对数频带区间的预计算表
+    private final ExoSpectrumShapingTable shapingTable = new ExoSpectrumShapingTable();
+    // 已生成的帧序号
+    private long frameSequence;
+    // 实数输入 FFT（JTransforms 分裂基实现，旋转因子在构造时预计算）
+    private FloatFFT fft;
+    // 窗函数数组，已归一化相干增益并乘以 1/N
+    private float[] window;
+    // window 数组对应的窗函数类型
+    private ExoFftWindow analysisWindowType;
+    // 跳步模式下下一个待分析窗口的结束写入计数，及其所属的缓冲区
+    private long nextHopEndCount;
+    private CircularFloatBuffer hopBuffer;
+    // 上一次分析时样本缓冲区的写入计数，用于判断是否有新数据（暂停时停止调度）
+    private long lastAnalyzedWriteCount = -1;
+
+    // FFT数据回调监听器（在分析线程回调）
+    private volatile IExoFFTCallBack iExoFFTCallBack;
+    // 无锁环形缓冲区：音频线程单写，分析线程单读，只在格式变化时由音频线程重建
+    private volatile CircularFloatBuffer sampleBuffer;
+    // 分析任务是否已在分析线程排队，保证同一时刻最多一个待执行任务
+    private final AtomicBoolean analysisScheduled = new AtomicBoolean(false);
+    private final Runnable analysisRunnable = this::runAnalysis;
+    private volatile boolean released;
+
+    // 音频线程的 queueInput 耗时由基类统计；以下为分析线程的 FFT / 幅度计算耗时（分析线程写入）
+    private final ExoTimingHistogram fftTimingHistogram = new ExoTimingHistogram("FFT分析");
+    private final ExoTimingHistogram magnitudeTimingHistogram = new ExoTimingHistogram("幅度计算");
+    // 打印日志时读取音频线程统计用的快照（分析线程读写）
+    private final ExoTimingHistogram processTimingSnapshot = new ExoTimingHistogram(null);
+    // 读取窗口期间被音频线程覆盖而丢弃的帧数（分析线程读写）
+    private long droppedFrameCount = 0;
+    private long lastAnalysisStatPrintTimeMs = 0;
 
     public ExoSpectrumProcessor() {
         this.sampleSize = ExoConfig.FFT_SAMPLE_SIZE;
-        // 计算FFT执行间隔：1000毫秒 / 最大帧率
-        this.fftIntervalMs = 1000 / ExoConfig.FFT_MAX_FPS;
-        initSampleConfig(sampleSize);
+        this.bandCount = Math.max(0, ExoConfig.SPECTRUM_BAND_COUNT);
+        this.windowType = ExoConfig.FFT_WINDOW != null ? ExoConfig.FFT_WINDOW : ExoFftWindow.HANN;
+        this.hopSize = Math.max(0, ExoConfig.FFT_HOP_SIZE);
     }
 
     /**
@@ -76,36 +100,104 @@ public class ExoSpectrumProcessor extends ExoBaseAudioProcessor {
             ExoLog.log("ExoSpectrumProcessor 无效样本大小：" + sampleSize + "，范围[64,2048]且为2的幂，本次设置跳过");
             return;
         }
+        // 缓冲区容量不足时由音频线程在下一次 process 中重建，FFT 数组由分析线程在下一帧重建
         this.sampleSize = sampleSize;
-        // 计算FFT执行间隔
-        this.fftIntervalMs = 1000 / ExoConfig.FFT_MAX_FPS;
-        initSampleConfig(sampleSize);
     }
 
     /**
-     * 初始化FFT相关的样本配置
+     * 设置幅度输出的对数频带数
+     * 大于 0 时幅度数据按对数频率聚合为 bandCount 个显示频带（[SPECTRUM_BAND_MIN_HZ, 奈奎斯特频率]），
+     * 频谱视图可直接按下标绘制，无需再对全部 bin 重新分组；0 表示输出全部线性 bin
+     *
+     * @param bandCount 频带数，需不小于 0
+     */
+    public void setBandCount(int bandCount) {
+        if (bandCount < 0) {
+            ExoLog.log("ExoSpectrumProcessor 无效频带数：" + bandCount + "，本次设置跳过");
+            return;
+        }
+        this.bandCount = bandCount;
+    }
+
+    /**
+     * 设置窗函数
+     *
+     * @param windowType 窗函数类型，见 {@link ExoFftWindow}
+     */
+    public void setWindow(ExoFftWindow windowType) {
+        if (windowType == null) {
+            ExoLog.log("ExoSpectrumProcessor 窗函数为空，本次设置跳过");
+            return;
+        }
+        this.windowType = windowType;
+    }
+
+    /**
+     * 设置相邻分析窗口的跳步帧数
+     * 大于 0 时每个分析周期从上次位置起按跳步连续分析多个窗口，并对 bin 功率取平均（Welch 法）：
+     * 跳步小于样本大小即为重叠分析，长窗口也能得到平稳、无遗漏的频谱，回调帧率仍由 {@link ExoConfig#FFT_MAX_FPS} 决定。
+     * 单个周期最多分析 {@link #MAX_WINDOWS_PER_ANALYSIS} 个窗口，超出时跳过最旧的部分；0 表示每个周期只分析最新窗口
+     *
+     * @param hopSize 跳步帧数，需不小于 0
+     */
+    public void setHopSize(int hopSize) {
+        if (hopSize < 0) {
+            ExoLog.log("ExoSpectrumProcessor 无效跳步：" + hopSize + "，本次设置跳过");
+            return;
+        }
+        this.hopSize = hopSize;
+    }
+
+    /**
+     * 初始化FFT相关的样本配置（分析线程调用）
      *
      * @param sampleSize FFT样本大小
      */
     private void initSampleConfig(int sampleSize) {
-        this.audioFloats = new float[sampleSize];
-        this.fft = new FFT(sampleSize);
-        this.sampleBuffer = new CircularShortBuffer(getNextPowerOfTwo(sampleSize * 2));
-        this.hanningWindow = createHanningWindow(sampleSize);
+        this.analysisSampleSize = sampleSize;
+        this.rawMagnitude = new float[sampleSize >> 1];
+        this.smoothedMagnitude = new float[sampleSize >> 1];
+        this.powerSum = new float[sampleSize >> 1];
+        this.fft = new FloatFFT(sampleSize);
+        this.window = null;
     }
 
     /**
-     * 创建汉宁窗（Hanning Window）
-     * 作用：减少FFT分析时的频谱泄漏，让频谱结果更准确
-     * 公式：w(n) = 0.5 * (1 - cos(2πn / (size - 1)))
+     * 创建窗函数数组
+     * 作用：减少FFT分析时的频谱泄漏。各窗按相干增益归一化到汉宁窗的 0.5，切换窗函数时频谱整体电平不变；
+     * 同时乘以 1/N，使正向变换结果与 DFT/N 一致，变换后无需再逐点缩放
+     * 汉宁窗：w(n) = 0.5 * (1 - cos(2πn / (size - 1)))
      *
+     * @param type 窗函数类型
      * @param size 窗函数大小（与FFT样本大小一致）
-     * @return 汉宁窗数组
+     * @return 窗函数数组
      */
-    private float[] createHanningWindow(int size) {
+    private float[] createWindow(ExoFftWindow type, int size) {
+        // 余弦和窗系数：w(n) = a0 - a1·cos(x) + a2·cos(2x) - a3·cos(3x) + a4·cos(4x)
+        double[] coefficients;
+        switch (type) {
+            case BLACKMAN_HARRIS:
+                coefficients = new double[]{0.35875, 0.48829, 0.14128, 0.01168};
+                break;
+            case FLAT_TOP:
+                coefficients = new double[]{0.21557895, 0.41663158, 0.277263158, 0.083578947, 0.006947368};
+                break;
+            case HANN:
+            default:
+                coefficients = new double[]{0.5, 0.5};
+                break;
+        }
+        // 相干增益约等于 a0，统一缩放到汉宁窗的 0.5
+        double scale = 0.5 / coefficients[0] / size;
         float[] window = new float[size];
         for (int i = 0; i < size; i++) {
-            window[i] = (float) (0.5 * (1 - Math.cos(2 * Math.PI * i / (size - 1))));
+            double x = 2 * Math.PI * i / (size - 1);
+            double value = 0;
+            for (int k = 0; k < coefficients.length; k++) {
+                double term = coefficients[k] * Math.cos(k * x);
+                value += (k & 1) == 0 ? term : -term;
+            }
+            window[i] = (float) (value * scale);
         }
         return window;
     }
@@ -131,6 +223,8 @@ public class ExoSpectrumProcessor extends ExoBaseAudioProcessor {
 
     /**
      * 设置FFT数据回调监听器
+     * 回调在低优先级的分析线程触发，需要更新 UI 的监听器应自行切换到主线程。
+     * 监听器实现 {@link IExoFFTFrameCallBack} 时直接收到复用的 {@link ExoSpectrumFrame}，不再每帧拷贝数组
      *
      * @param iExoFFTCallBack 监听器实例，用于接收FFT数据和幅度数据
      */
@@ -139,439 +233,565 @@ public class ExoSpectrumProcessor extends ExoBaseAudioProcessor {
     }
 
     /**
-     * 音频数据透传 + 样本缓存 + FFT分析
+     * 样本缓存（音频数据由基类原样透传）
+     * 音频线程只把样本拷入无锁环形缓冲区并按需投递分析任务，FFT 与幅度计算在分析线程按
+     * {@link ExoConfig#FFT_MAX_FPS} 执行；分析跟不上时直接丢帧，不会阻塞音频线程
      *
-     * @param input        输入音频缓冲区
-     * @param output       输出音频缓冲区
+     * @param samples      交织浮点样本（[-1,1]）
+     * @param frameCount   帧数
      * @param sampleRateHz 音频采样率
      * @param channelCount 音频声道数
      */
     @Override
-    protected void process(ByteBuffer input, ByteBuffer output, int sampleRateHz, int channelCount) {
-        long processStartNs = System.nanoTime();
+    protected void process(float[] samples, int frameCount, int sampleRateHz, int channelCount) {
         try {
-            // 记录输入缓冲区的原始位置和限制，避免修改外部缓冲区状态
-            int position = input.position();
-            int limit = input.limit();
-            int tempPos = position;
-
-            while (tempPos + channelCount * 2 <= limit) {
-                for (int c = 0; c < channelCount; c++) {
-                    // 读取16位音频样本（short类型，占2字节）
-                    short sample = input.getShort(tempPos + c * 2);
-                    sampleBuffer.put(sample);
-                }
-                tempPos += channelCount * 2;
-            }
-            // 帧率控制的容错
-            long now = SystemClock.elapsedRealtime();
-
-            // 如果检测到当前时间与上次 FFT 时间间隔过大（比如暂停了很久）
-            // 强制重置 lastFftTime，防止暂停后的第一帧因为计算间隔错误而被跳过
-            if (now - lastFftTime > 1000) {
-                lastFftTime = now;
-            }
-            // 帧率控制：判断是否达到FFT执行间隔，且监听器已设置
-            if (iExoFFTCallBack != null && SystemClock.elapsedRealtime() - lastFftTime > fftIntervalMs) {
-                // 校验缓冲区可用数据是否满足FFT样本要求
-                if (sampleBuffer.getAvailableDataSize() >= sampleSize * 2) {
-                    performFftAnalysis(sampleRateHz, channelCount);
-                    lastFftTime = now;
-                }
+            if (iExoFFTCallBack == null || released) {
+                return;
             }
-            output.put(input);
+            int sampleCount = frameCount * channelCount;
+            CircularFloatBuffer buffer = obtainSampleBuffer(sampleRateHz, channelCount, sampleCount);
+            buffer.write(samples, sampleCount);
+            scheduleAnalysis();
         } catch (Exception e) {
-            // 异常时仍透传数据，避免音频播放中断
+            // 异常时仍由基类透传数据，避免音频播放中断
             ExoLog.log("ExoSpectrumProcessor 处理异常，已透传数据", e);
-            output.put(input);
-        } finally {
-            updateProcessTimeStat(System.nanoTime() - processStartNs);
-            long currentTimeMs = System.currentTimeMillis();
-            if (currentTimeMs - lastStatPrintTimeMs >= ExoConfig.FFT_STAT_PRINT_INTERVAL_MS) {
-                printCpuTimeStat();
-                lastStatPrintTimeMs = currentTimeMs;
+        }
+    }
+
+    /**
+     * 获取与当前格式匹配的样本缓冲区（音频线程调用）
+     * 容量至少为 4 个 FFT 窗口且能容纳两个输入块，保证分析线程读取窗口期间不易被覆盖；
+     * 跳步模式下还需容纳两个分析周期的输入；
+     * 仅在格式、样本大小或输入块变大时重建
+     */
+    private CircularFloatBuffer obtainSampleBuffer(int sampleRateHz, int channelCount, int sampleCount) {
+        CircularFloatBuffer buffer = sampleBuffer;
+        int requiredCapacity = Math.max(sampleSize * channelCount * 4, sampleCount * 2);
+        if (hopSize > 0) {
+            // 跳步模式需保留一个分析周期内的全部新样本，另加一个窗口长度
+            int framesPerAnalysis = sampleRateHz / Math.max(1, ExoConfig.FFT_MAX_FPS);
+            requiredCapacity = Math.max(requiredCapacity, (framesPerAnalysis + sampleSize) * channelCount * 2);
+        }
+        if (buffer == null
+                || buffer.sampleRateHz != sampleRateHz
+                || buffer.channelCount != channelCount
+                || buffer.capacity() < requiredCapacity) {
+            buffer = new CircularFloatBuffer(getNextPowerOfTwo(requiredCapacity), sampleRateHz, channelCount);
+            sampleBuffer = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * 投递分析任务（任意线程调用，已有待执行任务时直接返回）
+     */
+    private void scheduleAnalysis() {
+        if (analysisScheduled.compareAndSet(false, true)) {
+            ExoAudioAnalysisThread.getHandler().postDelayed(analysisRunnable, getFftIntervalMs());
+        }
+    }
+
+    /**
+     * FFT计算间隔（毫秒），由最大帧率推导得出
+     */
+    private static long getFftIntervalMs() {
+        return 1000 / Math.max(1, ExoConfig.FFT_MAX_FPS);
+    }
+
+    /**
+     * 分析线程任务：对最新窗口执行一次分析，有新数据时按帧间隔继续调度，否则停止
+     */
+    private void runAnalysis() {
+        CircularFloatBuffer buffer = sampleBuffer;
+        IExoFFTCallBack callBack = iExoFFTCallBack;
+        if (released || buffer == null || callBack == null) {
+            analysisScheduled.set(false);
+            return;
+        }
+        long writeCount = buffer.getWriteCount();
+        if (writeCount == lastAnalyzedWriteCount) {
+            // 暂停或输入中断：停止调度，音频线程写入新数据时重新投递
+            analysisScheduled.set(false);
+            if (sampleBuffer != buffer || buffer.getWriteCount() != writeCount) {
+                scheduleAnalysis();
             }
+            return;
+        }
+        lastAnalyzedWriteCount = writeCount;
+        long analysisStartMs = System.currentTimeMillis();
+        try {
+            performFftAnalysis(buffer, writeCount, callBack);
+        } catch (Exception e) {
+            ExoLog.log("ExoSpectrumProcessor 分析异常，本帧跳过", e);
         }
+        if (analysisStartMs - lastAnalysisStatPrintTimeMs >= ExoConfig.FFT_STAT_PRINT_INTERVAL_MS) {
+            printAnalysisTimeStat();
+            lastAnalysisStatPrintTimeMs = analysisStartMs;
+        }
+        ExoAudioAnalysisThread.getHandler().postDelayed(analysisRunnable, getFftIntervalMs());
+    }
+
+    /**
+     * 频谱处理器只做分析，不修改音频内容
+     */
+    @Override
+    protected boolean isOutputModified() {
+        return false;
     }
 
     /**
-     * 执行FFT分析核心逻辑
+     * 执行FFT分析核心逻辑（分析线程调用）
      *
-     * @param sampleRateHz 音频采样率
-     * @param channelCount 音频声道数
+     * @param buffer     样本缓冲区
+     * @param writeCount 本次分析对应的缓冲区写入计数
+     * @param callBack   回调监听器
      */
-    private void performFftAnalysis(int sampleRateHz, int channelCount) {
+    private void performFftAnalysis(CircularFloatBuffer buffer, long writeCount, IExoFFTCallBack callBack) {
         long fftStartNs = System.nanoTime();
-        // 缓冲区当前可用的总采样点数
-        int availableTotalSamples = sampleBuffer.getAvailableDataSize() / (channelCount * 2);
+        int size = sampleSize;
+        if (analysisSampleSize != size || rawMagnitude == null) {
+            initSampleConfig(size);
+        }
+        ExoFftWindow type = windowType;
+        if (window == null || analysisWindowType != type) {
+            window = createWindow(type, size);
+            analysisWindowType = type;
+        }
+        int channelCount = buffer.channelCount;
+        int sampleRateHz = buffer.sampleRateHz;
+        int windowSamples = size * channelCount;
 
-        // 如果样本不足以支撑一次完整的连续 FFT，直接跳过
-        if (availableTotalSamples < sampleSize) {
-            ExoLog.log("ExoSpectrumProcessor 可用样本数不足：" + availableTotalSamples + " < " + sampleSize + "，跳过FFT");
+        // 如果样本不足以支撑一次完整的连续 FFT，等待下一帧
+        int available = buffer.getAvailableSampleCount(writeCount);
+        if (available < windowSamples) {
             return;
         }
 
-        int startSampleIndex = availableTotalSamples - sampleSize;
-        // 顺序读取连续样本
-        for (int i = 0; i < sampleSize; i++) {
-            // 计算在逻辑上的样本索引
-            int logicalIndex = startSampleIndex + i;
-            // 转换为字节偏移量
-            int byteOffset = logicalIndex * channelCount * 2;
-
-            // 合并多声道
-            float sum = 0;
-            for (int c = 0; c < channelCount; c++) {
-                short sample = sampleBuffer.get(byteOffset + c * 2);
-                sum += sample;
+        // 确定本周期要分析的窗口：[firstEnd, writeCount] 内每隔 step 个样本一个窗口结束点
+        int hop = hopSize;
+        long firstEnd = writeCount;
+        long step = windowSamples;
+        int windowCount = 1;
+        if (hop > 0) {
+            step = (long) hop * channelCount;
+            long earliestEnd = writeCount - available + windowSamples;
+            if (hopBuffer != buffer) {
+                // 新缓冲区（格式变化）从最新窗口开始
+                hopBuffer = buffer;
+                nextHopEndCount = writeCount;
+            } else if (nextHopEndCount < earliestEnd) {
+                // 待分析位置已被覆盖或被 flush，对齐到仍可读取的第一个窗口
+                nextHopEndCount += (earliestEnd - nextHopEndCount + step - 1) / step * step;
+            }
+            if (nextHopEndCount > writeCount) {
+                // 距上一个窗口还不足一个跳步
+                return;
             }
-            // 转换为浮点型（归一化到[-1,1]） + 应用汉宁窗，抑制频谱泄漏
-            audioFloats[i] = (sum / channelCount) / 32768.0f * hanningWindow[i];
+            long pending = (writeCount - nextHopEndCount) / step + 1;
+            if (pending > MAX_WINDOWS_PER_ANALYSIS) {
+                nextHopEndCount += (pending - MAX_WINDOWS_PER_ANALYSIS) * step;
+                pending = MAX_WINDOWS_PER_ANALYSIS;
+            }
+            firstEnd = nextHopEndCount;
+            windowCount = (int) pending;
+            nextHopEndCount = firstEnd + pending * step;
         }
 
-        // 执行正向FFT变换
-        fft.backwardsTransform(audioFloats);
-
-        // 传递数据副本
-        float[] fftCopy = Arrays.copyOf(audioFloats, audioFloats.length);
-        if (iExoFFTCallBack != null) {
-            iExoFFTCallBack.onFFTReady(sampleRateHz, channelCount, fftCopy);
+        // 逐窗口读取（合并多声道 + 加窗）并原地正向变换，帧内 FFT 数组保留最后一个窗口的结果
+        boolean hasMagnitude = ExoConfig.FFT_CALCULATE_MAGNITUDE;
+        float[] fftData = analysisFrame.obtainFft(size);
+        int analyzedCount = 0;
+        for (int w = 0; w < windowCount; w++) {
+            if (!buffer.readWindow(firstEnd + w * step, size, fftData, window)) {
+                droppedFrameCount++;
+                continue;
+            }
+            fft.realForward(fftData);
+            if (hasMagnitude) {
+                accumulatePower(fftData, analyzedCount == 0);
+            }
+            analyzedCount++;
         }
+        if (analyzedCount == 0) {
+            return;
+        }
+        fftTimingHistogram.record(System.nanoTime() - fftStartNs, 0);
 
-        updateFftTimeStat(System.nanoTime() - fftStartNs);
-
-        if (ExoConfig.FFT_CALCULATE_MAGNITUDE) {
-            calculateAndCallbackMagnitude(sampleRateHz);
+        if (hasMagnitude) {
+            calculateMagnitude(powerSum, analyzedCount, size, sampleRateHz);
+        }
+        analysisFrame.markReady(sampleRateHz, channelCount, hasMagnitude, ++frameSequence, fftStartNs);
+
+        if (callBack instanceof IExoFFTFrameCallBack) {
+            ((IExoFFTFrameCallBack) callBack).onSpectrumFrame(analysisFrame);
+        } else {
+            // 旧接口允许监听器持有数组，只能传递数据副本
+            callBack.onFFTReady(sampleRateHz, channelCount, Arrays.copyOf(fftData, fftData.length));
+            if (hasMagnitude) {
+                float[] magnitude = analysisFrame.getMagnitude();
+                callBack.onMagnitudeReady(sampleRateHz, Arrays.copyOf(magnitude, magnitude.length));
+            }
         }
     }
 
+    /**
+     * 累加一个窗口的 bin 功率
+     * fftData 为实数 FFT 的打包输出：fftData[0] 为直流分量，fftData[1] 为奈奎斯特分量（不参与显示），
+     * 其余偶数位为实部 (Re)，奇数位为虚部 (Im)
+     *
+     * @param fftData 变换后的窗口
+     * @param first   是否为本周期第一个窗口（覆盖而非累加）
+     */
+    private void accumulatePower(float[] fftData, boolean first) {
+        final float[] power = powerSum;
+        final int half = power.length;
+        float dc = fftData[0];
+        if (first) {
+            power[0] = dc * dc;
+            for (int i = 1; i < half; i++) {
+                float re = fftData[i << 1];
+                float im = fftData[(i << 1) + 1];
+                power[i] = re * re + im * im;
+            }
+        } else {
+            power[0] += dc * dc;
+            for (int i = 1; i < half; i++) {
+                float re = fftData[i << 1];
+                float im = fftData[(i << 1) + 1];
+                power[i] += re * re + im * im;
+            }
+        }
+    }
 
     /**
-     * 计算音频 FFT 幅度并回调。
+     * 计算音频 FFT 幅度并写入分析帧。
      * 数组结构说明：
-     * audioFloats：FFT 输出，偶数位为实部 (Re)，奇数位为虚部 (Im)
-     * half = audioFloats.length / 2：有效 FFT bin 数量
-     * mag：原始幅度（归一化 + log 压缩 + 增强）
-     * smooth：平滑后的幅度数组
+     * power：各 bin 在本周期所有窗口上的功率累加值，长度 half = 样本大小 / 2
+     * mag：原始幅度（平均功率开方后 log 压缩，再乘以预计算的 bin 增益并归一化），复用预分配数组
+     * 输出：平滑后的 bin 幅度；频带模式下再按对数频带聚合为 bandCount 个值
      *
-     * @param sampleRateHz 音频采样率，回调时传递给监听者
+     * @param power        bin 功率累加值
+     * @param windowCount  参与累加的窗口数
+     * @param size         FFT 样本大小
+     * @param sampleRateHz 采样率，用于换算对数频带
      */
-    private void calculateAndCallbackMagnitude(int sampleRateHz) {
+    private void calculateMagnitude(float[] power, int windowCount, int size, int sampleRateHz) {
         long startNs = System.nanoTime();
 
-        final float[] fftData = audioFloats; // FFT 输出数据
-        final int n = fftData.length;
-        final int half = n >> 1; // 只取前半部分有效频率
-
-        float[] mag = new float[half];
+        final int half = power.length; // 只取前半部分有效频率
 
-        final float scale = 2f / n;          // 幅度缩放系数
-        final float ampBoost = ExoConfig.FFT_AMPLITUDE_BOOST; // 全局增益系数
+        shapingTable.ensure(half, sampleRateHz, bandCount);
+        final float[] gains = shapingTable.getBinGains();
+        final float[] mag = rawMagnitude;
+        final float[] smooth = shapingTable.isBandMode()
+                ? smoothedMagnitude
+                : analysisFrame.obtainMagnitude(half);
 
-        float maxL = 1e-6f; // 左声道峰值
-        float maxR = 1e-6f; // 右声道峰值
-        final int mid = half >> 1;
+        final float scale = 2f / size;                 // 幅度缩放系数
+        final float inverseCount = 1f / windowCount;   // 功率平均
+        final float logK = ExoConfig.SPECTRUM_LOG_K;
 
         // 基础幅度计算 + log 压缩
+        float globalMax = 1e-6f; // 防止除 0
         for (int i = 0; i < half; i++) {
-            float re = fftData[i << 1];       // 实部
-            float im = fftData[(i << 1) + 1]; // 虚部
-
             // 幅度计算
-            float v = (float) Math.sqrt(re * re + im * im) * scale;
+            float v = (float) Math.sqrt(power[i] * inverseCount) * scale;
 
             // log 压缩，控制动态范围
-            v = v / (v + ExoConfig.SPECTRUM_LOG_K);
+            v = v / (v + logK);
 
             mag[i] = v;
-
-            // 分别记录左右声道峰值
-            if (i < mid) maxL = Math.max(maxL, v);
-            else maxR = Math.max(maxR, v);
+            if (v > globalMax) globalMax = v;
         }
-
-        // 归一化
-        float globalMax = Math.max(maxL, maxR);
-        if (globalMax < 1e-6f) globalMax = 1e-6f; // 防止除 0
-
+        // 归一化 + 频段增强（预计算增益表），限制最大幅度为 1
+        final float inverseMax = 1f / globalMax;
         for (int i = 0; i < half; i++) {
-            float x = i / (float) half;  // 归一化频率 (0~1)
-            float v = mag[i] / globalMax; // 归一化幅度 0~1
-
-            // 低频增强
-            float lowBoost = 1f;
-            if (x < ExoConfig.SPECTRUM_LOW_FREQ_END) {
-                float t = x / ExoConfig.SPECTRUM_LOW_FREQ_END;
-                // 曲线平滑增强：Base + Strength * (1 - (1-t)^2)
-                lowBoost = ExoConfig.SPECTRUM_LOW_BASE
-                        + ExoConfig.SPECTRUM_LOW_STRENGTH * (1f - (1f - t) * (1f - t));
-            }
-
-            // 高频增强
-            float highBoost = 1f;
-            if (x > ExoConfig.SPECTRUM_HIGH_FREQ_START) {
-                float t = (x - ExoConfig.SPECTRUM_HIGH_FREQ_START) / (1f - ExoConfig.SPECTRUM_HIGH_FREQ_START);
-                highBoost = 1f + ExoConfig.SPECTRUM_HIGH_STRENGTH * t * t; // 二次曲线增强
-            }
-
-            // 中频增强
-            float midBoost = 1f;
-            if (x > ExoConfig.SPECTRUM_MID_START && x < ExoConfig.SPECTRUM_MID_END) {
-                float t = (x - ExoConfig.SPECTRUM_MID_START)
-                        / (ExoConfig.SPECTRUM_MID_END - ExoConfig.SPECTRUM_MID_START);
-                float u = 2f * t - 1f; // 归一化到 [-1,1]
-                midBoost = ExoConfig.SPECTRUM_MID_BASE + ExoConfig.SPECTRUM_MID_STRENGTH * (1f - u * u);
-            }
-
-            // 频率扩散
-            float spread = (float) Math.pow(x, ExoConfig.SPECTRUM_SPREAD_EXP);
-
-            // 组合所有增益 + 全局放大
-            v *= lowBoost * highBoost * midBoost * spread * ampBoost;
-
-            // 限制最大幅度为 1
-            mag[i] = Math.min(v, 1f);
+            mag[i] = Math.min(mag[i] * inverseMax * gains[i], 1f);
         }
 
         // 平滑
-        float[] smooth = new float[half];
-        for (int i = 0; i < half; i++) {
-            float sum = mag[i] * ExoConfig.SPECTRUM_SMOOTH_CENTER; // 中心点权重
-            float w = ExoConfig.SPECTRUM_SMOOTH_CENTER;
-
-            if (i > 0) {
-                sum += mag[i - 1] * ExoConfig.SPECTRUM_SMOOTH_SIDE; // 左邻点权重
-                w += ExoConfig.SPECTRUM_SMOOTH_SIDE;
+        final float center = ExoConfig.SPECTRUM_SMOOTH_CENTER; // 中心点权重
+        final float side = ExoConfig.SPECTRUM_SMOOTH_SIDE;     // 左右邻点权重
+        if (half == 1) {
+            smooth[0] = mag[0];
+        } else {
+            smooth[0] = (mag[0] * center + mag[1] * side) / (center + side);
+            final float inverseWeight = 1f / (center + side + side);
+            for (int i = 1; i < half - 1; i++) {
+                smooth[i] = (mag[i] * center + (mag[i - 1] + mag[i + 1]) * side) * inverseWeight;
             }
-            if (i < half - 1) {
-                sum += mag[i + 1] * ExoConfig.SPECTRUM_SMOOTH_SIDE; // 右邻点权重
-                w += ExoConfig.SPECTRUM_SMOOTH_SIDE;
-            }
-
-            smooth[i] = sum / w;
+            smooth[half - 1] = (mag[half - 1] * center + mag[half - 2] * side) / (center + side);
         }
 
-        updateMagnitudeTimeStat(System.nanoTime() - startNs);
-        iExoFFTCallBack.onMagnitudeReady(sampleRateHz, smooth);
-    }
+        if (shapingTable.isBandMode()) {
+            shapingTable.aggregateBands(smooth, analysisFrame.obtainMagnitude(shapingTable.getOutputSize()));
+        }
 
-    /**
-     * 更新process方法耗时统计
-     */
-    private void updateProcessTimeStat(long costNs) {
-        processTotalTimeNs += costNs;
-        processCallCount++;
-        processMaxTimeNs = Math.max(processMaxTimeNs, costNs);
-        processMinTimeNs = Math.min(processMinTimeNs, costNs);
+        magnitudeTimingHistogram.record(System.nanoTime() - startNs, 0);
     }
 
     /**
-     * 更新FFT分析方法耗时统计
+     * 分析线程的 FFT 分析耗时统计
      */
-    private void updateFftTimeStat(long costNs) {
-        fftTotalTimeNs += costNs;
-        fftCallCount++;
-        fftMaxTimeNs = Math.max(fftMaxTimeNs, costNs);
-        fftMinTimeNs = Math.min(fftMinTimeNs, costNs);
+    public ExoTimingHistogram getFftTimingHistogram() {
+        return fftTimingHistogram;
     }
 
     /**
-     * 更新幅度计算方法耗时统计
+     * 分析线程的幅度计算耗时统计
      */
-    private void updateMagnitudeTimeStat(long costNs) {
-        magnitudeTotalTimeNs += costNs;
-        magnitudeCallCount++;
-        magnitudeMaxTimeNs = Math.max(magnitudeMaxTimeNs, costNs);
-        magnitudeMinTimeNs = Math.min(magnitudeMinTimeNs, costNs);
+    public ExoTimingHistogram getMagnitudeTimingHistogram() {
+        return magnitudeTimingHistogram;
     }
 
     /**
-     * 打印CPU耗时统计结果（转换为毫秒，便于阅读）
+     * 打印频谱处理器的耗时统计（转换为毫秒，便于阅读）
+     * 分析线程的 FFT / 幅度计算每次输出后重置；音频线程的 queueInput 统计为累计值，与其他处理器一致，供调试组件读取
      */
     @SuppressLint("DefaultLocale")
-    private void printCpuTimeStat() {
+    private void printAnalysisTimeStat() {
         if (!ExoConfig.LOG_ENABLE) {
             return;
         }
-        // 计算平均耗时
-        double processAvgMs = processCallCount > 0 ? (processTotalTimeNs / 1_000_000.0) / processCallCount : 0;
-        double fftAvgMs = fftCallCount > 0 ? (fftTotalTimeNs / 1_000_000.0) / fftCallCount : 0;
-        double magnitudeAvgMs = magnitudeCallCount > 0 ? (magnitudeTotalTimeNs / 1_000_000.0) / magnitudeCallCount : 0;
-
-        // 转换最大/最小耗时为毫秒
-        double processMaxMs = processMaxTimeNs / 1_000_000.0;
-        double processMinMs = processMinTimeNs == Long.MAX_VALUE ? 0 : processMinTimeNs / 1_000_000.0;
-        double fftMaxMs = fftMaxTimeNs / 1_000_000.0;
-        double fftMinMs = fftMinTimeNs == Long.MAX_VALUE ? 0 : fftMinTimeNs / 1_000_000.0;
-        double magnitudeMaxMs = magnitudeMaxTimeNs / 1_000_000.0;
-        double magnitudeMinMs = magnitudeMinTimeNs == Long.MAX_VALUE ? 0 : magnitudeMinTimeNs / 1_000_000.0;
-
-        // 统计日志
+        getTimingHistogram().copyInto(processTimingSnapshot);
         StringBuilder statLog = new StringBuilder();
-        statLog.append("===== 频谱分析 CPU耗时统计（最近" + (ExoConfig.FFT_STAT_PRINT_INTERVAL_MS / 1000) + "秒）=====\n");
-        statLog.append(String.format("process方法：调用%d次 | 平均%.3fms | 最大%.3fms | 最小%.3fms\n",
-                processCallCount, processAvgMs, processMaxMs, processMinMs));
-        statLog.append(String.format("FFT分析：调用%d次 | 平均%.3fms | 最大%.3fms | 最小%.3fms\n",
-                fftCallCount, fftAvgMs, fftMaxMs, fftMinMs));
-        statLog.append(String.format("幅度计算：调用%d次 | 平均%.3fms | 最大%.3fms | 最小%.3fms\n",
-                magnitudeCallCount, magnitudeAvgMs, magnitudeMaxMs, magnitudeMinMs));
+        statLog.append("===== 频谱 CPU耗时统计（最近" + (ExoConfig.FFT_STAT_PRINT_INTERVAL_MS / 1000) + "秒）=====\n");
+        appendTimeStat(statLog, "process方法（音频线程，累计）", processTimingSnapshot);
+        appendTimeStat(statLog, "FFT分析", fftTimingHistogram);
+        statLog.append(String.format("丢帧%d\n", droppedFrameCount));
+        appendTimeStat(statLog, "幅度计算", magnitudeTimingHistogram);
         statLog.append("======================================================");
 
         ExoLog.log(statLog.toString());
 
-        // 每次输出后重置
-        resetTimeStat();
+        fftTimingHistogram.reset();
+        magnitudeTimingHistogram.reset();
+        droppedFrameCount = 0;
+    }
+
+    @SuppressLint("DefaultLocale")
+    private static void appendTimeStat(StringBuilder statLog, String label, ExoTimingHistogram histogram) {
+        statLog.append(String.format("%s：调用%d次 | 平均%.3fms | P50 %.3fms | P99 %.3fms | 最大%.3fms\n",
+                label, histogram.getTotalCount(),
+                histogram.getMeanNs() / 1_000_000.0,
+                histogram.getValueAtPercentile(50) / 1_000_000.0,
+                histogram.getValueAtPercentile(99) / 1_000_000.0,
+                histogram.getMaxNs() / 1_000_000.0));
     }
 
     /**
      * 重置耗时统计
+     * 各直方图由其写入线程在下一次记录时清空，丢帧计数投递到分析线程清零
      */
     public void resetTimeStat() {
-        processTotalTimeNs = 0;
-        processCallCount = 0;
-        processMaxTimeNs = 0;
-        processMinTimeNs = Long.MAX_VALUE;
-
-        fftTotalTimeNs = 0;
-        fftCallCount = 0;
-        fftMaxTimeNs = 0;
-        fftMinTimeNs = Long.MAX_VALUE;
-
-        magnitudeTotalTimeNs = 0;
-        magnitudeCallCount = 0;
-        magnitudeMaxTimeNs = 0;
-        magnitudeMinTimeNs = Long.MAX_VALUE;
-
-        lastStatPrintTimeMs = 0;
+        getTimingHistogram().reset();
+        fftTimingHistogram.reset();
+        magnitudeTimingHistogram.reset();
+        ExoAudioAnalysisThread.getHandler().post(this::resetDroppedFrameCount);
+    }
+
+    private void resetDroppedFrameCount() {
+        droppedFrameCount = 0;
     }
 
     /**
-     * 内部静态类：环形缓冲区（循环缓冲区）
-     * 用于高效缓存音频样本，避免数据溢出，支持先进先出（FIFO）存取
+     * 内部静态类：单生产者单消费者无锁环形缓冲区
+     * 音频线程顺序写入交织样本，分析线程按写入计数读取最新窗口。写入计数是唯一的同步点：
+     * 样本先写入数组，再以 volatile 写发布计数；读取方读完窗口后再次检查计数，
+     * 若期间写入量已超过窗口之外的剩余容量（数据被覆盖），则放弃本次读取。
      * 容量为2的幂，通过位运算提高存取效率
      */
-    private static class CircularShortBuffer {
+    private static class CircularFloatBuffer {
         // 缓冲区存储数组
-        private final short[] buffer;
+        private final float[] buffer;
         // 掩码：用于快速计算索引（等价于取模运算，效率更高）
         private final int mask;
-        // 头指针：指向待写入数据的位置
-        private int head;
-        // 尾指针：指向待读取数据的位置
-        private int tail;
-        // 缓冲区当前存储的样本数
-        private int size;
+        // 写入样本的格式，读取方据此合并声道
+        final int sampleRateHz;
+        final int channelCount;
+        // 累计写入的样本数（单调递增，仅音频线程写）
+        private volatile long writeCount;
+        // flush 时的写入计数，之前的样本视为无效
+        private volatile long validFromCount;
+        // 单次写入的最大样本数；写入方先写数据后发布计数，读取方据此预留尚未发布的写入量
+        private volatile int maxWriteCount;
 
         /**
          * 初始化环形缓冲区
          *
-         * @param capacity 期望容量，会自动调整为最近的2的幂
+         * @param capacity     期望容量，会自动调整为最近的2的幂
+         * @param sampleRateHz 采样率
+         * @param channelCount 声道数
          */
-        public CircularShortBuffer(int capacity) {
+        CircularFloatBuffer(int capacity, int sampleRateHz, int channelCount) {
             int actualCapacity = 1;
             // 调整容量为2的幂
             while (actualCapacity < capacity) {
                 actualCapacity <<= 1;
             }
-            buffer = new short[actualCapacity];
+            buffer = new float[actualCapacity];
             mask = actualCapacity - 1;
-            head = 0;
-            tail = 0;
-            size = 0;
+            this.sampleRateHz = sampleRateHz;
+            this.channelCount = channelCount;
+        }
+
+        int capacity() {
+            return buffer.length;
         }
 
         /**
-         * 写入单个样本到缓冲区
+         * 写入一批样本并发布（音频线程调用），缓冲区满时覆盖最旧数据
+         * 按环尾拆成至多两段 System.arraycopy，不再逐样本取模
          *
-         * @param sample 待写入的16位音频样本
+         * @param samples 交织浮点样本
+         * @param count   样本数
          */
-        public void put(short sample) {
-            buffer[head] = sample;
-            // 头指针移动：位运算（等价于(head + 1) % buffer.length）
-            head = (head + 1) & mask;
-            // 若缓冲区已满，尾指针同步移动（丢弃最旧数据）
-            if (size == buffer.length) {
-                tail = (tail + 1) & mask;
-            } else {
-                // 缓冲区未满，样本数加1
-                size++;
+        void write(float[] samples, int count) {
+            if (count > maxWriteCount) {
+                maxWriteCount = count;
+            }
+            long start = writeCount;
+            // 单次写入超过容量时只保留最新的一圈
+            int skip = Math.max(0, count - buffer.length);
+            int length = count - skip;
+            int position = (int) (start + skip) & mask;
+            int firstLength = Math.min(length, buffer.length - position);
+            System.arraycopy(samples, skip, buffer, position, firstLength);
+            if (firstLength < length) {
+                System.arraycopy(samples, skip + firstLength, buffer, 0, length - firstLength);
             }
+            writeCount = start + count;
+        }
+
+        long getWriteCount() {
+            return writeCount;
         }
 
         /**
-         * 从缓冲区读取指定偏移量的样本
+         * 获取截至指定写入计数时可用的样本数（不超过容量）
+         */
+        int getAvailableSampleCount(long atWriteCount) {
+            return (int) Math.min(atWriteCount - validFromCount, buffer.length);
+        }
+
+        /**
+         * 读取截至 endCount 的最新 frames 帧，合并声道后乘以窗函数写入 dst（分析线程调用）
          *
-         * @param offset 字节偏移量
-         * @return 读取的16位音频样本，偏移量非法时返回0
+         * @return 读取期间数据未被覆盖时返回 true
          */
-        public short get(int offset) {
-            // 偏移量合法性校验
-            if (offset < 0 || offset >= size * 2) {
-                ExoLog.log("CircularShortBuffer 偏移量超出可用数据范围：" + offset + "，返回0");
-                return 0;
+        boolean readWindow(long endCount, int frames, float[] dst, float[] window) {
+            int channels = channelCount;
+            long startCount = endCount - (long) frames * channels;
+            int frame = 0;
+            while (frame < frames) {
+                int index = (int) (startCount + (long) frame * channels) & mask;
+                // 到环尾之前的完整帧按连续段处理；容量不是声道数整数倍时，跨环尾的那一帧单独取模
+                int contiguous = Math.min(frames - frame, (buffer.length - index) / channels);
+                if (contiguous == 0) {
+                    float sum = 0;
+                    for (int c = 0; c < channels; c++) {
+                        sum += buffer[(index + c) & mask];
+                    }
+                    dst[frame] = sum / channels * window[frame];
+                    frame++;
+                } else {
+                    downmixSegment(index, frame, contiguous, dst, window);
+                    frame += contiguous;
+                }
             }
-            int index = (tail + offset / 2) & mask;
-            return buffer[index];
+            // 窗口起点之后的写入量（含可能正在进行、尚未发布的一次写入）不超过容量，说明读取期间没有被覆盖。
+            // 数据仅用于可视化，这里不额外加内存屏障，极端情况下的撕裂只影响单帧显示
+            return writeCount + maxWriteCount - startCount <= buffer.length;
         }
 
         /**
-         * 获取缓冲区中可用数据的字节数
+         * 将一段连续存储的帧合并声道并乘以窗函数（样本已由基类归一化到[-1,1]）
          *
-         * @return 可用字节数
+         * @param index      段起点在环形数组中的下标
+         * @param frame      段起点对应的窗口内帧下标
+         * @param frameCount 段内帧数
          */
-        public int getAvailableDataSize() {
-            return size * 2;
+        private void downmixSegment(int index, int frame, int frameCount, float[] dst, float[] window) {
+            final float[] src = buffer;
+            final int end = frame + frameCount;
+            switch (channelCount) {
+                case 1:
+                    for (int i = frame; i < end; i++, index++) {
+                        dst[i] = src[index] * window[i];
+                    }
+                    break;
+                case 2:
+                    for (int i = frame; i < end; i++, index += 2) {
+                        dst[i] = (src[index] + src[index + 1]) * 0.5f * window[i];
+                    }
+                    break;
+                default:
+                    final int channels = channelCount;
+                    final float scale = 1f / channels;
+                    for (int i = frame; i < end; i++) {
+                        float sum = 0;
+                        for (int c = 0; c < channels; c++) {
+                            sum += src[index++];
+                        }
+                        dst[i] = sum * scale * window[i];
+                    }
+                    break;
+            }
         }
 
         /**
-         * 释放缓冲区资源：清空数据
+         * 丢弃已写入的样本（音频线程调用）
          */
-        public void release() {
-            Arrays.fill(buffer, (short) 0);
+        void clear() {
+            validFromCount = writeCount;
         }
     }
 
 
     /**
      * 重置处理器状态
-     * 清空FFT时间戳和监听器，恢复初始状态
      */
     @Override
     protected void onReset() {
         super.onReset();
-        lastFftTime = 0;
         resetTimeStat();
     }
 
     @Override
     protected void onFlush() {
-        if (sampleBuffer != null) {
-            sampleBuffer.release();
+        super.onFlush();
+        CircularFloatBuffer buffer = sampleBuffer;
+        if (buffer != null) {
+            buffer.clear();
         }
-        lastFftTime = 0;
     }
 
     /**
      * 释放处理器资源
-     * 清空并销毁所有数组、缓冲区、FFT实例，避免内存泄漏
+     * 停止分析调度，FFT 相关数组在分析线程上释放，避免与进行中的分析并发
      */
     @Override
     protected void releaseResources() {
-        if (audioFloats != null) {
-            Arrays.fill(audioFloats, 0);
-            audioFloats = null;
-        }
-        if (hanningWindow != null) {
-            Arrays.fill(hanningWindow, 0);
-            hanningWindow = null;
-        }
-        if (sampleBuffer != null) {
-            sampleBuffer.release();
-            sampleBuffer = null;
-        }
-        fft = null;
+        released = true;
         iExoFFTCallBack = null;
-
+        sampleBuffer = null;
+        Handler handler = ExoAudioAnalysisThread.getHandler();
+        handler.removeCallbacks(analysisRunnable);
         resetTimeStat();
+        handler.post(this::releaseAnalysisResources);
+    }
+
+    /**
+     * 释放分析线程持有的数组（分析线程调用）
+     */
+    private void releaseAnalysisResources() {
+        rawMagnitude = null;
+        smoothedMagnitude = null;
+        powerSum = null;
+        window = null;
+        analysisWindowType = null;
+        hopBuffer = null;
+        fft = null;
+        analysisSampleSize = 0;
     }
-}
\ No newline at end of file
+}
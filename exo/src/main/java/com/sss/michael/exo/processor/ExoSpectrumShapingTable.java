@@ -0,0 +1,191 @@
+package com.sss.michael.exo.processor;
+
+import com.sss.michael.exo.ExoConfig;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 16:20
+ * @Description 频谱整形预计算表
+ * 低频 / 中频 / 高频增强、频率扩散与全局增益只取决于 bin 下标和 ExoConfig 中的 SPECTRUM_* 参数，
+ * 因此合并为每个 bin 一个增益系数，逐帧只需一次乘法；对数频带的 bin 区间同样预先算好。
+ * 表只在 bin 数、采样率、频带数或任一调参值变化时重建，仅由分析线程访问
+ */
+final class ExoSpectrumShapingTable {
+
+    // 每个 bin 的组合增益：lowBoost * highBoost * midBoost * spread * FFT_AMPLITUDE_BOOST
+    private float[] binGains;
+    // 对数频带对应的 bin 区间 [bandStartBins[k], bandEndBins[k])，未启用频带模式时为 null
+    private int[] bandStartBins;
+    private int[] bandEndBins;
+    private float[] bandInverseWidths;
+
+    private int binCount;
+    private int sampleRateHz;
+    private int bandCount;
+    // 构建时的调参快照，逐帧比对以感知运行时修改
+    private float bandMinHz;
+    private float amplitudeBoost;
+    private float lowFreqEnd;
+    private float lowBase;
+    private float lowStrength;
+    private float highFreqStart;
+    private float highStrength;
+    private float midStart;
+    private float midEnd;
+    private float midBase;
+    private float midStrength;
+    private float spreadExp;
+
+    /**
+     * 按需重建，参数与快照一致时直接返回
+     *
+     * @param binCount     有效 bin 数（FFT 样本大小的一半）
+     * @param sampleRateHz 采样率，用于换算对数频带边界
+     * @param bandCount    输出频带数，0 表示不做频带聚合
+     */
+    void ensure(int binCount, int sampleRateHz, int bandCount) {
+        if (binGains != null
+                && this.binCount == binCount
+                && this.sampleRateHz == sampleRateHz
+                && this.bandCount == bandCount
+                && matchesConfig()) {
+            return;
+        }
+        this.binCount = binCount;
+        this.sampleRateHz = sampleRateHz;
+        this.bandCount = bandCount;
+        captureConfig();
+        buildBinGains();
+        buildBands();
+    }
+
+    float[] getBinGains() {
+        return binGains;
+    }
+
+    /**
+     * 输出长度：频带模式为频带数，否则为 bin 数
+     */
+    int getOutputSize() {
+        return bandCount > 0 ? bandCount : binCount;
+    }
+
+    boolean isBandMode() {
+        return bandCount > 0;
+    }
+
+    /**
+     * 将平滑后的线性 bin 按对数频带取平均
+     *
+     * @param bins  平滑后的 bin 幅度
+     * @param bands 输出频带幅度，长度为频带数
+     */
+    void aggregateBands(float[] bins, float[] bands) {
+        for (int k = 0; k < bandCount; k++) {
+            int end = bandEndBins[k];
+            float sum = 0;
+            for (int i = bandStartBins[k]; i < end; i++) {
+                sum += bins[i];
+            }
+            bands[k] = sum * bandInverseWidths[k];
+        }
+    }
+
+    private boolean matchesConfig() {
+        return bandMinHz == ExoConfig.SPECTRUM_BAND_MIN_HZ
+                && amplitudeBoost == ExoConfig.FFT_AMPLITUDE_BOOST
+                && lowFreqEnd == ExoConfig.SPECTRUM_LOW_FREQ_END
+                && lowBase == ExoConfig.SPECTRUM_LOW_BASE
+                && lowStrength == ExoConfig.SPECTRUM_LOW_STRENGTH
+                && highFreqStart == ExoConfig.SPECTRUM_HIGH_FREQ_START
+                && highStrength == ExoConfig.SPECTRUM_HIGH_STRENGTH
+                && midStart == ExoConfig.SPECTRUM_MID_START
+                && midEnd == ExoConfig.SPECTRUM_MID_END
+                && midBase == ExoConfig.SPECTRUM_MID_BASE
+                && midStrength == ExoConfig.SPECTRUM_MID_STRENGTH
+                && spreadExp == ExoConfig.SPECTRUM_SPREAD_EXP;
+    }
+
+    private void captureConfig() {
+        bandMinHz = ExoConfig.SPECTRUM_BAND_MIN_HZ;
+        amplitudeBoost = ExoConfig.FFT_AMPLITUDE_BOOST;
+        lowFreqEnd = ExoConfig.SPECTRUM_LOW_FREQ_END;
+        lowBase = ExoConfig.SPECTRUM_LOW_BASE;
+        lowStrength = ExoConfig.SPECTRUM_LOW_STRENGTH;
+        highFreqStart = ExoConfig.SPECTRUM_HIGH_FREQ_START;
+        highStrength = ExoConfig.SPECTRUM_HIGH_STRENGTH;
+        midStart = ExoConfig.SPECTRUM_MID_START;
+        midEnd = ExoConfig.SPECTRUM_MID_END;
+        midBase = ExoConfig.SPECTRUM_MID_BASE;
+        midStrength = ExoConfig.SPECTRUM_MID_STRENGTH;
+        spreadExp = ExoConfig.SPECTRUM_SPREAD_EXP;
+    }
+
+    private void buildBinGains() {
+        if (binGains == null || binGains.length != binCount) {
+            binGains = new float[binCount];
+        }
+        for (int i = 0; i < binCount; i++) {
+            float x = i / (float) binCount;  // 归一化频率 (0~1)
+
+            // 低频增强
+            float lowBoost = 1f;
+            if (x < lowFreqEnd) {
+                float t = x / lowFreqEnd;
+                // 曲线平滑增强：Base + Strength * (1 - (1-t)^2)
+                lowBoost = lowBase + lowStrength * (1f - (1f - t) * (1f - t));
+            }
+
+            // 高频增强
+            float highBoost = 1f;
+            if (x > highFreqStart) {
+                float t = (x - highFreqStart) / (1f - highFreqStart);
+                highBoost = 1f + highStrength * t * t; // 二次曲线增强
+            }
+
+            // 中频增强
+            float midBoost = 1f;
+            if (x > midStart && x < midEnd) {
+                float t = (x - midStart) / (midEnd - midStart);
+                float u = 2f * t - 1f; // 归一化到 [-1,1]
+                midBoost = midBase + midStrength * (1f - u * u);
+            }
+
+            // 频率扩散
+            float spread = (float) Math.pow(x, spreadExp);
+
+            // 组合所有增益 + 全局放大
+            binGains[i] = lowBoost * highBoost * midBoost * spread * amplitudeBoost;
+        }
+    }
+
+    /**
+     * 在 [bandMinHz, 奈奎斯特频率] 上按对数等分频带，每个频带至少覆盖一个 bin
+     */
+    private void buildBands() {
+        if (bandCount <= 0) {
+            bandStartBins = null;
+            bandEndBins = null;
+            bandInverseWidths = null;
+            return;
+        }
+        bandStartBins = new int[bandCount];
+        bandEndBins = new int[bandCount];
+        bandInverseWidths = new float[bandCount];
+        double nyquistHz = sampleRateHz / 2.0;
+        double binHz = nyquistHz / binCount;
+        double minHz = Math.max(binHz, Math.min(bandMinHz, nyquistHz / 2));
+        double ratio = Math.log(nyquistHz / minHz);
+        for (int k = 0; k < bandCount; k++) {
+            double lowHz = minHz * Math.exp(ratio * k / bandCount);
+            double highHz = minHz * Math.exp(ratio * (k + 1) / bandCount);
+            int start = (int) Math.floor(lowHz / binHz);
+            int end = (int) Math.ceil(highHz / binHz);
+            start = Math.max(1, Math.min(start, binCount - 1));
+            end = Math.max(start + 1, Math.min(end, binCount));
+            bandStartBins[k] = start;
+            bandEndBins[k] = end;
+            bandInverseWidths[k] = 1f / (end - start);
+        }
+    }
+}
@@ -6,33 +6,44 @@ import androidx.media3.common.audio.AudioProcessor;
 import androidx.media3.common.util.UnstableApi;
 
 import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.bean.ExoEqBand;
 import com.sss.michael.exo.callback.IExoFFTCallBack;
+import com.sss.michael.exo.callback.IExoLoudnessCallBack;
 import com.sss.michael.exo.constant.ExoEqualizerPreset;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
  * 独立 PCM 流式链路使用的音频处理链。
  *
- * <p>库内已经具备面向 ExoPlayer 的均衡器和频谱处理器。本类的职责不是重新实现一套 DSP，
+ * <p>库内已经具备面向 ExoPlayer 的均衡器、响度归一化 / 限幅和频谱处理器。本类的职责不是重新实现一套 DSP，
  * 而是把既有处理器适配到独立的 AudioTrack 流式链路中，使 URL 主链和 PCM 主链共享同一套
  * 音频处理能力。
  *
  * <p>该处理链按“单次会话”维度创建：初始化时绑定固定 PCM 格式，后续由 PCM 工作线程在写入
  * AudioTrack 之前逐块处理输入音频。
+ *
+ * <p>推荐使用 {@link #process(ByteBuffer)} / {@link #processToBuffer(byte[], int, int)} 零拷贝模式：
+ * 各级处理器直接消费上一级的输出缓冲区（由处理器内部复用），输入暂存区也按容量复用，
+ * 稳定流式播放期间不再产生任何堆内存或直接内存分配。
  */
 @UnstableApi
 public class ExoStandaloneAudioProcessorChain {
 
     private final List<ExoBaseAudioProcessor> audioProcessors = new ArrayList<>();
     private final ExoEqualizerProcessor equalizerProcessor;
+    private final ExoLoudnessNormalizerProcessor loudnessNormalizerProcessor;
+    private final ExoLoudnessMeterProcessor loudnessMeterProcessor;
+    // 每帧字节数，用于生成流结束时推出尾部的静音块
+    private final int bytesPerFrame;
+    // 复用的直接内存输入暂存区，仅在容量不足时扩容
+    private ByteBuffer inputStagingBuffer;
 
     /**
-     * 创建并初始化独立音频处理链。
+     * 创建并初始化 16-bit PCM 独立音频处理链。
      *
      * @param sampleRateHz PCM 采样率
      * @param channelCount PCM 声道数
@@ -42,8 +53,24 @@ public class ExoStandaloneAudioProcessorChain {
     public ExoStandaloneAudioProcessorChain(int sampleRateHz, int channelCount,
                                             IExoFFTCallBack iExoFFTCallBack)
             throws AudioProcessor.UnhandledAudioFormatException {
+        this(sampleRateHz, channelCount, C.ENCODING_PCM_16BIT, iExoFFTCallBack);
+    }
+
+    /**
+     * 创建并初始化独立音频处理链。
+     *
+     * @param sampleRateHz PCM 采样率
+     * @param channelCount PCM 声道数
+     * @param encoding PCM 编码，{@link C#ENCODING_PCM_16BIT} 或 {@link C#ENCODING_PCM_FLOAT}（多路混音等未削顶的信号）
+     * @param iExoFFTCallBack 频谱处理器启用时使用的 FFT 回调
+     * @throws AudioProcessor.UnhandledAudioFormatException 当现有处理器无法处理该 PCM 格式时抛出
+     */
+    public ExoStandaloneAudioProcessorChain(int sampleRateHz, int channelCount, int encoding,
+                                            IExoFFTCallBack iExoFFTCallBack)
+            throws AudioProcessor.UnhandledAudioFormatException {
         AudioProcessor.AudioFormat inputFormat =
-                new AudioProcessor.AudioFormat(sampleRateHz, channelCount, C.ENCODING_PCM_16BIT);
+                new AudioProcessor.AudioFormat(sampleRateHz, channelCount, encoding);
+        bytesPerFrame = inputFormat.bytesPerFrame;
 
         if (ExoConfig.COMPONENT_EQ_ENABLE) {
             equalizerProcessor = new ExoEqualizerProcessor();
@@ -55,6 +82,20 @@ public class ExoStandaloneAudioProcessorChain {
             equalizerProcessor = null;
         }
 
+        if (ExoConfig.COMPONENT_LOUDNESS_NORMALIZER_ENABLE) {
+            loudnessNormalizerProcessor = new ExoLoudnessNormalizerProcessor();
+            loudnessNormalizerProcessor.configure(inputFormat);
+            loudnessNormalizerProcessor.flush();
+            audioProcessors.add(loudnessNormalizerProcessor);
+        } else {
+            loudnessNormalizerProcessor = null;
+        }
+
+        if (equalizerProcessor != null) {
+            // 真峰值限幅始终跟在均衡器之后时由限幅器处理过载，否则均衡器自行削波
+            equalizerProcessor.setOutputLimited(loudnessNormalizerProcessor != null);
+        }
+
         if (ExoConfig.COMPONENT_SPECTRUM_ENABLE) {
             ExoSpectrumProcessor spectrumProcessor = new ExoSpectrumProcessor();
             spectrumProcessor.setExoFFTCallBack(iExoFFTCallBack);
@@ -62,13 +103,22 @@ public class ExoStandaloneAudioProcessorChain {
             spectrumProcessor.flush();
             audioProcessors.add(spectrumProcessor);
         }
+
+        if (ExoConfig.COMPONENT_LOUDNESS_METER_ENABLE) {
+            loudnessMeterProcessor = new ExoLoudnessMeterProcessor();
+            loudnessMeterProcessor.configure(inputFormat);
+            loudnessMeterProcessor.flush();
+            audioProcessors.add(loudnessMeterProcessor);
+        } else {
+            loudnessMeterProcessor = null;
+        }
     }
 
     /**
      * 将当前处理链应用到指定 PCM 数据区间。
      *
-     * <p>返回值始终是新的字节数组，因为 AudioTrack 链路在方法返回后会继续持有处理结果。
-     * 这样可以避免生产线程、DSP 层和 AudioTrack 工作线程共享同一块可变缓冲区。
+     * <p>返回值始终是新的字节数组，适用于需要长期持有处理结果的调用方。流式写入 AudioTrack
+     * 的场景应使用 {@link #processToBuffer(byte[], int, int)}，避免每个分片的数组分配。
      *
      * @param data 源 PCM 数据数组
      * @param offset 本次处理的起始偏移
@@ -80,25 +130,85 @@ public class ExoStandaloneAudioProcessorChain {
         if (data == null || length <= 0) {
             return new byte[0];
         }
-        if (audioProcessors.isEmpty()) {
-            return Arrays.copyOfRange(data, offset, offset + length);
+        ByteBuffer outputBuffer = processToBuffer(data, offset, length);
+        byte[] outputBytes = new byte[outputBuffer.remaining()];
+        outputBuffer.get(outputBytes);
+        return outputBytes;
+    }
+
+    /**
+     * 将 PCM 数据区间复制到复用的直接内存暂存区，并以零拷贝模式执行处理链。
+     *
+     * @param data 源 PCM 数据数组
+     * @param offset 本次处理的起始偏移
+     * @param length 本次需要处理的字节数
+     * @return 处理结果缓冲区，含义与 {@link #process(ByteBuffer)} 的返回值一致
+     */
+    @NonNull
+    public ByteBuffer processToBuffer(byte[] data, int offset, int length) {
+        ByteBuffer stagingBuffer = obtainInputStagingBuffer(Math.max(0, length));
+        if (data != null && length > 0) {
+            stagingBuffer.put(data, offset, length);
         }
+        stagingBuffer.flip();
+        return process(stagingBuffer);
+    }
 
-        byte[] stageBytes = Arrays.copyOfRange(data, offset, offset + length);
+    /**
+     * 以零拷贝模式执行处理链：每一级处理器直接消费上一级的输出缓冲区，不做中间复制。
+     *
+     * <p>返回的缓冲区由处理链（或最后一级处理器）内部持有并复用，仅在下一次调用 process
+     * 系列方法之前有效。调用方应在此之前消费完毕，例如直接交给
+     * {@code AudioTrack.write(ByteBuffer, int, int)}。
+     *
+     * @param input 待处理的 PCM 数据（remaining 区间），处理后会被完全消费
+     * @return 处理结果缓冲区，remaining 区间即为输出 PCM
+     */
+    @NonNull
+    public ByteBuffer process(@NonNull ByteBuffer input) {
+        ByteBuffer stageBuffer = input;
         for (ExoBaseAudioProcessor audioProcessor : audioProcessors) {
-            ByteBuffer inputBuffer = ByteBuffer.allocateDirect(stageBytes.length)
-                    .order(ByteOrder.nativeOrder());
-            inputBuffer.put(stageBytes);
-            inputBuffer.flip();
+            audioProcessor.queueInput(stageBuffer);
+            stageBuffer = audioProcessor.getOutput();
+        }
+        return stageBuffer;
+    }
 
-            audioProcessor.queueInput(inputBuffer);
+    /**
+     * 推出各级处理器延迟线中的尾部样本（如限幅器的前瞻延迟），在一次会话的输入全部处理完之后调用。
+     *
+     * <p>向处理链输入与总延迟等长的静音，返回值含义与 {@link #process(ByteBuffer)} 一致；
+     * 不调用时尾部会留在延迟线中，被下一次 {@link #flush()} 丢弃或在下一段音频开头播出。
+     *
+     * @return 尾部 PCM，无延迟处理器时为空缓冲区
+     */
+    @NonNull
+    public ByteBuffer drain() {
+        int delayFrames = 0;
+        for (ExoBaseAudioProcessor audioProcessor : audioProcessors) {
+            delayFrames += audioProcessor.getOutputDelayFrames();
+        }
+        ByteBuffer silence = obtainInputStagingBuffer(delayFrames * bytesPerFrame);
+        for (int i = 0; i < delayFrames * bytesPerFrame; i++) {
+            silence.put((byte) 0);
+        }
+        silence.flip();
+        return delayFrames == 0 ? silence : process(silence);
+    }
 
-            ByteBuffer outputBuffer = audioProcessor.getOutput();
-            byte[] outputBytes = new byte[outputBuffer.remaining()];
-            outputBuffer.get(outputBytes);
-            stageBytes = outputBytes;
+    /**
+     * 获取输入暂存区，容量不足时按新容量重新分配直接内存
+     *
+     * @param capacity 本次需要的最小容量
+     * @return 已 clear 的暂存区
+     */
+    private ByteBuffer obtainInputStagingBuffer(int capacity) {
+        if (inputStagingBuffer == null || inputStagingBuffer.capacity() < capacity) {
+            inputStagingBuffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        } else {
+            inputStagingBuffer.clear();
         }
-        return stageBytes;
+        return inputStagingBuffer;
     }
 
     /**
@@ -113,6 +223,48 @@ public class ExoStandaloneAudioProcessorChain {
         equalizerProcessor.setBandGains(exoEqualizerPreset.getGains());
     }
 
+    /**
+     * 替换共享均衡器处理器的参数均衡频段。
+     *
+     * @param bands 后续 PCM 分片应采用的频段描述，为 null 或空时均衡不生效
+     */
+    public void setEqualizerBands(List<ExoEqBand> bands) {
+        if (equalizerProcessor == null) {
+            return;
+        }
+        equalizerProcessor.setBands(bands);
+    }
+
+    /**
+     * 设置响度归一化。
+     *
+     * <p>响度归一化组件未启用时忽略；关闭归一化时真峰值限幅仍然生效。
+     *
+     * @param enabled 是否开启归一化
+     * @param targetLufs 目标响度（LUFS）
+     */
+    public void setLoudnessNormalization(boolean enabled, float targetLufs) {
+        if (loudnessNormalizerProcessor == null) {
+            return;
+        }
+        loudnessNormalizerProcessor.setTargetLufs(targetLufs);
+        loudnessNormalizerProcessor.setNormalizationEnabled(enabled);
+    }
+
+    /**
+     * 设置响度计量回调。
+     *
+     * <p>响度计量组件未启用时忽略；监听器为 {@code null} 时计量处理器只透传音频。
+     *
+     * @param iExoLoudnessCallBack 在音频分析线程接收峰值 / RMS / LUFS 的监听器
+     */
+    public void setExoLoudnessCallBack(IExoLoudnessCallBack iExoLoudnessCallBack) {
+        if (loudnessMeterProcessor == null) {
+            return;
+        }
+        loudnessMeterProcessor.setExoLoudnessCallBack(iExoLoudnessCallBack);
+    }
+
     /**
      * 清空处理器内部状态，使新流会话从干净的 DSP 基线开始。
      */
@@ -132,5 +284,6 @@ public class ExoStandaloneAudioProcessorChain {
             audioProcessor.release();
         }
         audioProcessors.clear();
+        inputStagingBuffer = null;
     }
 }
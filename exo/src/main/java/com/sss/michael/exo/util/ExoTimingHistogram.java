@@ -0,0 +1,171 @@
+package com.sss.michael.exo.util;
+
+import java.util.Arrays;
+
+/**
+ * @author Michael by SSS
+ * @date 2026/10/17 20:30
+ * @Description 耗时直方图（纳秒）
+ * 参考 HdrHistogram 的对数-线性分桶：每个 2 的幂区间再等分 16 个子桶，相对误差不超过 1/16（约 6%），
+ * 覆盖 0 ~ 2^40ns（约 18 分钟），桶数固定，记录时只做一次位运算定位与自增，不分配内存。
+ * 单线程写入（通常是音频线程），其他线程通过 {@link #copyInto(ExoTimingHistogram)} 取快照后再查询分位数；
+ * 快照期间写入方可能继续写入，读到的是某一时刻前后的近似值，对调试统计足够。
+ * 重置请求由写入方在下一次记录时执行，避免读写双方同时修改桶数组
+ */
+public final class ExoTimingHistogram {
+
+    // 每个 2 的幂区间的子桶位数（16 个子桶）
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // 线性区间上限：小于该值的耗时每纳秒一个桶
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    // 可记录的最大指数，超出的耗时计入最后一个桶
+    private static final int MAX_EXPONENT = 39;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + LINEAR_LIMIT;
+
+    private final String name;
+    // 各桶计数，仅写入方修改；计数先写入桶，再以 volatile 写发布总数
+    private final int[] counts = new int[BUCKET_COUNT];
+    private volatile long totalCount;
+    private volatile long totalNs;
+    private volatile long maxNs;
+    // 处理过的音频时长（纳秒），用于计算占用音频线程预算的比例，无音频时长的统计项为 0
+    private volatile long audioNs;
+    private volatile boolean resetRequested;
+
+    public ExoTimingHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 记录一次耗时（仅写入方线程调用）
+     *
+     * @param costNs  本次耗时（纳秒）
+     * @param audioNs 本次处理的音频时长（纳秒），不涉及音频时长时传 0
+     */
+    public void record(long costNs, long audioNs) {
+        if (resetRequested) {
+            resetRequested = false;
+            clear();
+        }
+        long value = Math.max(0, costNs);
+        counts[bucketIndex(value)]++;
+        if (value > maxNs) {
+            maxNs = value;
+        }
+        this.totalNs += value;
+        this.audioNs += audioNs;
+        this.totalCount++;
+    }
+
+    /**
+     * 请求清空统计，由写入方在下一次记录时执行
+     */
+    public void reset() {
+        resetRequested = true;
+    }
+
+    /**
+     * 复制到快照直方图（任意线程），之后在快照上查询，不影响写入方
+     *
+     * @param snapshot 目标直方图，可复用
+     */
+    public void copyInto(ExoTimingHistogram snapshot) {
+        if (resetRequested) {
+            snapshot.clear();
+            return;
+        }
+        // 先读 volatile 总数，保证其之前写入的桶计数可见
+        long count = totalCount;
+        snapshot.totalNs = totalNs;
+        snapshot.maxNs = maxNs;
+        snapshot.audioNs = audioNs;
+        System.arraycopy(counts, 0, snapshot.counts, 0, BUCKET_COUNT);
+        snapshot.totalCount = count;
+    }
+
+    private void clear() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalNs = 0;
+        maxNs = 0;
+        audioNs = 0;
+    }
+
+    /**
+     * 耗时所在桶：小于 32ns 线性分桶，之后按最高位指数 + 其后 4 位尾数定位
+     */
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * 桶内可记录的最大耗时（与 HdrHistogram 的 highestEquivalentValue 一致）
+     */
+    static long bucketUpperValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long mantissa = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getTotalNs() {
+        return totalNs;
+    }
+
+    public long getMaxNs() {
+        return maxNs;
+    }
+
+    public long getMeanNs() {
+        long count = totalCount;
+        return count == 0 ? 0 : totalNs / count;
+    }
+
+    /**
+     * 处理耗时占音频时长的比例（例如 0.02 表示占用音频线程 2% 的实时预算），无音频时长时为 0
+     */
+    public float getLoad() {
+        long audio = audioNs;
+        return audio == 0 ? 0f : (float) totalNs / audio;
+    }
+
+    /**
+     * 指定分位数的耗时（纳秒），按桶上界返回，最大不超过实际最大值
+     *
+     * @param percentile 分位数，取值 [0, 100]
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount;
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * count));
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += counts[i];
+            if (accumulated >= target) {
+                return Math.min(bucketUpperValue(i), maxNs);
+            }
+        }
+        return maxNs;
+    }
+}
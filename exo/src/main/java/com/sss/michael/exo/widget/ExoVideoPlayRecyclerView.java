@@ -29,6 +29,7 @@ import com.sss.michael.exo.callback.ExoGestureEnable;
 import com.sss.michael.exo.callback.IExoControlComponent;
 import com.sss.michael.exo.callback.IExoController;
 import com.sss.michael.exo.callback.IExoFFTCallBack;
+import com.sss.michael.exo.callback.IExoFFTFrameCallBack;
 import com.sss.michael.exo.callback.IExoGestureCallBack;
 import com.sss.michael.exo.callback.IExoNotifyCallBack;
 import com.sss.michael.exo.callback.IExoOnPageChangeListener;
@@ -41,6 +42,7 @@ import com.sss.michael.exo.constant.ExoPlayMode;
 import com.sss.michael.exo.constant.ExoPlayerMode;
 import com.sss.michael.exo.core.ExoPlayerInfo;
 import com.sss.michael.exo.helper.ExoScaleHelper;
+import com.sss.michael.exo.processor.ExoSpectrumFrame;
 import com.sss.michael.exo.util.ExoDensityUtil;
 import com.sss.michael.exo.util.ExoLog;
 
@@ -56,7 +58,7 @@ import java.util.List;
 public class ExoVideoPlayRecyclerView extends FrameLayout implements IExoOnPageChangeListener, IExoController,
         IExoNotifyCallBack,
         IExoGestureCallBack,
-        IExoFFTCallBack,
+        IExoFFTFrameCallBack,
         IExoScaleCallBack {
 
 
@@ -989,6 +991,18 @@ public class ExoVideoPlayRecyclerView extends FrameLayout implements IExoOnPageC
         }
     }
 
+    /**
+     * 启用 / 旁路当前播放器的频谱分析
+     *
+     * @param active 是否需要频谱数据
+     */
+    @Override
+    public void setSpectrumActive(boolean active) {
+        if (simpleExoPlayerView != null) {
+            simpleExoPlayerView.setSpectrumActive(active);
+        }
+    }
+
     /**
      * 重新播放
      */
@@ -1648,6 +1662,47 @@ public class ExoVideoPlayRecyclerView extends FrameLayout implements IExoOnPageC
             iExoFFTCallBack.onMagnitudeReady(sampleRateHz, magnitude);
         }
     }
+
+    /**
+     * 频谱帧回调（主线程 vsync 时分发，帧对象会被复用）
+     * 实现了 {@link IExoFFTFrameCallBack} 的组件与监听器直接收到该帧；其余仍按旧接口收到数组，
+     * 数组副本只在存在旧接口监听器时创建一次并共享
+     *
+     * @param frame 最新频谱帧
+     */
+    @Override
+    public void onSpectrumFrame(ExoSpectrumFrame frame) {
+        float[] fftCopy = null;
+        float[] magnitudeCopy = null;
+        for (IExoControlComponent component : getExoComponents()) {
+            if (component instanceof IExoFFTFrameCallBack) {
+                ((IExoFFTFrameCallBack) component).onSpectrumFrame(frame);
+                continue;
+            }
+            if (fftCopy == null) {
+                fftCopy = frame.getFft().clone();
+                magnitudeCopy = frame.getMagnitude().clone();
+            }
+            dispatchLegacySpectrum(component, frame, fftCopy, magnitudeCopy);
+        }
+        if (iExoFFTCallBack instanceof IExoFFTFrameCallBack) {
+            ((IExoFFTFrameCallBack) iExoFFTCallBack).onSpectrumFrame(frame);
+        } else if (iExoFFTCallBack != null) {
+            if (fftCopy == null) {
+                fftCopy = frame.getFft().clone();
+                magnitudeCopy = frame.getMagnitude().clone();
+            }
+            dispatchLegacySpectrum(iExoFFTCallBack, frame, fftCopy, magnitudeCopy);
+        }
+    }
+
+    private static void dispatchLegacySpectrum(IExoFFTCallBack callBack, ExoSpectrumFrame frame,
+                                               float[] fft, float[] magnitude) {
+        callBack.onFFTReady(frame.getSampleRateHz(), frame.getChannelCount(), fft);
+        if (frame.hasMagnitude()) {
+            callBack.onMagnitudeReady(frame.getSampleRateHz(), magnitude);
+        }
+    }
     // </editor-fold>
 
     // <editor-fold defaultstate="collapsed" desc="缩放控制">
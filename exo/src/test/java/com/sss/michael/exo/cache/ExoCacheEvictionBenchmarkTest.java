@@ -0,0 +1,120 @@
+package com.sss.michael.exo.cache;
+
+import androidx.media3.datasource.cache.CacheSpan;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 淘汰策略轨迹回放对比：LRU 与 W-TinyLFU 在短视频流访问轨迹下的命中率与回源流量
+ * 轨迹：热门视频按 Zipf 分布反复观看（看完大部分分片），其余为只划过一次的新视频（只看开头 1~2 个分片）
+ */
+public class ExoCacheEvictionBenchmarkTest {
+
+    private static final long SEGMENT_SIZE = 512 * 1024;
+    private static final int SEGMENTS_PER_VIDEO = 6;
+    // 起播头部：前 2 个分片
+    private static final long PREFIX_BYTES = 2 * SEGMENT_SIZE;
+    private static final long CACHE_SIZE = 64 * 1024 * 1024;
+    private static final int HOT_VIDEO_COUNT = 200;
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final double HOT_VIEW_RATIO = 0.4;
+    private static final int VIEW_COUNT = 30000;
+
+    @Test(timeout = 30000)
+    public void shortVideoTrace_tinyLfuBeatsLru() {
+        int[][] trace = buildTrace(new Random(42));
+        Result lru = replay("LRU", new ExoLruEvictionPolicy(), trace);
+        Result tinyLfu = replay("W-TinyLFU", new ExoTinyLfuEvictionPolicy(CACHE_SIZE, 0, PREFIX_BYTES), trace);
+        String message = lru + " / " + tinyLfu;
+
+        assertTrue(message, tinyLfu.hitRatio() > lru.hitRatio());
+        assertTrue(message, tinyLfu.networkBytes < lru.networkBytes);
+        assertTrue(message, tinyLfu.startupHitRatio() > lru.startupHitRatio());
+    }
+
+    /**
+     * 生成观看轨迹：每项为 {视频编号, 观看分片数}，热门视频编号 < HOT_VIDEO_COUNT
+     */
+    private static int[][] buildTrace(Random random) {
+        double[] cumulative = new double[HOT_VIDEO_COUNT];
+        double sum = 0;
+        for (int i = 0; i < HOT_VIDEO_COUNT; i++) {
+            sum += 1.0 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+        int[][] trace = new int[VIEW_COUNT][];
+        int nextOneTimeVideo = HOT_VIDEO_COUNT;
+        for (int i = 0; i < VIEW_COUNT; i++) {
+            if (random.nextDouble() < HOT_VIEW_RATIO) {
+                double target = random.nextDouble() * sum;
+                int video = 0;
+                while (cumulative[video] < target) {
+                    video++;
+                }
+                trace[i] = new int[]{video, 4 + random.nextInt(SEGMENTS_PER_VIDEO - 3)};
+            } else {
+                trace[i] = new int[]{nextOneTimeVideo++, 1 + random.nextInt(2)};
+            }
+        }
+        return trace;
+    }
+
+    private static Result replay(String name, ExoCacheEvictionPolicy policy, int[][] trace) {
+        ExpirableLruCacheEvictor evictor = new ExpirableLruCacheEvictor(CACHE_SIZE, 0, 0, policy);
+        FakeCache cache = new FakeCache(evictor);
+        Result result = new Result(name);
+        for (int[] view : trace) {
+            for (int segment = 0; segment < view[1]; segment++) {
+                CacheSpan span = FakeCache.span("video-" + view[0], segment * SEGMENT_SIZE, SEGMENT_SIZE);
+                boolean hit = cache.contains(span);
+                if (hit) {
+                    cache.touch(span, span);
+                } else {
+                    result.networkBytes += SEGMENT_SIZE;
+                    cache.add(span);
+                }
+                result.requests++;
+                result.hits += hit ? 1 : 0;
+                if (segment == 0) {
+                    result.startupHits += hit ? 1 : 0;
+                }
+            }
+            result.views++;
+            // 模拟后台清扫
+            evictor.sweep(Integer.MAX_VALUE);
+        }
+        return result;
+    }
+
+    private static final class Result {
+        final String name;
+        long views;
+        long requests;
+        long hits;
+        long startupHits;
+        long networkBytes;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        double hitRatio() {
+            return (double) hits / requests;
+        }
+
+        double startupHitRatio() {
+            return (double) startupHits / views;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-10s hitRatio=%.2f%% startupHitRatio=%.2f%% networkMB=%d",
+                    name, hitRatio() * 100, startupHitRatio() * 100, networkBytes / 1024 / 1024);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.sss.michael.exo.cache;
+
+import androidx.media3.datasource.cache.CacheSpan;
+import androidx.media3.datasource.cache.ContentMetadataMutations;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExoCachePrefixChecker 起播头部连续缓存判断校验
+ */
+public class ExoCachePrefixCheckerTest {
+
+    private static final String KEY = "video";
+    private static final long SPAN_LENGTH = 1000;
+    private static final long PRELOAD_SIZE = 4 * SPAN_LENGTH;
+
+    private ExpirableLruCacheEvictor evictor;
+    private FakeCache cache;
+
+    @Before
+    public void setUp() {
+        evictor = new ExpirableLruCacheEvictor(Long.MAX_VALUE, 0, 0);
+        cache = new FakeCache(evictor);
+    }
+
+    @Test
+    public void scatteredRanges_doNotCountAsStartupData() {
+        assertFalse(isStartupDataCached());
+        // 拖动后缓存的散落区间：总量已超过预加载大小，但头部缺失
+        for (int i = 2; i < 8; i++) {
+            cache.add(span(i));
+        }
+        assertEquals(6 * SPAN_LENGTH, evictor.getKeyStats(KEY).getTotalBytes());
+        assertFalse(isStartupDataCached());
+
+        // 补上 [0, 1) 仍留有空洞，补齐后连续区间覆盖预加载大小
+        cache.add(span(0));
+        assertFalse(isStartupDataCached());
+        cache.add(span(1));
+        assertTrue(isStartupDataCached());
+
+        // 头部片段被淘汰后重新视为未缓存
+        cache.remove(span(1));
+        assertFalse(isStartupDataCached());
+    }
+
+    @Test
+    public void shortFile_requiresWholeFileWhenLengthKnown() {
+        setContentLength(2 * SPAN_LENGTH + 500);
+        cache.add(span(0));
+        cache.add(span(1));
+        assertFalse(isStartupDataCached());
+        cache.add(FakeCache.span(KEY, 2 * SPAN_LENGTH, 500));
+        assertTrue(isStartupDataCached());
+        assertEquals(2 * SPAN_LENGTH + 500, evictor.getKeyStats(KEY).getContentLength());
+    }
+
+    @Test
+    public void unknownLength_requiresPreloadSize() {
+        cache.add(span(0));
+        cache.add(span(1));
+        assertEquals(-1, evictor.getKeyStats(KEY).getContentLength());
+        assertFalse(isStartupDataCached());
+        cache.add(span(2));
+        cache.add(span(3));
+        assertTrue(isStartupDataCached());
+    }
+
+    private boolean isStartupDataCached() {
+        return ExoCachePrefixChecker.isStartupDataCached(evictor.getKeyStats(KEY), PRELOAD_SIZE);
+    }
+
+    private void setContentLength(long contentLength) {
+        ContentMetadataMutations mutations = new ContentMetadataMutations();
+        ContentMetadataMutations.setContentLength(mutations, contentLength);
+        cache.applyContentMetadataMutations(KEY, mutations);
+    }
+
+    private static CacheSpan span(int index) {
+        return FakeCache.span(KEY, index * SPAN_LENGTH, SPAN_LENGTH);
+    }
+}
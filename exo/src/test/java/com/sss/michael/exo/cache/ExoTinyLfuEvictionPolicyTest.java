@@ -0,0 +1,110 @@
+package com.sss.michael.exo.cache;
+
+import androidx.media3.datasource.cache.CacheSpan;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExoFrequencySketch 计数 / 老化与 ExoTinyLfuEvictionPolicy 准入、头部优先、按字节加权校验
+ */
+public class ExoTinyLfuEvictionPolicyTest {
+
+    private static final long SPAN_LENGTH = 1000;
+
+    @Test
+    public void sketch_countsSaturateAndAge() {
+        ExoFrequencySketch sketch = new ExoFrequencySketch(64);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment(7);
+        }
+        // 4 位计数器上限 15
+        assertEquals(15, sketch.frequency(7));
+        assertEquals(0, sketch.frequency(8));
+
+        // 累计增量达到表长 10 倍后整体减半
+        for (int i = 0; i < 64 * 10; i++) {
+            sketch.increment(1000 + i);
+        }
+        assertTrue(sketch.frequency(7) <= 7);
+    }
+
+    @Test
+    public void scan_doesNotFlushFrequentEntries() {
+        ExpirableLruCacheEvictor evictor = new ExpirableLruCacheEvictor(100 * SPAN_LENGTH, 0, 0,
+                new ExoTinyLfuEvictionPolicy(100 * SPAN_LENGTH, 0, 0));
+        FakeCache cache = new FakeCache(evictor);
+        CacheSpan[] hot = new CacheSpan[50];
+        for (int i = 0; i < hot.length; i++) {
+            hot[i] = span("hot-" + i, 0);
+            cache.add(hot[i]);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (CacheSpan span : hot) {
+                cache.touch(span, span);
+            }
+        }
+        // 一次性扫描 500 个新片段
+        for (int i = 0; i < 500; i++) {
+            cache.add(span("scan-" + i, 0));
+            evictor.sweep(Integer.MAX_VALUE);
+        }
+        int hotRemaining = 0;
+        for (CacheSpan span : hot) {
+            hotRemaining += cache.contains(span) ? 1 : 0;
+        }
+        assertEquals(hot.length, hotRemaining);
+        assertTrue(evictor.getCurrentCacheSize() <= 100 * SPAN_LENGTH);
+    }
+
+    @Test
+    public void equalFrequency_keepsPrefixOverTail() {
+        ExpirableLruCacheEvictor evictor = new ExpirableLruCacheEvictor(10 * SPAN_LENGTH, 0, 0,
+                new ExoTinyLfuEvictionPolicy(10 * SPAN_LENGTH, 0, SPAN_LENGTH));
+        FakeCache cache = new FakeCache(evictor);
+        // 每个视频的头部与尾部片段各一个，头部先写入（更久未访问）
+        for (int i = 0; i < 5; i++) {
+            cache.add(span("video-" + i, 0));
+            cache.add(span("video-" + i, SPAN_LENGTH));
+        }
+        cache.add(span("video-5", 0));
+        evictor.sweep(Integer.MAX_VALUE);
+
+        int prefixRemaining = 0;
+        for (int i = 0; i < 5; i++) {
+            prefixRemaining += cache.contains(span("video-" + i, 0)) ? 1 : 0;
+        }
+        // 淘汰的是尾部片段，所有头部片段保留
+        assertEquals(1, cache.evictedCount);
+        assertEquals(5, prefixRemaining);
+        assertTrue(cache.contains(span("video-5", 0)));
+    }
+
+    @Test
+    public void equalFrequency_evictsLargerSpanFirst() {
+        ExpirableLruCacheEvictor evictor = new ExpirableLruCacheEvictor(10 * SPAN_LENGTH, 0, 0,
+                new ExoTinyLfuEvictionPolicy(10 * SPAN_LENGTH, 0, 0));
+        FakeCache cache = new FakeCache(evictor);
+        // 最久未访问的是小片段，之后写入一个 4 倍大小的片段与若干小片段
+        CacheSpan small = span("small", 0);
+        CacheSpan large = FakeCache.span("large", 0, 4 * SPAN_LENGTH);
+        cache.add(small);
+        cache.add(large);
+        for (int i = 0; i < 7; i++) {
+            cache.add(span("video-" + i, 0));
+        }
+        evictor.sweep(Integer.MAX_VALUE);
+
+        // 频率相同：单位字节价值更低的大片段被淘汰，一次即可回到容量以内
+        assertEquals(1, cache.evictedCount);
+        assertTrue(cache.contains(small));
+        assertFalse(cache.contains(large));
+    }
+
+    private static CacheSpan span(String key, long position) {
+        return FakeCache.span(key, position, SPAN_LENGTH);
+    }
+}
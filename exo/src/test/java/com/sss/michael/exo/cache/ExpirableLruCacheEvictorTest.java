@@ -0,0 +1,289 @@
+package com.sss.michael.exo.cache;
+
+import androidx.media3.datasource.cache.CacheSpan;
+
+import com.sss.michael.exo.bean.ExoCacheKeyStats;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExpirableLruCacheEvictor 索引一致性、LRU 顺序、过期扫描、分批清扫与 key 统计校验
+ */
+public class ExpirableLruCacheEvictorTest {
+
+    private static final int KEY_COUNT = 1000;
+    private static final int SPANS_PER_KEY = 100;
+    private static final int SPAN_COUNT = KEY_COUNT * SPANS_PER_KEY;
+    private static final long SPAN_LENGTH = 1000;
+
+    private long nowMs;
+
+    @Before
+    public void setUp() {
+        nowMs = 0;
+    }
+
+    @Test(timeout = 10000)
+    public void hundredThousandSpans_addTouchRemove() {
+        ExpirableLruCacheEvictor evictor = newEvictor(Long.MAX_VALUE, 0, 0);
+        FakeCache cache = new FakeCache(evictor);
+        CacheSpan[] spans = new CacheSpan[SPAN_COUNT];
+        for (int i = 0; i < SPAN_COUNT; i++) {
+            spans[i] = span(i);
+            cache.add(spans[i]);
+        }
+        assertEquals(SPAN_COUNT, evictor.getSpanCount());
+        assertEquals(SPAN_COUNT * SPAN_LENGTH, evictor.getCurrentCacheSize());
+
+        for (int i = SPAN_COUNT - 1; i >= 0; i--) {
+            CacheSpan touched = FakeCache.span(spans[i].key, spans[i].position, SPAN_LENGTH, i);
+            cache.touch(spans[i], touched);
+            spans[i] = touched;
+        }
+        assertEquals(SPAN_COUNT, evictor.getSpanCount());
+
+        for (int i = 0; i < SPAN_COUNT; i += 2) {
+            cache.remove(spans[i]);
+        }
+        assertEquals(SPAN_COUNT / 2, evictor.getSpanCount());
+        assertEquals(SPAN_COUNT / 2 * SPAN_LENGTH, evictor.getCurrentCacheSize());
+        assertEquals(0, cache.evictedCount);
+    }
+
+    @Test
+    public void sizeLimit_evictsLeastRecentlyUsed() {
+        ExpirableLruCacheEvictor evictor = newEvictor(10 * SPAN_LENGTH, 0, 0);
+        FakeCache cache = new FakeCache(evictor);
+        CacheSpan[] spans = new CacheSpan[10];
+        for (int i = 0; i < spans.length; i++) {
+            spans[i] = span(i);
+            cache.add(spans[i]);
+        }
+        // 访问第 0 个，最久未访问的变为第 1 个
+        cache.touch(spans[0], spans[0]);
+        cache.add(span(10));
+        // 回调中不淘汰，等待清扫
+        assertEquals(0, cache.evictedCount);
+        assertEquals(11, evictor.getSpanCount());
+
+        assertFalse(evictor.sweep(Integer.MAX_VALUE));
+        assertEquals(1, cache.evictedCount);
+        assertTrue(cache.contains(spans[0]));
+        assertFalse(cache.contains(spans[1]));
+        assertEquals(10, evictor.getSpanCount());
+        assertEquals(10 * SPAN_LENGTH, evictor.getCurrentCacheSize());
+    }
+
+    @Test(timeout = 10000)
+    public void expiry_removesOnlyExpiredHead() {
+        ExpirableLruCacheEvictor evictor = newEvictor(Long.MAX_VALUE, 1000, 0);
+        FakeCache cache = new FakeCache(evictor);
+        // 每 1000 个片段时间推进 1ms：第 i 个片段的访问时间为 i / 1000
+        for (int i = 0; i < SPAN_COUNT; i++) {
+            nowMs = i / 1000;
+            cache.add(span(i));
+        }
+        assertEquals(0, cache.evictedCount);
+
+        // 访问时间早于 50ms 的片段全部过期，其余保留
+        nowMs = 1050;
+        cache.add(span(SPAN_COUNT));
+        assertEquals(0, cache.evictedCount);
+        assertEquals(0, evictor.getNextExpiryDelayMs());
+
+        assertFalse(evictor.sweep(Integer.MAX_VALUE));
+        assertEquals(SPAN_COUNT / 2, cache.evictedCount);
+        assertEquals(SPAN_COUNT / 2 + 1, evictor.getSpanCount());
+        assertFalse(cache.contains(span(SPAN_COUNT / 2 - 1)));
+        assertTrue(cache.contains(span(SPAN_COUNT / 2)));
+    }
+
+    @Test
+    public void touch_refreshesExpiry() {
+        ExpirableLruCacheEvictor evictor = newEvictor(Long.MAX_VALUE, 1000, 0);
+        FakeCache cache = new FakeCache(evictor);
+        CacheSpan first = span(0);
+        cache.add(first);
+        cache.add(span(1));
+        nowMs = 900;
+        cache.touch(first, first);
+        nowMs = 1500;
+        cache.add(span(2));
+        evictor.sweep(Integer.MAX_VALUE);
+
+        assertTrue(cache.contains(first));
+        assertFalse(cache.contains(span(1)));
+        assertEquals(2, evictor.getSpanCount());
+    }
+
+    @Test
+    public void metadataLimit_trimsOldestEntries() {
+        ExpirableLruCacheEvictor evictor = newEvictor(Long.MAX_VALUE, 0, 100);
+        FakeCache cache = new FakeCache(evictor);
+        for (int i = 0; i < 150; i++) {
+            cache.add(span(i));
+        }
+        evictor.sweep(Integer.MAX_VALUE);
+        assertEquals(100, evictor.getSpanCount());
+        assertEquals(50, cache.evictedCount);
+        assertFalse(cache.contains(span(49)));
+        assertTrue(cache.contains(span(50)));
+    }
+
+    @Test
+    public void sweep_respectsBatchLimit() {
+        ExpirableLruCacheEvictor evictor = newEvictor(Long.MAX_VALUE, 0, 100);
+        FakeCache cache = new FakeCache(evictor);
+        for (int i = 0; i < 150; i++) {
+            cache.add(span(i));
+        }
+        assertTrue(evictor.sweep(20));
+        assertEquals(20, cache.evictedCount);
+        assertFalse(cache.contains(span(19)));
+        assertTrue(cache.contains(span(20)));
+
+        assertFalse(evictor.sweep(30));
+        assertEquals(50, cache.evictedCount);
+        assertFalse(evictor.sweep(30));
+        assertEquals(50, cache.evictedCount);
+    }
+
+    @Test
+    public void overLimit_requestsSweepWithoutEvicting() {
+        ExpirableLruCacheEvictor evictor = newEvictor(3 * SPAN_LENGTH, 0, 0);
+        final int[] requestCount = new int[1];
+        evictor.setSweepRequestListener(new Runnable() {
+            @Override
+            public void run() {
+                requestCount[0]++;
+            }
+        });
+        FakeCache cache = new FakeCache(evictor);
+        requestCount[0] = 0;
+        for (int i = 0; i < 3; i++) {
+            cache.add(span(i));
+        }
+        assertEquals(0, requestCount[0]);
+
+        cache.add(span(3));
+        assertEquals(1, requestCount[0]);
+        assertEquals(0, cache.evictedCount);
+        assertEquals(4, evictor.getSpanCount());
+    }
+
+    @Test
+    public void touchExpiredSpan_marksStaleWithoutRefreshing() {
+        ExpirableLruCacheEvictor evictor = newEvictor(Long.MAX_VALUE, 1000, 0);
+        FakeCache cache = new FakeCache(evictor);
+        CacheSpan first = span(0);
+        cache.add(first);
+        nowMs = 500;
+        CacheSpan second = span(1);
+        cache.add(second);
+        assertFalse(evictor.isStale(first));
+
+        // 清扫前读取已过期片段：标记为过期，不得因访问而续期
+        nowMs = 1200;
+        cache.touch(first, first);
+        assertTrue(evictor.isStale(first));
+        assertFalse(evictor.isStale(second));
+
+        assertFalse(evictor.sweep(Integer.MAX_VALUE));
+        assertFalse(cache.contains(first));
+        assertTrue(cache.contains(second));
+    }
+
+    @Test
+    public void initialization_restoresPersistedAccessOrder() {
+        ExpirableLruCacheEvictor evictor = newEvictor(Long.MAX_VALUE, 1000, 0);
+        FakeCache cache = new FakeCache(evictor, false);
+        nowMs = 10000;
+        // 启动加载顺序与访问时间无关：第 i 个片段的持久化访问时间为 8000 + (i * 37 % 100) * 20
+        for (int i = 0; i < 100; i++) {
+            cache.add(FakeCache.span("video-0", i * SPAN_LENGTH, SPAN_LENGTH, 8000 + (i * 37 % 100) * 20));
+        }
+        evictor.onCacheInitialized();
+        assertEquals(0, cache.evictedCount);
+
+        // 访问时间早于 9000 的片段（i * 37 % 100 < 50）过期
+        assertFalse(evictor.sweep(Integer.MAX_VALUE));
+        assertEquals(50, cache.evictedCount);
+        for (int i = 0; i < 100; i++) {
+            CacheSpan span = FakeCache.span("video-0", i * SPAN_LENGTH, SPAN_LENGTH, 8000 + (i * 37 % 100) * 20);
+            assertEquals(i * 37 % 100 >= 50, cache.contains(span));
+        }
+    }
+
+    @Test
+    public void keyStats_tracksContiguousPrefix() {
+        ExpirableLruCacheEvictor evictor = newEvictor(Long.MAX_VALUE, 0, 0);
+        FakeCache cache = new FakeCache(evictor);
+        // 先写入 [2, 4) 与 [6, 7)，头部缺失
+        cache.add(span(2));
+        cache.add(span(3));
+        cache.add(span(6));
+        ExoCacheKeyStats stats = evictor.getKeyStats("video-0");
+        assertEquals(0, stats.getContiguousBytes());
+        assertEquals(3 * SPAN_LENGTH, stats.getTotalBytes());
+
+        // 补齐 [0, 2)：连续区间一次延伸到空洞 4 之前
+        cache.add(span(1));
+        assertEquals(0, evictor.getKeyStats("video-0").getContiguousBytes());
+        nowMs = 700;
+        cache.add(span(0));
+        stats = evictor.getKeyStats("video-0");
+        assertEquals(4 * SPAN_LENGTH, stats.getContiguousBytes());
+        assertEquals(5 * SPAN_LENGTH, stats.getTotalBytes());
+        assertEquals(700, stats.getLastAccessTimeMs());
+
+        // 补齐空洞后延伸到 7，移除中间片段后截断
+        cache.add(span(4));
+        cache.add(span(5));
+        assertEquals(7 * SPAN_LENGTH, evictor.getKeyStats("video-0").getContiguousBytes());
+        cache.remove(span(3));
+        stats = evictor.getKeyStats("video-0");
+        assertEquals(3 * SPAN_LENGTH, stats.getContiguousBytes());
+        assertEquals(6 * SPAN_LENGTH, stats.getTotalBytes());
+
+        nowMs = 900;
+        cache.touch(span(6), span(6));
+        assertEquals(900, evictor.getKeyStats("video-0").getLastAccessTimeMs());
+        assertNull(evictor.getKeyStats("video-1"));
+    }
+
+    @Test
+    public void keyStats_removedWithLastSpan() {
+        ExpirableLruCacheEvictor evictor = newEvictor(Long.MAX_VALUE, 0, 2 * SPANS_PER_KEY);
+        FakeCache cache = new FakeCache(evictor);
+        for (int i = 0; i < 3 * SPANS_PER_KEY; i++) {
+            cache.add(span(i));
+        }
+        assertEquals(3, evictor.getKeyCount());
+        assertEquals(SPANS_PER_KEY * SPAN_LENGTH, evictor.getKeyStats("video-2").getContiguousBytes());
+
+        // 淘汰最久未访问的 video-0 全部片段
+        evictor.sweep(Integer.MAX_VALUE);
+        assertEquals(2, evictor.getKeyCount());
+        assertNull(evictor.getKeyStats("video-0"));
+        assertEquals(SPANS_PER_KEY * SPAN_LENGTH, evictor.getKeyStats("video-1").getTotalBytes());
+    }
+
+    private ExpirableLruCacheEvictor newEvictor(long maxCacheSize, long expireTimeMs, int maxMetadataEntryCount) {
+        return new ExpirableLruCacheEvictor(maxCacheSize, expireTimeMs, maxMetadataEntryCount) {
+            @Override
+            long currentTimeMillis() {
+                return nowMs;
+            }
+        };
+    }
+
+    private static CacheSpan span(int index) {
+        return FakeCache.span("video-" + (index / SPANS_PER_KEY), (index % SPANS_PER_KEY) * SPAN_LENGTH, SPAN_LENGTH);
+    }
+}
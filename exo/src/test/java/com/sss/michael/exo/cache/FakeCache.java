@@ -0,0 +1,191 @@
+package com.sss.michael.exo.cache;
+
+import androidx.media3.datasource.cache.Cache;
+import androidx.media3.datasource.cache.CacheSpan;
+import androidx.media3.datasource.cache.ContentMetadataMutations;
+import androidx.media3.datasource.cache.DefaultContentMetadata;
+
+import com.sss.michael.exo.ExoConfig;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 仅维护片段集合与内容元数据，并按 SimpleCache 的方式同步回调淘汰器
+ */
+final class FakeCache implements Cache {
+    private final ExpirableLruCacheEvictor evictor;
+    private final Map<String, TreeSet<CacheSpan>> spans = new HashMap<>();
+    private final Map<String, DefaultContentMetadata> metadata = new HashMap<>();
+    // 由淘汰器发起的删除次数（不含测试主动删除）
+    int evictedCount;
+    private boolean removingByTest;
+
+    FakeCache(ExpirableLruCacheEvictor evictor) {
+        this(evictor, true);
+    }
+
+    FakeCache(ExpirableLruCacheEvictor evictor, boolean initialized) {
+        // 淘汰器测试动辄增删上万个片段，关闭日志
+        ExoConfig.LOG_ENABLE = false;
+        this.evictor = evictor;
+        if (initialized) {
+            evictor.onCacheInitialized();
+        }
+    }
+
+    /**
+     * 已缓存的测试片段，最后访问时间为 0
+     */
+    static CacheSpan span(String key, long position, long length) {
+        return span(key, position, length, 0);
+    }
+
+    /**
+     * 已缓存的测试片段，淘汰器只关心 key / 位置 / 长度与最后访问时间，文件仅用于标记已缓存
+     */
+    static CacheSpan span(String key, long position, long length, long lastTouchTimestamp) {
+        return new CacheSpan(key, position, length, lastTouchTimestamp, new File("span"));
+    }
+
+    void add(CacheSpan span) {
+        spansOf(span.key).add(span);
+        evictor.onSpanAdded(this, span);
+    }
+
+    void touch(CacheSpan oldSpan, CacheSpan newSpan) {
+        TreeSet<CacheSpan> keySpans = spansOf(oldSpan.key);
+        keySpans.remove(oldSpan);
+        keySpans.add(newSpan);
+        evictor.onSpanTouched(this, oldSpan, newSpan);
+    }
+
+    void remove(CacheSpan span) {
+        removingByTest = true;
+        try {
+            removeSpan(span);
+        } finally {
+            removingByTest = false;
+        }
+    }
+
+    boolean contains(CacheSpan span) {
+        TreeSet<CacheSpan> keySpans = spans.get(span.key);
+        return keySpans != null && keySpans.contains(span);
+    }
+
+    private TreeSet<CacheSpan> spansOf(String key) {
+        TreeSet<CacheSpan> keySpans = spans.get(key);
+        if (keySpans == null) {
+            keySpans = new TreeSet<>();
+            spans.put(key, keySpans);
+        }
+        return keySpans;
+    }
+
+    @Override
+    public void removeSpan(CacheSpan span) {
+        TreeSet<CacheSpan> keySpans = spans.get(span.key);
+        if (keySpans != null && keySpans.remove(span)) {
+            if (!removingByTest) {
+                evictedCount++;
+            }
+            evictor.onSpanRemoved(this, span);
+        }
+    }
+
+    @Override
+    public NavigableSet<CacheSpan> getCachedSpans(String key) {
+        TreeSet<CacheSpan> keySpans = spans.get(key);
+        return keySpans == null ? new TreeSet<CacheSpan>() : new TreeSet<>(keySpans);
+    }
+
+    @Override
+    public Set<String> getKeys() {
+        return spans.keySet();
+    }
+
+    @Override
+    public long getUid() {
+        return 0;
+    }
+
+    @Override
+    public void release() {
+    }
+
+    @Override
+    public NavigableSet<CacheSpan> addListener(String key, Listener listener) {
+        return getCachedSpans(key);
+    }
+
+    @Override
+    public void removeListener(String key, Listener listener) {
+    }
+
+    @Override
+    public long getCacheSpace() {
+        return evictor.getCurrentCacheSize();
+    }
+
+    @Override
+    public CacheSpan startReadWrite(String key, long position, long length) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CacheSpan startReadWriteNonBlocking(String key, long position, long length) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public File startFile(String key, long position, long length) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void commitFile(File file, long length) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void releaseHoleSpan(CacheSpan holeSpan) {
+    }
+
+    @Override
+    public void removeResource(String key) {
+        for (CacheSpan span : getCachedSpans(key)) {
+            remove(span);
+        }
+    }
+
+    @Override
+    public boolean isCached(String key, long position, long length) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getCachedLength(String key, long position, long length) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getCachedBytes(String key, long position, long length) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void applyContentMetadataMutations(String key, ContentMetadataMutations mutations) {
+        metadata.put(key, getContentMetadata(key).copyWithMutationsApplied(mutations));
+    }
+
+    @Override
+    public DefaultContentMetadata getContentMetadata(String key) {
+        DefaultContentMetadata keyMetadata = metadata.get(key);
+        return keyMetadata != null ? keyMetadata : DefaultContentMetadata.EMPTY;
+    }
+}
@@ -0,0 +1,127 @@
+package com.sss.michael.exo.core;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ExoPcmMixer 求和、削顶与会话上限校验
+ */
+public class ExoPcmMixerTest {
+
+    private static final float EPSILON = 1e-6f;
+
+    @Test
+    public void accumulate_rampsGainToEndValue() {
+        float[] samples = {0.5f, 0.5f, 0.5f, 0.5f};
+        float[] mix = new float[4];
+        ExoPcmMixer.accumulate(samples, 4, 1, mix, 1, 0f, 1f);
+        // 线性斜坡从起点之后一帧开始，最后一帧恰好落在终点增益
+        assertEquals(0.125f, mix[0], EPSILON);
+        assertEquals(0.25f, mix[1], EPSILON);
+        assertEquals(0.375f, mix[2], EPSILON);
+        assertEquals(0.5f, mix[3], EPSILON);
+    }
+
+    @Test
+    public void accumulate_sumsSessionsAndMapsChannels() {
+        float[] mix = new float[4];
+        // 单声道上混到双声道：左右声道相同
+        ExoPcmMixer.accumulate(new float[]{0.2f, -0.4f}, 2, 1, mix, 2, 1f, 1f);
+        // 第二路双声道叠加在其上
+        ExoPcmMixer.accumulate(new float[]{0.1f, 0.3f, 0.0f, 0.2f}, 2, 2, mix, 2, 0.5f, 0.5f);
+        assertEquals(0.25f, mix[0], EPSILON);
+        assertEquals(0.35f, mix[1], EPSILON);
+        assertEquals(-0.4f, mix[2], EPSILON);
+        assertEquals(-0.3f, mix[3], EPSILON);
+
+        // 双声道下混到单声道取左右平均
+        float[] mono = new float[2];
+        ExoPcmMixer.accumulate(new float[]{0.2f, 0.6f, -1f, 0f}, 2, 2, mono, 1, 1f, 1f);
+        assertEquals(0.4f, mono[0], EPSILON);
+        assertEquals(-0.5f, mono[1], EPSILON);
+    }
+
+    @Test
+    public void encodePcm16_clampsOverflowingSum() {
+        float[] mix = new float[5];
+        ExoPcmMixer.accumulate(new float[]{0.75f, -0.75f, 0.25f, 0f, 0.5f}, 5, 1, mix, 1, 1f, 1f);
+        ExoPcmMixer.accumulate(new float[]{0.75f, -0.75f, 0f, 0f, -0.25f}, 5, 1, mix, 1, 1f, 1f);
+        ByteBuffer output = ByteBuffer.allocateDirect(32).order(ByteOrder.nativeOrder());
+        // 先写入一些残留数据，验证编码总是从头写入
+        output.putInt(-1);
+        ExoPcmMixer.encodePcm16(mix, mix.length, output);
+
+        assertEquals(10, output.remaining());
+        assertEquals(Short.MAX_VALUE, output.getShort());
+        assertEquals(Short.MIN_VALUE, output.getShort());
+        assertEquals(8192, output.getShort());
+        assertEquals(0, output.getShort());
+        assertEquals(8192, output.getShort());
+    }
+
+    @Test
+    public void sessionTable_rejectsBeyondLimitUntilSessionRemoved() {
+        ExoPcmMixSessionTable<String> table = new ExoPcmMixSessionTable<>(ExoPcmMixer.MAX_SESSIONS);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < ExoPcmMixer.MAX_SESSIONS; i++) {
+            ids.add(table.open(id -> "session-" + id));
+        }
+        assertEquals(ExoPcmMixer.MAX_SESSIONS, table.size());
+        try {
+            table.open(id -> {
+                fail("达到上限后不应再创建会话");
+                return null;
+            });
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // 预期行为
+        }
+
+        table.remove(ids.get(0));
+        assertNull(table.get(ids.get(0)));
+        int reopened = table.open(id -> "session-" + id);
+        // id 单调递增，不复用已移除会话的 id
+        assertTrue(reopened != ids.get(0));
+        assertEquals("session-" + reopened, table.get(reopened));
+        assertEquals(ExoPcmMixer.MAX_SESSIONS, table.size());
+    }
+
+    @Test(timeout = 10000)
+    public void sessionTable_concurrentOpensNeverExceedLimit() throws InterruptedException {
+        final int threads = 32;
+        for (int round = 0; round < 50; round++) {
+            final ExoPcmMixSessionTable<Object> table = new ExoPcmMixSessionTable<>(ExoPcmMixer.MAX_SESSIONS);
+            final CountDownLatch start = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(threads);
+            final AtomicInteger opened = new AtomicInteger();
+            for (int i = 0; i < threads; i++) {
+                new Thread(() -> {
+                    try {
+                        start.await();
+                        table.open(id -> new Object());
+                        opened.incrementAndGet();
+                    } catch (IllegalStateException | InterruptedException ignored) {
+                        // 超出上限的打开被拒绝
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+            start.countDown();
+            done.await();
+            assertEquals(ExoPcmMixer.MAX_SESSIONS, opened.get());
+            assertEquals(ExoPcmMixer.MAX_SESSIONS, table.size());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.sss.michael.exo.core;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * ExoPcmRingBuffer 读写、丢弃与按需扩容校验
+ */
+public class ExoPcmRingBufferTest {
+
+    private static final int CAPACITY = 64;
+
+    @Test
+    public void fixedCapacity_rejectsOverflow() {
+        ExoPcmRingBuffer ringBuffer = new ExoPcmRingBuffer(CAPACITY);
+        assertEquals(CAPACITY, ringBuffer.write(sequence(0, CAPACITY + 16), 0, CAPACITY + 16));
+        assertEquals(0, ringBuffer.getWritableBytes());
+        assertEquals(0, ringBuffer.write(sequence(0, 1), 0, 1));
+    }
+
+    @Test
+    public void fixedCapacity_wrapsAroundInOrder() {
+        ExoPcmRingBuffer ringBuffer = new ExoPcmRingBuffer(CAPACITY);
+        int written = 0;
+        int read = 0;
+        byte[] chunk = new byte[CAPACITY];
+        // 每轮写 40、读 40，写位置反复越过容量末尾回绕
+        for (int round = 0; round < 10; round++) {
+            assertEquals(40, ringBuffer.write(sequence(written, 40), 0, 40));
+            written += 40;
+            // 回绕时连续区间在容量末尾被截断，剩余部分从头开始
+            ByteBuffer region = ringBuffer.peekContiguous(Integer.MAX_VALUE);
+            assertEquals(Math.min(40, CAPACITY - read % CAPACITY), region.remaining());
+            assertEquals(40, readInto(ringBuffer, chunk, 0, 40));
+            for (int i = 0; i < 40; i++) {
+                assertEquals("byte " + (read + i), (byte) (read + i), chunk[i]);
+            }
+            read += 40;
+            assertEquals(CAPACITY, ringBuffer.getWritableBytes());
+        }
+    }
+
+    @Test
+    public void growable_acceptsBurstBeyondCapacityInOrder() {
+        ExoPcmRingBuffer ringBuffer = new ExoPcmRingBuffer(CAPACITY, true);
+        // 一次写入远超首段容量的数据，中途再读走一部分后继续写入，跨多段追加
+        assertEquals(200, ringBuffer.write(sequence(0, 200), 0, 200));
+        assertEquals(200, ringBuffer.getReadableBytes());
+        assertEquals(30, readInto(ringBuffer, new byte[30], 0, 30));
+        assertEquals(500, ringBuffer.write(ByteBuffer.wrap(sequence(200, 500))));
+        assertEquals(670, ringBuffer.getReadableBytes());
+        assertEquals(Integer.MAX_VALUE, ringBuffer.getWritableBytes());
+
+        byte[] remaining = new byte[670];
+        assertEquals(670, readInto(ringBuffer, remaining, 0, remaining.length));
+        assertSequence(remaining, 30);
+        assertEquals(0, ringBuffer.getReadableBytes());
+    }
+
+    @Test
+    public void growable_regionsNeverCrossSegments() {
+        ExoPcmRingBuffer ringBuffer = new ExoPcmRingBuffer(CAPACITY, true);
+        ringBuffer.write(sequence(0, CAPACITY + 10), 0, CAPACITY + 10);
+        // 首段写满后封口，第一段区间最多到首段末尾
+        ByteBuffer region = ringBuffer.peekContiguous(Integer.MAX_VALUE);
+        assertEquals(CAPACITY, region.remaining());
+        ringBuffer.commitRead(CAPACITY);
+        region = ringBuffer.peekContiguous(Integer.MAX_VALUE);
+        assertEquals(10, region.remaining());
+        assertEquals((byte) CAPACITY, region.get(region.position()));
+    }
+
+    @Test
+    public void growable_discardAndSkipAcrossSegments() {
+        ExoPcmRingBuffer ringBuffer = new ExoPcmRingBuffer(CAPACITY, true);
+        ringBuffer.write(sequence(0, 300), 0, 300);
+        assertEquals(250, ringBuffer.discardOldest(250));
+        assertEquals(50, ringBuffer.getReadableBytes());
+        assertEquals(250, ringBuffer.skipDiscarded());
+
+        byte[] tail = new byte[50];
+        assertEquals(50, readInto(ringBuffer, tail, 0, tail.length));
+        assertSequence(tail, 250);
+
+        ringBuffer.write(sequence(300, 100), 0, 100);
+        assertEquals(100, ringBuffer.discardAll());
+        assertEquals(0, ringBuffer.getReadableBytes());
+        ringBuffer.write(sequence(400, 20), 0, 20);
+        byte[] next = new byte[20];
+        assertEquals(20, readInto(ringBuffer, next, 0, next.length));
+        assertSequence(next, 400);
+    }
+
+    @Test
+    public void discardOldest_skipsClaimedRegion() {
+        ExoPcmRingBuffer ringBuffer = new ExoPcmRingBuffer(CAPACITY);
+        ringBuffer.write(sequence(0, 40), 0, 40);
+        // 消费线程已取走前 16 字节交给设备，生产线程只能丢弃其后的排队数据
+        ByteBuffer region = ringBuffer.peekContiguous(16);
+        assertEquals(16, region.remaining());
+        assertEquals(10, ringBuffer.discardOldest(10));
+        assertEquals(14, ringBuffer.discardOldest(100));
+        ringBuffer.commitRead(16);
+        assertEquals(24, ringBuffer.skipDiscarded());
+        assertEquals(0, ringBuffer.getReadableBytes());
+
+        ringBuffer.write(sequence(40, 8), 0, 8);
+        byte[] next = new byte[8];
+        assertEquals(8, readInto(ringBuffer, next, 0, next.length));
+        assertSequence(next, 40);
+    }
+
+    @Test(timeout = 10000)
+    public void growable_concurrentProducerKeepsOrder() throws InterruptedException {
+        final ExoPcmRingBuffer ringBuffer = new ExoPcmRingBuffer(CAPACITY, true);
+        final int total = 1 << 20;
+        Thread producer = new Thread(() -> {
+            Random random = new Random(7);
+            int written = 0;
+            while (written < total) {
+                int length = Math.min(total - written, 1 + random.nextInt(512));
+                written += ringBuffer.write(sequence(written, length), 0, length);
+            }
+        });
+        producer.start();
+        byte[] chunk = new byte[97];
+        int read = 0;
+        while (read < total) {
+            int bytes = readInto(ringBuffer, chunk, 0, Math.min(chunk.length, total - read));
+            for (int i = 0; i < bytes; i++) {
+                assertEquals("byte " + (read + i), (byte) (read + i), chunk[i]);
+            }
+            read += bytes;
+        }
+        producer.join();
+        assertEquals(0, ringBuffer.getReadableBytes());
+    }
+
+    /**
+     * 按消费线程的方式逐段 peek / commit，读出最多 length 字节
+     */
+    static int readInto(ExoPcmRingBuffer ringBuffer, byte[] target, int offset, int length) {
+        int read = 0;
+        while (read < length) {
+            ByteBuffer region = ringBuffer.peekContiguous(length - read);
+            int bytes = region.remaining();
+            if (bytes == 0) {
+                break;
+            }
+            region.get(target, offset + read, bytes);
+            ringBuffer.commitRead(bytes);
+            read += bytes;
+        }
+        return read;
+    }
+
+    static byte[] sequence(int start, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (start + i);
+        }
+        return data;
+    }
+
+    static void assertSequence(byte[] data, int start) {
+        for (int i = 0; i < data.length; i++) {
+            assertEquals("byte " + i, (byte) (start + i), data[i]);
+        }
+    }
+}
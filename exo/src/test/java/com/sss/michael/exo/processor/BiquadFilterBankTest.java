@@ -0,0 +1,223 @@
+package com.sss.michael.exo.processor;
+
+import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.constant.ExoEqFilterType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BiquadFilterBank 与逐sample BiquadFilter 级联输出一致性校验
+ */
+public class BiquadFilterBankTest {
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final int CHANNEL_COUNT = 2;
+    private static final int FRAME_COUNT = 1024;
+    private static final float RAMP_TOLERANCE = 2e-3f;
+    // 峰值频段按历史标度生效（中心处为 2 倍标称 dB），标称值取一半，实际响应覆盖 -6 ~ +8dB
+    private static final float[] GAINS = {3f, 1.5f, -1f, 0f, 2f, -3f, 1f, 0.5f, 4f, -1.5f};
+
+    private BiquadFilter[][] filters;
+    private BiquadFilterBank filterBank;
+    private Random random;
+
+    @Before
+    public void setUp() {
+        ExoConfig.LOG_ENABLE = false;
+        int bandCount = ExoConfig.EQ_CENTER_FREQUENCIES.length;
+        filters = new BiquadFilter[CHANNEL_COUNT][bandCount];
+        filterBank = new BiquadFilterBank(CHANNEL_COUNT, bandCount);
+        for (int c = 0; c < CHANNEL_COUNT; c++) {
+            for (int i = 0; i < bandCount; i++) {
+                filters[c][i] = new BiquadFilter();
+            }
+        }
+        // 首次配置直接对齐工作系数，无平滑过渡
+        configure(1f);
+        random = new Random(20260212L);
+    }
+
+    @Test
+    public void steadyState_matchesPerSampleCascade() {
+        for (int block = 0; block < 20; block++) {
+            float[] expected = randomBlock();
+            float[] actual = expected.clone();
+            processPerSample(expected);
+            filterBank.process(actual, FRAME_COUNT);
+            assertBitIdentical(expected, actual);
+        }
+    }
+
+    @Test
+    public void gainRamp_tracksPerSampleSmoothing() {
+        for (int block = 0; block < 40; block++) {
+            if (block == 10) {
+                configure(-1f);
+            }
+            float[] expected = randomBlock();
+            float[] actual = expected.clone();
+            processPerSample(expected);
+            filterBank.process(actual, FRAME_COUNT);
+            if (block >= 30) {
+                // 系数收敛且斜坡残留的延迟状态差异衰减后，与逐sample级联逐位相同
+                assertBitIdentical(expected, actual);
+                continue;
+            }
+            // 分段线性斜坡逼近逐sample指数平滑，收敛途中仅有微小偏差（约 -54dBFS 以内）
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals("block " + block + " sample " + i, expected[i], actual[i], RAMP_TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void resetInternalStates_matchesCascade() {
+        float[] warmUp = randomBlock();
+        processPerSample(warmUp.clone());
+        filterBank.process(warmUp, FRAME_COUNT);
+        for (BiquadFilter[] channelFilters : filters) {
+            for (BiquadFilter filter : channelFilters) {
+                filter.resetInternalStates();
+            }
+        }
+        filterBank.resetInternalStates();
+
+        float[] expected = randomBlock();
+        float[] actual = expected.clone();
+        processPerSample(expected);
+        filterBank.process(actual, FRAME_COUNT);
+        assertBitIdentical(expected, actual);
+    }
+
+    @Test
+    public void filterTypes_matchNominalResponse() {
+        // 峰值：沿用历史增益标度，中心处为 2 倍标称 dB，与内置预设 / 已保存增益的调校一致
+        assertEquals(12.0, responseDb(ExoEqFilterType.PEAKING, 1000, 1.0, 6, 1000), 0.05);
+        assertEquals(-18.0, responseDb(ExoEqFilterType.PEAKING, 1000, 1.0, -9, 1000), 0.05);
+        // 搁架：增益按标称 dB 生效
+        assertEquals(8.0, responseDb(ExoEqFilterType.LOW_SHELF, 200, 0.7071, 8, 30), 0.2);
+        assertEquals(0.0, responseDb(ExoEqFilterType.LOW_SHELF, 200, 0.7071, 8, 8000), 0.2);
+        assertEquals(-6.0, responseDb(ExoEqFilterType.HIGH_SHELF, 4000, 0.7071, -6, 16000), 0.3);
+        assertEquals(0.0, responseDb(ExoEqFilterType.HIGH_SHELF, 4000, 0.7071, -6, 100), 0.2);
+        // 通带 / 陷波：截止频率处 -3dB（Q=0.707），陷波中心深度衰减
+        assertEquals(-3.0, responseDb(ExoEqFilterType.LOW_PASS, 1000, 0.7071, 0, 1000), 0.1);
+        assertEquals(0.0, responseDb(ExoEqFilterType.LOW_PASS, 1000, 0.7071, 0, 100), 0.1);
+        assertEquals(-3.0, responseDb(ExoEqFilterType.HIGH_PASS, 1000, 0.7071, 0, 1000), 0.1);
+        assertTrue(responseDb(ExoEqFilterType.HIGH_PASS, 1000, 0.7071, 0, 50) < -40);
+        assertTrue(responseDb(ExoEqFilterType.NOTCH, 1000, 10, 0, 1000) < -40);
+        assertEquals(0.0, responseDb(ExoEqFilterType.NOTCH, 1000, 10, 0, 500), 0.1);
+    }
+
+    @Test
+    public void identityBands_areSkippedOnceConverged() {
+        BiquadFilterBank bank = new BiquadFilterBank(CHANNEL_COUNT, 31);
+        for (int i = 0; i < 31; i++) {
+            bank.setIdentity(i);
+        }
+        assertTrue(bank.isIdle());
+        float[] block = randomBlock();
+        float[] processed = block.clone();
+        bank.process(processed, FRAME_COUNT);
+        assertBitIdentical(block, processed);
+
+        // 单个频段从直通平滑过渡到目标，再回到直通
+        bank.setFilter(7, ExoEqFilterType.PEAKING, 1000, SAMPLE_RATE, 4.318, 6);
+        assertFalse(bank.isIdle());
+        bank.setIdentity(7);
+        for (int i = 0; i < 200 && !bank.isIdle(); i++) {
+            bank.process(randomBlock(), FRAME_COUNT);
+        }
+        assertTrue(bank.isIdle());
+    }
+
+    @Test
+    public void resize_keepsExistingBandState() {
+        float[] expected = randomBlock();
+        float[] actual = expected.clone();
+        BiquadFilterBank reference = new BiquadFilterBank(CHANNEL_COUNT, ExoConfig.EQ_CENTER_FREQUENCIES.length);
+        for (int i = 0; i < ExoConfig.EQ_CENTER_FREQUENCIES.length; i++) {
+            reference.setPeakingEQ(i, ExoConfig.EQ_CENTER_FREQUENCIES[i], SAMPLE_RATE, ExoConfig.EQ_QUALITY_FACTOR, GAINS[i]);
+        }
+        reference.process(expected, FRAME_COUNT);
+        filterBank.process(actual, FRAME_COUNT);
+
+        // 追加的频段以直通起步，输出与未扩容的滤波器组一致
+        filterBank.resize(31);
+        expected = randomBlock();
+        actual = expected.clone();
+        reference.process(expected, FRAME_COUNT);
+        filterBank.process(actual, FRAME_COUNT);
+        assertBitIdentical(expected, actual);
+    }
+
+    /**
+     * 单频段滤波器在指定频率处的稳态增益（dB）
+     */
+    private static double responseDb(ExoEqFilterType type, double freq, double q, double gainDb, double probeHz) {
+        BiquadFilterBank bank = new BiquadFilterBank(1, 1);
+        bank.setFilter(0, type, freq, SAMPLE_RATE, q, gainDb);
+        int frames = SAMPLE_RATE;
+        float[] block = new float[frames];
+        for (int i = 0; i < frames; i++) {
+            block[i] = (float) (0.25 * Math.sin(2 * Math.PI * probeHz * i / SAMPLE_RATE));
+        }
+        bank.process(block, frames);
+        // 跳过前半秒的瞬态，按 RMS 比值计算增益
+        double sum = 0;
+        for (int i = frames / 2; i < frames; i++) {
+            sum += block[i] * block[i];
+        }
+        double rms = Math.sqrt(sum / (frames - frames / 2));
+        return 20 * Math.log10(rms / (0.25 / Math.sqrt(2)));
+    }
+
+    private void configure(float gainScale) {
+        for (int i = 0; i < ExoConfig.EQ_CENTER_FREQUENCIES.length; i++) {
+            float freq = ExoConfig.EQ_CENTER_FREQUENCIES[i];
+            double gain = GAINS[i] * gainScale;
+            for (int c = 0; c < CHANNEL_COUNT; c++) {
+                filters[c][i].setPeakingEQ(freq, SAMPLE_RATE, ExoConfig.EQ_QUALITY_FACTOR, gain);
+            }
+            filterBank.setPeakingEQ(i, freq, SAMPLE_RATE, ExoConfig.EQ_QUALITY_FACTOR, gain);
+        }
+    }
+
+    /**
+     * 参考实现：逐sample逐频段级联，跳过旁路频段
+     */
+    private void processPerSample(float[] block) {
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            for (int c = 0; c < CHANNEL_COUNT; c++) {
+                float sample = block[i * CHANNEL_COUNT + c];
+                for (BiquadFilter filter : filters[c]) {
+                    if (!filter.isBypassed()) {
+                        sample = filter.process(sample);
+                    }
+                }
+                block[i * CHANNEL_COUNT + c] = sample;
+            }
+        }
+    }
+
+    private float[] randomBlock() {
+        float[] block = new float[FRAME_COUNT * CHANNEL_COUNT];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (float) (random.nextGaussian() * 0.2);
+        }
+        return block;
+    }
+
+    private static void assertBitIdentical(float[] expected, float[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("sample " + i, Float.floatToIntBits(expected[i]), Float.floatToIntBits(actual[i]));
+        }
+    }
+}
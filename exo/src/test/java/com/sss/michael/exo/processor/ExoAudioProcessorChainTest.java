@@ -0,0 +1,171 @@
+package com.sss.michael.exo.processor;
+
+import androidx.media3.common.C;
+import androidx.media3.common.audio.AudioProcessor;
+
+import com.sss.michael.exo.ExoConfig;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExoAudioProcessorChain 恒等阶段直通与均衡器削波校验
+ */
+public class ExoAudioProcessorChainTest {
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final int CHANNELS = 2;
+    private static final int FRAMES = 256;
+
+    @Test
+    public void identityStage_isSkippedAndBytesPassThrough() throws Exception {
+        CountingStage stage = new CountingStage();
+        ExoAudioProcessorChain chain = configuredChain(stage);
+
+        // 首块完成阶段配置，之后恒等阶段不再被调用，输出与输入逐字节相同
+        chain.queueInput(pcm());
+        chain.getOutput();
+        int callsAfterConfigure = stage.processCalls;
+        ByteBuffer input = pcm();
+        chain.queueInput(input.duplicate());
+        assertEquals(input, chain.getOutput());
+        assertEquals(callsAfterConfigure, stage.processCalls);
+
+        // 参数变化不再是恒等变换：下一块立即恢复处理并写回
+        stage.identity = false;
+        chain.queueInput(pcm());
+        ByteBuffer output = chain.getOutput();
+        assertEquals(callsAfterConfigure + 1, stage.processCalls);
+        assertNotEquals(input, output);
+    }
+
+    @Test
+    public void flatEqualizer_passesThroughBitExact() throws Exception {
+        ExoEqualizerProcessor equalizer = new ExoEqualizerProcessor();
+        equalizer.setBandGains(new float[ExoConfig.EQ_BAND_COUNT]);
+        ExoAudioProcessorChain chain = configuredChain(equalizer);
+
+        // -32768 经解码 / 写回会变为 -32767，逐字节相同说明整块未经写回
+        for (int block = 0; block < 4; block++) {
+            ByteBuffer input = pcm();
+            chain.queueInput(input.duplicate());
+            assertEquals("block " + block, input, chain.getOutput());
+        }
+
+        // 非平直响应时均衡器照常处理
+        float[] gains = new float[ExoConfig.EQ_BAND_COUNT];
+        gains[0] = 6f;
+        equalizer.setBandGains(gains);
+        ByteBuffer input = pcm();
+        chain.queueInput(input.duplicate());
+        assertNotEquals(input, chain.getOutput());
+        assertTrue(chain.isStageActive(equalizer));
+    }
+
+    @Test
+    public void equalizer_clipsOnlyWithoutLimiterAfterIt() throws Exception {
+        ExoEqualizerProcessor equalizer = new ExoEqualizerProcessor();
+        float[] gains = new float[ExoConfig.EQ_BAND_COUNT];
+        Arrays.fill(gains, ExoConfig.EQ_MAX_DB);
+        equalizer.setBandGains(gains);
+        ExoAudioProcessorChain chain = new ExoAudioProcessorChain();
+        chain.addStage(equalizer, true);
+        chain.configure(new AudioProcessor.AudioFormat(SAMPLE_RATE, CHANNELS, C.ENCODING_PCM_FLOAT));
+        chain.flush();
+
+        // 后级无限幅器：均衡器按 EQ_CLIPPING_THRESHOLD 削波，float 输出不超过阈值
+        assertTrue(peak(chain) <= ExoConfig.EQ_CLIPPING_THRESHOLD + 1e-6f);
+
+        // 其后启用限幅器：均衡器不再削波，过载交给限幅器
+        ExoLoudnessNormalizerProcessor limiter = new ExoLoudnessNormalizerProcessor();
+        chain.addStage(limiter, true);
+        chain.flush();
+        float ceiling = (float) Math.pow(10, ExoConfig.LOUDNESS_TRUE_PEAK_CEILING_DB / 20.0);
+        float peak = peak(chain);
+        assertTrue("peak " + peak, peak > ExoConfig.EQ_CLIPPING_THRESHOLD && peak <= ceiling + 1e-3f);
+
+        // 旁路限幅器后均衡器恢复削波
+        chain.setStageActive(limiter, false);
+        chain.flush();
+        assertTrue(peak(chain) <= ExoConfig.EQ_CLIPPING_THRESHOLD + 1e-6f);
+    }
+
+    private static ExoAudioProcessorChain configuredChain(ExoBaseAudioProcessor stage) throws Exception {
+        ExoAudioProcessorChain chain = new ExoAudioProcessorChain();
+        chain.addStage(stage, true);
+        chain.configure(new AudioProcessor.AudioFormat(SAMPLE_RATE, CHANNELS, C.ENCODING_PCM_16BIT));
+        chain.flush();
+        return chain;
+    }
+
+    /**
+     * 连续送入满幅正弦（float），返回稳定后输出的峰值
+     */
+    private static float peak(ExoAudioProcessorChain chain) {
+        float peak = 0f;
+        for (int block = 0; block < 40; block++) {
+            ByteBuffer input = ByteBuffer.allocateDirect(FRAMES * CHANNELS * 4).order(ByteOrder.nativeOrder());
+            for (int frame = 0; frame < FRAMES; frame++) {
+                float value = (float) Math.sin(2 * Math.PI * 1000 * (block * FRAMES + frame) / SAMPLE_RATE);
+                input.putFloat(value);
+                input.putFloat(value);
+            }
+            input.flip();
+            chain.queueInput(input);
+            ByteBuffer output = chain.getOutput();
+            if (block < 20) {
+                continue;
+            }
+            while (output.hasRemaining()) {
+                peak = Math.max(peak, Math.abs(output.getFloat()));
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * 含 16-bit 最小值的测试块
+     */
+    private static ByteBuffer pcm() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(FRAMES * CHANNELS * 2).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < FRAMES * CHANNELS; i++) {
+            buffer.putShort(i % 7 == 0 ? Short.MIN_VALUE : (short) (i * 97));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 可切换恒等状态的修改型阶段，非恒等时将样本减半
+     */
+    private static final class CountingStage extends ExoBaseAudioProcessor {
+        boolean identity = true;
+        int processCalls;
+
+        @Override
+        protected void process(float[] samples, int frameCount, int sampleRateHz, int channelCount) {
+            processCalls++;
+            if (!identity) {
+                for (int i = 0; i < frameCount * channelCount; i++) {
+                    samples[i] *= 0.5f;
+                }
+            }
+        }
+
+        @Override
+        protected boolean isIdentity() {
+            return identity;
+        }
+
+        @Override
+        protected void releaseResources() {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sss.michael.exo.processor;
+
+import androidx.media3.common.C;
+import androidx.media3.common.audio.AudioProcessor;
+
+import com.sss.michael.exo.ExoConfig;
+import com.sss.michael.exo.bean.ExoEqBand;
+import com.sss.michael.exo.constant.ExoEqFilterType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExoEqualizerProcessor 禁用 / 启用保留频段布局校验
+ */
+public class ExoEqualizerProcessorTest {
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final int CHANNELS = 2;
+    private static final int FRAMES = 1024;
+
+    @Before
+    public void setUp() {
+        ExoConfig.LOG_ENABLE = false;
+    }
+
+    @Test
+    public void disableThenEnable_restoresBandLayout() throws Exception {
+        List<ExoEqBand> bands = Arrays.asList(
+                ExoEqBand.peaking(1000, 1f, 6f),
+                ExoEqBand.notch(3000),
+                ExoEqBand.highShelf(8000, -4f));
+        ExoEqualizerProcessor equalizer = new ExoEqualizerProcessor();
+        equalizer.setBands(bands);
+        equalizer.configure(new AudioProcessor.AudioFormat(SAMPLE_RATE, CHANNELS, C.ENCODING_PCM_16BIT));
+        equalizer.flush();
+        process(equalizer);
+        assertFalse(equalizer.isIdentity());
+
+        // 禁用：频段配置原样保留，系数平滑过渡到直通后处理器为恒等变换
+        equalizer.disableEQ();
+        assertFalse(equalizer.isEqEnabled());
+        assertEquals(bands, equalizer.getBands());
+        for (int block = 0; block < 50 && !equalizer.isIdentity(); block++) {
+            process(equalizer);
+        }
+        assertTrue(equalizer.isIdentity());
+
+        // 禁用期间修改的增益在启用后生效
+        equalizer.setBandGain(0, 3f);
+        assertTrue(equalizer.isIdentity());
+
+        // 启用：恢复禁用前的布局（含陷波频段）
+        equalizer.enableEQ();
+        assertTrue(equalizer.isEqEnabled());
+        assertEquals(3, equalizer.getBandCount());
+        assertEquals(ExoEqFilterType.NOTCH, equalizer.getBands().get(1).getType());
+        assertEquals(3f, equalizer.getBands().get(0).getGainDb(), 0f);
+        assertFalse(equalizer.isIdentity());
+    }
+
+    private static void process(ExoEqualizerProcessor equalizer) {
+        ByteBuffer input = ByteBuffer.allocateDirect(FRAMES * CHANNELS * 2).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < FRAMES * CHANNELS; i++) {
+            input.putShort((short) ((i * 7919) % 16384 - 8192));
+        }
+        input.flip();
+        equalizer.queueInput(input);
+        equalizer.getOutput();
+    }
+}
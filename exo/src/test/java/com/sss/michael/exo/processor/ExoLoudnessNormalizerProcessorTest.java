@@ -0,0 +1,82 @@
+package com.sss.michael.exo.processor;
+
+import androidx.media3.common.C;
+import androidx.media3.common.audio.AudioProcessor;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExoLoudnessNormalizerProcessor 流结束时延迟线尾部输出与时长上报校验
+ */
+public class ExoLoudnessNormalizerProcessorTest {
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final int CHANNELS = 2;
+    private static final int BYTES_PER_FRAME = CHANNELS * 2;
+
+    @Test
+    public void endOfStream_drainsDelayLineTail() throws Exception {
+        ExoLoudnessNormalizerProcessor processor = configuredProcessor();
+        int delayFrames = processor.getOutputDelayFrames();
+        assertTrue(delayFrames > 0);
+
+        // 最后一帧为脉冲：延迟 delayFrames 帧后才出现在输出中
+        int inputFrames = 1000;
+        ByteBuffer input = ByteBuffer.allocateDirect(inputFrames * BYTES_PER_FRAME).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < inputFrames * CHANNELS; i++) {
+            input.putShort(i >= (inputFrames - 1) * CHANNELS ? (short) 8192 : 0);
+        }
+        input.flip();
+        processor.queueInput(input);
+        ByteBuffer output = ByteBuffer.allocate((inputFrames + delayFrames) * BYTES_PER_FRAME)
+                .order(ByteOrder.nativeOrder());
+        output.put(processor.getOutput());
+
+        processor.queueEndOfStream();
+        assertFalse(processor.isEnded());
+        output.put(processor.getOutput());
+        assertTrue(processor.isEnded());
+        assertFalse(output.hasRemaining());
+
+        output.flip();
+        int impulseFrame = -1;
+        for (int frame = 0; frame < inputFrames + delayFrames; frame++) {
+            if (output.getShort(frame * BYTES_PER_FRAME) != 0) {
+                impulseFrame = frame;
+                break;
+            }
+        }
+        assertEquals(inputFrames - 1 + delayFrames, impulseFrame);
+    }
+
+    @Test
+    public void flushAfterEndOfStream_discardsTail() throws Exception {
+        ExoLoudnessNormalizerProcessor processor = configuredProcessor();
+        processor.queueEndOfStream();
+        processor.flush();
+        assertEquals(0, processor.getOutput().remaining());
+        assertFalse(processor.isEnded());
+    }
+
+    @Test
+    public void durationAfterProcessorApplied_includesDelay() throws Exception {
+        ExoLoudnessNormalizerProcessor processor = configuredProcessor();
+        long delayUs = processor.getOutputDelayFrames() * C.MICROS_PER_SECOND / SAMPLE_RATE;
+        assertEquals(1_000_000L + delayUs, processor.getDurationAfterProcessorApplied(1_000_000L));
+        assertEquals(C.TIME_UNSET, processor.getDurationAfterProcessorApplied(C.TIME_UNSET));
+    }
+
+    private static ExoLoudnessNormalizerProcessor configuredProcessor() throws Exception {
+        ExoLoudnessNormalizerProcessor processor = new ExoLoudnessNormalizerProcessor();
+        processor.configure(new AudioProcessor.AudioFormat(SAMPLE_RATE, CHANNELS, C.ENCODING_PCM_16BIT));
+        processor.flush();
+        return processor;
+    }
+}
@@ -0,0 +1,207 @@
+package com.sss.michael.exo.processor;
+
+import com.sss.michael.exo.constant.ExoResamplerQuality;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExoPcmResampler 输出长度、分块连续性与插值精度校验
+ */
+public class ExoPcmResamplerTest {
+
+    private static final int CHANNELS = 2;
+    // 精度校验跳过首尾各 64 帧，避开静音补帧带来的边缘效应
+    private static final int EDGE_FRAMES = 64;
+
+    @Test
+    public void outputLength_matchesRateRatio() {
+        for (ExoResamplerQuality quality : ExoResamplerQuality.values()) {
+            assertEquals(quality.name(), 48000, resampleAll(44100, 48000, quality, sine(44100, 1000f, 44100)).length / CHANNELS);
+            assertEquals(quality.name(), 44100, resampleAll(48000, 44100, quality, sine(48000, 1000f, 48000)).length / CHANNELS);
+            // 非整倍数长度：输出帧数为 ceil(输入帧数 * 输出采样率 / 输入采样率)
+            assertEquals(quality.name(), 1089, resampleAll(44100, 48000, quality, sine(1000, 440f, 44100)).length / CHANNELS);
+            assertEquals(quality.name(), 919, resampleAll(48000, 44100, quality, sine(1000, 440f, 48000)).length / CHANNELS);
+        }
+    }
+
+    @Test
+    public void chunkedStreaming_matchesOneShot() {
+        Random random = new Random(11);
+        int[][] rates = {{44100, 48000}, {48000, 44100}, {16000, 48000}, {48000, 16000}};
+        for (ExoResamplerQuality quality : ExoResamplerQuality.values()) {
+            for (int[] rate : rates) {
+                float[] input = noise(rate[0] / 2, random);
+                float[] expected = resampleAll(rate[0], rate[1], quality, input);
+
+                // 随机切分输入，并与随机大小的读取交错，块边界处的相位必须与一次性转换一致
+                ExoPcmResampler resampler = new ExoPcmResampler(rate[0], rate[1], CHANNELS, quality);
+                float[] actual = new float[expected.length];
+                int inputFrames = input.length / CHANNELS;
+                int queued = 0;
+                int produced = 0;
+                float[] chunk = new float[512 * CHANNELS];
+                while (queued < inputFrames) {
+                    int frames = Math.min(inputFrames - queued, 1 + random.nextInt(300));
+                    System.arraycopy(input, queued * CHANNELS, chunk, 0, frames * CHANNELS);
+                    resampler.queueInput(chunk, frames);
+                    queued += frames;
+                    produced += readInto(resampler, actual, produced, 1 + random.nextInt(400));
+                }
+                resampler.queueEndOfStream();
+                produced += readInto(resampler, actual, produced, Integer.MAX_VALUE);
+                String message = quality + " " + rate[0] + "->" + rate[1];
+                assertEquals(message, expected.length / CHANNELS, produced);
+                assertArrayEquals(message, expected, actual, 0f);
+                assertTrue(message, resampler.isEnded());
+            }
+        }
+    }
+
+    @Test
+    public void dcInput_passesThroughUnchanged() {
+        for (ExoResamplerQuality quality : ExoResamplerQuality.values()) {
+            float[] input = new float[4800 * CHANNELS];
+            Arrays.fill(input, 0.5f);
+            float[] output = resampleAll(44100, 48000, quality, input);
+            for (int i = EDGE_FRAMES * CHANNELS; i < output.length - EDGE_FRAMES * CHANNELS; i++) {
+                assertEquals(quality + " sample " + i, 0.5f, output[i], 1e-5f);
+            }
+        }
+    }
+
+    @Test
+    public void sineInput_matchesIdealResample() {
+        float[] tolerances = {3e-3f, 2e-4f, 2e-4f};
+        ExoResamplerQuality[] qualities = ExoResamplerQuality.values();
+        for (int q = 0; q < qualities.length; q++) {
+            int[][] rates = {{44100, 48000}, {48000, 44100}};
+            for (int[] rate : rates) {
+                float[] output = resampleAll(rate[0], rate[1], qualities[q], sine(rate[0] / 4, 1000f, rate[0]));
+                float maxError = 0f;
+                for (int f = EDGE_FRAMES; f < output.length / CHANNELS - EDGE_FRAMES; f++) {
+                    float ideal = 0.5f * (float) Math.sin(2 * Math.PI * 1000.0 * f / rate[1]);
+                    maxError = Math.max(maxError, Math.abs(output[f * CHANNELS] - ideal));
+                    maxError = Math.max(maxError, Math.abs(output[f * CHANNELS + 1] + ideal));
+                }
+                assertTrue(qualities[q] + " " + rate[0] + "->" + rate[1] + " max error " + maxError,
+                        maxError < tolerances[q]);
+            }
+        }
+    }
+
+    @Test
+    public void longStream_keepsBufferBoundedAndSkipKeepsTimeline() {
+        ExoPcmResampler reading = new ExoPcmResampler(24000, 48000, CHANNELS, ExoResamplerQuality.HIGH);
+        ExoPcmResampler skipping = new ExoPcmResampler(24000, 48000, CHANNELS, ExoResamplerQuality.HIGH);
+        float[] input = noise(24000 * 10, new Random(5));
+        float[] readOutput = new float[128 * CHANNELS];
+        float[] skipOutput = new float[128 * CHANNELS];
+        int maxBuffered = 0;
+        int block = 0;
+        for (int offset = 0; offset < input.length / CHANNELS; offset += 37) {
+            int frames = Math.min(37, input.length / CHANNELS - offset);
+            float[] chunk = Arrays.copyOfRange(input, offset * CHANNELS, (offset + frames) * CHANNELS);
+            reading.queueInput(chunk, frames);
+            skipping.queueInput(chunk, frames);
+            // 交替跳过与读取：跳过只推进读位置，之后读出的样本与逐块读取的一方一致
+            int read = reading.read(readOutput, 128);
+            int produced = block++ % 2 == 0 ? skipping.skip(128) : skipping.read(skipOutput, 128);
+            assertEquals(read, produced);
+            if (block % 2 == 0) {
+                assertArrayEquals(Arrays.copyOf(readOutput, read * CHANNELS),
+                        Arrays.copyOf(skipOutput, read * CHANNELS), 0f);
+            }
+            maxBuffered = Math.max(maxBuffered, reading.getBufferedInputFrames());
+        }
+        // 已消费的输入被及时压缩，缓存只保留插值邻域与尚未输出的少量帧
+        assertTrue("buffered " + maxBuffered, maxBuffered < 128);
+    }
+
+    @Test
+    public void reset_restartsFromCleanState() {
+        float[] input = sine(2000, 440f, 16000);
+        float[] expected = resampleAll(16000, 48000, ExoResamplerQuality.MEDIUM, input);
+        ExoPcmResampler resampler = new ExoPcmResampler(16000, 48000, CHANNELS, ExoResamplerQuality.MEDIUM);
+        resampler.queueInput(noise(500, new Random(3)), 500);
+        resampler.read(new float[256 * CHANNELS], 256);
+        resampler.reset();
+        resampler.queueInput(input, input.length / CHANNELS);
+        resampler.queueEndOfStream();
+        float[] actual = new float[expected.length];
+        assertEquals(expected.length / CHANNELS, readInto(resampler, actual, 0, Integer.MAX_VALUE));
+        assertArrayEquals(expected, actual, 0f);
+    }
+
+    @Test
+    public void pcm16Output_clampsAndAdvancesPosition() {
+        ExoPcmResampler resampler = new ExoPcmResampler(48000, 48000, 1, ExoResamplerQuality.LOW);
+        resampler.queueInput(new float[]{1.5f, -1.5f, 0.5f, 0f}, 4);
+        resampler.queueEndOfStream();
+        ByteBuffer output = ByteBuffer.allocate(16).order(ByteOrder.nativeOrder());
+        output.putShort((short) 7);
+        assertEquals(4, resampler.read(output, 8));
+        assertEquals(10, output.position());
+        output.flip();
+        assertEquals(7, output.getShort());
+        assertEquals(Short.MAX_VALUE, output.getShort());
+        assertEquals(Short.MIN_VALUE, output.getShort());
+        assertEquals(16384, output.getShort());
+        assertEquals(0, output.getShort());
+    }
+
+    /**
+     * 一次性送入全部输入并读出全部输出
+     */
+    private static float[] resampleAll(int inputRate, int outputRate, ExoResamplerQuality quality, float[] input) {
+        ExoPcmResampler resampler = new ExoPcmResampler(inputRate, outputRate, CHANNELS, quality);
+        resampler.queueInput(input, input.length / CHANNELS);
+        resampler.queueEndOfStream();
+        float[] output = new float[resampler.getAvailableOutputFrames() * CHANNELS];
+        assertEquals(output.length / CHANNELS, resampler.read(output, output.length / CHANNELS));
+        return output;
+    }
+
+    /**
+     * 按最多 {@code maxFrames} 帧一次读出当前可用的输出，追加到 {@code target} 的 {@code frameOffset} 帧处
+     */
+    private static int readInto(ExoPcmResampler resampler, float[] target, int frameOffset, int maxFrames) {
+        int frames = Math.min(maxFrames, resampler.getAvailableOutputFrames());
+        if (frames <= 0) {
+            return 0;
+        }
+        float[] block = new float[frames * CHANNELS];
+        int read = resampler.read(block, frames);
+        System.arraycopy(block, 0, target, frameOffset * CHANNELS, read * CHANNELS);
+        return read;
+    }
+
+    /**
+     * 左声道为 0.5 幅度正弦，右声道为其反相
+     */
+    private static float[] sine(int frames, float frequency, int sampleRate) {
+        float[] samples = new float[frames * CHANNELS];
+        for (int f = 0; f < frames; f++) {
+            float value = 0.5f * (float) Math.sin(2 * Math.PI * frequency * f / sampleRate);
+            samples[f * CHANNELS] = value;
+            samples[f * CHANNELS + 1] = -value;
+        }
+        return samples;
+    }
+
+    private static float[] noise(int frames, Random random) {
+        float[] samples = new float[frames * CHANNELS];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = random.nextFloat() * 1.6f - 0.8f;
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,131 @@
+package com.sss.michael.exo.processor;
+
+import com.sss.michael.exo.ExoConfig;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExoSpectrumShapingTable 预计算增益与逐 bin 公式一致性、对数频带划分校验
+ */
+public class ExoSpectrumShapingTableTest {
+
+    // 整形后幅度位于 [0,1]，预计算表只改变乘法次序，误差在 float 舍入量级
+    private static final float SHAPING_TOLERANCE = 1e-6f;
+
+    @Test
+    public void shapedMagnitude_matchesPerBinFormula() {
+        Random random = new Random(13);
+        for (int binCount : new int[]{128, 1024}) {
+            ExoSpectrumShapingTable table = new ExoSpectrumShapingTable();
+            table.ensure(binCount, 48000, 0);
+            float[] gains = table.getBinGains();
+            for (int frame = 0; frame < 20; frame++) {
+                float[] mag = new float[binCount];
+                float globalMax = 1e-6f;
+                for (int i = 0; i < binCount; i++) {
+                    mag[i] = random.nextFloat();
+                    globalMax = Math.max(globalMax, mag[i]);
+                }
+                float inverseMax = 1f / globalMax;
+                for (int i = 0; i < binCount; i++) {
+                    float expected = Math.min(mag[i] / globalMax * perBinGain(i, binCount), 1f);
+                    float actual = Math.min(mag[i] * inverseMax * gains[i], 1f);
+                    assertEquals("bin " + i, expected, actual, SHAPING_TOLERANCE);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void ensure_rebuildsOnlyWhenInputsChange() {
+        ExoSpectrumShapingTable table = new ExoSpectrumShapingTable();
+        table.ensure(512, 44100, 0);
+        float[] gains = table.getBinGains();
+        float before = gains[10];
+        table.ensure(512, 44100, 0);
+        assertSame(gains, table.getBinGains());
+        assertEquals(before, table.getBinGains()[10], 0f);
+
+        float lowBase = ExoConfig.SPECTRUM_LOW_BASE;
+        try {
+            // 运行时修改调参值后，下一帧 ensure 即按新值重建
+            ExoConfig.SPECTRUM_LOW_BASE = lowBase * 2f;
+            table.ensure(512, 44100, 0);
+            assertEquals(perBinGain(10, 512), table.getBinGains()[10], SHAPING_TOLERANCE);
+            assertTrue(table.getBinGains()[10] > before);
+        } finally {
+            ExoConfig.SPECTRUM_LOW_BASE = lowBase;
+        }
+
+        table.ensure(1024, 44100, 0);
+        assertNotSame(gains, table.getBinGains());
+        assertEquals(1024, table.getOutputSize());
+    }
+
+    @Test
+    public void bandMode_coversSpectrumAndAveragesBins() {
+        ExoSpectrumShapingTable table = new ExoSpectrumShapingTable();
+        table.ensure(1024, 48000, 32);
+        assertTrue(table.isBandMode());
+        assertEquals(32, table.getOutputSize());
+
+        // 常量输入按频带取平均后仍是同一常量
+        float[] bins = new float[1024];
+        Arrays.fill(bins, 0.25f);
+        float[] bands = new float[32];
+        table.aggregateBands(bins, bands);
+        for (int k = 0; k < bands.length; k++) {
+            assertEquals("band " + k, 0.25f, bands[k], 1e-6f);
+        }
+
+        // 单调上升的输入：频带按频率递增排列，聚合结果同样单调不减，最高频带取到奈奎斯特附近
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] = i;
+        }
+        table.aggregateBands(bins, bands);
+        for (int k = 1; k < bands.length; k++) {
+            assertTrue("band " + k, bands[k] >= bands[k - 1]);
+        }
+        assertTrue(bands[bands.length - 1] > 900f);
+
+        table.ensure(1024, 48000, 0);
+        assertFalse(table.isBandMode());
+        assertEquals(1024, table.getOutputSize());
+    }
+
+    /**
+     * 重构前 calculateMagnitude 中逐 bin 计算的组合增益
+     */
+    private static float perBinGain(int i, int half) {
+        float x = i / (float) half;
+        float lowBoost = 1f;
+        if (x < ExoConfig.SPECTRUM_LOW_FREQ_END) {
+            float t = x / ExoConfig.SPECTRUM_LOW_FREQ_END;
+            lowBoost = ExoConfig.SPECTRUM_LOW_BASE
+                    + ExoConfig.SPECTRUM_LOW_STRENGTH * (1f - (1f - t) * (1f - t));
+        }
+        float highBoost = 1f;
+        if (x > ExoConfig.SPECTRUM_HIGH_FREQ_START) {
+            float t = (x - ExoConfig.SPECTRUM_HIGH_FREQ_START) / (1f - ExoConfig.SPECTRUM_HIGH_FREQ_START);
+            highBoost = 1f + ExoConfig.SPECTRUM_HIGH_STRENGTH * t * t;
+        }
+        float midBoost = 1f;
+        if (x > ExoConfig.SPECTRUM_MID_START && x < ExoConfig.SPECTRUM_MID_END) {
+            float t = (x - ExoConfig.SPECTRUM_MID_START)
+                    / (ExoConfig.SPECTRUM_MID_END - ExoConfig.SPECTRUM_MID_START);
+            float u = 2f * t - 1f;
+            midBoost = ExoConfig.SPECTRUM_MID_BASE + ExoConfig.SPECTRUM_MID_STRENGTH * (1f - u * u);
+        }
+        float spread = (float) Math.pow(x, ExoConfig.SPECTRUM_SPREAD_EXP);
+        return lowBoost * highBoost * midBoost * spread * ExoConfig.FFT_AMPLITUDE_BOOST;
+    }
+}
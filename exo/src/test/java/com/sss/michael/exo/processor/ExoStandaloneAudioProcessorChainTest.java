@@ -0,0 +1,112 @@
+package com.sss.michael.exo.processor;
+
+import androidx.media3.common.C;
+
+import com.sss.michael.exo.ExoConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExoStandaloneAudioProcessorChain 会话结束时推出限幅器尾部与浮点混音限幅校验
+ */
+public class ExoStandaloneAudioProcessorChainTest {
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final int CHANNELS = 2;
+    private static final int FRAMES = 1000;
+
+    private boolean spectrumEnable;
+    private boolean eqEnable;
+    private boolean meterEnable;
+    private boolean normalizerEnable;
+
+    @Before
+    public void setUp() {
+        spectrumEnable = ExoConfig.COMPONENT_SPECTRUM_ENABLE;
+        eqEnable = ExoConfig.COMPONENT_EQ_ENABLE;
+        meterEnable = ExoConfig.COMPONENT_LOUDNESS_METER_ENABLE;
+        normalizerEnable = ExoConfig.COMPONENT_LOUDNESS_NORMALIZER_ENABLE;
+        ExoConfig.COMPONENT_SPECTRUM_ENABLE = false;
+        ExoConfig.COMPONENT_EQ_ENABLE = true;
+        ExoConfig.COMPONENT_LOUDNESS_METER_ENABLE = false;
+        ExoConfig.COMPONENT_LOUDNESS_NORMALIZER_ENABLE = true;
+    }
+
+    @After
+    public void tearDown() {
+        ExoConfig.COMPONENT_SPECTRUM_ENABLE = spectrumEnable;
+        ExoConfig.COMPONENT_EQ_ENABLE = eqEnable;
+        ExoConfig.COMPONENT_LOUDNESS_METER_ENABLE = meterEnable;
+        ExoConfig.COMPONENT_LOUDNESS_NORMALIZER_ENABLE = normalizerEnable;
+    }
+
+    @Test
+    public void drain_emitsLimiterTail() throws Exception {
+        ExoStandaloneAudioProcessorChain chain =
+                new ExoStandaloneAudioProcessorChain(SAMPLE_RATE, CHANNELS, null);
+
+        // 最后一帧为脉冲：处理结果中只有延迟线之前的部分，脉冲留在限幅器延迟线里
+        ByteBuffer input = ByteBuffer.allocateDirect(FRAMES * CHANNELS * 2).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < FRAMES * CHANNELS; i++) {
+            input.putShort(i >= (FRAMES - 1) * CHANNELS ? (short) 8192 : 0);
+        }
+        input.flip();
+        assertEquals(0, countNonZero(chain.process(input)));
+
+        ByteBuffer tail = chain.drain();
+        assertTrue(tail.remaining() > 0);
+        assertTrue(countNonZero(tail) > 0);
+
+        // 尾部推出后延迟线只剩静音
+        chain.flush();
+        assertEquals(0, countNonZero(chain.drain()));
+    }
+
+    @Test
+    public void floatMix_isLimitedNotClipped() throws Exception {
+        ExoStandaloneAudioProcessorChain chain =
+                new ExoStandaloneAudioProcessorChain(SAMPLE_RATE, CHANNELS, C.ENCODING_PCM_FLOAT, null);
+
+        // 多路叠加后超出满幅的浮点混音，连续送入直到限幅器稳定
+        ByteBuffer input = ByteBuffer.allocateDirect(FRAMES * CHANNELS * 4).order(ByteOrder.nativeOrder());
+        float peak = 0f;
+        for (int block = 0; block < 20; block++) {
+            input.clear();
+            for (int frame = 0; frame < FRAMES; frame++) {
+                float value = 2.5f * (float) Math.sin(2 * Math.PI * 440 * (block * FRAMES + frame) / SAMPLE_RATE);
+                input.putFloat(value);
+                input.putFloat(value);
+            }
+            input.flip();
+            ByteBuffer output = chain.process(input);
+            if (block < 10) {
+                continue;
+            }
+            while (output.hasRemaining()) {
+                peak = Math.max(peak, Math.abs(output.getFloat()));
+            }
+        }
+        float ceiling = (float) Math.pow(10, ExoConfig.LOUDNESS_TRUE_PEAK_CEILING_DB / 20.0);
+        assertTrue("peak " + peak, peak <= ceiling + 1e-3f);
+        // 限幅而非在均衡器处削到 EQ_CLIPPING_THRESHOLD
+        assertTrue("peak " + peak, peak > ExoConfig.EQ_CLIPPING_THRESHOLD);
+    }
+
+    private static int countNonZero(ByteBuffer pcm16) {
+        int count = 0;
+        for (int i = pcm16.position(); i + 1 < pcm16.limit(); i += 2) {
+            if (pcm16.getShort(i) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}